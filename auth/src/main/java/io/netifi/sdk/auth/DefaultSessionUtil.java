@@ -1,12 +1,10 @@
 package io.netifi.sdk.auth;
 
+import io.netty.buffer.ByteBuf;
 import java.nio.ByteBuffer;
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
 
 /** */
 class DefaultSessionUtil extends SessionUtil {
-  private static final String ALGORITHM = "HmacSHA1";
   private static final ThreadLocal<ByteBuffer> LONG_BUFFER =
       new ThreadLocal<ByteBuffer>() {
         @Override
@@ -26,30 +24,30 @@ class DefaultSessionUtil extends SessionUtil {
 
   @Override
   public byte[] generateSessionToken(byte[] key, ByteBuffer data, long count) {
-    try {
-      byte[] steps = getStepsAsByteArray(count);
-      byte[] oneTimeKey = new byte[key.length + 8];
-
-      System.arraycopy(key, 0, oneTimeKey, 0, key.length);
-      System.arraycopy(steps, 0, oneTimeKey, key.length, steps.length);
+    HmacSha1 hmac = HmacSha1.get();
+    hmac.init(key, key.length, count);
+    return hmac.doFinal(data);
+  }
 
-      SecretKeySpec keySpec = new SecretKeySpec(oneTimeKey, ALGORITHM);
-      Mac mac = Mac.getInstance(ALGORITHM);
-      mac.init(keySpec);
-      mac.update(data);
-      return mac.doFinal();
-    } catch (Exception e) {
-      throw new RuntimeException(e);
-    }
+  @Override
+  public byte[] generateSessionToken(byte[] key, ByteBuf data, long count) {
+    HmacSha1 hmac = HmacSha1.get();
+    hmac.init(key, key.length, count);
+    return hmac.doFinal(data);
   }
 
   @Override
   public int generateRequestToken(byte[] sessionToken, ByteBuffer message, long count) {
-    byte[] bytes = generateSessionToken(sessionToken, message, count);
-    ByteBuffer byteBuffer = LONG_BUFFER.get();
-    byteBuffer.clear();
-    byteBuffer.put(bytes, 0, 4);
-    return ByteBuffer.wrap(bytes).getInt();
+    HmacSha1 hmac = HmacSha1.get();
+    hmac.init(sessionToken, sessionToken.length, count);
+    return hmac.doFinalInt(message);
+  }
+
+  @Override
+  public int generateRequestToken(byte[] sessionToken, ByteBuf message, long count) {
+    HmacSha1 hmac = HmacSha1.get();
+    hmac.init(sessionToken, sessionToken.length, count);
+    return hmac.doFinalInt(message);
   }
 
   @Override
@@ -59,6 +57,18 @@ class DefaultSessionUtil extends SessionUtil {
     return requestToken == generatedToken;
   }
 
+  @Override
+  public boolean validateMessage(
+      byte[] sessionToken, ByteBuf message, int requestToken, long count) {
+    int generatedToken = generateRequestToken(sessionToken, message, count);
+    return requestToken == generatedToken;
+  }
+
+  @Override
+  public SessionSigner signer(byte[] sessionKey) {
+    return new SessionSigner(sessionKey);
+  }
+
   byte[] getStepsAsByteArray(long count) {
     ByteBuffer byteBuffer = LONG_BUFFER.get();
     byteBuffer.clear();
@@ -0,0 +1,217 @@
+package io.netifi.sdk.auth;
+
+import io.netty.buffer.ByteBuf;
+import java.nio.ByteBuffer;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * HmacSHA1 computed directly on a per thread {@link MessageDigest}. Produces the same output as
+ * {@code Mac.getInstance("HmacSHA1")}, but without a JCA provider lookup, key spec allocation or
+ * key setup per call. Session tokens are keyed with {@code key || count}, so the padded key blocks
+ * are built here from the caller's key, or copied from blocks precomputed by {@link
+ * SessionSigner}.
+ */
+final class HmacSha1 {
+  static final int BLOCK_LENGTH = 64;
+  static final int MAC_LENGTH = 20;
+  static final int COUNT_LENGTH = 8;
+
+  private static final int INNER_PAD = 0x36;
+  private static final int OUTER_PAD = 0x5c;
+  private static final int COPY_BUFFER_LENGTH = 512;
+
+  private static final ThreadLocal<HmacSha1> INSTANCE =
+      new ThreadLocal<HmacSha1>() {
+        @Override
+        protected HmacSha1 initialValue() {
+          return new HmacSha1();
+        }
+      };
+
+  private final MessageDigest digest;
+  private final byte[] keyBlock = new byte[BLOCK_LENGTH];
+  private final byte[] innerPad = new byte[BLOCK_LENGTH];
+  private final byte[] outerPad = new byte[BLOCK_LENGTH];
+  private final byte[] innerHash = new byte[MAC_LENGTH];
+  private final byte[] intermediate = new byte[MAC_LENGTH];
+  private final byte[] result = new byte[MAC_LENGTH];
+  private byte[] copyBuffer;
+
+  private HmacSha1() {
+    try {
+      this.digest = MessageDigest.getInstance("SHA-1");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  static HmacSha1 get() {
+    return INSTANCE.get();
+  }
+
+  /** Returns true if {@code key || count} fits in one block and its pads can be precomputed. */
+  static boolean fitsInBlock(int keyLength) {
+    return keyLength + COUNT_LENGTH <= BLOCK_LENGTH;
+  }
+
+  /**
+   * Builds a padded key block for {@code key || count} with the count bytes left as zero, so it
+   * can be completed per call with {@link #initPrecomputed}.
+   */
+  static byte[] precomputePad(byte[] key, boolean inner) {
+    if (!fitsInBlock(key.length)) {
+      throw new IllegalArgumentException("key is too long to precompute: " + key.length);
+    }
+
+    int pad = inner ? INNER_PAD : OUTER_PAD;
+    byte[] block = new byte[BLOCK_LENGTH];
+    for (int i = 0; i < BLOCK_LENGTH; i++) {
+      int b = i < key.length ? key[i] : 0;
+      block[i] = (byte) (b ^ pad);
+    }
+    return block;
+  }
+
+  /** Keys the engine with {@code key || count}. */
+  void init(byte[] key, int keyLength, long count) {
+    int length = keyLength + COUNT_LENGTH;
+    if (length > BLOCK_LENGTH) {
+      digest.reset();
+      digest.update(key, 0, keyLength);
+      putLong(keyBlock, 0, count);
+      digest.update(keyBlock, 0, COUNT_LENGTH);
+      digestInto(keyBlock);
+      length = MAC_LENGTH;
+    } else {
+      System.arraycopy(key, 0, keyBlock, 0, keyLength);
+      putLong(keyBlock, keyLength, count);
+    }
+    Arrays.fill(keyBlock, length, BLOCK_LENGTH, (byte) 0);
+
+    for (int i = 0; i < BLOCK_LENGTH; i++) {
+      innerPad[i] = (byte) (keyBlock[i] ^ INNER_PAD);
+      outerPad[i] = (byte) (keyBlock[i] ^ OUTER_PAD);
+    }
+  }
+
+  /** Keys the engine from pads built by {@link #precomputePad}, patching in the count. */
+  void initPrecomputed(byte[] innerTemplate, byte[] outerTemplate, int keyLength, long count) {
+    System.arraycopy(innerTemplate, 0, innerPad, 0, BLOCK_LENGTH);
+    System.arraycopy(outerTemplate, 0, outerPad, 0, BLOCK_LENGTH);
+
+    for (int i = 0; i < COUNT_LENGTH; i++) {
+      byte b = (byte) (count >>> (56 - (i * 8)));
+      innerPad[keyLength + i] ^= b;
+      outerPad[keyLength + i] ^= b;
+    }
+  }
+
+  /** Keys the engine with the intermediate mac from the previous call and the count. */
+  void initFromIntermediate(long count) {
+    init(intermediate, MAC_LENGTH, count);
+  }
+
+  byte[] doFinal(ByteBuffer data) {
+    start();
+    update(data);
+    return finish(new byte[MAC_LENGTH]);
+  }
+
+  byte[] doFinal(ByteBuf data) {
+    start();
+    update(data);
+    return finish(new byte[MAC_LENGTH]);
+  }
+
+  /** Computes the mac into an internal buffer usable with {@link #initFromIntermediate}. */
+  void doFinalIntermediate(ByteBuffer data) {
+    start();
+    update(data);
+    finish(intermediate);
+  }
+
+  void doFinalIntermediate(ByteBuf data) {
+    start();
+    update(data);
+    finish(intermediate);
+  }
+
+  /** Computes the mac and returns its first four bytes as a big endian int. */
+  int doFinalInt(ByteBuffer data) {
+    start();
+    update(data);
+    return toInt(finish(result));
+  }
+
+  int doFinalInt(ByteBuf data) {
+    start();
+    update(data);
+    return toInt(finish(result));
+  }
+
+  private void start() {
+    digest.reset();
+    digest.update(innerPad);
+  }
+
+  private void update(ByteBuffer data) {
+    int position = data.position();
+    digest.update(data);
+    data.position(position);
+  }
+
+  private void update(ByteBuf data) {
+    int index = data.readerIndex();
+    int length = data.readableBytes();
+
+    if (data.hasArray()) {
+      digest.update(data.array(), data.arrayOffset() + index, length);
+    } else {
+      byte[] buffer = copyBuffer;
+      if (buffer == null) {
+        buffer = new byte[COPY_BUFFER_LENGTH];
+        copyBuffer = buffer;
+      }
+
+      while (length > 0) {
+        int chunk = Math.min(length, COPY_BUFFER_LENGTH);
+        data.getBytes(index, buffer, 0, chunk);
+        digest.update(buffer, 0, chunk);
+        index += chunk;
+        length -= chunk;
+      }
+    }
+  }
+
+  private byte[] finish(byte[] out) {
+    digestInto(innerHash);
+    digest.update(outerPad);
+    digest.update(innerHash);
+    digestInto(out);
+    return out;
+  }
+
+  private void digestInto(byte[] out) {
+    try {
+      digest.digest(out, 0, MAC_LENGTH);
+    } catch (DigestException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static int toInt(byte[] bytes) {
+    return ((bytes[0] & 0xff) << 24)
+        | ((bytes[1] & 0xff) << 16)
+        | ((bytes[2] & 0xff) << 8)
+        | (bytes[3] & 0xff);
+  }
+
+  private static void putLong(byte[] bytes, int offset, long value) {
+    for (int i = 0; i < COUNT_LENGTH; i++) {
+      bytes[offset + i] = (byte) (value >>> (56 - (i * 8)));
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package io.netifi.sdk.auth;
+
+import io.netty.buffer.ByteBuf;
+import java.nio.ByteBuffer;
+
+/**
+ * Signs requests for a single session key. The padded HMAC key blocks for the session key are
+ * computed once, so signing a request only hashes the payload. Instances are immutable and can be
+ * shared between threads. None of the methods change the position of the data they sign.
+ */
+public final class SessionSigner {
+  private final byte[] sessionKey;
+  private final byte[] innerPad;
+  private final byte[] outerPad;
+
+  public SessionSigner(byte[] sessionKey) {
+    this.sessionKey = sessionKey.clone();
+
+    if (HmacSha1.fitsInBlock(sessionKey.length)) {
+      this.innerPad = HmacSha1.precomputePad(sessionKey, true);
+      this.outerPad = HmacSha1.precomputePad(sessionKey, false);
+    } else {
+      this.innerPad = null;
+      this.outerPad = null;
+    }
+  }
+
+  /** Same as {@link SessionUtil#generateSessionToken(byte[], ByteBuffer, long)} for this key. */
+  public byte[] generateSessionToken(ByteBuffer data, long count) {
+    return init(count).doFinal(data);
+  }
+
+  /** Same as {@link SessionUtil#generateSessionToken(byte[], ByteBuf, long)} for this key. */
+  public byte[] generateSessionToken(ByteBuf data, long count) {
+    return init(count).doFinal(data);
+  }
+
+  /**
+   * Generates the token sent with a request: a request token keyed with the session token that
+   * this key generates for the same data and count.
+   */
+  public int generateRequestToken(ByteBuffer data, long count) {
+    HmacSha1 hmac = init(count);
+    hmac.doFinalIntermediate(data);
+    hmac.initFromIntermediate(count);
+    return hmac.doFinalInt(data);
+  }
+
+  public int generateRequestToken(ByteBuf data, long count) {
+    HmacSha1 hmac = init(count);
+    hmac.doFinalIntermediate(data);
+    hmac.initFromIntermediate(count);
+    return hmac.doFinalInt(data);
+  }
+
+  private HmacSha1 init(long count) {
+    HmacSha1 hmac = HmacSha1.get();
+    if (innerPad != null) {
+      hmac.initPrecomputed(innerPad, outerPad, sessionKey.length, count);
+    } else {
+      hmac.init(sessionKey, sessionKey.length, count);
+    }
+    return hmac;
+  }
+}
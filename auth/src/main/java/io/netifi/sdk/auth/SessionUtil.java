@@ -1,8 +1,15 @@
 package io.netifi.sdk.auth;
 
+import io.netty.buffer.ByteBuf;
 import java.nio.ByteBuffer;
 
-/** Generates a shared secret based on a string input. */
+/**
+ * Generates a shared secret based on a string input. Methods taking a {@link ByteBuffer} or {@link
+ * ByteBuf} leave its position and reader index unchanged.
+ *
+ * <p>Subclasses only have to implement the {@link ByteBuffer} methods. The {@link ByteBuf} methods
+ * call them with a view of the readable bytes, and can be overridden to avoid it.
+ */
 public abstract class SessionUtil {
   public static final SessionUtil instance() {
     return new DefaultSessionUtil();
@@ -10,10 +17,28 @@ public abstract class SessionUtil {
 
   public abstract byte[] generateSessionToken(byte[] key, ByteBuffer data, long count);
 
+  public byte[] generateSessionToken(byte[] key, ByteBuf data, long count) {
+    return generateSessionToken(key, data.nioBuffer(), count);
+  }
+
   public abstract int generateRequestToken(byte[] sessionToken, ByteBuffer message, long count);
 
+  public int generateRequestToken(byte[] sessionToken, ByteBuf message, long count) {
+    return generateRequestToken(sessionToken, message.nioBuffer(), count);
+  }
+
   public abstract boolean validateMessage(
       byte[] sessionToken, ByteBuffer message, int requestToken, long count);
 
+  public boolean validateMessage(
+      byte[] sessionToken, ByteBuf message, int requestToken, long count) {
+    return validateMessage(sessionToken, message.nioBuffer(), requestToken, count);
+  }
+
+  /** Returns a reusable signer for a session key, see {@link SessionSigner}. */
+  public SessionSigner signer(byte[] sessionKey) {
+    return new SessionSigner(sessionKey);
+  }
+
   public abstract long getThirtySecondsStepsFromEpoch();
 }
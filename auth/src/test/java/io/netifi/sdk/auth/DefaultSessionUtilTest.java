@@ -1,6 +1,10 @@
 package io.netifi.sdk.auth;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import java.nio.ByteBuffer;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -128,6 +132,113 @@ public class DefaultSessionUtilTest {
     Assert.assertFalse(valid);
   }
 
+  @Test
+  public void testMatchesJcaHmac() throws Exception {
+    byte[] message = "hello world!".getBytes();
+
+    for (int keyLength : new int[] {0, 20, 56, 57, 64, 100}) {
+      byte[] key = new byte[keyLength];
+      for (int i = 0; i < keyLength; i++) {
+        key[i] = (byte) (i * 31 + 7);
+      }
+
+      byte[] expected = jcaSessionToken(key, message, 1234);
+      byte[] actual = sessionUtil.generateSessionToken(key, ByteBuffer.wrap(message), 1234);
+      Assert.assertArrayEquals(expected, actual);
+
+      actual = sessionUtil.generateSessionToken(key, Unpooled.wrappedBuffer(message), 1234);
+      Assert.assertArrayEquals(expected, actual);
+    }
+  }
+
+  @Test
+  public void testDoesNotConsumePosition() {
+    byte[] key = "super secret password".getBytes();
+    byte[] message = "hello world!".getBytes();
+
+    ByteBuffer byteBuffer = ByteBuffer.wrap(message);
+    byteBuffer.position(2);
+    byte[] t1 = sessionUtil.generateSessionToken(key, byteBuffer, 1);
+    Assert.assertEquals(2, byteBuffer.position());
+    byte[] t2 = sessionUtil.generateSessionToken(key, byteBuffer, 1);
+    Assert.assertArrayEquals(t1, t2);
+
+    ByteBuf byteBuf = Unpooled.wrappedBuffer(message);
+    byteBuf.readerIndex(2);
+    int r1 = sessionUtil.generateRequestToken(key, byteBuf, 1);
+    Assert.assertEquals(2, byteBuf.readerIndex());
+    Assert.assertEquals(r1, sessionUtil.generateRequestToken(key, byteBuffer, 1));
+    Assert.assertTrue(sessionUtil.validateMessage(key, byteBuf, r1, 1));
+  }
+
+  @Test
+  public void testDirectByteBuf() {
+    byte[] key = "super secret password".getBytes();
+    byte[] message = new byte[2048];
+    for (int i = 0; i < message.length; i++) {
+      message[i] = (byte) i;
+    }
+
+    ByteBuf direct = Unpooled.directBuffer(message.length);
+    direct.writeBytes(message);
+
+    Assert.assertArrayEquals(
+        sessionUtil.generateSessionToken(key, ByteBuffer.wrap(message), 3),
+        sessionUtil.generateSessionToken(key, direct, 3));
+  }
+
+  @Test
+  public void testByteBufDefaultsCallByteBufferMethods() {
+    // a subclass written before the ByteBuf overloads existed
+    SessionUtil byteBufferOnly =
+        new SessionUtil() {
+          @Override
+          public byte[] generateSessionToken(byte[] key, ByteBuffer data, long count) {
+            return sessionUtil.generateSessionToken(key, data, count);
+          }
+
+          @Override
+          public int generateRequestToken(byte[] sessionToken, ByteBuffer message, long count) {
+            return sessionUtil.generateRequestToken(sessionToken, message, count);
+          }
+
+          @Override
+          public boolean validateMessage(
+              byte[] sessionToken, ByteBuffer message, int requestToken, long count) {
+            return sessionUtil.validateMessage(sessionToken, message, requestToken, count);
+          }
+
+          @Override
+          public long getThirtySecondsStepsFromEpoch() {
+            return sessionUtil.getThirtySecondsStepsFromEpoch();
+          }
+        };
+    byte[] key = "super secret password".getBytes();
+    ByteBuf message = Unpooled.wrappedBuffer("hello world!".getBytes());
+    message.readerIndex(2);
+
+    Assert.assertArrayEquals(
+        sessionUtil.generateSessionToken(key, message, 1),
+        byteBufferOnly.generateSessionToken(key, message, 1));
+    int requestToken = byteBufferOnly.generateRequestToken(key, message, 1);
+    Assert.assertEquals(sessionUtil.generateRequestToken(key, message, 1), requestToken);
+    Assert.assertTrue(byteBufferOnly.validateMessage(key, message, requestToken, 1));
+    Assert.assertEquals(2, message.readerIndex());
+    Assert.assertEquals(
+        sessionUtil.signer(key).generateRequestToken(message, 1),
+        byteBufferOnly.signer(key).generateRequestToken(message, 1));
+  }
+
+  private static byte[] jcaSessionToken(byte[] key, byte[] data, long count) throws Exception {
+    byte[] oneTimeKey = new byte[key.length + 8];
+    System.arraycopy(key, 0, oneTimeKey, 0, key.length);
+    ByteBuffer.wrap(oneTimeKey, key.length, 8).putLong(count);
+
+    Mac mac = Mac.getInstance("HmacSHA1");
+    mac.init(new SecretKeySpec(oneTimeKey, "HmacSHA1"));
+    return mac.doFinal(data);
+  }
+
   boolean deepEquals(byte[] a1, byte[] a2) {
     if (a1 == a2) return true;
     if (a1 == null || a2 == null) return false;
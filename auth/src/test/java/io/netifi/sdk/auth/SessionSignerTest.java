@@ -0,0 +1,67 @@
+package io.netifi.sdk.auth;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** */
+public class SessionSignerTest {
+  private final SessionUtil sessionUtil = SessionUtil.instance();
+
+  @Test
+  public void testMatchesSessionUtil() {
+    for (int keyLength : new int[] {20, 56, 57, 100}) {
+      byte[] key = new byte[keyLength];
+      ThreadLocalRandom.current().nextBytes(key);
+      SessionSigner signer = sessionUtil.signer(key);
+
+      for (long count = 0; count < 5; count++) {
+        byte[] data = new byte[32 + (int) count];
+        ThreadLocalRandom.current().nextBytes(data);
+
+        byte[] sessionToken = sessionUtil.generateSessionToken(key, ByteBuffer.wrap(data), count);
+        int requestToken =
+            sessionUtil.generateRequestToken(sessionToken, ByteBuffer.wrap(data), count);
+
+        Assert.assertArrayEquals(
+            sessionToken, signer.generateSessionToken(ByteBuffer.wrap(data), count));
+        Assert.assertArrayEquals(
+            sessionToken, signer.generateSessionToken(Unpooled.wrappedBuffer(data), count));
+        Assert.assertEquals(
+            requestToken, signer.generateRequestToken(ByteBuffer.wrap(data), count));
+        Assert.assertEquals(
+            requestToken, signer.generateRequestToken(Unpooled.wrappedBuffer(data), count));
+      }
+    }
+  }
+
+  @Test
+  public void testDoesNotConsumePosition() {
+    byte[] key = new byte[20];
+    ThreadLocalRandom.current().nextBytes(key);
+    SessionSigner signer = new SessionSigner(key);
+
+    ByteBuffer byteBuffer = ByteBuffer.wrap("a new request".getBytes());
+    int t1 = signer.generateRequestToken(byteBuffer, 1);
+    Assert.assertEquals(0, byteBuffer.position());
+    Assert.assertEquals(t1, signer.generateRequestToken(byteBuffer, 1));
+
+    ByteBuf byteBuf = Unpooled.wrappedBuffer("a new request".getBytes());
+    Assert.assertEquals(t1, signer.generateRequestToken(byteBuf, 1));
+    Assert.assertEquals(0, byteBuf.readerIndex());
+  }
+
+  @Test
+  public void testKeyIsCopied() {
+    byte[] key = new byte[20];
+    ThreadLocalRandom.current().nextBytes(key);
+    SessionSigner signer = new SessionSigner(key);
+    int t1 = signer.generateRequestToken(ByteBuffer.wrap("request".getBytes()), 1);
+
+    key[0]++;
+    Assert.assertEquals(t1, signer.generateRequestToken(ByteBuffer.wrap("request".getBytes()), 1));
+  }
+}
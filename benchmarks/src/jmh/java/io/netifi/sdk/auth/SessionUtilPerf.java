@@ -0,0 +1,97 @@
+package io.netifi.sdk.auth;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Token generation with {@link DefaultSessionUtil} and {@link SessionSigner}. {@code jcaHmac} is a
+ * plain {@code Mac.getInstance("HmacSHA1")} per call, which is what the session util used to do.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SessionUtilPerf {
+  @Param({"16", "1024"})
+  int dataSize;
+
+  SessionUtil sessionUtil;
+  SessionSigner signer;
+  byte[] accessToken;
+  byte[] sessionToken;
+  ByteBuffer data;
+  ByteBuf dataByteBuf;
+  long count;
+
+  @Setup
+  public void setup() {
+    sessionUtil = SessionUtil.instance();
+
+    accessToken = new byte[20];
+    ThreadLocalRandom.current().nextBytes(accessToken);
+
+    byte[] bytes = new byte[dataSize];
+    ThreadLocalRandom.current().nextBytes(bytes);
+    data = ByteBuffer.wrap(bytes);
+    dataByteBuf = Unpooled.wrappedBuffer(bytes);
+
+    count = sessionUtil.getThirtySecondsStepsFromEpoch();
+    sessionToken = sessionUtil.generateSessionToken(accessToken, data, count);
+    signer = sessionUtil.signer(sessionToken);
+  }
+
+  @Benchmark
+  public byte[] generateSessionToken() {
+    return sessionUtil.generateSessionToken(accessToken, data, count);
+  }
+
+  @Benchmark
+  public int generateRequestToken() {
+    return sessionUtil.generateRequestToken(sessionToken, data, count++);
+  }
+
+  @Benchmark
+  public int generateRequestTokenByteBuf() {
+    return sessionUtil.generateRequestToken(sessionToken, dataByteBuf, count++);
+  }
+
+  @Benchmark
+  public int signerRequestToken() {
+    return signer.generateRequestToken(data, count++);
+  }
+
+  @Benchmark
+  public int signerRequestTokenByteBuf() {
+    return signer.generateRequestToken(dataByteBuf, count++);
+  }
+
+  @Benchmark
+  public byte[] jcaHmac() throws Exception {
+    ByteBuffer key = ByteBuffer.allocate(sessionToken.length + 8);
+    key.put(sessionToken);
+    key.putLong(count++);
+
+    Mac mac = Mac.getInstance("HmacSHA1");
+    mac.init(new SecretKeySpec(key.array(), "HmacSHA1"));
+    mac.update(data.duplicate());
+    return mac.doFinal();
+  }
+}
@@ -0,0 +1,419 @@
+package io.netifi.sdk.frames;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Encode and decode cost of every frame. Encode benchmarks write into a buffer allocated once;
+ * decode benchmarks read every field of a frame encoded once in setup.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FlyweightPerf {
+  private static final String DESTINATION = "server-destination";
+  private static final String GROUP = "com.netifi.benchmark.server";
+  private static final int BATCH_SIZE = 8;
+
+  ByteBuf byteBuf;
+  ByteBuf accessToken;
+  ByteBuf publicKey;
+  ByteBuf sharedSecret;
+  ByteBuf route;
+  ByteBuf wrappedMetadata;
+  ByteBuf data;
+  byte[] sessionToken;
+  long seqId;
+
+  ByteBuf authenticationRequest;
+  ByteBuf authenticationResponse;
+  ByteBuf destinationAvailResult;
+  ByteBuf destinationSetup;
+  ByteBuf fireAndForgetBatch;
+  ByteBuf fireAndForgetBatchEntries;
+  ByteBuf logDestinationById;
+  ByteBuf logDestinationByGroup;
+  ByteBuf queryDestinationAvail;
+  ByteBuf querySetup;
+  ByteBuf requestSharedSecret;
+  ByteBuf routeDestination;
+  ByteBuf routerSetup;
+  ByteBuf routing;
+  ByteBuf sharedSecretFrame;
+
+  final RoutingDecoder routingDecoder = new RoutingDecoder();
+  final RouteDestinationDecoder routeDestinationDecoder = new RouteDestinationDecoder();
+
+  @Setup
+  public void setup() {
+    byteBuf = Unpooled.buffer(1024);
+    accessToken = randomBuffer(20);
+    publicKey = randomBuffer(32);
+    sharedSecret = randomBuffer(16);
+    wrappedMetadata = randomBuffer(64);
+    data = randomBuffer(32);
+    sessionToken = new byte[20];
+    ThreadLocalRandom.current().nextBytes(sessionToken);
+
+    int routeLength =
+        RouteDestinationFlyweight.computeLength(RouteType.STREAM_ID_ROUTE, DESTINATION, GROUP);
+    route = frame(routeLength);
+    RouteDestinationFlyweight.encodeRouteByDestination(
+        route, RouteType.STREAM_ID_ROUTE, Long.MAX_VALUE, DESTINATION, GROUP);
+    routeDestination = route;
+
+    authenticationRequest = frame(AuthenticationRequestFlyweight.computeLength());
+    AuthenticationRequestFlyweight.encode(
+        authenticationRequest, accessToken.duplicate(), Long.MAX_VALUE, 1);
+
+    authenticationResponse = frame(AuthenticationResponseFlyweight.computeLength());
+    AuthenticationResponseFlyweight.encode(
+        authenticationResponse, Long.MAX_VALUE, 1, sessionToken, 1);
+
+    destinationAvailResult = frame(DestinationAvailResult.computeLength(DESTINATION));
+    DestinationAvailResult.encode(destinationAvailResult, DESTINATION, true, 1);
+
+    destinationSetup = frame(DestinationSetupFlyweight.computeLength(true, DESTINATION, GROUP));
+    DestinationSetupFlyweight.encode(
+        destinationSetup,
+        publicKey.duplicate(),
+        accessToken.duplicate(),
+        1,
+        Long.MAX_VALUE,
+        DESTINATION,
+        GROUP);
+
+    fireAndForgetBatch = frame(FireAndForgetBatchFlyweight.computeLength(true, DESTINATION, route));
+    FireAndForgetBatchFlyweight.encode(
+        fireAndForgetBatch, true, 1234, Long.MAX_VALUE, DESTINATION, 1, route, BATCH_SIZE);
+
+    fireAndForgetBatchEntries =
+        frame(
+            BATCH_SIZE
+                * FireAndForgetBatchFlyweight.computeEntryLength(
+                    wrappedMetadata.capacity(), data.capacity()));
+    encodeEntries(fireAndForgetBatchEntries);
+
+    logDestinationById = frame(LogDestinationFlyweight.computeLength(RouteType.STREAM_ID_ROUTE));
+    LogDestinationFlyweight.encodeRouteByDestination(
+        logDestinationById, 1, RouteType.STREAM_ID_ROUTE, Long.MAX_VALUE, Long.MAX_VALUE);
+
+    logDestinationByGroup =
+        frame(LogDestinationFlyweight.computeLength(RouteType.STREAM_GROUP_ROUTE, 4));
+    LogDestinationFlyweight.encodeRouteByGroup(
+        logDestinationByGroup, 1, RouteType.STREAM_GROUP_ROUTE, Long.MAX_VALUE, 1, 2, 3, 4);
+
+    queryDestinationAvail = frame(QueryDestinationAvailFlyweight.computeLength(true));
+    QueryDestinationAvailFlyweight.encode(
+        queryDestinationAvail, true, 1234, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, 1);
+
+    querySetup = frame(QuerySetupFlyweight.computeLength());
+    QuerySetupFlyweight.encode(querySetup, accessToken.duplicate(), Long.MAX_VALUE, 1);
+
+    requestSharedSecret = frame(RequestSharedSecretFlyweight.computeLength());
+    RequestSharedSecretFlyweight.encode(requestSharedSecret, 1234, publicKey.duplicate(), 1);
+
+    routerSetup = frame(RouterSetupFlyweight.computeLength(accessToken.capacity()));
+    RouterSetupFlyweight.encode(routerSetup, 1, 2, accessToken.duplicate(), 1);
+
+    routing = frame(RoutingFlyweight.computeLength(true, DESTINATION, route, wrappedMetadata));
+    RoutingFlyweight.encode(
+        routing,
+        true,
+        1234,
+        Long.MAX_VALUE,
+        DESTINATION,
+        1,
+        route.duplicate(),
+        wrappedMetadata.duplicate());
+
+    sharedSecretFrame = frame(SharedSecretFlyweight.computeLength());
+    SharedSecretFlyweight.encode(
+        sharedSecretFrame, 1234, publicKey.duplicate(), sharedSecret.duplicate(), 1);
+  }
+
+  private static ByteBuf randomBuffer(int length) {
+    byte[] bytes = new byte[length];
+    ThreadLocalRandom.current().nextBytes(bytes);
+    return Unpooled.wrappedBuffer(bytes);
+  }
+
+  private static ByteBuf frame(int length) {
+    return Unpooled.wrappedBuffer(new byte[length]);
+  }
+
+  private int encodeEntries(ByteBuf byteBuf) {
+    int offset = 0;
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      offset = FireAndForgetBatchFlyweight.encodeEntry(byteBuf, offset, wrappedMetadata, data);
+    }
+    return offset;
+  }
+
+  // setBytes(int, ByteBuf) consumes the source buffer, so every encode rewinds its inputs
+  private static ByteBuf rewind(ByteBuf byteBuf) {
+    return byteBuf.readerIndex(0);
+  }
+
+  @Benchmark
+  public int frameHeaderEncode() {
+    return FrameHeaderFlyweight.encodeFrameHeader(byteBuf, FrameType.ROUTE, 0, seqId++);
+  }
+
+  @Benchmark
+  public void frameHeaderDecode(Blackhole bh) {
+    bh.consume(FrameHeaderFlyweight.frameType(routing));
+    bh.consume(FrameHeaderFlyweight.flags(routing));
+    bh.consume(FrameHeaderFlyweight.majorVersion(routing));
+    bh.consume(FrameHeaderFlyweight.minorVersion(routing));
+    bh.consume(FrameHeaderFlyweight.seqId(routing));
+  }
+
+  @Benchmark
+  public int authenticationRequestEncode() {
+    return AuthenticationRequestFlyweight.encode(
+        byteBuf, rewind(accessToken), Long.MAX_VALUE, seqId++);
+  }
+
+  @Benchmark
+  public void authenticationRequestDecode(Blackhole bh) {
+    bh.consume(AuthenticationRequestFlyweight.accessToken(authenticationRequest));
+    bh.consume(AuthenticationRequestFlyweight.accessKey(authenticationRequest));
+  }
+
+  @Benchmark
+  public int authenticationResponseEncode() {
+    return AuthenticationResponseFlyweight.encode(
+        byteBuf, Long.MAX_VALUE, 1, sessionToken, seqId++);
+  }
+
+  @Benchmark
+  public void authenticationResponseDecode(Blackhole bh) {
+    bh.consume(AuthenticationResponseFlyweight.accountId(authenticationResponse));
+    bh.consume(AuthenticationResponseFlyweight.count(authenticationResponse));
+    bh.consume(AuthenticationResponseFlyweight.sessionToken(authenticationResponse));
+    bh.consume(AuthenticationResponseFlyweight.seqId(authenticationResponse));
+  }
+
+  @Benchmark
+  public int destinationAvailResultEncode() {
+    return DestinationAvailResult.encode(byteBuf, DESTINATION, true, seqId++);
+  }
+
+  @Benchmark
+  public void destinationAvailResultDecode(Blackhole bh) {
+    bh.consume(DestinationAvailResult.destination(destinationAvailResult));
+    bh.consume(DestinationAvailResult.found(destinationAvailResult));
+  }
+
+  @Benchmark
+  public int destinationSetupEncode() {
+    return DestinationSetupFlyweight.encode(
+        byteBuf,
+        rewind(publicKey),
+        rewind(accessToken),
+        seqId++,
+        Long.MAX_VALUE,
+        DESTINATION,
+        GROUP);
+  }
+
+  @Benchmark
+  public void destinationSetupDecode(Blackhole bh) {
+    bh.consume(DestinationSetupFlyweight.publicKey(destinationSetup));
+    bh.consume(DestinationSetupFlyweight.accessToken(destinationSetup));
+    bh.consume(DestinationSetupFlyweight.accessKey(destinationSetup));
+    bh.consume(DestinationSetupFlyweight.destination(destinationSetup));
+    bh.consume(DestinationSetupFlyweight.group(destinationSetup));
+  }
+
+  @Benchmark
+  public int fireAndForgetBatchEncode() {
+    return FireAndForgetBatchFlyweight.encode(
+        byteBuf, true, 1234, Long.MAX_VALUE, DESTINATION, seqId++, route, BATCH_SIZE);
+  }
+
+  @Benchmark
+  public void fireAndForgetBatchDecode(Blackhole bh) {
+    bh.consume(FireAndForgetBatchFlyweight.token(fireAndForgetBatch));
+    bh.consume(FireAndForgetBatchFlyweight.accessKey(fireAndForgetBatch));
+    bh.consume(FireAndForgetBatchFlyweight.destination(fireAndForgetBatch));
+    bh.consume(FireAndForgetBatchFlyweight.route(fireAndForgetBatch));
+    bh.consume(FireAndForgetBatchFlyweight.count(fireAndForgetBatch));
+  }
+
+  @Benchmark
+  public int fireAndForgetBatchEntriesEncode() {
+    return encodeEntries(byteBuf);
+  }
+
+  @Benchmark
+  public void fireAndForgetBatchEntriesDecode(Blackhole bh) {
+    int offset = 0;
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      bh.consume(FireAndForgetBatchFlyweight.entryMetadata(fireAndForgetBatchEntries, offset));
+      bh.consume(FireAndForgetBatchFlyweight.entryData(fireAndForgetBatchEntries, offset));
+      offset = FireAndForgetBatchFlyweight.nextEntry(fireAndForgetBatchEntries, offset);
+    }
+  }
+
+  @Benchmark
+  public int logDestinationByIdEncode() {
+    return LogDestinationFlyweight.encodeRouteByDestination(
+        byteBuf, seqId++, RouteType.STREAM_ID_ROUTE, Long.MAX_VALUE, Long.MAX_VALUE);
+  }
+
+  @Benchmark
+  public void logDestinationByIdDecode(Blackhole bh) {
+    bh.consume(LogDestinationFlyweight.seqId(logDestinationById));
+    bh.consume(LogDestinationFlyweight.routeType(logDestinationById));
+    bh.consume(LogDestinationFlyweight.accountId(logDestinationById));
+    bh.consume(LogDestinationFlyweight.destinationId(logDestinationById));
+  }
+
+  @Benchmark
+  public int logDestinationByGroupEncode() {
+    return LogDestinationFlyweight.encodeRouteByGroup(
+        byteBuf, seqId++, RouteType.STREAM_GROUP_ROUTE, Long.MAX_VALUE, 1, 2, 3, 4);
+  }
+
+  @Benchmark
+  public void logDestinationByGroupDecode(Blackhole bh) {
+    bh.consume(LogDestinationFlyweight.seqId(logDestinationByGroup));
+    bh.consume(LogDestinationFlyweight.routeType(logDestinationByGroup));
+    bh.consume(LogDestinationFlyweight.accountId(logDestinationByGroup));
+    bh.consume(LogDestinationFlyweight.groupIds(logDestinationByGroup));
+  }
+
+  @Benchmark
+  public int queryDestinationAvailEncode() {
+    return QueryDestinationAvailFlyweight.encode(
+        byteBuf, true, 1234, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, seqId++);
+  }
+
+  @Benchmark
+  public void queryDestinationAvailDecode(Blackhole bh) {
+    bh.consume(QueryDestinationAvailFlyweight.token(queryDestinationAvail));
+    bh.consume(QueryDestinationAvailFlyweight.accessKey(queryDestinationAvail));
+    bh.consume(QueryDestinationAvailFlyweight.accountId(queryDestinationAvail));
+    bh.consume(QueryDestinationAvailFlyweight.destinationId(queryDestinationAvail));
+  }
+
+  @Benchmark
+  public int querySetupEncode() {
+    return QuerySetupFlyweight.encode(byteBuf, rewind(accessToken), Long.MAX_VALUE, seqId++);
+  }
+
+  @Benchmark
+  public void querySetupDecode(Blackhole bh) {
+    bh.consume(QuerySetupFlyweight.accessToken(querySetup));
+    bh.consume(QuerySetupFlyweight.accessKey(querySetup));
+  }
+
+  @Benchmark
+  public int requestSharedSecretEncode() {
+    return RequestSharedSecretFlyweight.encode(byteBuf, 1234, rewind(publicKey), seqId++);
+  }
+
+  @Benchmark
+  public void requestSharedSecretDecode(Blackhole bh) {
+    bh.consume(RequestSharedSecretFlyweight.token(requestSharedSecret));
+    bh.consume(RequestSharedSecretFlyweight.publicKey(requestSharedSecret));
+  }
+
+  @Benchmark
+  public int routeDestinationEncode() {
+    return RouteDestinationFlyweight.encodeRouteByDestination(
+        byteBuf, RouteType.STREAM_ID_ROUTE, Long.MAX_VALUE, DESTINATION, GROUP);
+  }
+
+  @Benchmark
+  public void routeDestinationDecode(Blackhole bh) {
+    bh.consume(RouteDestinationFlyweight.routeType(routeDestination));
+    bh.consume(RouteDestinationFlyweight.accountId(routeDestination));
+    bh.consume(RouteDestinationFlyweight.destination(routeDestination));
+    bh.consume(RouteDestinationFlyweight.group(routeDestination));
+  }
+
+  @Benchmark
+  public int routerSetupEncode() {
+    return RouterSetupFlyweight.encode(byteBuf, 1, 2, rewind(accessToken), seqId++);
+  }
+
+  @Benchmark
+  public void routerSetupDecode(Blackhole bh) {
+    bh.consume(RouterSetupFlyweight.clusterId(routerSetup));
+    bh.consume(RouterSetupFlyweight.routerId(routerSetup));
+    bh.consume(RouterSetupFlyweight.authToken(routerSetup));
+  }
+
+  @Benchmark
+  public int routingEncode() {
+    return RoutingFlyweight.encode(
+        byteBuf,
+        true,
+        1234,
+        Long.MAX_VALUE,
+        DESTINATION,
+        seqId++,
+        rewind(route),
+        rewind(wrappedMetadata));
+  }
+
+  @Benchmark
+  public void routingDecode(Blackhole bh) {
+    bh.consume(RoutingFlyweight.token(routing));
+    bh.consume(RoutingFlyweight.accessKey(routing));
+    bh.consume(RoutingFlyweight.destination(routing));
+    bh.consume(RoutingFlyweight.route(routing));
+    bh.consume(RoutingFlyweight.wrappedMetadata(routing));
+  }
+
+  @Benchmark
+  public void routingDecoderDecode(Blackhole bh) {
+    RoutingDecoder decoder = routingDecoder.wrap(routing);
+    bh.consume(decoder.token());
+    bh.consume(decoder.accessKey());
+    bh.consume(decoder.destination());
+    bh.consume(decoder.route());
+    bh.consume(decoder.wrappedMetadata());
+  }
+
+  @Benchmark
+  public void routeDestinationDecoderDecode(Blackhole bh) {
+    RouteDestinationDecoder decoder = routeDestinationDecoder.wrap(routeDestination);
+    bh.consume(decoder.routeType());
+    bh.consume(decoder.accountId());
+    bh.consume(decoder.destination());
+    bh.consume(decoder.group());
+  }
+
+  @Benchmark
+  public int sharedSecretEncode() {
+    return SharedSecretFlyweight.encode(
+        byteBuf, 1234, rewind(publicKey), rewind(sharedSecret), seqId++);
+  }
+
+  @Benchmark
+  public void sharedSecretDecode(Blackhole bh) {
+    bh.consume(SharedSecretFlyweight.token(sharedSecretFrame));
+    bh.consume(SharedSecretFlyweight.publicKey(sharedSecretFrame));
+    bh.consume(SharedSecretFlyweight.sharedSecret(sharedSecretFrame));
+  }
+}
@@ -0,0 +1,94 @@
+package io.netifi.sdk.frames;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares encoding a ROUTE frame with {@link RoutingFlyweight} against a pre-encoded header, and
+ * against a frame whose origin and route are acknowledged {@link RouteDictionaryEncoder} entries.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RoutingFlyweightPerf {
+  @Param({"16", "256"})
+  int metadataSize;
+
+  String fromDestination;
+  ByteBuf route;
+  ByteBuf wrappedMetadata;
+  ByteBuf byteBuf;
+  RoutingHeaderTemplate template;
+  RouteDictionaryEncoder dictionary;
+  byte[] fromDestinationBytes;
+  byte[] routeBytes;
+  long seqId;
+
+  @Setup
+  public void setup() {
+    fromDestination = "client-destination-" + ThreadLocalRandom.current().nextInt(1000);
+
+    String toDestination = "server-destination";
+    String group = "com.netifi.benchmark.server";
+    int routeLength =
+        RouteDestinationFlyweight.computeLength(RouteType.STREAM_ID_ROUTE, toDestination, group);
+    route = Unpooled.wrappedBuffer(new byte[routeLength]);
+    RouteDestinationFlyweight.encodeRouteByDestination(
+        route, RouteType.STREAM_ID_ROUTE, Long.MAX_VALUE, toDestination, group);
+
+    byte[] metadata = new byte[metadataSize];
+    ThreadLocalRandom.current().nextBytes(metadata);
+    wrappedMetadata = Unpooled.wrappedBuffer(metadata);
+
+    template = new RoutingHeaderTemplate(true, Long.MAX_VALUE, fromDestination, route);
+    byteBuf = Unpooled.wrappedBuffer(new byte[template.computeLength(wrappedMetadata)]);
+
+    fromDestinationBytes = fromDestination.getBytes();
+    routeBytes = new byte[routeLength];
+    route.getBytes(0, routeBytes);
+    dictionary = new RouteDictionaryEncoder();
+    dictionary.entry(fromDestinationBytes);
+    dictionary.entry(routeBytes);
+    dictionary.acknowledge(fromDestinationBytes);
+    dictionary.acknowledge(routeBytes);
+  }
+
+  @Benchmark
+  public int routingFlyweight() {
+    RoutingFlyweight.computeLength(true, fromDestination, route, wrappedMetadata);
+    return RoutingFlyweight.encode(
+        byteBuf, true, 1234, Long.MAX_VALUE, fromDestination, seqId++, route, wrappedMetadata);
+  }
+
+  @Benchmark
+  public int routingHeaderTemplate() {
+    template.computeLength(wrappedMetadata);
+    return template.encode(byteBuf, 1234, seqId++, wrappedMetadata);
+  }
+
+  @Benchmark
+  public int routeDictionary() {
+    RouteDictionaryEntry origin = dictionary.entry(fromDestinationBytes);
+    RouteDictionaryEntry routeEntry = dictionary.entry(routeBytes);
+
+    RoutingFlyweight.computeLength(true, origin, routeEntry, wrappedMetadata);
+    return RoutingFlyweight.encode(
+        byteBuf, true, 1234, Long.MAX_VALUE, origin, seqId++, routeEntry, wrappedMetadata);
+  }
+}
@@ -0,0 +1,73 @@
+package io.netifi.sdk.metrics;
+
+import io.netifi.sdk.frames.FrameType;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of recording into {@link HdrHistogramNetifiMetrics} compared with {@link
+ * NetifiMetrics#NOOP}, from 1 and 4 threads. {@code gc.alloc.rate.norm} should be 0 for every
+ * benchmark.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NetifiMetricsPerf {
+  @Param({"noop", "hdrhistogram"})
+  String metricsType;
+
+  NetifiMetrics metrics;
+
+  @Setup
+  public void setup() {
+    metrics = "noop".equals(metricsType) ? NetifiMetrics.NOOP : new HdrHistogramNetifiMetrics();
+  }
+
+  private static long latency() {
+    return System.nanoTime() & 0xFFFF;
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void recordInteraction1Thread() {
+    metrics.recordInteraction(InteractionType.REQUEST_RESPONSE, latency(), false);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void recordInteraction4Threads() {
+    metrics.recordInteraction(InteractionType.REQUEST_RESPONSE, latency(), false);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void recordHandler1Thread() {
+    metrics.recordHandler(1, 2, InteractionType.REQUEST_RESPONSE, latency(), false);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void recordHandler4Threads() {
+    metrics.recordHandler(1, 2, InteractionType.REQUEST_RESPONSE, latency(), false);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void recordFrame1Thread() {
+    metrics.recordFrame(FrameType.ROUTE, 128);
+  }
+}
@@ -0,0 +1,173 @@
+package io.netifi.sdk.rs;
+
+import io.netifi.sdk.frames.DestinationSetupFlyweight;
+import io.netifi.sdk.testing.InProcessRouter;
+import io.netifi.sdk.util.TimebasedIdGenerator;
+import io.netty.buffer.Unpooled;
+import io.rsocket.AbstractRSocket;
+import io.rsocket.Closeable;
+import io.rsocket.Payload;
+import io.rsocket.RSocket;
+import io.rsocket.RSocketFactory;
+import io.rsocket.transport.local.LocalClientTransport;
+import io.rsocket.transport.local.LocalServerTransport;
+import io.rsocket.util.PayloadImpl;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+
+/**
+ * Fire-and-forget to every member of a group through {@link InProcessRouter}. {@code broadcast}
+ * sends one request with a {@link BroadcastNetifiSocket} and lets the router fan it out, {@code
+ * unicastLoop} sends one request per member with a {@link DefaultNetifiSocket} each, which is what
+ * callers had to do before.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BroadcastPerf {
+  @Param({"1", "8", "32"})
+  int members;
+
+  volatile boolean running;
+  byte[] data;
+  byte[] metadata;
+  byte[] accessToken;
+
+  Closeable router;
+  RSocket[] memberRSockets;
+  ReconnectingRSocket reconnecting;
+  BroadcastNetifiSocket broadcast;
+  DefaultNetifiSocket[] unicast;
+
+  @Setup
+  public void setup() {
+    data = new byte[128];
+    metadata = new byte[16];
+    accessToken = new byte[20];
+    ThreadLocalRandom.current().nextBytes(data);
+    ThreadLocalRandom.current().nextBytes(metadata);
+    ThreadLocalRandom.current().nextBytes(accessToken);
+
+    String name = "broadcast-perf-" + ThreadLocalRandom.current().nextLong();
+    InProcessRouter inProcessRouter = new InProcessRouter();
+    router =
+        RSocketFactory.receive()
+            .acceptor(inProcessRouter)
+            .transport(LocalServerTransport.create(name))
+            .start()
+            .block();
+
+    memberRSockets = new RSocket[members];
+    for (int i = 0; i < members; i++) {
+      memberRSockets[i] =
+          RSocketFactory.connect()
+              .setupPayload(new PayloadImpl(new byte[0], setupMetadata("member-" + i, "group")))
+              .acceptor(rSocket -> MetadataUnwrappingRSocket.wrap(new DiscardingRSocket()))
+              .transport(LocalClientTransport.create(name))
+              .start()
+              .block();
+    }
+    while (inProcessRouter.members("group") < members) {
+      Thread.yield();
+    }
+
+    running = true;
+    reconnecting =
+        new ReconnectingRSocket(
+            null,
+            () -> new PayloadImpl(new byte[0], setupMetadata("sender", "senders")),
+            () -> running,
+            () -> LocalClientTransport.create(name),
+            false,
+            0,
+            0,
+            0,
+            Long.MAX_VALUE,
+            accessToken);
+    reconnecting.getSession().block();
+
+    TimebasedIdGenerator generator = new TimebasedIdGenerator(1);
+    broadcast =
+        new BroadcastNetifiSocket(
+            reconnecting, Long.MAX_VALUE, Long.MAX_VALUE, "sender", "group", generator);
+
+    unicast = new DefaultNetifiSocket[members];
+    for (int i = 0; i < members; i++) {
+      unicast[i] =
+          new DefaultNetifiSocket(
+              reconnecting,
+              Long.MAX_VALUE,
+              Long.MAX_VALUE,
+              "sender",
+              "member-" + i,
+              "group",
+              accessToken,
+              false,
+              generator);
+    }
+  }
+
+  private byte[] setupMetadata(String destination, String group) {
+    byte[] setup = new byte[DestinationSetupFlyweight.computeLength(false, destination, group)];
+    DestinationSetupFlyweight.encode(
+        Unpooled.wrappedBuffer(setup),
+        Unpooled.EMPTY_BUFFER,
+        Unpooled.wrappedBuffer(accessToken),
+        0,
+        Long.MAX_VALUE,
+        destination,
+        group);
+    return setup;
+  }
+
+  @TearDown
+  public void tearDown() {
+    running = false;
+    broadcast.close().block();
+    for (DefaultNetifiSocket socket : unicast) {
+      socket.close().block();
+    }
+    reconnecting.close().block();
+    for (RSocket member : memberRSockets) {
+      member.close().block();
+    }
+    router.close().block();
+  }
+
+  @Benchmark
+  public Object broadcast() {
+    return broadcast.fireAndForget(new PayloadImpl(data, metadata)).block();
+  }
+
+  @Benchmark
+  public Object unicastLoop() {
+    for (DefaultNetifiSocket socket : unicast) {
+      socket.fireAndForget(new PayloadImpl(data, metadata)).block();
+    }
+    return null;
+  }
+
+  static class DiscardingRSocket extends AbstractRSocket {
+    @Override
+    public Mono<Void> fireAndForget(Payload payload) {
+      payload.getMetadata();
+      return Mono.empty();
+    }
+  }
+}
@@ -0,0 +1,214 @@
+package io.netifi.sdk.rs;
+
+import io.netifi.sdk.util.TimebasedIdGenerator;
+import io.rsocket.AbstractRSocket;
+import io.rsocket.Closeable;
+import io.rsocket.Payload;
+import io.rsocket.RSocket;
+import io.rsocket.RSocketFactory;
+import io.rsocket.transport.local.LocalClientTransport;
+import io.rsocket.transport.local.LocalServerTransport;
+import io.rsocket.util.PayloadImpl;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Round trips for all five interaction models over {@code rsocket-transport-local}. The {@code
+ * netifi} benchmarks go through {@link DefaultNetifiSocket} to a server that unwraps the ROUTE
+ * frame with {@link MetadataUnwrappingRSocket}. The {@code raw} benchmarks send the same payloads
+ * on a plain RSocket, so the difference between the two is the SDK overhead.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DefaultNetifiSocketPerf {
+  private static final int STREAM_SIZE = 10;
+
+  @Param({"16", "1024"})
+  int payloadSize;
+
+  volatile boolean running;
+  byte[] data;
+  byte[] metadata;
+
+  Closeable rawServer;
+  Closeable netifiServer;
+  RSocket raw;
+  ReconnectingRSocket reconnecting;
+  DefaultNetifiSocket netifi;
+
+  @Setup
+  public void setup() {
+    data = new byte[payloadSize];
+    metadata = new byte[16];
+    ThreadLocalRandom.current().nextBytes(data);
+    ThreadLocalRandom.current().nextBytes(metadata);
+
+    String name = "default-netifi-socket-perf-" + ThreadLocalRandom.current().nextLong();
+    rawServer = startServer(name + "-raw", new FixedResponseRSocket());
+    netifiServer = startServer(name, MetadataUnwrappingRSocket.wrap(new FixedResponseRSocket()));
+
+    raw =
+        RSocketFactory.connect()
+            .transport(LocalClientTransport.create(name + "-raw"))
+            .start()
+            .block();
+
+    byte[] accessToken = new byte[20];
+    ThreadLocalRandom.current().nextBytes(accessToken);
+
+    running = true;
+    reconnecting =
+        new ReconnectingRSocket(
+            null,
+            () -> new PayloadImpl(new byte[0], new byte[0]),
+            () -> running,
+            () -> LocalClientTransport.create(name),
+            false,
+            0,
+            0,
+            0,
+            Long.MAX_VALUE,
+            accessToken);
+    reconnecting.getSession().block();
+
+    netifi =
+        new DefaultNetifiSocket(
+            reconnecting,
+            Long.MAX_VALUE,
+            Long.MAX_VALUE,
+            "client-destination",
+            "server-destination",
+            "com.netifi.benchmark.server",
+            accessToken,
+            false,
+            new TimebasedIdGenerator(1));
+  }
+
+  private static Closeable startServer(String name, RSocket handler) {
+    return RSocketFactory.receive()
+        .acceptor((setup, sendingSocket) -> Mono.just(handler))
+        .transport(LocalServerTransport.create(name))
+        .start()
+        .block();
+  }
+
+  @TearDown
+  public void tearDown() {
+    running = false;
+    netifi.close().block();
+    reconnecting.close().block();
+    raw.close().block();
+    rawServer.close().block();
+    netifiServer.close().block();
+  }
+
+  private Payload payload() {
+    return new PayloadImpl(data, metadata);
+  }
+
+  @Benchmark
+  public Object rawFireAndForget() {
+    return raw.fireAndForget(payload()).block();
+  }
+
+  @Benchmark
+  public Object netifiFireAndForget() {
+    return netifi.fireAndForget(payload()).block();
+  }
+
+  @Benchmark
+  public Payload rawRequestResponse() {
+    return raw.requestResponse(payload()).block();
+  }
+
+  @Benchmark
+  public Payload netifiRequestResponse() {
+    return netifi.requestResponse(payload()).block();
+  }
+
+  @Benchmark
+  public Payload rawRequestStream() {
+    return raw.requestStream(payload()).blockLast();
+  }
+
+  @Benchmark
+  public Payload netifiRequestStream() {
+    return netifi.requestStream(payload()).blockLast();
+  }
+
+  @Benchmark
+  public Payload rawRequestChannel() {
+    return raw.requestChannel(Flux.range(0, STREAM_SIZE).map(i -> payload())).blockLast();
+  }
+
+  @Benchmark
+  public Payload netifiRequestChannel() {
+    return netifi.requestChannel(Flux.range(0, STREAM_SIZE).map(i -> payload())).blockLast();
+  }
+
+  @Benchmark
+  public Object rawMetadataPush() {
+    return raw.metadataPush(payload()).block();
+  }
+
+  @Benchmark
+  public Object netifiMetadataPush() {
+    return netifi.metadataPush(payload()).block();
+  }
+
+  /** Reads the (unwrapped) metadata of every request and answers with a fixed payload. */
+  static class FixedResponseRSocket extends AbstractRSocket {
+    private final Payload response = new PayloadImpl(new byte[16], new byte[16]);
+
+    private Payload respond(Payload payload) {
+      payload.getMetadata();
+      return new PayloadImpl(response.getData(), response.getMetadata());
+    }
+
+    @Override
+    public Mono<Void> fireAndForget(Payload payload) {
+      payload.getMetadata();
+      return Mono.empty();
+    }
+
+    @Override
+    public Mono<Payload> requestResponse(Payload payload) {
+      return Mono.just(respond(payload));
+    }
+
+    @Override
+    public Flux<Payload> requestStream(Payload payload) {
+      return Flux.range(0, STREAM_SIZE).map(i -> respond(payload));
+    }
+
+    @Override
+    public Flux<Payload> requestChannel(Publisher<Payload> payloads) {
+      return Flux.from(payloads).map(this::respond);
+    }
+
+    @Override
+    public Mono<Void> metadataPush(Payload payload) {
+      payload.getMetadata();
+      return Mono.empty();
+    }
+  }
+}
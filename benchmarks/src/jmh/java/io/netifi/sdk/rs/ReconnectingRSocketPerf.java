@@ -0,0 +1,127 @@
+package io.netifi.sdk.rs;
+
+import io.rsocket.AbstractRSocket;
+import io.rsocket.Closeable;
+import io.rsocket.Payload;
+import io.rsocket.RSocket;
+import io.rsocket.RSocketFactory;
+import io.rsocket.transport.local.LocalClientTransport;
+import io.rsocket.transport.local.LocalServerTransport;
+import io.rsocket.util.PayloadImpl;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+
+/**
+ * Per call overhead of {@link ReconnectingRSocket} over {@code rsocket-transport-local}. {@code
+ * raw} calls the connected RSocket directly, {@code reconnecting} goes through the fast path used
+ * while connected, and {@code deferred} goes through the {@code MonoProcessor} lookup that every
+ * call used before the fast path existed.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReconnectingRSocketPerf {
+  private static final byte[] DATA = "hello".getBytes();
+  private static final byte[] METADATA = new byte[16];
+
+  volatile boolean running;
+  Closeable server;
+  RSocket raw;
+  ReconnectingRSocket reconnecting;
+
+  @Setup
+  public void setup() {
+    String name = "reconnecting-rsocket-perf-" + ThreadLocalRandom.current().nextLong();
+    server =
+        RSocketFactory.receive()
+            .acceptor(
+                (setup, sendingSocket) ->
+                    Mono.just(
+                        new AbstractRSocket() {
+                          @Override
+                          public Mono<Payload> requestResponse(Payload payload) {
+                            return Mono.just(payload);
+                          }
+
+                          @Override
+                          public Mono<Void> fireAndForget(Payload payload) {
+                            return Mono.empty();
+                          }
+                        }))
+            .transport(LocalServerTransport.create(name))
+            .start()
+            .block();
+
+    raw = RSocketFactory.connect().transport(LocalClientTransport.create(name)).start().block();
+
+    running = true;
+    reconnecting =
+        new ReconnectingRSocket(
+            null,
+            () -> new PayloadImpl(DATA, METADATA),
+            () -> running,
+            () -> LocalClientTransport.create(name),
+            false,
+            0,
+            0,
+            0,
+            Long.MAX_VALUE,
+            new byte[20]);
+    reconnecting.getSession().block();
+  }
+
+  @TearDown
+  public void tearDown() {
+    running = false;
+    reconnecting.close().block();
+    raw.close().block();
+    server.close().block();
+  }
+
+  @Benchmark
+  public Payload rawRequestResponse() {
+    return raw.requestResponse(new PayloadImpl(DATA, METADATA)).block();
+  }
+
+  @Benchmark
+  public Payload reconnectingRequestResponse() {
+    return reconnecting.requestResponse(new PayloadImpl(DATA, METADATA)).block();
+  }
+
+  @Benchmark
+  public Payload deferredRequestResponse() {
+    Payload payload = new PayloadImpl(DATA, METADATA);
+    return reconnecting.getRSocket().flatMap(rSocket -> rSocket.requestResponse(payload)).block();
+  }
+
+  @Benchmark
+  public Object rawFireAndForget() {
+    return raw.fireAndForget(new PayloadImpl(DATA, METADATA)).subscribe();
+  }
+
+  @Benchmark
+  public Object reconnectingFireAndForget() {
+    return reconnecting.fireAndForget(new PayloadImpl(DATA, METADATA)).subscribe();
+  }
+
+  @Benchmark
+  public Object deferredFireAndForget() {
+    Payload payload = new PayloadImpl(DATA, METADATA);
+    return reconnecting.getRSocket().flatMap(rSocket -> rSocket.fireAndForget(payload)).subscribe();
+  }
+}
@@ -0,0 +1,64 @@
+package io.netifi.sdk.util;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link IdGenerator#nextId()} with one generator shared by 1, 2, 4 and as many threads as there
+ * are cores.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdGeneratorPerf {
+  @Param({"timebased", "striped"})
+  String generatorType;
+
+  IdGenerator generator;
+
+  @Setup
+  public void setup() {
+    generator =
+        "striped".equals(generatorType)
+            ? new StripedIdGenerator(1234)
+            : new TimebasedIdGenerator(1234);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public long nextId1Thread() {
+    return generator.nextId();
+  }
+
+  @Benchmark
+  @Threads(2)
+  public long nextId2Threads() {
+    return generator.nextId();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public long nextId4Threads() {
+    return generator.nextId();
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public long nextIdMaxThreads() {
+    return generator.nextId();
+  }
+}
@@ -1,38 +1,251 @@
 package io.netifi.sdk;
 
+import io.netifi.sdk.frames.DestinationAvailResult;
+import io.netifi.sdk.frames.FrameType;
+import io.netifi.sdk.frames.RouteDestinationFlyweight;
+import io.netifi.sdk.frames.RouteType;
+import io.netifi.sdk.frames.RoutingFlyweight;
+import io.netifi.sdk.metrics.NetifiMetrics;
+import io.netifi.sdk.rs.ReconnectingRSocket;
+import io.netifi.sdk.rs.Session;
+import io.netifi.sdk.util.IdGenerator;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.rsocket.Payload;
+import io.rsocket.util.PayloadImpl;
+import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-/** Implementation of {@link PresenceNotificationHandler} */
+/**
+ * Implementation of {@link PresenceNotificationHandler} that streams presence from the router.
+ *
+ * <p>Each query is a request-stream with a PRESENCE_GROUP_QUERY or PRESENCE_ID_QUERY route, which
+ * the router answers with a DESTINATION_AVAIL_RESULT frame for every destination that is present
+ * and then for every destination that joins or leaves. A query for a destination that is not
+ * connected, or for a group without members, starts with a not found result, for the destination
+ * or for an empty destination. The deltas are folded into a membership view, and the first result
+ * and every change after it emit an immutable snapshot of it. There is one view per query, shared
+ * by all of its subscribers: the first subscriber starts the stream, later ones receive the latest
+ * snapshot straight away, and the stream is cancelled and the view dropped when the last one goes,
+ * so only queries with subscribers are kept. A view is rebuilt from scratch when its stream is
+ * restarted after a reconnect, and its first result replaces the snapshot from before the restart,
+ * even when it is empty.
+ */
 public class DefaultPresenceNotificationHandler implements PresenceNotificationHandler {
-  /*private static final Logger logger = LoggerFactory.getLogger(Netifi.class);
+  private static final Logger logger =
+      LoggerFactory.getLogger(DefaultPresenceNotificationHandler.class);
+  private static final Duration RESTART_DELAY = Duration.ofSeconds(1);
+  private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
 
-    private final BooleanSupplier running;
+  private final ConcurrentHashMap<Query, Flux<Collection<String>>> views =
+      new ConcurrentHashMap<>();
+  private final ReconnectingRSocket reconnectingRSocket;
+  private final BooleanSupplier running;
+  private final IdGenerator idGenerator;
+  private final long accessKey;
+  private final String fromDestination;
+  private final NetifiMetrics metrics;
 
-    private final TimebasedIdGenerator idGenerator;
-
-    private final long accountId;
+  public DefaultPresenceNotificationHandler(
+      ReconnectingRSocket reconnectingRSocket,
+      BooleanSupplier running,
+      IdGenerator idGenerator,
+      long accessKey,
+      String fromDestination) {
+    this(
+        reconnectingRSocket,
+        running,
+        idGenerator,
+        accessKey,
+        fromDestination,
+        NetifiMetrics.NOOP);
+  }
 
-    private final String fromDestination;
+  /** @param metrics records the size of every presence query frame */
+  public DefaultPresenceNotificationHandler(
+      ReconnectingRSocket reconnectingRSocket,
+      BooleanSupplier running,
+      IdGenerator idGenerator,
+      long accessKey,
+      String fromDestination,
+      NetifiMetrics metrics) {
+    this.reconnectingRSocket = reconnectingRSocket;
+    this.running = running;
+    this.idGenerator = idGenerator;
+    this.accessKey = accessKey;
+    this.fromDestination = fromDestination;
+    this.metrics = metrics;
+  }
 
-    public DefaultPresenceNotificationHandler(
-        BooleanSupplier running,
-        TimebasedIdGenerator idGenerator,
-        long accountId,
-        String fromDestination) {
-      this.running = running;
-      this.idGenerator = idGenerator;
-      this.accountId = accountId;
-      this.fromDestination = fromDestination;
-    }
-  */
   @Override
   public Flux<Collection<String>> presence(long accountId, String group) {
-    return null;
+    return views.computeIfAbsent(new Query(accountId, group, null), this::view);
   }
 
   @Override
   public Flux<Collection<String>> presence(long accountId, String group, String destination) {
-    return null;
+    return views.computeIfAbsent(new Query(accountId, group, destination), this::view);
+  }
+
+  /**
+   * Asks the router once whether a destination is connected. The first DESTINATION_AVAIL_RESULT of
+   * a PRESENCE_ID_QUERY reports the current state of the destination, found or not.
+   */
+  public Mono<Boolean> available(long accountId, String group, String destination) {
+    ByteBuf route = new Query(accountId, group, destination).encodeRoute();
+    return reconnectingRSocket
+        .getSession()
+        .flatMapMany(session -> session.getRSocket().requestStream(request(session, route)))
+        .next()
+        .map(
+            payload -> DestinationAvailResult.found(Unpooled.wrappedBuffer(payload.getMetadata())));
+  }
+
+  private Flux<Collection<String>> view(Query query) {
+    ByteBuf route = query.encodeRoute();
+
+    AtomicReference<Flux<Collection<String>>> view = new AtomicReference<>();
+    view.set(
+        Flux.defer(
+                () -> {
+                  Members members = new Members();
+                  return reconnectingRSocket
+                      .getSession()
+                      .flatMapMany(
+                          session -> session.getRSocket().requestStream(request(session, route)))
+                      .filter(members::apply)
+                      .map(payload -> members.snapshot());
+                })
+            .retryWhen(
+                errors ->
+                    errors
+                        .doOnNext(t -> logger.debug("presence stream for {} failed", query, t))
+                        .takeWhile(t -> running.getAsBoolean())
+                        .delayElements(RESTART_DELAY))
+            .repeatWhen(
+                completions ->
+                    completions.takeWhile(l -> running.getAsBoolean()).delayElements(RESTART_DELAY))
+            // the stream ends when its last subscriber goes, and the next query builds a new view
+            .doFinally(s -> views.remove(query, view.get()))
+            .replay(1)
+            .refCount());
+    return view.get();
+  }
+
+  private Payload request(Session session, ByteBuf route) {
+    int length = RoutingFlyweight.computeLength(true, fromDestination, route);
+    ByteBuffer metadata = ByteBuffer.allocate(length);
+    int requestToken = session.generateRequestToken(EMPTY.duplicate());
+    RoutingFlyweight.encode(
+        Unpooled.wrappedBuffer(metadata),
+        true,
+        requestToken,
+        accessKey,
+        fromDestination,
+        idGenerator.nextId(),
+        route);
+    metrics.recordFrame(FrameType.ROUTE, length);
+    return new PayloadImpl(EMPTY.duplicate(), metadata);
+  }
+
+  /** The membership view folded from one presence stream. */
+  private static final class Members {
+    private final Set<String> members = new HashSet<>();
+    private boolean reported;
+
+    /**
+     * Applies one DESTINATION_AVAIL_RESULT to the view, and returns true if a snapshot should be
+     * emitted: the view changed, or this is the first result of the stream.
+     */
+    boolean apply(Payload payload) {
+      ByteBuf result = Unpooled.wrappedBuffer(payload.getMetadata());
+      String destination = DestinationAvailResult.destination(result);
+      boolean changed;
+      if (destination.isEmpty()) {
+        // an empty group
+        changed = false;
+      } else if (DestinationAvailResult.found(result)) {
+        changed = members.add(destination);
+      } else {
+        changed = members.remove(destination);
+      }
+
+      if (!reported) {
+        reported = true;
+        return true;
+      }
+      return changed;
+    }
+
+    Collection<String> snapshot() {
+      return Collections.unmodifiableSet(new HashSet<>(members));
+    }
+  }
+
+  private static final class Query {
+    final long accountId;
+    final String group;
+    final String destination;
+
+    Query(long accountId, String group, String destination) {
+      this.accountId = accountId;
+      this.group = Objects.requireNonNull(group, "group is required");
+      this.destination = destination;
+    }
+
+    ByteBuf encodeRoute() {
+      ByteBuf route;
+      if (destination == null) {
+        RouteType routeType = RouteType.PRESENCE_GROUP_QUERY;
+        int length = RouteDestinationFlyweight.computeLength(routeType, group);
+        route = Unpooled.wrappedBuffer(new byte[length]);
+        RouteDestinationFlyweight.encodeRouteByGroup(route, routeType, accountId, group);
+      } else {
+        RouteType routeType = RouteType.PRESENCE_ID_QUERY;
+        int length = RouteDestinationFlyweight.computeLength(routeType, destination, group);
+        route = Unpooled.wrappedBuffer(new byte[length]);
+        RouteDestinationFlyweight.encodeRouteByDestination(
+            route, routeType, accountId, destination, group);
+      }
+      return route;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Query)) {
+        return false;
+      }
+      Query query = (Query) o;
+      return accountId == query.accountId
+          && group.equals(query.group)
+          && Objects.equals(destination, query.destination);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(accountId, group, destination);
+    }
+
+    @Override
+    public String toString() {
+      return destination == null
+          ? accountId + "/" + group
+          : accountId + "/" + group + "/" + destination;
+    }
   }
 }
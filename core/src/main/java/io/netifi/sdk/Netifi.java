@@ -2,15 +2,26 @@ package io.netifi.sdk;
 
 import io.netifi.proteus.ProteusService;
 import io.netifi.sdk.frames.DestinationSetupFlyweight;
+import io.netifi.sdk.frames.FrameHeaderFlyweight;
+import io.netifi.sdk.frames.FrameType;
+import io.netifi.sdk.metrics.NetifiMetrics;
 import io.netifi.sdk.rs.*;
+import io.netifi.sdk.util.IdGenerator;
 import io.netifi.sdk.util.TimebasedIdGenerator;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.rsocket.RSocket;
-import io.rsocket.transport.netty.client.TcpClientTransport;
+import io.rsocket.transport.ClientTransport;
 import io.rsocket.util.PayloadImpl;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import javax.xml.bind.DatatypeConverter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,21 +37,27 @@ public class Netifi implements PresenceNotificationHandler {
     java.security.Security.setProperty("networkaddress.cache.ttl", "60");
   }
 
-  private final TimebasedIdGenerator idGenerator;
+  private final IdGenerator idGenerator;
   private final PresenceNotificationHandler presenceNotificationHandler;
   private final long fromAccountId;
   private final String fromDestination;
   private final String fromGroup;
-  private final ReconnectingRSocket reconnectingRSocket;
+  private final List<ReconnectingRSocket> reconnectingRSockets;
   private final long accessKey;
   private final byte[] accessTokenBytes;
   private final boolean keepalive;
+  private final boolean routeDictionary;
+  private final FireAndForgetBatching fireAndForgetBatching;
+  private final DestinationAvailabilityCache destinationAvailability;
+  private final LocalRoutingPolicy localRouting;
+  private final LocalSigningPolicy localSigning;
+  private final NetifiMetrics metrics;
   private volatile boolean running = true;
   private RequestHandlingRSocket requestHandlingRSocket;
 
   private Netifi(
-      String host,
-      int port,
+      List<Supplier<ClientTransport>> brokers,
+      int connectionCount,
       long accessKey,
       long fromAccountId,
       String destination,
@@ -49,17 +66,33 @@ public class Netifi implements PresenceNotificationHandler {
       boolean keepalive,
       long tickPeriodSeconds,
       long ackTimeoutSeconds,
-      int missedAcks) {
+      int missedAcks,
+      IdGenerator idGenerator,
+      boolean routeDictionary,
+      FireAndForgetBatching fireAndForgetBatching,
+      Duration destinationAvailabilityTtl,
+      LocalRoutingPolicy localRouting,
+      LocalSigningPolicy localSigning,
+      NetifiMetrics metrics,
+      ReconnectBackoff reconnectBackoff,
+      Duration connectAttemptDelay,
+      int maxPendingRequests,
+      Duration pendingRequestDeadline,
+      PendingRequestOverflow pendingRequestOverflow,
+      int resumeMaxBufferedBytes,
+      Duration resumeTimeout) {
     this.keepalive = keepalive;
+    this.routeDictionary = routeDictionary;
+    this.fireAndForgetBatching = fireAndForgetBatching;
     this.accessKey = accessKey;
     this.fromAccountId = fromAccountId;
     this.fromDestination = destination;
     this.fromGroup = group;
-    this.idGenerator = new TimebasedIdGenerator(destination.hashCode());
-    this.presenceNotificationHandler = null;
+    this.idGenerator = idGenerator;
     this.accessTokenBytes = accessTokenBytes;
-    //        new DefaultPresenceNotificationHandler(
-    //            barrier, () -> running, idGenerator, fromAccountId, destination);
+    this.localRouting = localRouting;
+    this.localSigning = localSigning;
+    this.metrics = metrics;
 
     int length = DestinationSetupFlyweight.computeLength(false, destination, group);
     byte[] metadata = new byte[length];
@@ -72,37 +105,114 @@ public class Netifi implements PresenceNotificationHandler {
         idGenerator.nextId(),
         accessKey,
         destination,
-        group);
+        group,
+        routeDictionary
+            ? FrameHeaderFlyweight.ROUTE_DICTIONARY_MINOR_VERSION
+            : FrameHeaderFlyweight.MINOR_VERSION);
     byte[] empty = new byte[0];
 
-    requestHandlingRSocket = new RequestHandlingRSocket();
-
-    this.reconnectingRSocket =
-        new ReconnectingRSocket(
-            MetadataUnwrappingRSocket.wrap(requestHandlingRSocket),
-            () -> new PayloadImpl(empty, metadata),
+    metrics.recordFrame(FrameType.DESTINATION_SETUP, length);
+
+    requestHandlingRSocket = new RequestHandlingRSocket(metrics);
+
+    List<ReconnectingRSocket> reconnectingRSockets = new ArrayList<>(connectionCount);
+    for (int i = 0; i < connectionCount; i++) {
+      reconnectingRSockets.add(
+          new ReconnectingRSocket(
+              MetadataUnwrappingRSocket.wrap(requestHandlingRSocket),
+              () -> new PayloadImpl(empty, metadata),
+              () -> running,
+              resumable(
+                  race(brokers, i, connectAttemptDelay),
+                  resumeMaxBufferedBytes,
+                  resumeTimeout,
+                  reconnectBackoff),
+              keepalive,
+              tickPeriodSeconds,
+              ackTimeoutSeconds,
+              missedAcks,
+              accessKey,
+              accessTokenBytes,
+              metrics,
+              reconnectBackoff,
+              new PendingRequestQueue(
+                  maxPendingRequests, pendingRequestDeadline, pendingRequestOverflow)));
+    }
+    this.reconnectingRSockets = Collections.unmodifiableList(reconnectingRSockets);
+    DefaultPresenceNotificationHandler presence =
+        new DefaultPresenceNotificationHandler(
+            reconnectingRSockets.get(0),
             () -> running,
-            () -> TcpClientTransport.create(host, port),
-            keepalive,
-            tickPeriodSeconds,
-            ackTimeoutSeconds,
-            missedAcks,
+            idGenerator,
             accessKey,
-            accessTokenBytes);
+            destination,
+            metrics);
+    this.presenceNotificationHandler = presence;
+    this.destinationAvailability =
+        destinationAvailabilityTtl != null
+            ? new DestinationAvailabilityCache(
+                destinationAvailabilityTtl,
+                (toGroup, toDestination) ->
+                    presence.available(fromAccountId, toGroup, toDestination))
+            : null;
+  }
+
+  /**
+   * Returns a transport supplier that races connections to every broker, starting at broker {@code
+   * offset}. The first broker moves on to the next one every time a connection is attempted, so
+   * connections are spread over the brokers, and a connection that drops prefers another broker.
+   */
+  private static Supplier<ClientTransport> race(
+      List<Supplier<ClientTransport>> brokers, int offset, Duration attemptDelay) {
+    if (brokers.size() == 1) {
+      return brokers.get(0);
+    }
+
+    AtomicInteger next = new AtomicInteger(offset);
+    return () -> {
+      int first = next.getAndIncrement();
+      List<Supplier<ClientTransport>> ordered = new ArrayList<>(brokers.size());
+      for (int i = 0; i < brokers.size(); i++) {
+        ordered.add(brokers.get(Math.floorMod(first + i, brokers.size())));
+      }
+      return new RacingClientTransport(ordered, attemptDelay);
+    };
+  }
+
+  /**
+   * Returns a transport supplier that resumes the session over {@code brokers} when a connection
+   * drops, or {@code brokers} itself if resumption is off. The session is resumed on the transport
+   * it started on, so it is resumed on the same broker if that is reachable.
+   */
+  private static Supplier<ClientTransport> resumable(
+      Supplier<ClientTransport> brokers,
+      int maxBufferedBytes,
+      Duration resumeTimeout,
+      ReconnectBackoff backoff) {
+    if (resumeTimeout == null) {
+      return brokers;
+    }
+    return () ->
+        new ResumableClientTransport(brokers.get(), maxBufferedBytes, resumeTimeout, backoff);
   }
 
   public static Builder builder() {
     return new Builder();
   }
 
+  /**
+   * Streams the destinations of a group that are connected to the router. Every subscriber to the
+   * same group shares one stream from the router.
+   */
   @Override
   public Flux<Collection<String>> presence(long accountId, String group) {
-    throw new UnsupportedOperationException("not implemented yet");
+    return presenceNotificationHandler.presence(accountId, group);
   }
 
+  /** Streams whether a destination is connected: a view holding just it, or an empty view. */
   @Override
   public Flux<Collection<String>> presence(long accountId, String group, String destination) {
-    throw new UnsupportedOperationException("not implemented yet");
+    return presenceNotificationHandler.presence(accountId, group, destination);
   }
 
   public Netifi addService(ProteusService service) {
@@ -110,24 +220,147 @@ public class Netifi implements PresenceNotificationHandler {
     return this;
   }
 
+  /**
+   * Adds a service whose request-response and fire-and-forget requests are limited by {@code
+   * limiter}, see {@link RequestHandlingRSocket#addService(ProteusService, ConcurrencyLimiter)}.
+   * Use a limiter per service.
+   */
+  public Netifi addService(ProteusService service, ConcurrencyLimiter limiter) {
+    requestHandlingRSocket.addService(service, limiter);
+    return this;
+  }
+
+  /**
+   * Adds a service whose handlers run as {@code policy} says, e.g. on a bounded pool of its own so
+   * that a slow or blocking service does not stall the event loop for every other service.
+   */
+  public Netifi addService(ProteusService service, ExecutionPolicy policy) {
+    requestHandlingRSocket.addService(service, policy);
+    return this;
+  }
+
+  /**
+   * Adds a service whose handlers run as {@code policy} says, with requests limited by {@code
+   * limiter}, see {@link RequestHandlingRSocket#addService(ProteusService, ConcurrencyLimiter,
+   * ExecutionPolicy)}.
+   */
+  public Netifi addService(
+      ProteusService service, ConcurrencyLimiter limiter, ExecutionPolicy policy) {
+    requestHandlingRSocket.addService(service, limiter, policy);
+    return this;
+  }
+
+  public Netifi removeService(ProteusService service) {
+    requestHandlingRSocket.removeService(service);
+    return this;
+  }
+
+  /**
+   * Returns a socket that routes requests to a destination in a group, or to any member of the
+   * group when destination is null. With more than one broker connection, requests are load
+   * balanced across the connections. Requests to this instance's own group or destination may be
+   * dispatched in process, see {@link Builder#localRouting(LocalRoutingPolicy)}.
+   */
   public Mono<NetifiSocket> connect(String group, String destination) {
-    return Mono.just(
-        new DefaultNetifiSocket(
-            reconnectingRSocket,
-            accessKey,
-            fromAccountId,
-            fromDestination,
-            destination,
-            group,
-            accessTokenBytes,
-            keepalive,
-            idGenerator));
+    NetifiSocket socket;
+    if (reconnectingRSockets.size() == 1) {
+      socket = newSocket(reconnectingRSockets.get(0), group, destination);
+    } else {
+      socket =
+          new PooledNetifiSocket(
+              reconnectingRSockets,
+              reconnectingRSocket -> newSocket(reconnectingRSocket, group, destination));
+    }
+
+    if (destinationAvailability != null && destination != null && !destination.isEmpty()) {
+      socket =
+          new AvailabilityCheckingNetifiSocket(
+              socket, destinationAvailability.get(group, destination));
+    }
+
+    if (localRouting != LocalRoutingPolicy.BROKER && isLocal(group, destination)) {
+      socket =
+          new LocalRoutingNetifiSocket(
+              requestHandlingRSocket,
+              socket,
+              localRouting,
+              localSigning == LocalSigningPolicy.SIGN ? newSigner(group, destination) : null);
+    }
+
+    return Mono.just(socket);
+  }
+
+  private DefaultNetifiSocket newSocket(
+      ReconnectingRSocket reconnectingRSocket, String group, String destination) {
+    return new DefaultNetifiSocket(
+        reconnectingRSocket,
+        accessKey,
+        fromAccountId,
+        fromDestination,
+        destination,
+        group,
+        accessTokenBytes,
+        keepalive,
+        idGenerator,
+        routeDictionary,
+        fireAndForgetBatching,
+        metrics);
+  }
+
+  private boolean isLocal(String group, String destination) {
+    return fromGroup.equals(group)
+        && (destination == null || destination.isEmpty() || fromDestination.equals(destination));
+  }
+
+  /**
+   * Signs requests dispatched in process. It never sends anything, so it writes plain ROUTE frames
+   * that {@link MetadataUnwrappingRSocket} understands, without the route dictionary or batching.
+   */
+  private DefaultNetifiSocket newSigner(String group, String destination) {
+    return new DefaultNetifiSocket(
+        reconnectingRSockets.get(0),
+        accessKey,
+        fromAccountId,
+        fromDestination,
+        destination,
+        group,
+        accessTokenBytes,
+        keepalive,
+        idGenerator);
   }
 
   public Mono<NetifiSocket> connect(String group) {
     return connect(group, null);
   }
 
+  /**
+   * Returns a socket that delivers fire-and-forget requests and metadata pushes to every member of
+   * a group. Each request is encoded and signed once, and the router fans it out to the members.
+   * Requests that expect a response fail with an {@link IllegalStateException}.
+   */
+  public Mono<NetifiSocket> connectBroadcast(String group) {
+    if (reconnectingRSockets.size() == 1) {
+      return Mono.just(newBroadcastSocket(reconnectingRSockets.get(0), group));
+    }
+
+    return Mono.just(
+        new PooledNetifiSocket(
+            reconnectingRSockets,
+            reconnectingRSocket -> newBroadcastSocket(reconnectingRSocket, group)));
+  }
+
+  private BroadcastNetifiSocket newBroadcastSocket(
+      ReconnectingRSocket reconnectingRSocket, String group) {
+    return new BroadcastNetifiSocket(
+        reconnectingRSocket,
+        accessKey,
+        fromAccountId,
+        fromDestination,
+        group,
+        idGenerator,
+        metrics);
+  }
+
   public static class Builder {
     private String host = "edge.prd.netifi.io";
     private Integer port = 8001;
@@ -142,6 +375,22 @@ public class Netifi implements PresenceNotificationHandler {
     private long ackTimeoutSeconds = 10;
     private int missedAcks = 3;
     private RSocket requestHandler;
+    private List<Function<Duration, ClientTransport>> brokers = new ArrayList<>();
+    private int connectionCount = 1;
+    private IdGenerator idGenerator;
+    private boolean routeDictionary;
+    private FireAndForgetBatching fireAndForgetBatching;
+    private Duration destinationAvailabilityTtl;
+    private LocalRoutingPolicy localRouting = LocalRoutingPolicy.BROKER;
+    private LocalSigningPolicy localSigning = LocalSigningPolicy.NONE;
+    private NetifiMetrics metrics = NetifiMetrics.NOOP;
+    private ReconnectBackoff reconnectBackoff = new ReconnectBackoff();
+    private Duration connectAttemptDelay = RacingClientTransport.DEFAULT_ATTEMPT_DELAY;
+    private int maxPendingRequests = PendingRequestQueue.DEFAULT_MAX_PENDING;
+    private Duration pendingRequestDeadline = PendingRequestQueue.DEFAULT_DEADLINE;
+    private PendingRequestOverflow pendingRequestOverflow = PendingRequestOverflow.FAIL_FAST;
+    private int resumeMaxBufferedBytes = ResumableClientTransport.DEFAULT_MAX_BUFFERED_BYTES;
+    private Duration resumeTimeout;
 
     private Builder() {}
 
@@ -175,6 +424,160 @@ public class Netifi implements PresenceNotificationHandler {
       return this;
     }
 
+    /**
+     * Adds a broker to connect to. When brokers are added, {@link #host(String)} and {@link
+     * #port(int)} are ignored, and connections are spread over the brokers round robin. Each
+     * connection attempt races all brokers, and all addresses the host resolves to, see {@link
+     * #connectAttemptDelay(Duration)}.
+     */
+    public Builder addBroker(String host, int port) {
+      this.brokers.add(attemptDelay -> RacingClientTransport.resolving(host, port, attemptDelay));
+      return this;
+    }
+
+    public Builder addBroker(Supplier<ClientTransport> clientTransportSupplier) {
+      this.brokers.add(attemptDelay -> clientTransportSupplier.get());
+      return this;
+    }
+
+    /**
+     * How long a connection attempt to one broker address waits before the next address is tried
+     * in parallel, happy eyeballs style. An attempt that fails starts the next one right away, and
+     * the first connection to succeed is used. Defaults to 250ms.
+     */
+    public Builder connectAttemptDelay(Duration connectAttemptDelay) {
+      this.connectAttemptDelay =
+          Objects.requireNonNull(connectAttemptDelay, "connect attempt delay is required");
+      return this;
+    }
+
+    /**
+     * Waits between {@code baseDelay} and {@code maxDelay} between attempts to reconnect, with
+     * exponential backoff and decorrelated jitter, see {@link ReconnectBackoff}. The first retry
+     * waits at most {@code baseDelay}. Defaults to 100ms and 10s.
+     */
+    public Builder reconnectBackoff(Duration baseDelay, Duration maxDelay) {
+      this.reconnectBackoff = new ReconnectBackoff(baseDelay, maxDelay);
+      return this;
+    }
+
+    /** Number of broker connections to open. Defaults to 1. */
+    public Builder connectionCount(int connectionCount) {
+      if (connectionCount < 1) {
+        throw new IllegalArgumentException("connection count must be at least 1");
+      }
+      this.connectionCount = connectionCount;
+      return this;
+    }
+
+    /**
+     * Generator for the sequence ids on outgoing frames. Defaults to a {@link
+     * TimebasedIdGenerator} seeded with the destination; use a {@link
+     * io.netifi.sdk.util.StripedIdGenerator} for more than 65,536 requests per millisecond.
+     */
+    public Builder idGenerator(IdGenerator idGenerator) {
+      this.idGenerator = idGenerator;
+      return this;
+    }
+
+    /**
+     * Sends the origin and route of each request as a short id once the router has seen them on a
+     * connection, instead of repeating them in every frame. This roughly halves the size of small
+     * requests. Only enable it when the router supports ROUTE frames with minor version {@link
+     * FrameHeaderFlyweight#ROUTE_DICTIONARY_MINOR_VERSION}. Defaults to false.
+     */
+    public Builder routeDictionary(boolean routeDictionary) {
+      this.routeDictionary = routeDictionary;
+      return this;
+    }
+
+    /**
+     * Coalesces fire-and-forget requests to the same route into batches that are sent as one frame
+     * with one signature. A batch is sent when it holds {@code maxBatchCount} requests or {@code
+     * maxBatchBytes} bytes, or {@code maxDelay} after its first request. Off by default.
+     */
+    public Builder fireAndForgetBatching(int maxBatchBytes, int maxBatchCount, Duration maxDelay) {
+      this.fireAndForgetBatching =
+          new FireAndForgetBatching(maxBatchBytes, maxBatchCount, maxDelay);
+      return this;
+    }
+
+    /**
+     * Caches whether destinations are connected for {@code ttl}, so requests from sockets connected
+     * to a destination fail with a {@link RouteNotFoundException} right away while it is known to
+     * be gone, instead of waiting to time out. The cache is refreshed in the background and never
+     * delays a request. Off by default.
+     */
+    public Builder destinationAvailabilityTtl(Duration ttl) {
+      this.destinationAvailabilityTtl = ttl;
+      return this;
+    }
+
+    /**
+     * Path taken by requests from sockets connected to this instance's own group, or its own
+     * destination. With {@link LocalRoutingPolicy#PREFER_LOCAL}, requests for services added with
+     * {@link Netifi#addService(ProteusService)} skip serialization and the broker hop. Defaults to
+     * {@link LocalRoutingPolicy#BROKER}.
+     */
+    public Builder localRouting(LocalRoutingPolicy localRouting) {
+      this.localRouting = Objects.requireNonNull(localRouting, "local routing policy is required");
+      return this;
+    }
+
+    /**
+     * Whether requests dispatched in process are signed like requests sent through the broker.
+     * Defaults to {@link LocalSigningPolicy#NONE}.
+     */
+    public Builder localSigning(LocalSigningPolicy localSigning) {
+      this.localSigning = Objects.requireNonNull(localSigning, "local signing policy is required");
+      return this;
+    }
+
+    /**
+     * Receives request latencies, handler latencies and errors, connection events and frame sizes,
+     * e.g. an {@link io.netifi.sdk.metrics.HdrHistogramNetifiMetrics}. Defaults to {@link
+     * NetifiMetrics#NOOP}, which records nothing.
+     */
+    public Builder metrics(NetifiMetrics metrics) {
+      this.metrics = Objects.requireNonNull(metrics, "metrics is required");
+      return this;
+    }
+
+    /**
+     * Bounds the requests waiting for each broker connection while it is down. At most {@code
+     * maxPending} requests wait, the overflow policy decides which one fails with a {@link
+     * io.rsocket.exceptions.RejectedException} when more arrive, and a request that waited for
+     * {@code deadline} fails with a {@link java.util.concurrent.TimeoutException}. Defaults to
+     * 10,000 requests, 30 seconds and {@link PendingRequestOverflow#FAIL_FAST}.
+     */
+    public Builder pendingRequests(
+        int maxPending, Duration deadline, PendingRequestOverflow overflow) {
+      if (maxPending < 1) {
+        throw new IllegalArgumentException("max pending requests must be at least 1");
+      }
+      this.maxPendingRequests = maxPending;
+      this.pendingRequestDeadline = Objects.requireNonNull(deadline, "deadline is required");
+      this.pendingRequestOverflow = Objects.requireNonNull(overflow, "overflow policy is required");
+      return this;
+    }
+
+    /**
+     * Resumes the session when a broker connection drops, instead of starting a new one, so
+     * streams and requests in flight are not failed. Up to {@code maxBufferedBytes} of frames the
+     * broker has not acknowledged are kept and sent again on the next connection, and the
+     * connection is closed, failing what is in flight, if it cannot be resumed within {@code
+     * resumeTimeout}. The broker must support resumption, see {@link ResumableServerTransport}.
+     * Off by default.
+     */
+    public Builder resumption(int maxBufferedBytes, Duration resumeTimeout) {
+      if (maxBufferedBytes < 1) {
+        throw new IllegalArgumentException("max buffered bytes must be at least 1");
+      }
+      this.resumeMaxBufferedBytes = maxBufferedBytes;
+      this.resumeTimeout = Objects.requireNonNull(resumeTimeout, "resume timeout is required");
+      return this;
+    }
+
     public Builder accountId(long accountId) {
       this.accountId = accountId;
       return this;
@@ -217,9 +620,20 @@ public class Netifi implements PresenceNotificationHandler {
           group,
           destination);
 
+      Duration connectAttemptDelay = this.connectAttemptDelay;
+      List<Supplier<ClientTransport>> brokers = new ArrayList<>(this.brokers.size());
+      for (Function<Duration, ClientTransport> broker : this.brokers) {
+        brokers.add(() -> broker.apply(connectAttemptDelay));
+      }
+      if (brokers.isEmpty()) {
+        String host = this.host;
+        int port = this.port;
+        brokers.add(() -> RacingClientTransport.resolving(host, port, connectAttemptDelay));
+      }
+
       return new Netifi(
-          host,
-          port,
+          brokers,
+          connectionCount,
           accessKey,
           accountId,
           destination,
@@ -228,7 +642,21 @@ public class Netifi implements PresenceNotificationHandler {
           keepalive,
           tickPeriodSeconds,
           ackTimeoutSeconds,
-          missedAcks);
+          missedAcks,
+          idGenerator != null ? idGenerator : new TimebasedIdGenerator(destination.hashCode()),
+          routeDictionary,
+          fireAndForgetBatching,
+          destinationAvailabilityTtl,
+          localRouting,
+          localSigning,
+          metrics,
+          reconnectBackoff,
+          connectAttemptDelay,
+          maxPendingRequests,
+          pendingRequestDeadline,
+          pendingRequestOverflow,
+          resumeMaxBufferedBytes,
+          resumeTimeout);
     }
   }
 }
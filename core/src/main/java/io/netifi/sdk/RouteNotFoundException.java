@@ -1,6 +1,10 @@
 package io.netifi.sdk;
 
 public class RouteNotFoundException extends Exception {
+  public RouteNotFoundException(String group, String destination) {
+    super("no route found for destination " + destination + " in group " + group);
+  }
+
   public RouteNotFoundException(int packageId) {
     super("not route found for pacakge " + packageId);
   }
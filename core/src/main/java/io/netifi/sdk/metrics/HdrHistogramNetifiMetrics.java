@@ -0,0 +1,162 @@
+package io.netifi.sdk.metrics;
+
+import io.netifi.sdk.frames.FrameType;
+import io.netifi.sdk.util.CopyOnWriteLong2ObjectMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Records latencies into HdrHistograms and counts into {@link LongAdder}s. Recording does not
+ * allocate, except the first time a handler is seen, so it can stay on in production. Latencies
+ * above an hour are recorded as an hour.
+ *
+ * <p>The accessors return copies, and the counts are totals since the metrics were created; take
+ * the difference between two reads for rates.
+ */
+public class HdrHistogramNetifiMetrics implements NetifiMetrics {
+  private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.HOURS.toNanos(1);
+  private static final int SIGNIFICANT_DIGITS = 3;
+
+  private final Histogram[] interactionLatencies;
+  private final LongAdder[] interactionErrors;
+  private final CopyOnWriteLong2ObjectMap<Handler> handlers = new CopyOnWriteLong2ObjectMap<>();
+  private final LongAdder connects = new LongAdder();
+  private final LongAdder reconnects = new LongAdder();
+  private final LongAdder disconnects = new LongAdder();
+  private final Histogram connectionUptime = newHistogram();
+  private final LongAdder[] frameCounts;
+  private final LongAdder[] frameBytes;
+
+  public HdrHistogramNetifiMetrics() {
+    int interactionTypes = InteractionType.values().length;
+    this.interactionLatencies = new Histogram[interactionTypes];
+    this.interactionErrors = new LongAdder[interactionTypes];
+    for (int i = 0; i < interactionTypes; i++) {
+      interactionLatencies[i] = newHistogram();
+      interactionErrors[i] = new LongAdder();
+    }
+
+    int frameTypes = FrameType.values().length;
+    this.frameCounts = new LongAdder[frameTypes];
+    this.frameBytes = new LongAdder[frameTypes];
+    for (int i = 0; i < frameTypes; i++) {
+      frameCounts[i] = new LongAdder();
+      frameBytes[i] = new LongAdder();
+    }
+  }
+
+  private static Histogram newHistogram() {
+    return new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+  }
+
+  private static void record(Histogram histogram, long nanos) {
+    histogram.recordValue(Math.max(0, Math.min(nanos, HIGHEST_TRACKABLE_NANOS)));
+  }
+
+  @Override
+  public void recordInteraction(InteractionType type, long latencyNanos, boolean error) {
+    int index = type.ordinal();
+    record(interactionLatencies[index], latencyNanos);
+    if (error) {
+      interactionErrors[index].increment();
+    }
+  }
+
+  @Override
+  public void recordHandler(
+      int namespaceId, int serviceId, InteractionType type, long latencyNanos, boolean error) {
+    long key = CopyOnWriteLong2ObjectMap.key(namespaceId, serviceId);
+    Handler handler = handlers.get(key);
+    if (handler == null) {
+      handler = newHandler(key);
+    }
+
+    record(handler.latency, latencyNanos);
+    if (error) {
+      handler.errors.increment();
+    }
+  }
+
+  private synchronized Handler newHandler(long key) {
+    Handler handler = handlers.get(key);
+    if (handler == null) {
+      handler = new Handler();
+      handlers.put(key, handler);
+    }
+    return handler;
+  }
+
+  @Override
+  public void recordConnect(boolean reconnect) {
+    connects.increment();
+    if (reconnect) {
+      reconnects.increment();
+    }
+  }
+
+  @Override
+  public void recordDisconnect(long uptimeNanos) {
+    disconnects.increment();
+    record(connectionUptime, uptimeNanos);
+  }
+
+  @Override
+  public void recordFrame(FrameType type, int bytes) {
+    int index = type.ordinal();
+    frameCounts[index].increment();
+    frameBytes[index].add(bytes);
+  }
+
+  /** Latency of requests sent as the interaction type. Its total count is the request count. */
+  public Histogram getInteractionLatency(InteractionType type) {
+    return interactionLatencies[type.ordinal()].copy();
+  }
+
+  public long getInteractionErrors(InteractionType type) {
+    return interactionErrors[type.ordinal()].sum();
+  }
+
+  /** Latency of requests handled by a service, or an empty histogram if it was never called. */
+  public Histogram getHandlerLatency(int namespaceId, int serviceId) {
+    Handler handler = handlers.get(CopyOnWriteLong2ObjectMap.key(namespaceId, serviceId));
+    return handler != null ? handler.latency.copy() : newHistogram();
+  }
+
+  public long getHandlerErrors(int namespaceId, int serviceId) {
+    Handler handler = handlers.get(CopyOnWriteLong2ObjectMap.key(namespaceId, serviceId));
+    return handler != null ? handler.errors.sum() : 0;
+  }
+
+  public long getConnects() {
+    return connects.sum();
+  }
+
+  public long getReconnects() {
+    return reconnects.sum();
+  }
+
+  /** Number of broker connections that are currently up. */
+  public long getOpenConnections() {
+    return connects.sum() - disconnects.sum();
+  }
+
+  /** How long closed broker connections were up. */
+  public Histogram getConnectionUptime() {
+    return connectionUptime.copy();
+  }
+
+  public long getFrameCount(FrameType type) {
+    return frameCounts[type.ordinal()].sum();
+  }
+
+  public long getFrameBytes(FrameType type) {
+    return frameBytes[type.ordinal()].sum();
+  }
+
+  private static class Handler {
+    private final Histogram latency = newHistogram();
+    private final LongAdder errors = new LongAdder();
+  }
+}
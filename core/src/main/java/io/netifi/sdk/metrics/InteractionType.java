@@ -0,0 +1,10 @@
+package io.netifi.sdk.metrics;
+
+/** The RSocket interaction a request was sent or handled as. */
+public enum InteractionType {
+  FIRE_AND_FORGET,
+  REQUEST_RESPONSE,
+  REQUEST_STREAM,
+  REQUEST_CHANNEL,
+  METADATA_PUSH
+}
@@ -0,0 +1,32 @@
+package io.netifi.sdk.metrics;
+
+import io.netifi.sdk.frames.FrameType;
+
+/**
+ * Receives measurements from the SDK. Every method is called on the request path, so
+ * implementations must be thread safe and should not block or allocate. All methods do nothing by
+ * default, and {@link #NOOP} is used when no metrics are configured; sockets skip taking timestamps
+ * altogether in that case.
+ *
+ * <p>Latencies are in nanoseconds, from when the request was made until it terminated. For streams
+ * and channels that is the lifetime of the stream.
+ */
+public interface NetifiMetrics {
+  NetifiMetrics NOOP = new NetifiMetrics() {};
+
+  /** A request sent through a socket terminated. Cancelled requests are not errors. */
+  default void recordInteraction(InteractionType type, long latencyNanos, boolean error) {}
+
+  /** A request to a service registered in this process terminated. */
+  default void recordHandler(
+      int namespaceId, int serviceId, InteractionType type, long latencyNanos, boolean error) {}
+
+  /** A connection to a broker was established. {@code reconnect} is false for the first one. */
+  default void recordConnect(boolean reconnect) {}
+
+  /** A connection to a broker closed after being up for {@code uptimeNanos}. */
+  default void recordDisconnect(long uptimeNanos) {}
+
+  /** A frame of the type was encoded into {@code bytes} bytes of metadata and data. */
+  default void recordFrame(FrameType type, int bytes) {}
+}
@@ -0,0 +1,78 @@
+package io.netifi.sdk.rs;
+
+import io.netifi.sdk.RouteNotFoundException;
+import io.rsocket.Payload;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Fails requests with a {@link RouteNotFoundException} while the {@link
+ * DestinationAvailabilityCache} knows their destination is gone, and passes everything else to the
+ * wrapped socket. The socket reports an availability of 0 while the destination is known to be
+ * gone, so load balancers skip it.
+ */
+public class AvailabilityCheckingNetifiSocket implements NetifiSocket {
+  private final NetifiSocket source;
+  private final DestinationAvailabilityCache.Availability availability;
+
+  public AvailabilityCheckingNetifiSocket(
+      NetifiSocket source, DestinationAvailabilityCache.Availability availability) {
+    this.source = source;
+    this.availability = availability;
+  }
+
+  private RouteNotFoundException routeNotFound() {
+    return new RouteNotFoundException(availability.getGroup(), availability.getDestination());
+  }
+
+  @Override
+  public double availability() {
+    return availability.isKnownAbsent() ? 0.0 : source.availability();
+  }
+
+  @Override
+  public Mono<Void> fireAndForget(Payload payload) {
+    return availability.isKnownAbsent()
+        ? Mono.error(routeNotFound())
+        : source.fireAndForget(payload);
+  }
+
+  @Override
+  public Mono<Payload> requestResponse(Payload payload) {
+    return availability.isKnownAbsent()
+        ? Mono.error(routeNotFound())
+        : source.requestResponse(payload);
+  }
+
+  @Override
+  public Flux<Payload> requestStream(Payload payload) {
+    return availability.isKnownAbsent()
+        ? Flux.error(routeNotFound())
+        : source.requestStream(payload);
+  }
+
+  @Override
+  public Flux<Payload> requestChannel(Publisher<Payload> payloads) {
+    return availability.isKnownAbsent()
+        ? Flux.error(routeNotFound())
+        : source.requestChannel(payloads);
+  }
+
+  @Override
+  public Mono<Void> metadataPush(Payload payload) {
+    return availability.isKnownAbsent()
+        ? Mono.error(routeNotFound())
+        : source.metadataPush(payload);
+  }
+
+  @Override
+  public Mono<Void> close() {
+    return source.close();
+  }
+
+  @Override
+  public Mono<Void> onClose() {
+    return source.onClose();
+  }
+}
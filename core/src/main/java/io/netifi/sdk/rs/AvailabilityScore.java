@@ -0,0 +1,94 @@
+package io.netifi.sdk.rs;
+
+import io.rsocket.stat.Ewma;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Scores a broker connection between 0 and 1 from an exponentially weighted moving average of
+ * response latency, the number of outstanding requests, and the keepalive round trip time, so load
+ * balancers can move requests away from a slow connection before it fails.
+ *
+ * <p>The cost of a connection is the larger of the two averages times one more than the
+ * outstanding requests, and the score is {@code 1 / (1 + cost / targetLatency)}: a connection that
+ * answers instantly scores 1, and one whose cost equals the target latency scores 0.5. A connected
+ * socket never scores below {@link #MIN_SCORE}, since 0 means it is down.
+ */
+public class AvailabilityScore {
+  public static final Duration DEFAULT_TARGET_LATENCY = Duration.ofMillis(100);
+  public static final Duration DEFAULT_HALF_LIFE = Duration.ofSeconds(5);
+
+  static final double MIN_SCORE = 0.01;
+
+  private final AtomicInteger pending = new AtomicInteger();
+  private final double targetLatencyNanos;
+  private final Ewma latency;
+  private final Ewma roundTrip;
+  private volatile boolean connected;
+
+  public AvailabilityScore() {
+    this(DEFAULT_TARGET_LATENCY, DEFAULT_HALF_LIFE);
+  }
+
+  /**
+   * @param targetLatency the cost at which a connection scores 0.5
+   * @param halfLife how long it takes a latency sample to lose half of its weight
+   */
+  public AvailabilityScore(Duration targetLatency, Duration halfLife) {
+    if (targetLatency.isNegative() || targetLatency.isZero()) {
+      throw new IllegalArgumentException("target latency must be positive");
+    }
+    this.targetLatencyNanos = targetLatency.toNanos();
+    this.latency = new Ewma(halfLife.toMillis(), TimeUnit.MILLISECONDS, 0);
+    this.roundTrip = new Ewma(halfLife.toMillis(), TimeUnit.MILLISECONDS, 0);
+  }
+
+  public double availability() {
+    if (!connected) {
+      return 0.0;
+    }
+
+    double cost = Math.max(latency.value(), roundTrip.value()) * (pending.get() + 1);
+    return Math.max(MIN_SCORE, 1.0 / (1.0 + cost / targetLatencyNanos));
+  }
+
+  /** A new connection is up. Its latency is not known yet, so the averages start over. */
+  public void connected() {
+    latency.reset(0);
+    roundTrip.reset(0);
+    connected = true;
+  }
+
+  public void disconnected() {
+    connected = false;
+  }
+
+  /** Counts a request as outstanding, and returns its start time for {@link #finished}. */
+  public long started() {
+    pending.incrementAndGet();
+    return System.nanoTime();
+  }
+
+  /**
+   * Counts a request started at {@code start} as done.
+   *
+   * @param responded whether it was answered, successfully or not; only then is its latency
+   *     recorded, so streams and cancelled requests only count while they are outstanding
+   */
+  public void finished(long start, boolean responded) {
+    pending.decrementAndGet();
+    if (responded) {
+      latency.insert(System.nanoTime() - start);
+    }
+  }
+
+  /** Records the time a keepalive took to be answered. */
+  public void roundTrip(long nanos) {
+    roundTrip.insert(nanos);
+  }
+
+  public int getPending() {
+    return pending.get();
+  }
+}
@@ -0,0 +1,79 @@
+package io.netifi.sdk.rs;
+
+import io.netifi.sdk.frames.FireAndForgetBatchFlyweight;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.rsocket.Payload;
+import io.rsocket.util.PayloadImpl;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A batch of fire-and-forget requests received from the router. The metadata is the
+ * FIRE_AND_FORGET_BATCH frame and the data holds the requests, which iterating the batch returns
+ * as payloads with their own metadata and data. The payloads are views of the batch, nothing is
+ * copied.
+ */
+public class BatchPayload implements Payload, Iterable<Payload> {
+  private final Payload payload;
+
+  public BatchPayload(Payload payload) {
+    this.payload = payload;
+  }
+
+  /** True if the payload's metadata is a FIRE_AND_FORGET_BATCH frame. */
+  public static boolean isBatch(Payload payload) {
+    return payload.hasMetadata()
+        && FireAndForgetBatchFlyweight.isBatch(Unpooled.wrappedBuffer(payload.getMetadata()));
+  }
+
+  public int count() {
+    return FireAndForgetBatchFlyweight.count(Unpooled.wrappedBuffer(payload.getMetadata()));
+  }
+
+  @Override
+  public boolean hasMetadata() {
+    return true;
+  }
+
+  @Override
+  public ByteBuffer getMetadata() {
+    return payload.getMetadata();
+  }
+
+  @Override
+  public ByteBuffer getData() {
+    return payload.getData();
+  }
+
+  @Override
+  public Iterator<Payload> iterator() {
+    ByteBuf data = Unpooled.wrappedBuffer(payload.getData());
+    int count = count();
+
+    return new Iterator<Payload>() {
+      private int index;
+      private int offset;
+
+      @Override
+      public boolean hasNext() {
+        return index < count;
+      }
+
+      @Override
+      public Payload next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+
+        ByteBuf metadata = FireAndForgetBatchFlyweight.entryMetadata(data, offset);
+        ByteBuf entryData = FireAndForgetBatchFlyweight.entryData(data, offset);
+        offset = FireAndForgetBatchFlyweight.nextEntry(data, offset);
+        index++;
+
+        return new PayloadImpl(entryData.nioBuffer(), metadata.nioBuffer());
+      }
+    };
+  }
+}
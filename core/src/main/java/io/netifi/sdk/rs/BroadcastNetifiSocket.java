@@ -0,0 +1,78 @@
+package io.netifi.sdk.rs;
+
+import io.netifi.sdk.metrics.NetifiMetrics;
+import io.netifi.sdk.util.IdGenerator;
+import io.rsocket.Payload;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Sends fire-and-forget requests and metadata pushes to every member of a group. Each request is
+ * encoded and signed once, as a ROUTE frame with the {@code BROADCAST} flag set, and the router
+ * delivers a copy to each member. Requests that expect a response are rejected with an {@link
+ * IllegalStateException}, since there is no single member to answer them.
+ */
+public class BroadcastNetifiSocket extends DefaultNetifiSocket {
+  public BroadcastNetifiSocket(
+      ReconnectingRSocket reconnectingRSocket,
+      long accessKey,
+      long fromAccountId,
+      String fromDestination,
+      String group,
+      IdGenerator generator) {
+    this(
+        reconnectingRSocket,
+        accessKey,
+        fromAccountId,
+        fromDestination,
+        group,
+        generator,
+        NetifiMetrics.NOOP);
+  }
+
+  /** @param metrics records the latency of every request and the size of every frame */
+  public BroadcastNetifiSocket(
+      ReconnectingRSocket reconnectingRSocket,
+      long accessKey,
+      long fromAccountId,
+      String fromDestination,
+      String group,
+      IdGenerator generator,
+      NetifiMetrics metrics) {
+    super(
+        reconnectingRSocket,
+        accessKey,
+        fromAccountId,
+        fromDestination,
+        null,
+        group,
+        null,
+        false,
+        generator,
+        false,
+        null,
+        metrics,
+        true);
+  }
+
+  @Override
+  public Mono<Payload> requestResponse(Payload payload) {
+    return Mono.error(unsupported("request-response"));
+  }
+
+  @Override
+  public Flux<Payload> requestStream(Payload payload) {
+    return Flux.error(unsupported("request-stream"));
+  }
+
+  @Override
+  public Flux<Payload> requestChannel(Publisher<Payload> payloads) {
+    return Flux.error(unsupported("request-channel"));
+  }
+
+  private static IllegalStateException unsupported(String interaction) {
+    return new IllegalStateException(
+        interaction + " can not be broadcast, only fire-and-forget and metadata push can");
+  }
+}
@@ -0,0 +1,15 @@
+package io.netifi.sdk.rs;
+
+import io.netty.buffer.ByteBuf;
+import io.rsocket.Payload;
+
+/**
+ * A {@link Payload} that can hand out its metadata and data as netty buffers, so handlers that
+ * work with {@link ByteBuf} do not need to wrap the {@link java.nio.ByteBuffer} views. The
+ * returned buffers are views, not copies, and are indexed from 0.
+ */
+public interface ByteBufPayload extends Payload {
+  ByteBuf getMetadataByteBuf();
+
+  ByteBuf getDataByteBuf();
+}
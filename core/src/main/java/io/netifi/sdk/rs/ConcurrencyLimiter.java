@@ -0,0 +1,124 @@
+package io.netifi.sdk.rs;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits how many requests a service handles at a time, and adapts the limit to their latency the
+ * way TCP Vegas adapts its congestion window. The lowest recent latency stands for the service
+ * without load, and each latency above it is read as requests queueing in front of the service:
+ * {@code queue = limit * (1 - lowest / latency)}. The limit grows while the queue is short and
+ * shrinks when it gets long, so a service past its capacity queues a few requests instead of every
+ * request it is sent. A request over the limit is not handled, and should be rejected right away.
+ *
+ * <p>The lowest latency is taken over the last one or two windows of {@value #WINDOW_SAMPLES}
+ * samples, so an outlier, like one request answered from a cache, is forgotten after two windows
+ * instead of shrinking the limit for good, and a lasting rise in the latency of the service itself
+ * becomes its new baseline. The limit only grows while at least half of it is in use, so a lightly
+ * loaded service does not build up a limit it never tested.
+ */
+public class ConcurrencyLimiter {
+  public static final int DEFAULT_INITIAL_LIMIT = 20;
+  public static final int DEFAULT_MIN_LIMIT = 1;
+  public static final int DEFAULT_MAX_LIMIT = 1000;
+  static final int WINDOW_SAMPLES = 1000;
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final int minLimit;
+  private final int maxLimit;
+  private volatile int limit;
+
+  // guarded by this
+  private double estimatedLimit;
+  private long windowLowestNanos = Long.MAX_VALUE;
+  private long previousWindowLowestNanos = Long.MAX_VALUE;
+  private int windowSamples;
+
+  public ConcurrencyLimiter() {
+    this(DEFAULT_INITIAL_LIMIT, DEFAULT_MIN_LIMIT, DEFAULT_MAX_LIMIT);
+  }
+
+  public ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+    if (minLimit < 1) {
+      throw new IllegalArgumentException("min limit must be at least 1");
+    }
+    if (maxLimit < minLimit) {
+      throw new IllegalArgumentException("max limit must be at least the min limit");
+    }
+    if (initialLimit < minLimit || initialLimit > maxLimit) {
+      throw new IllegalArgumentException("initial limit must be between the min and max limit");
+    }
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.limit = initialLimit;
+    this.estimatedLimit = initialLimit;
+  }
+
+  /**
+   * Takes a place for a request if the service is under its limit. A request that got a place
+   * must give it back with one of the {@code release} methods when it is done.
+   */
+  public boolean tryAcquire() {
+    if (inFlight.incrementAndGet() > limit) {
+      inFlight.decrementAndGet();
+      return false;
+    }
+    return true;
+  }
+
+  /** Gives back the place of a request that completed in {@code latencyNanos}. */
+  public void release(long latencyNanos) {
+    int inFlight = this.inFlight.getAndDecrement();
+    update(latencyNanos, inFlight);
+  }
+
+  /**
+   * Gives back the place of a request whose latency says nothing, e.g. it failed or was cancelled.
+   */
+  public void release() {
+    inFlight.decrementAndGet();
+  }
+
+  private synchronized void update(long latencyNanos, int inFlight) {
+    if (latencyNanos <= 0) {
+      return;
+    }
+    if (latencyNanos < windowLowestNanos) {
+      windowLowestNanos = latencyNanos;
+    }
+    long lowestLatencyNanos = Math.min(windowLowestNanos, previousWindowLowestNanos);
+    if (++windowSamples == WINDOW_SAMPLES) {
+      previousWindowLowestNanos = windowLowestNanos;
+      windowLowestNanos = Long.MAX_VALUE;
+      windowSamples = 0;
+    }
+
+    double limit = estimatedLimit;
+    double log = Math.max(1, Math.log10(limit));
+    double queue = limit * (1 - (double) lowestLatencyNanos / latencyNanos);
+
+    double next;
+    if (queue > 6 * log) {
+      next = limit - log;
+    } else if (inFlight * 2 < limit) {
+      return;
+    } else if (queue <= log) {
+      next = limit + 6 * log;
+    } else if (queue < 3 * log) {
+      next = limit + log;
+    } else {
+      return;
+    }
+
+    estimatedLimit = Math.max(minLimit, Math.min(maxLimit, next));
+    this.limit = (int) estimatedLimit;
+  }
+
+  public int getLimit() {
+    return limit;
+  }
+
+  /** Number of requests holding a place. */
+  public int getInFlight() {
+    return inFlight.get();
+  }
+}
@@ -1,27 +1,49 @@
 package io.netifi.sdk.rs;
 
-import io.netifi.sdk.auth.SessionUtil;
+import io.netifi.sdk.frames.FireAndForgetBatchFlyweight;
+import io.netifi.sdk.frames.FrameType;
 import io.netifi.sdk.frames.RouteDestinationFlyweight;
+import io.netifi.sdk.frames.RouteDictionaryEncoder;
+import io.netifi.sdk.frames.RouteDictionaryEntry;
 import io.netifi.sdk.frames.RouteType;
 import io.netifi.sdk.frames.RoutingFlyweight;
-import io.netifi.sdk.util.TimebasedIdGenerator;
+import io.netifi.sdk.frames.RoutingHeaderTemplate;
+import io.netifi.sdk.metrics.InteractionType;
+import io.netifi.sdk.metrics.NetifiMetrics;
+import io.netifi.sdk.util.IdGenerator;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.rsocket.Payload;
+import io.rsocket.exceptions.ConnectionException;
 import io.rsocket.util.PayloadImpl;
 import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.MonoProcessor;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Schedulers;
 
 public class DefaultNetifiSocket implements NetifiSocket {
-  private final SessionUtil sessionUtil = SessionUtil.instance();
+  /** How many times an {@link IdempotentPayload} is sent again after its connection closed. */
+  private static final int IDEMPOTENT_RETRIES = 3;
+
   private final MonoProcessor<Void> onClose;
   private final ByteBuf route;
-  private long accessKey;
-  private String fromDestination;
-  private TimebasedIdGenerator generator;
+  private final RoutingHeaderTemplate routingHeader;
+  private final long accessKey;
+  private final String fromDestination;
+  private final boolean routeDictionary;
+  private final FireAndForgetBatcher batcher;
+  private final byte[] fromDestinationBytes;
+  private final byte[] routeBytes;
+  private final NetifiMetrics metrics;
+  private final boolean timed;
+  private volatile Session acknowledgedSession;
+  private IdGenerator generator;
   private ReconnectingRSocket reconnectingRSocket;
 
   public DefaultNetifiSocket(
@@ -33,17 +55,119 @@ public class DefaultNetifiSocket implements NetifiSocket {
       String group,
       byte[] accessTokenBytes,
       boolean keepalive,
-      TimebasedIdGenerator generator) {
+      IdGenerator generator) {
+    this(
+        reconnectingRSocket,
+        accessKey,
+        fromAccountId,
+        fromDestination,
+        destination,
+        group,
+        accessTokenBytes,
+        keepalive,
+        generator,
+        false,
+        null);
+  }
+
+  public DefaultNetifiSocket(
+      ReconnectingRSocket reconnectingRSocket,
+      long accessKey,
+      long fromAccountId,
+      String fromDestination,
+      String destination,
+      String group,
+      byte[] accessTokenBytes,
+      boolean keepalive,
+      IdGenerator generator,
+      boolean routeDictionary,
+      FireAndForgetBatching batching) {
+    this(
+        reconnectingRSocket,
+        accessKey,
+        fromAccountId,
+        fromDestination,
+        destination,
+        group,
+        accessTokenBytes,
+        keepalive,
+        generator,
+        routeDictionary,
+        batching,
+        NetifiMetrics.NOOP);
+  }
+
+  /**
+   * @param routeDictionary encode the origin and route against the session's {@link
+   *     RouteDictionaryEncoder}; only enable it when the router supports {@link
+   *     io.netifi.sdk.frames.FrameHeaderFlyweight#ROUTE_DICTIONARY_MINOR_VERSION}
+   * @param batching coalesce fire-and-forget requests into FIRE_AND_FORGET_BATCH frames, or null to
+   *     send each on its own
+   * @param metrics records the latency of every request and the size of every frame
+   */
+  public DefaultNetifiSocket(
+      ReconnectingRSocket reconnectingRSocket,
+      long accessKey,
+      long fromAccountId,
+      String fromDestination,
+      String destination,
+      String group,
+      byte[] accessTokenBytes,
+      boolean keepalive,
+      IdGenerator generator,
+      boolean routeDictionary,
+      FireAndForgetBatching batching,
+      NetifiMetrics metrics) {
+    this(
+        reconnectingRSocket,
+        accessKey,
+        fromAccountId,
+        fromDestination,
+        destination,
+        group,
+        accessTokenBytes,
+        keepalive,
+        generator,
+        routeDictionary,
+        batching,
+        metrics,
+        false);
+  }
+
+  /**
+   * @param broadcast sets the {@code BROADCAST} flag on every ROUTE frame, see {@link
+   *     BroadcastNetifiSocket}; not supported with the route dictionary or batching
+   */
+  DefaultNetifiSocket(
+      ReconnectingRSocket reconnectingRSocket,
+      long accessKey,
+      long fromAccountId,
+      String fromDestination,
+      String destination,
+      String group,
+      byte[] accessTokenBytes,
+      boolean keepalive,
+      IdGenerator generator,
+      boolean routeDictionary,
+      FireAndForgetBatching batching,
+      NetifiMetrics metrics,
+      boolean broadcast) {
+    if (broadcast && (routeDictionary || batching != null)) {
+      throw new IllegalArgumentException(
+          "broadcast is not supported with the route dictionary or batching");
+    }
     this.reconnectingRSocket = reconnectingRSocket;
     this.accessKey = accessKey;
     this.fromDestination = fromDestination;
+    this.routeDictionary = routeDictionary;
     this.generator = generator;
+    this.metrics = metrics;
+    this.timed = metrics != NetifiMetrics.NOOP;
     this.onClose = MonoProcessor.create();
 
     if (destination != null && !destination.equals("")) {
       int length =
-          RouteDestinationFlyweight.computeLength(
-              RouteType.STREAM_ID_ROUTE, fromDestination, group);
+          RouteDestinationFlyweight.computeLength(RouteType.STREAM_ID_ROUTE, destination, group);
       route = Unpooled.wrappedBuffer(ByteBuffer.allocateDirect(length));
       RouteDestinationFlyweight.encodeRouteByDestination(
           route, RouteType.STREAM_ID_ROUTE, fromAccountId, destination, group);
@@ -54,9 +178,21 @@ public class DefaultNetifiSocket implements NetifiSocket {
           route, RouteType.STREAM_GROUP_ROUTE, fromAccountId, group);
     }
 
+    this.routingHeader =
+        new RoutingHeaderTemplate(true, broadcast, accessKey, fromDestination, route);
+    this.fromDestinationBytes = fromDestination.getBytes(StandardCharsets.US_ASCII);
+    this.routeBytes = new byte[route.capacity()];
+    route.getBytes(0, routeBytes);
+
+    this.batcher =
+        batching != null
+            ? new FireAndForgetBatcher(batching, this::fireAndForgetBatch, Schedulers.parallel())
+            : null;
+
     reconnectingRSocket.onClose().doFinally(s -> onClose.onComplete()).subscribe();
   }
 
+  /** The availability score of the connection, see {@link ReconnectingRSocket#availability()}. */
   @Override
   public double availability() {
     return reconnectingRSocket.availability();
@@ -68,89 +204,109 @@ public class DefaultNetifiSocket implements NetifiSocket {
 
   @Override
   public Mono<Void> fireAndForget(Payload payload) {
-    try {
-      ByteBuf metadataToWrap = Unpooled.wrappedBuffer(payload.getMetadata());
-      ByteBuf route = getRoute();
+    return timed
+        ? timed(InteractionType.FIRE_AND_FORGET, doFireAndForget(payload))
+        : doFireAndForget(payload);
+  }
 
-      int length = RoutingFlyweight.computeLength(true, fromDestination, route, metadataToWrap);
+  private Mono<Void> doFireAndForget(Payload payload) {
+    if (batcher != null) {
+      return batcher.fireAndForget(payload);
+    }
 
-      return reconnectingRSocket
-          .getCurrentSessionCounter()
-          .flatMap(
-              counter -> {
-                long count = counter.incrementAndGet();
-
-                return reconnectingRSocket
-                    .getCurrentSessionToken()
-                    .flatMap(
-                        key -> {
-                          byte[] currentRequestToken =
-                              sessionUtil.generateSessionToken(key, payload.getData(), count);
-                          int requestToken =
-                              sessionUtil.generateRequestToken(
-                                  currentRequestToken, payload.getData(), count);
-                          ByteBuffer byteBuffer = ByteBuffer.allocate(length);
-                          ByteBuf metadata = Unpooled.wrappedBuffer(byteBuffer);
-                          RoutingFlyweight.encode(
-                              metadata,
-                              true,
-                              requestToken,
-                              accessKey,
-                              fromDestination,
-                              generator.nextId(),
-                              route,
-                              metadataToWrap);
-
-                          return reconnectingRSocket.fireAndForget(
-                              new PayloadImpl(payload.getData(), byteBuffer));
-                        });
-              });
+    try {
+      Session session = reconnectingRSocket.getCurrentSession();
+      if (session != null) {
+        return session.getRSocket().fireAndForget(wrap(session, payload));
+      }
 
+      return reconnectingRSocket
+          .awaitSession()
+          .flatMap(s -> s.getRSocket().fireAndForget(wrap(s, payload)));
     } catch (Throwable t) {
       return Mono.error(t);
     }
   }
 
+  private Mono<Void> fireAndForgetBatch(List<Payload> payloads) {
+    Session session = reconnectingRSocket.getCurrentSession();
+    if (session != null) {
+      return fireAndForgetBatch(session, payloads);
+    }
+
+    return reconnectingRSocket.awaitSession().flatMap(s -> fireAndForgetBatch(s, payloads));
+  }
+
+  /** Sends the payloads in one FIRE_AND_FORGET_BATCH frame signed with a single token. */
+  private Mono<Void> fireAndForgetBatch(Session session, List<Payload> payloads) {
+    int length = 0;
+    for (Payload payload : payloads) {
+      length +=
+          FireAndForgetBatchFlyweight.computeEntryLength(
+              payload.getMetadata().remaining(), payload.getData().remaining());
+    }
+
+    ByteBuffer data = ByteBuffer.allocate(length);
+    ByteBuf dataByteBuf = Unpooled.wrappedBuffer(data);
+    int offset = 0;
+    for (Payload payload : payloads) {
+      offset =
+          FireAndForgetBatchFlyweight.encodeEntry(
+              dataByteBuf,
+              offset,
+              Unpooled.wrappedBuffer(payload.getMetadata()),
+              Unpooled.wrappedBuffer(payload.getData()));
+    }
+
+    int requestToken = session.generateRequestToken(data);
+    int metadataLength = FireAndForgetBatchFlyweight.computeLength(true, fromDestination, route);
+    ByteBuffer metadata = ByteBuffer.allocate(metadataLength);
+    FireAndForgetBatchFlyweight.encode(
+        Unpooled.wrappedBuffer(metadata),
+        true,
+        requestToken,
+        accessKey,
+        fromDestination,
+        generator.nextId(),
+        route,
+        payloads.size());
+
+    metrics.recordFrame(FrameType.FIRE_AND_FORGET_BATCH, metadataLength + length);
+    return session.getRSocket().fireAndForget(new PayloadImpl(data, metadata));
+  }
+
   @Override
   public Mono<Payload> requestResponse(Payload payload) {
-    try {
-      ByteBuf metadataToWrap = Unpooled.wrappedBuffer(payload.getMetadata());
-      ByteBuf route = getRoute();
+    // started per subscription, as each subscription sends the request and finishes once
+    return Mono.defer(
+        () -> {
+          long start = reconnectingRSocket.requestStarted();
+          Mono<Payload> response =
+              payload instanceof IdempotentPayload
+                  ? Mono.defer(() -> doRequestResponse(payload))
+                      .retry(IDEMPOTENT_RETRIES, DefaultNetifiSocket::isConnectionLost)
+                  : doRequestResponse(payload);
+          return response.doFinally(
+              s -> {
+                reconnectingRSocket.requestFinished(start, s != SignalType.CANCEL);
+                recordInteraction(InteractionType.REQUEST_RESPONSE, start, s);
+              });
+        });
+  }
 
-      int length = RoutingFlyweight.computeLength(true, fromDestination, route, metadataToWrap);
+  /** True if the request failed because its connection closed before it was answered. */
+  private static boolean isConnectionLost(Throwable t) {
+    return t instanceof ClosedChannelException || t instanceof ConnectionException;
+  }
 
-      return reconnectingRSocket
-          .getCurrentSessionCounter()
-          .flatMap(
-              counter -> {
-                long count = counter.incrementAndGet();
-
-                return reconnectingRSocket
-                    .getCurrentSessionToken()
-                    .flatMap(
-                        key -> {
-                          byte[] currentRequestToken =
-                              sessionUtil.generateSessionToken(key, payload.getData(), count);
-                          int requestToken =
-                              sessionUtil.generateRequestToken(
-                                  currentRequestToken, payload.getData(), count);
-                          ByteBuffer byteBuffer = ByteBuffer.allocate(length);
-                          ByteBuf metadata = Unpooled.wrappedBuffer(byteBuffer);
-                          RoutingFlyweight.encode(
-                              metadata,
-                              true,
-                              requestToken,
-                              accessKey,
-                              fromDestination,
-                              generator.nextId(),
-                              route,
-                              metadataToWrap);
-
-                          return reconnectingRSocket.requestResponse(
-                              new PayloadImpl(payload.getData(), byteBuffer));
-                        });
-              });
+  private Mono<Payload> doRequestResponse(Payload payload) {
+    try {
+      Session session = reconnectingRSocket.getCurrentSession();
+      if (session != null) {
+        return requestResponse(session, payload);
+      }
 
+      return reconnectingRSocket.awaitSession().flatMap(s -> requestResponse(s, payload));
     } catch (Throwable t) {
       return Mono.error(t);
     }
@@ -158,144 +314,194 @@ public class DefaultNetifiSocket implements NetifiSocket {
 
   @Override
   public Flux<Payload> requestStream(Payload payload) {
-    try {
-      ByteBuf metadataToWrap = Unpooled.wrappedBuffer(payload.getMetadata());
-      ByteBuf route = getRoute();
-
-      int length = RoutingFlyweight.computeLength(true, fromDestination, route, metadataToWrap);
+    return Flux.defer(
+        () -> {
+          long start = reconnectingRSocket.requestStarted();
+          return doRequestStream(payload)
+              .doFinally(
+                  s -> {
+                    reconnectingRSocket.requestFinished(start, false);
+                    recordInteraction(InteractionType.REQUEST_STREAM, start, s);
+                  });
+        });
+  }
 
-      return reconnectingRSocket
-          .getCurrentSessionCounter()
-          .flatMapMany(
-              counter -> {
-                long count = counter.incrementAndGet();
-
-                return reconnectingRSocket
-                    .getCurrentSessionToken()
-                    .flatMapMany(
-                        key -> {
-                          byte[] currentRequestToken =
-                              sessionUtil.generateSessionToken(key, payload.getData(), count);
-                          int requestToken =
-                              sessionUtil.generateRequestToken(
-                                  currentRequestToken, payload.getData(), count);
-                          ByteBuffer byteBuffer = ByteBuffer.allocate(length);
-                          ByteBuf metadata = Unpooled.wrappedBuffer(byteBuffer);
-                          RoutingFlyweight.encode(
-                              metadata,
-                              true,
-                              requestToken,
-                              accessKey,
-                              fromDestination,
-                              generator.nextId(),
-                              route,
-                              metadataToWrap);
-
-                          return reconnectingRSocket.requestStream(
-                              new PayloadImpl(payload.getData(), byteBuffer));
-                        });
-              });
+  private Flux<Payload> doRequestStream(Payload payload) {
+    try {
+      Session session = reconnectingRSocket.getCurrentSession();
+      if (session != null) {
+        return requestStream(session, payload);
+      }
 
+      return reconnectingRSocket.awaitSession().flatMapMany(s -> requestStream(s, payload));
     } catch (Throwable t) {
       return Flux.error(t);
     }
   }
 
+  private Mono<Payload> requestResponse(Session session, Payload payload) {
+    Mono<Payload> response = session.getRSocket().requestResponse(wrap(session, payload));
+    return routeDictionary ? response.doOnNext(p -> acknowledgeRoute(session)) : response;
+  }
+
+  private Flux<Payload> requestStream(Session session, Payload payload) {
+    Flux<Payload> responses = session.getRSocket().requestStream(wrap(session, payload));
+    return routeDictionary ? responses.doOnNext(p -> acknowledgeRoute(session)) : responses;
+  }
+
   @Override
   public Flux<Payload> requestChannel(Publisher<Payload> payloads) {
-    ByteBuf route = getRoute();
-    Flux<Payload> payloadFlux =
-        Flux.from(payloads)
-            .flatMap(
-                payload -> {
-                  ByteBuf metadataToWrap = Unpooled.wrappedBuffer(payload.getMetadata());
-                  int length =
-                      RoutingFlyweight.computeLength(true, fromDestination, route, metadataToWrap);
-
-                  return reconnectingRSocket
-                      .getCurrentSessionCounter()
-                      .flatMapMany(
-                          counter -> {
-                            long count = counter.incrementAndGet();
-
-                            return reconnectingRSocket
-                                .getCurrentSessionToken()
-                                .map(
-                                    key -> {
-                                      byte[] currentRequestToken =
-                                          sessionUtil.generateSessionToken(
-                                              key, payload.getData(), count);
-                                      int requestToken =
-                                          sessionUtil.generateRequestToken(
-                                              currentRequestToken, payload.getData(), count);
-                                      ByteBuffer byteBuffer = ByteBuffer.allocate(length);
-                                      ByteBuf metadata = Unpooled.wrappedBuffer(byteBuffer);
-                                      RoutingFlyweight.encode(
-                                          metadata,
-                                          true,
-                                          requestToken,
-                                          accessKey,
-                                          fromDestination,
-                                          generator.nextId(),
-                                          route,
-                                          metadataToWrap);
-
-                                      return new PayloadImpl(payload.getData(), byteBuffer);
-                                    });
-                          });
-                });
-
-    return reconnectingRSocket.requestChannel(payloadFlux);
+    return Flux.defer(
+        () -> {
+          long start = reconnectingRSocket.requestStarted();
+          return doRequestChannel(payloads)
+              .doFinally(
+                  s -> {
+                    reconnectingRSocket.requestFinished(start, false);
+                    recordInteraction(InteractionType.REQUEST_CHANNEL, start, s);
+                  });
+        });
+  }
+
+  private Flux<Payload> doRequestChannel(Publisher<Payload> payloads) {
+    Session session = reconnectingRSocket.getCurrentSession();
+    if (session != null) {
+      return requestChannel(session, payloads);
+    }
+
+    return reconnectingRSocket.awaitSession().flatMapMany(s -> requestChannel(s, payloads));
+  }
+
+  /**
+   * Signs every element of the channel with the same session, in the order they arrive, and sends
+   * the channel on that session's connection so the tokens match the connection they travel on.
+   */
+  private Flux<Payload> requestChannel(Session session, Publisher<Payload> payloads) {
+    Flux<Payload> payloadFlux = Flux.from(payloads).map(payload -> wrap(session, payload));
+    Flux<Payload> responses = session.getRSocket().requestChannel(payloadFlux);
+    return routeDictionary ? responses.doOnNext(p -> acknowledgeRoute(session)) : responses;
   }
 
   @Override
   public Mono<Void> metadataPush(Payload payload) {
-    try {
-      ByteBuf route = getRoute();
-      ByteBuf unwrappedMetadata = Unpooled.wrappedBuffer(payload.getMetadata());
+    return timed
+        ? timed(InteractionType.METADATA_PUSH, doMetadataPush(payload))
+        : doMetadataPush(payload);
+  }
 
-      int length = RoutingFlyweight.computeLength(true, fromDestination, route);
+  private Mono<Void> doMetadataPush(Payload payload) {
+    try {
+      Session session = reconnectingRSocket.getCurrentSession();
+      if (session != null) {
+        return session.getRSocket().metadataPush(wrap(session, payload));
+      }
 
       return reconnectingRSocket
-          .getCurrentSessionCounter()
-          .flatMap(
-              counter -> {
-                long count = counter.incrementAndGet();
-
-                return reconnectingRSocket
-                    .getCurrentSessionToken()
-                    .flatMap(
-                        key -> {
-                          byte[] currentRequestToken =
-                              sessionUtil.generateSessionToken(key, payload.getData(), count);
-                          int requestToken =
-                              sessionUtil.generateRequestToken(
-                                  currentRequestToken, payload.getData(), count);
-                          ByteBuffer byteBuffer = ByteBuffer.allocate(length);
-                          ByteBuf metadata = Unpooled.wrappedBuffer(byteBuffer);
-                          RoutingFlyweight.encode(
-                              metadata,
-                              true,
-                              requestToken,
-                              accessKey,
-                              fromDestination,
-                              generator.nextId(),
-                              route,
-                              unwrappedMetadata);
-
-                          return reconnectingRSocket.metadataPush(
-                              new PayloadImpl(payload.getData(), byteBuffer));
-                        });
-              });
-
+          .awaitSession()
+          .flatMap(s -> s.getRSocket().metadataPush(wrap(s, payload)));
     } catch (Throwable t) {
       return Mono.error(t);
     }
   }
 
+  /** Times each subscription to {@code interaction}, from when it is subscribed. */
+  private <T> Mono<T> timed(InteractionType type, Mono<T> interaction) {
+    return Mono.defer(
+        () -> {
+          long start = System.nanoTime();
+          return interaction.doFinally(s -> recordInteraction(type, start, s));
+        });
+  }
+
+  private void recordInteraction(InteractionType type, long start, SignalType signal) {
+    if (timed) {
+      metrics.recordInteraction(type, System.nanoTime() - start, signal == SignalType.ON_ERROR);
+    }
+  }
+
+  /**
+   * Signs the payload and wraps it in the ROUTE frame this socket would send, without sending it.
+   * Used to dispatch requests in process with {@link LocalSigningPolicy#SIGN}.
+   */
+  Mono<Payload> sign(Payload payload) {
+    Session session = reconnectingRSocket.getCurrentSession();
+    if (session != null) {
+      return Mono.fromCallable(() -> wrap(session, payload));
+    }
+
+    return reconnectingRSocket.awaitSession().map(s -> wrap(s, payload));
+  }
+
+  /** Signs every element of a channel with the same session, see {@link #sign(Payload)}. */
+  Flux<Payload> sign(Publisher<Payload> payloads) {
+    Session session = reconnectingRSocket.getCurrentSession();
+    if (session != null) {
+      return Flux.from(payloads).map(payload -> wrap(session, payload));
+    }
+
+    return reconnectingRSocket
+        .awaitSession()
+        .flatMapMany(s -> Flux.from(payloads).map(payload -> wrap(s, payload)));
+  }
+
+  /** Signs the payload with the session and wraps its metadata in a ROUTE frame. */
+  private Payload wrap(Session session, Payload payload) {
+    if (routeDictionary) {
+      return wrapWithRouteDictionary(session, payload);
+    }
+
+    ByteBuf metadataToWrap = Unpooled.wrappedBuffer(payload.getMetadata());
+    int length = routingHeader.computeLength(metadataToWrap);
+    int requestToken = session.generateRequestToken(payload.getData());
+
+    ByteBuffer byteBuffer = ByteBuffer.allocate(length);
+    ByteBuf metadata = Unpooled.wrappedBuffer(byteBuffer);
+    routingHeader.encode(metadata, requestToken, generator.nextId(), metadataToWrap);
+    metrics.recordFrame(FrameType.ROUTE, length + payload.getData().remaining());
+
+    return new PayloadImpl(payload.getData(), byteBuffer);
+  }
+
+  private Payload wrapWithRouteDictionary(Session session, Payload payload) {
+    RouteDictionaryEncoder dictionary = session.getRouteDictionary();
+    RouteDictionaryEntry origin = dictionary.entry(fromDestinationBytes);
+    RouteDictionaryEntry route = dictionary.entry(routeBytes);
+
+    ByteBuf metadataToWrap = Unpooled.wrappedBuffer(payload.getMetadata());
+    int length = RoutingFlyweight.computeLength(true, origin, route, metadataToWrap);
+    int requestToken = session.generateRequestToken(payload.getData());
+
+    ByteBuffer byteBuffer = ByteBuffer.allocate(length);
+    ByteBuf metadata = Unpooled.wrappedBuffer(byteBuffer);
+    RoutingFlyweight.encode(
+        metadata, true, requestToken, accessKey, origin, generator.nextId(), route, metadataToWrap);
+    metrics.recordFrame(FrameType.ROUTE, length + payload.getData().remaining());
+
+    return new PayloadImpl(payload.getData(), byteBuffer);
+  }
+
+  /**
+   * The router has to decode a request before it can be answered, so a response proves it knows
+   * this socket's origin and route, and later requests on the session can refer to them by id.
+   */
+  private void acknowledgeRoute(Session session) {
+    if (acknowledgedSession != session) {
+      RouteDictionaryEncoder dictionary = session.getRouteDictionary();
+      dictionary.acknowledge(fromDestinationBytes);
+      dictionary.acknowledge(routeBytes);
+      acknowledgedSession = session;
+    }
+  }
+
   @Override
   public Mono<Void> close() {
-    return Mono.fromRunnable(onClose::onComplete);
+    return Mono.fromRunnable(
+        () -> {
+          if (batcher != null) {
+            batcher.flush();
+          }
+          onClose.onComplete();
+        });
   }
 
   @Override
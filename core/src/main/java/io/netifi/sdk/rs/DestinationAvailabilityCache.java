@@ -0,0 +1,125 @@
+package io.netifi.sdk.rs;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+/**
+ * Caches whether destinations are connected to the router, so requests to a destination that is
+ * known to be gone can fail right away instead of waiting for a timeout.
+ *
+ * <p>An entry is trusted for the TTL after it was looked up. Once half of the TTL has passed, the
+ * next check refreshes it in the background while the cached answer is still used. An entry that
+ * has expired, or was never looked up, is unknown: the check lets the request through and starts a
+ * lookup. Lookups never block a request, and at most one runs per destination at a time.
+ */
+public class DestinationAvailabilityCache {
+  private static final Logger logger = LoggerFactory.getLogger(DestinationAvailabilityCache.class);
+
+  private final ConcurrentHashMap<String, ConcurrentHashMap<String, Availability>> groups =
+      new ConcurrentHashMap<>();
+  private final Duration ttl;
+  private final long ttlNanos;
+  private final BiFunction<String, String, Mono<Boolean>> lookup;
+
+  /**
+   * @param ttl how long a lookup is trusted
+   * @param lookup asks the router whether a destination in a group is connected
+   */
+  public DestinationAvailabilityCache(
+      Duration ttl, BiFunction<String, String, Mono<Boolean>> lookup) {
+    Objects.requireNonNull(ttl, "ttl is required");
+    if (ttl.isNegative() || ttl.isZero()) {
+      throw new IllegalArgumentException("ttl must be positive");
+    }
+    this.ttl = ttl;
+    this.ttlNanos = ttl.toNanos();
+    this.lookup = Objects.requireNonNull(lookup, "lookup is required");
+  }
+
+  /**
+   * Returns the entry for a destination. Entries are shared, and checking one does not allocate,
+   * so callers should keep the entry rather than look it up for every request.
+   */
+  public Availability get(String group, String destination) {
+    return groups
+        .computeIfAbsent(group, g -> new ConcurrentHashMap<>())
+        .computeIfAbsent(destination, d -> new Availability(group, destination));
+  }
+
+  public class Availability {
+    private final String group;
+    private final String destination;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    // known is written last, so a reader that sees it set also sees the lookup it belongs to
+    private volatile boolean available;
+    private volatile long lookedUpAt;
+    private volatile boolean known;
+
+    private Availability(String group, String destination) {
+      this.group = group;
+      this.destination = destination;
+    }
+
+    public String getGroup() {
+      return group;
+    }
+
+    public String getDestination() {
+      return destination;
+    }
+
+    /**
+     * True if the last lookup, less than the TTL ago, found the destination gone. Starts a
+     * background refresh when the entry is unknown, expired, or half way to expiring.
+     */
+    public boolean isKnownAbsent() {
+      if (!known) {
+        refresh();
+        return false;
+      }
+
+      long age = System.nanoTime() - lookedUpAt;
+      if (age >= ttlNanos) {
+        refresh();
+        return false;
+      }
+      if (age >= ttlNanos >>> 1) {
+        refresh();
+      }
+
+      return !available;
+    }
+
+    /** Records whether the destination is connected, as of now. */
+    public synchronized void update(boolean available) {
+      this.available = available;
+      this.lookedUpAt = System.nanoTime();
+      this.known = true;
+    }
+
+    private void refresh() {
+      if (!refreshing.compareAndSet(false, true)) {
+        return;
+      }
+
+      try {
+        lookup
+            .apply(group, destination)
+            .timeout(ttl)
+            .doFinally(s -> refreshing.set(false))
+            .subscribe(
+                this::update,
+                t -> logger.debug("availability lookup for {} failed", destination, t));
+      } catch (Throwable t) {
+        refreshing.set(false);
+        logger.debug("availability lookup for {} failed", destination, t);
+      }
+    }
+  }
+}
@@ -0,0 +1,252 @@
+package io.netifi.sdk.rs;
+
+import io.rsocket.exceptions.RejectedException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Where a service's handlers run. By default they run on the thread that delivered the request,
+ * usually a Netty event loop, which is the fastest for handlers that never block, but a handler
+ * that blocks stalls every other service on the connection. A service with a bounded pool, or
+ * virtual threads on JDK 21 or newer, is isolated from the others: its handlers run on its own
+ * threads, and when it is full its requests fail right away with a {@link RejectedException},
+ * which RSocket sends as a REJECTED error, instead of queueing without bound.
+ *
+ * <p>A request holds its place from when it is admitted until it completes, fails or is
+ * cancelled, so a handler that answers asynchronously counts towards the bound for as long as its
+ * answer is outstanding, not only while it runs on a thread.
+ *
+ * <p>A policy can be shared by several services, which then share its threads and bounds. Policies
+ * with threads should be disposed when their services are removed.
+ */
+public class ExecutionPolicy implements Disposable {
+  private static final ExecutionPolicy EVENT_LOOP = new ExecutionPolicy("event-loop", null, 0);
+
+  private final String name;
+  private final ExecutorService executor;
+  private final Scheduler scheduler;
+  private final Semaphore permits;
+  private final AtomicInteger queued = new AtomicInteger();
+  private final AtomicInteger active = new AtomicInteger();
+  private final LongAdder completed = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+
+  private ExecutionPolicy(String name, ExecutorService executor, int maxRequests) {
+    this.name = name;
+    this.executor = executor;
+    this.scheduler = executor != null ? Schedulers.fromExecutorService(executor) : null;
+    this.permits = new Semaphore(maxRequests);
+  }
+
+  /** Runs handlers on the thread that delivered the request. The default. */
+  public static ExecutionPolicy eventLoop() {
+    return EVENT_LOOP;
+  }
+
+  /**
+   * Runs handlers on a pool of {@code threads} daemon threads. Up to {@code threads + maxQueued}
+   * requests are handled at a time, whether they wait for a thread, run on one or wait for an
+   * asynchronous answer, and more are rejected.
+   *
+   * @param name names the threads, for thread dumps
+   */
+  public static ExecutionPolicy boundedPool(String name, int threads, int maxQueued) {
+    Objects.requireNonNull(name, "name is required");
+    if (threads < 1) {
+      throw new IllegalArgumentException("threads must be at least 1");
+    }
+    if (maxQueued < 0) {
+      throw new IllegalArgumentException("max queued must not be negative");
+    }
+
+    AtomicInteger count = new AtomicInteger();
+    ThreadFactory threadFactory =
+        runnable -> {
+          Thread thread = new Thread(runnable, "netifi-" + name + "-" + count.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        };
+    return new ExecutionPolicy(
+        name, Executors.newFixedThreadPool(threads, threadFactory), threads + maxQueued);
+  }
+
+  /**
+   * Runs each request on a new virtual thread, with up to {@code maxConcurrent} requests at a time
+   * and more rejected. Virtual threads do not queue, so blocking handlers scale with the bound
+   * rather than with a pool size.
+   *
+   * @throws UnsupportedOperationException before JDK 21, see {@link #virtualThreadsAvailable()}
+   */
+  public static ExecutionPolicy virtualThreads(String name, int maxConcurrent) {
+    Objects.requireNonNull(name, "name is required");
+    if (maxConcurrent < 1) {
+      throw new IllegalArgumentException("max concurrent must be at least 1");
+    }
+    return new ExecutionPolicy(name, newVirtualThreadPerTaskExecutor(), maxConcurrent);
+  }
+
+  /** True if this JVM has virtual threads, i.e. it is JDK 21 or newer. */
+  public static boolean virtualThreadsAvailable() {
+    try {
+      newVirtualThreadPerTaskExecutor().shutdown();
+      return true;
+    } catch (UnsupportedOperationException e) {
+      return false;
+    }
+  }
+
+  // looked up reflectively, so the sdk still runs on JDK 8
+  private static ExecutorService newVirtualThreadPerTaskExecutor() {
+    try {
+      return (ExecutorService)
+          Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (NoSuchMethodException e) {
+      throw new UnsupportedOperationException("virtual threads need JDK 21 or newer");
+    } catch (InvocationTargetException e) {
+      // JDK 19 and 20 have them as a preview feature, and throw unless it is enabled
+      if (e.getCause() instanceof UnsupportedOperationException) {
+        throw (UnsupportedOperationException) e.getCause();
+      }
+      throw new IllegalStateException("error creating a virtual thread executor", e.getCause());
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException("error creating a virtual thread executor", e);
+    }
+  }
+
+  <T> Mono<T> execute(Mono<T> interaction) {
+    if (scheduler == null) {
+      return interaction;
+    }
+
+    return Mono.defer(
+        () -> {
+          Admission admission = admit();
+          if (admission == null) {
+            return Mono.error(rejected());
+          }
+          return Mono.defer(
+                  () -> {
+                    admission.start();
+                    return interaction;
+                  })
+              .subscribeOn(scheduler)
+              .onErrorMap(RejectedExecutionException.class, e -> rejected())
+              .doFinally(s -> admission.finish());
+        });
+  }
+
+  <T> Flux<T> execute(Flux<T> interaction) {
+    if (scheduler == null) {
+      return interaction;
+    }
+
+    return Flux.defer(
+        () -> {
+          Admission admission = admit();
+          if (admission == null) {
+            return Flux.error(rejected());
+          }
+          return Flux.defer(
+                  () -> {
+                    admission.start();
+                    return interaction;
+                  })
+              .subscribeOn(scheduler)
+              .onErrorMap(RejectedExecutionException.class, e -> rejected())
+              .doFinally(s -> admission.finish());
+        });
+  }
+
+  /** Takes a place for a request, or returns null and counts it as rejected if there is none. */
+  private Admission admit() {
+    if (!permits.tryAcquire()) {
+      rejected.increment();
+      return null;
+    }
+    queued.incrementAndGet();
+    return new Admission();
+  }
+
+  private RejectedException rejected() {
+    return new RejectedException(name + " is full");
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /** Number of requests waiting for a thread. */
+  public int getQueued() {
+    return queued.get();
+  }
+
+  /** Number of requests that started and have not finished, including asynchronous ones. */
+  public int getActive() {
+    return active.get();
+  }
+
+  /** Number of requests that were run. */
+  public long getCompleted() {
+    return completed.sum();
+  }
+
+  /** Number of requests rejected because the policy was full. */
+  public long getRejected() {
+    return rejected.sum();
+  }
+
+  @Override
+  public void dispose() {
+    if (executor != null) {
+      scheduler.dispose();
+      executor.shutdown();
+    }
+  }
+
+  @Override
+  public boolean isDisposed() {
+    return executor != null && executor.isShutdown();
+  }
+
+  /** The place of one request, from when it is admitted until it finishes. */
+  private final class Admission {
+    private static final int QUEUED = 0;
+    private static final int ACTIVE = 1;
+    private static final int FINISHED = 2;
+
+    // the request may be cancelled on another thread while it starts
+    private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+    private void start() {
+      if (state.compareAndSet(QUEUED, ACTIVE)) {
+        queued.decrementAndGet();
+        active.incrementAndGet();
+      }
+    }
+
+    private void finish() {
+      int previous = state.getAndSet(FINISHED);
+      if (previous == QUEUED) {
+        queued.decrementAndGet();
+      } else if (previous == ACTIVE) {
+        active.decrementAndGet();
+        completed.increment();
+      } else {
+        return;
+      }
+      permits.release();
+    }
+  }
+}
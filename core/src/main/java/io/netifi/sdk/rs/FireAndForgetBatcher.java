@@ -0,0 +1,125 @@
+package io.netifi.sdk.rs;
+
+import io.netifi.sdk.frames.FireAndForgetBatchFlyweight;
+import io.rsocket.Payload;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Collects fire-and-forget payloads into batches and hands each full or expired batch to a sender.
+ * The {@link Mono} returned for a payload completes when the batch holding it has been sent, and
+ * fails if sending the batch fails.
+ */
+final class FireAndForgetBatcher {
+  private final FireAndForgetBatching batching;
+  private final Function<List<Payload>, Mono<Void>> sender;
+  private final Scheduler scheduler;
+  private final long maxDelayNanos;
+
+  private Batch current;
+
+  FireAndForgetBatcher(
+      FireAndForgetBatching batching,
+      Function<List<Payload>, Mono<Void>> sender,
+      Scheduler scheduler) {
+    this.batching = batching;
+    this.sender = sender;
+    this.scheduler = scheduler;
+    this.maxDelayNanos = batching.getMaxDelay().toNanos();
+  }
+
+  /** Adds the payload to the current batch when the returned Mono is subscribed. */
+  Mono<Void> fireAndForget(Payload payload) {
+    return Mono.defer(() -> add(payload));
+  }
+
+  private Mono<Void> add(Payload payload) {
+    int length =
+        FireAndForgetBatchFlyweight.computeEntryLength(
+            payload.getMetadata().remaining(), payload.getData().remaining());
+
+    Batch overflow = null;
+    Batch full = null;
+    Batch started = null;
+    Batch batch;
+
+    synchronized (this) {
+      batch = current;
+      if (batch != null && batch.bytes + length > batching.getMaxBatchBytes()) {
+        overflow = batch;
+        batch = null;
+      }
+
+      if (batch == null) {
+        batch = new Batch();
+        current = batch;
+        started = batch;
+      }
+
+      batch.payloads.add(payload);
+      batch.bytes += length;
+
+      if (batch.payloads.size() >= batching.getMaxBatchCount()
+          || batch.bytes >= batching.getMaxBatchBytes()) {
+        current = null;
+        full = batch;
+      }
+    }
+
+    if (overflow != null) {
+      send(overflow);
+    }
+
+    if (full != null) {
+      send(full);
+    } else if (started != null) {
+      Batch expiring = started;
+      scheduler.schedule(() -> flush(expiring), maxDelayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    return batch.sent;
+  }
+
+  private void flush(Batch batch) {
+    synchronized (this) {
+      if (current != batch) {
+        return;
+      }
+      current = null;
+    }
+
+    send(batch);
+  }
+
+  /** Sends the current batch right away, if there is one. */
+  void flush() {
+    Batch batch;
+    synchronized (this) {
+      batch = current;
+      current = null;
+    }
+
+    if (batch != null) {
+      send(batch);
+    }
+  }
+
+  private void send(Batch batch) {
+    try {
+      sender.apply(batch.payloads).subscribe(batch.sent);
+    } catch (Throwable t) {
+      batch.sent.onError(t);
+    }
+  }
+
+  private static final class Batch {
+    final List<Payload> payloads = new ArrayList<>();
+    final MonoProcessor<Void> sent = MonoProcessor.create();
+    int bytes;
+  }
+}
@@ -0,0 +1,44 @@
+package io.netifi.sdk.rs;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Limits for coalescing fire-and-forget requests to one route into a single FIRE_AND_FORGET_BATCH
+ * frame. A batch is sent as soon as it holds {@code maxBatchCount} requests or {@code
+ * maxBatchBytes} bytes of requests, and at the latest {@code maxDelay} after its first request.
+ */
+public final class FireAndForgetBatching {
+  private final int maxBatchBytes;
+  private final int maxBatchCount;
+  private final Duration maxDelay;
+
+  public FireAndForgetBatching(int maxBatchBytes, int maxBatchCount, Duration maxDelay) {
+    if (maxBatchBytes < 1) {
+      throw new IllegalArgumentException("max batch bytes must be at least 1");
+    }
+    if (maxBatchCount < 1) {
+      throw new IllegalArgumentException("max batch count must be at least 1");
+    }
+    Objects.requireNonNull(maxDelay, "max delay is required");
+    if (maxDelay.isNegative() || maxDelay.isZero()) {
+      throw new IllegalArgumentException("max delay must be positive");
+    }
+
+    this.maxBatchBytes = maxBatchBytes;
+    this.maxBatchCount = maxBatchCount;
+    this.maxDelay = maxDelay;
+  }
+
+  public int getMaxBatchBytes() {
+    return maxBatchBytes;
+  }
+
+  public int getMaxBatchCount() {
+    return maxBatchCount;
+  }
+
+  public Duration getMaxDelay() {
+    return maxDelay;
+  }
+}
@@ -0,0 +1,38 @@
+package io.netifi.sdk.rs;
+
+import io.rsocket.Payload;
+import java.nio.ByteBuffer;
+
+/**
+ * Marks a request as safe to send more than once. When the connection drops before a
+ * request-response sent through a {@link DefaultNetifiSocket} is answered, an idempotent request is
+ * signed again and sent on the next connection, instead of failing.
+ */
+public class IdempotentPayload implements Payload {
+  private final Payload payload;
+
+  public IdempotentPayload(Payload payload) {
+    this.payload = payload;
+  }
+
+  public static IdempotentPayload of(Payload payload) {
+    return payload instanceof IdempotentPayload
+        ? (IdempotentPayload) payload
+        : new IdempotentPayload(payload);
+  }
+
+  @Override
+  public boolean hasMetadata() {
+    return payload.hasMetadata();
+  }
+
+  @Override
+  public ByteBuffer getMetadata() {
+    return payload.getMetadata();
+  }
+
+  @Override
+  public ByteBuffer getData() {
+    return payload.getData();
+  }
+}
@@ -0,0 +1,86 @@
+package io.netifi.sdk.rs;
+
+import io.rsocket.DuplexConnection;
+import io.rsocket.Frame;
+import io.rsocket.FrameType;
+import io.rsocket.plugins.DuplexConnectionInterceptor;
+import java.util.function.LongConsumer;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Measures the keepalive round trip time of a connection: the time from sending a KEEPALIVE frame
+ * with the respond flag set until the next KEEPALIVE frame without it arrives. Frames are only
+ * looked at, never changed or consumed.
+ */
+class KeepaliveRoundTripInterceptor implements DuplexConnectionInterceptor {
+  private final LongConsumer roundTrips;
+
+  /** @param roundTrips receives each round trip time in nanoseconds */
+  KeepaliveRoundTripInterceptor(LongConsumer roundTrips) {
+    this.roundTrips = roundTrips;
+  }
+
+  @Override
+  public DuplexConnection apply(Type type, DuplexConnection connection) {
+    return type == Type.SOURCE ? new KeepaliveRoundTripConnection(connection) : connection;
+  }
+
+  private class KeepaliveRoundTripConnection implements DuplexConnection {
+    private final DuplexConnection source;
+    // 0 while no keepalive is waiting to be answered
+    private volatile long sentAt;
+
+    private KeepaliveRoundTripConnection(DuplexConnection source) {
+      this.source = source;
+    }
+
+    @Override
+    public Mono<Void> send(Publisher<Frame> frames) {
+      return source.send(Flux.from(frames).doOnNext(this::sent));
+    }
+
+    @Override
+    public Mono<Void> sendOne(Frame frame) {
+      sent(frame);
+      return source.sendOne(frame);
+    }
+
+    private void sent(Frame frame) {
+      if (frame.getType() == FrameType.KEEPALIVE && Frame.Keepalive.hasRespondFlag(frame)) {
+        sentAt = System.nanoTime();
+      }
+    }
+
+    @Override
+    public Flux<Frame> receive() {
+      return source.receive().doOnNext(this::received);
+    }
+
+    private void received(Frame frame) {
+      long sentAt = this.sentAt;
+      if (sentAt != 0
+          && frame.getType() == FrameType.KEEPALIVE
+          && !Frame.Keepalive.hasRespondFlag(frame)) {
+        this.sentAt = 0;
+        roundTrips.accept(System.nanoTime() - sentAt);
+      }
+    }
+
+    @Override
+    public double availability() {
+      return source.availability();
+    }
+
+    @Override
+    public Mono<Void> close() {
+      return source.close();
+    }
+
+    @Override
+    public Mono<Void> onClose() {
+      return source.onClose();
+    }
+  }
+}
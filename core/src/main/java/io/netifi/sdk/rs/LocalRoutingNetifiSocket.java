@@ -0,0 +1,143 @@
+package io.netifi.sdk.rs;
+
+import io.rsocket.Payload;
+import io.rsocket.RSocket;
+import io.rsocket.internal.SwitchTransform;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Short-circuits requests to services registered in this process. Requests the {@link
+ * LocalRoutingPolicy} keeps local are handed straight to the {@link RequestHandlingRSocket}, with
+ * no serialization and no network hop, and everything else goes to the broker through the remote
+ * socket. The decision is made per request from the namespace and service id in its Proteus
+ * metadata, and for channels from the first element.
+ */
+public class LocalRoutingNetifiSocket implements NetifiSocket {
+  private final RequestHandlingRSocket handler;
+  private final RSocket unwrappingHandler;
+  private final NetifiSocket remote;
+  private final LocalRoutingPolicy routing;
+  private final DefaultNetifiSocket signer;
+
+  /**
+   * @param remote sends requests that are not handled locally to the broker
+   * @param signer signs local requests for {@link LocalSigningPolicy#SIGN}, or null to hand them to
+   *     the service as they are
+   */
+  public LocalRoutingNetifiSocket(
+      RequestHandlingRSocket handler,
+      NetifiSocket remote,
+      LocalRoutingPolicy routing,
+      DefaultNetifiSocket signer) {
+    this.handler = handler;
+    this.unwrappingHandler = MetadataUnwrappingRSocket.wrap(handler);
+    this.remote = remote;
+    this.routing = routing;
+    this.signer = signer;
+  }
+
+  private boolean isLocal(Payload payload) {
+    switch (routing) {
+      case LOCAL_ONLY:
+        return true;
+      case PREFER_LOCAL:
+        return handler.hasService(payload);
+      default:
+        return false;
+    }
+  }
+
+  @Override
+  public double availability() {
+    return routing == LocalRoutingPolicy.LOCAL_ONLY
+        ? handler.availability()
+        : remote.availability();
+  }
+
+  @Override
+  public Mono<Void> fireAndForget(Payload payload) {
+    try {
+      if (!isLocal(payload)) {
+        return remote.fireAndForget(payload);
+      }
+      if (signer == null) {
+        return handler.fireAndForget(payload);
+      }
+      return signer.sign(payload).flatMap(unwrappingHandler::fireAndForget);
+    } catch (Throwable t) {
+      return Mono.error(t);
+    }
+  }
+
+  @Override
+  public Mono<Payload> requestResponse(Payload payload) {
+    try {
+      if (!isLocal(payload)) {
+        return remote.requestResponse(payload);
+      }
+      if (signer == null) {
+        return handler.requestResponse(payload);
+      }
+      return signer.sign(payload).flatMap(unwrappingHandler::requestResponse);
+    } catch (Throwable t) {
+      return Mono.error(t);
+    }
+  }
+
+  @Override
+  public Flux<Payload> requestStream(Payload payload) {
+    try {
+      if (!isLocal(payload)) {
+        return remote.requestStream(payload);
+      }
+      if (signer == null) {
+        return handler.requestStream(payload);
+      }
+      return signer.sign(payload).flatMapMany(unwrappingHandler::requestStream);
+    } catch (Throwable t) {
+      return Flux.error(t);
+    }
+  }
+
+  @Override
+  public Flux<Payload> requestChannel(Publisher<Payload> payloads) {
+    return new SwitchTransform<>(
+        payloads,
+        (payload, flux) -> {
+          if (!isLocal(payload)) {
+            return remote.requestChannel(flux);
+          }
+          if (signer == null) {
+            return handler.requestChannel(flux);
+          }
+          return unwrappingHandler.requestChannel(signer.sign(flux));
+        });
+  }
+
+  @Override
+  public Mono<Void> metadataPush(Payload payload) {
+    try {
+      if (!isLocal(payload)) {
+        return remote.metadataPush(payload);
+      }
+      if (signer == null) {
+        return handler.metadataPush(payload);
+      }
+      return signer.sign(payload).flatMap(unwrappingHandler::metadataPush);
+    } catch (Throwable t) {
+      return Mono.error(t);
+    }
+  }
+
+  @Override
+  public Mono<Void> close() {
+    return remote.close();
+  }
+
+  @Override
+  public Mono<Void> onClose() {
+    return remote.onClose();
+  }
+}
@@ -0,0 +1,20 @@
+package io.netifi.sdk.rs;
+
+/**
+ * Path taken by requests from a socket connected to the caller's own group, or its own
+ * destination, when services are registered in the same process.
+ */
+public enum LocalRoutingPolicy {
+  /** Every request goes through the broker. */
+  BROKER,
+  /**
+   * Requests for a service registered in this process are dispatched to it directly, everything
+   * else goes through the broker.
+   */
+  PREFER_LOCAL,
+  /**
+   * Every request is dispatched in process, and requests for services that are not registered
+   * fail with {@link io.netifi.proteus.exception.ServiceNotFound}.
+   */
+  LOCAL_ONLY
+}
@@ -0,0 +1,12 @@
+package io.netifi.sdk.rs;
+
+/** Whether requests dispatched in process are signed like requests sent through the broker. */
+public enum LocalSigningPolicy {
+  /** Requests are handed to the service as they are, with no ROUTE frame and no token. */
+  NONE,
+  /**
+   * Requests are signed with the session and wrapped in the same ROUTE frame the broker would
+   * receive, then unwrapped again, so services see exactly what they would see from the broker.
+   */
+  SIGN
+}
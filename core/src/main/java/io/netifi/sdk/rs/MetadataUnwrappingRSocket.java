@@ -20,8 +20,12 @@ public class MetadataUnwrappingRSocket extends RSocketProxy {
     return new MetadataUnwrappingRSocket(rSocket);
   }
 
+  /** Batches are passed on as a {@link BatchPayload}, since each request has its own metadata. */
   @Override
   public Mono<Void> fireAndForget(Payload payload) {
+    if (BatchPayload.isBatch(payload)) {
+      return super.fireAndForget(new BatchPayload(payload));
+    }
     return super.fireAndForget(new UnwrappingPayload(payload));
   }
 
@@ -45,8 +49,15 @@ public class MetadataUnwrappingRSocket extends RSocketProxy {
     return super.metadataPush(new UnwrappingPayload(payload));
   }
 
-  class UnwrappingPayload implements Payload {
-    private Payload payload;
+  /**
+   * Exposes the metadata wrapped in a ROUTE frame as the payload metadata. The ROUTE frame is
+   * parsed on first access and the slice is reused afterwards, so repeated calls neither copy nor
+   * re-parse. Each call returns its own view of the slice, with its own indexes.
+   */
+  public static class UnwrappingPayload implements ByteBufPayload {
+    private final Payload payload;
+    private ByteBuf metadata;
+    private ByteBuffer metadataBuffer;
 
     public UnwrappingPayload(Payload payload) {
       this.payload = payload;
@@ -57,11 +68,36 @@ public class MetadataUnwrappingRSocket extends RSocketProxy {
       return payload.hasMetadata();
     }
 
+    private ByteBuf unwrappedMetadata() {
+      ByteBuf metadata = this.metadata;
+      if (metadata == null) {
+        metadata = RoutingFlyweight.wrappedMetadata(Unpooled.wrappedBuffer(payload.getMetadata()));
+        this.metadata = metadata;
+      }
+      return metadata;
+    }
+
+    @Override
+    public ByteBuf getMetadataByteBuf() {
+      // callers may move the reader index, so each gets its own view of the same bytes
+      return unwrappedMetadata().duplicate();
+    }
+
     @Override
     public ByteBuffer getMetadata() {
-      ByteBuf metadata = Unpooled.wrappedBuffer(payload.getMetadata());
-      ByteBuf byteBuf = RoutingFlyweight.wrappedMetadata(metadata);
-      return byteBuf.nioBuffer(0, byteBuf.capacity());
+      ByteBuffer metadataBuffer = this.metadataBuffer;
+      if (metadataBuffer == null) {
+        ByteBuf metadata = unwrappedMetadata();
+        metadataBuffer = metadata.nioBuffer(0, metadata.capacity());
+        this.metadataBuffer = metadataBuffer;
+      }
+      // callers may move the position, so each gets its own view of the same bytes
+      return metadataBuffer.duplicate();
+    }
+
+    @Override
+    public ByteBuf getDataByteBuf() {
+      return Unpooled.wrappedBuffer(payload.getData());
     }
 
     @Override
@@ -0,0 +1,12 @@
+package io.netifi.sdk.rs;
+
+/** What happens to a request that arrives while the pending request queue is full. */
+public enum PendingRequestOverflow {
+  /** The new request fails with a {@link io.rsocket.exceptions.RejectedException}. */
+  FAIL_FAST,
+  /**
+   * The request that has been waiting longest fails with a {@link
+   * io.rsocket.exceptions.RejectedException}, and the new request takes its place.
+   */
+  DROP_OLDEST
+}
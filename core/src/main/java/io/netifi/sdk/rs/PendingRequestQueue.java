@@ -0,0 +1,106 @@
+package io.netifi.sdk.rs;
+
+import io.rsocket.exceptions.RejectedException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+/**
+ * Bounds the requests waiting for a connection while {@link ReconnectingRSocket} is disconnected.
+ * At most {@code maxPending} requests wait at a time, and when the queue is full the {@link
+ * PendingRequestOverflow} decides which request is rejected. A request that is still waiting after
+ * the deadline fails with a {@link java.util.concurrent.TimeoutException}, so stale requests are
+ * not sent once the connection is back.
+ */
+public class PendingRequestQueue {
+  public static final int DEFAULT_MAX_PENDING = 10_000;
+  public static final Duration DEFAULT_DEADLINE = Duration.ofSeconds(30);
+
+  private final ArrayDeque<MonoSink<?>> waiting = new ArrayDeque<>();
+  private final int maxPending;
+  private final Duration deadline;
+  private final PendingRequestOverflow overflow;
+
+  public PendingRequestQueue() {
+    this(DEFAULT_MAX_PENDING, DEFAULT_DEADLINE, PendingRequestOverflow.FAIL_FAST);
+  }
+
+  /**
+   * @param maxPending how many requests may wait at a time
+   * @param deadline how long a request may wait
+   * @param overflow which request is rejected when the queue is full
+   */
+  public PendingRequestQueue(int maxPending, Duration deadline, PendingRequestOverflow overflow) {
+    if (maxPending < 1) {
+      throw new IllegalArgumentException("max pending must be at least 1");
+    }
+    Objects.requireNonNull(deadline, "deadline is required");
+    if (deadline.isNegative() || deadline.isZero()) {
+      throw new IllegalArgumentException("deadline must be positive");
+    }
+    this.maxPending = maxPending;
+    this.deadline = deadline;
+    this.overflow = Objects.requireNonNull(overflow, "overflow policy is required");
+  }
+
+  /**
+   * Waits in the queue for {@code next}, usually the next session. The returned Mono takes a place
+   * in the queue when it is subscribed, and gives it up when it terminates or is cancelled.
+   */
+  public <T> Mono<T> await(Mono<T> next) {
+    Mono<T> waiter =
+        Mono.create(
+            sink -> {
+              MonoSink<?> evicted = null;
+              boolean rejected = false;
+              synchronized (this) {
+                if (waiting.size() >= maxPending) {
+                  if (overflow == PendingRequestOverflow.DROP_OLDEST) {
+                    evicted = waiting.pollFirst();
+                  } else {
+                    rejected = true;
+                  }
+                }
+                if (!rejected) {
+                  waiting.addLast(sink);
+                }
+              }
+
+              if (rejected) {
+                sink.error(rejected());
+                return;
+              }
+              if (evicted != null) {
+                evicted.error(rejected());
+              }
+
+              Disposable.Swap subscription = Disposables.swap();
+              sink.onDispose(
+                  () -> {
+                    subscription.dispose();
+                    remove(sink);
+                  });
+              subscription.update(next.subscribe(sink::success, sink::error, sink::success));
+            });
+
+    return waiter.timeout(deadline);
+  }
+
+  private RejectedException rejected() {
+    return new RejectedException(
+        "more than " + maxPending + " requests are waiting for a connection to the broker");
+  }
+
+  private synchronized void remove(MonoSink<?> sink) {
+    waiting.remove(sink);
+  }
+
+  /** Number of requests waiting. */
+  public synchronized int size() {
+    return waiting.size();
+  }
+}
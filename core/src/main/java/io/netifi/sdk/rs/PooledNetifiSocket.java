@@ -0,0 +1,158 @@
+package io.netifi.sdk.rs;
+
+import io.rsocket.Payload;
+import io.rsocket.RSocket;
+import io.rsocket.client.LoadBalancedRSocketMono;
+import io.rsocket.client.filter.RSocketSupplier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+/**
+ * Spreads requests over one {@link DefaultNetifiSocket}, or {@link BroadcastNetifiSocket}, per
+ * broker connection. Members are picked by {@link LoadBalancedRSocketMono}, which weighs them by
+ * latency and pending requests. A member reports an availability of 0 while its connection is
+ * down, so the load balancer stops selecting it and refreshes it once the connection is back.
+ */
+public class PooledNetifiSocket implements NetifiSocket {
+  private final MonoProcessor<Void> onClose;
+  private final List<NetifiSocket> sockets;
+  private final LoadBalancedRSocketMono loadBalancer;
+
+  /**
+   * @param reconnectingRSockets the broker connections to spread requests over
+   * @param socketFactory creates the socket that routes requests over one connection
+   */
+  public PooledNetifiSocket(
+      List<ReconnectingRSocket> reconnectingRSockets,
+      Function<ReconnectingRSocket, ? extends NetifiSocket> socketFactory) {
+    this.onClose = MonoProcessor.create();
+    this.sockets = new ArrayList<>(reconnectingRSockets.size());
+
+    Collection<RSocketSupplier> suppliers = new ArrayList<>(reconnectingRSockets.size());
+    for (ReconnectingRSocket reconnectingRSocket : reconnectingRSockets) {
+      NetifiSocket socket = socketFactory.apply(reconnectingRSocket);
+      sockets.add(socket);
+      // members are only added once connected, and the load balancer closes a member when it
+      // drops it, so each refresh gets a member of its own around the connection's one socket
+      suppliers.add(
+          new RSocketSupplier(
+              () -> reconnectingRSocket.getSession().<RSocket>map(session -> new Member(socket))));
+    }
+
+    this.loadBalancer =
+        LoadBalancedRSocketMono.create(
+            Flux.just(suppliers),
+            LoadBalancedRSocketMono.DEFAULT_EXP_FACTOR,
+            LoadBalancedRSocketMono.DEFAULT_LOWER_QUANTILE,
+            LoadBalancedRSocketMono.DEFAULT_HIGHER_QUANTILE,
+            LoadBalancedRSocketMono.DEFAULT_MIN_PENDING,
+            LoadBalancedRSocketMono.DEFAULT_MAX_PENDING,
+            suppliers.size(),
+            Math.max(suppliers.size(), LoadBalancedRSocketMono.DEFAULT_MAX_APERTURE),
+            LoadBalancedRSocketMono.DEFAULT_MAX_REFRESH_PERIOD_MS);
+
+    loadBalancer.onClose().doFinally(s -> onClose.onComplete()).subscribe();
+  }
+
+  @Override
+  public double availability() {
+    return loadBalancer.availability();
+  }
+
+  @Override
+  public Mono<Void> fireAndForget(Payload payload) {
+    return loadBalancer.flatMap(rSocket -> rSocket.fireAndForget(payload));
+  }
+
+  @Override
+  public Mono<Payload> requestResponse(Payload payload) {
+    return loadBalancer.flatMap(rSocket -> rSocket.requestResponse(payload));
+  }
+
+  @Override
+  public Flux<Payload> requestStream(Payload payload) {
+    return loadBalancer.flatMapMany(rSocket -> rSocket.requestStream(payload));
+  }
+
+  @Override
+  public Flux<Payload> requestChannel(Publisher<Payload> payloads) {
+    return loadBalancer.flatMapMany(rSocket -> rSocket.requestChannel(payloads));
+  }
+
+  @Override
+  public Mono<Void> metadataPush(Payload payload) {
+    return loadBalancer.flatMap(rSocket -> rSocket.metadataPush(payload));
+  }
+
+  @Override
+  public Mono<Void> close() {
+    return loadBalancer
+        .close()
+        .then(Flux.fromIterable(sockets).flatMap(NetifiSocket::close).then())
+        .doFinally(s -> onClose.onComplete());
+  }
+
+  @Override
+  public Mono<Void> onClose() {
+    return onClose;
+  }
+
+  /**
+   * One load balancer member. Closing it only drops it from the load balancer, the socket it sends
+   * requests with stays open for the next member.
+   */
+  private static final class Member implements RSocket {
+    private final NetifiSocket socket;
+    private final MonoProcessor<Void> onClose = MonoProcessor.create();
+
+    private Member(NetifiSocket socket) {
+      this.socket = socket;
+    }
+
+    @Override
+    public double availability() {
+      return onClose.isTerminated() ? 0.0 : socket.availability();
+    }
+
+    @Override
+    public Mono<Void> fireAndForget(Payload payload) {
+      return socket.fireAndForget(payload);
+    }
+
+    @Override
+    public Mono<Payload> requestResponse(Payload payload) {
+      return socket.requestResponse(payload);
+    }
+
+    @Override
+    public Flux<Payload> requestStream(Payload payload) {
+      return socket.requestStream(payload);
+    }
+
+    @Override
+    public Flux<Payload> requestChannel(Publisher<Payload> payloads) {
+      return socket.requestChannel(payloads);
+    }
+
+    @Override
+    public Mono<Void> metadataPush(Payload payload) {
+      return socket.metadataPush(payload);
+    }
+
+    @Override
+    public Mono<Void> close() {
+      return Mono.fromRunnable(onClose::onComplete);
+    }
+
+    @Override
+    public Mono<Void> onClose() {
+      return Mono.first(onClose, socket.onClose());
+    }
+  }
+}
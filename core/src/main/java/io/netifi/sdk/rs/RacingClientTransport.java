@@ -0,0 +1,117 @@
+package io.netifi.sdk.rs;
+
+import io.rsocket.DuplexConnection;
+import io.rsocket.transport.ClientTransport;
+import io.rsocket.transport.netty.client.TcpClientTransport;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Connects to the first of several transports that answers, happy eyeballs style. The transports
+ * are tried in order: each attempt starts when the previous one fails, or after the attempt delay
+ * if it is still pending, and earlier attempts keep running. The first connection wins, the other
+ * attempts are cancelled, and a connection that completes anyway is closed. The connect fails only
+ * when every attempt failed.
+ */
+public class RacingClientTransport implements ClientTransport {
+  public static final Duration DEFAULT_ATTEMPT_DELAY = Duration.ofMillis(250);
+
+  private final List<Supplier<ClientTransport>> transports;
+  private final Duration attemptDelay;
+
+  public RacingClientTransport(List<Supplier<ClientTransport>> transports, Duration attemptDelay) {
+    if (transports.isEmpty()) {
+      throw new IllegalArgumentException("at least one transport is required");
+    }
+    this.transports = new ArrayList<>(transports);
+    this.attemptDelay = Objects.requireNonNull(attemptDelay, "attempt delay is required");
+  }
+
+  /**
+   * Returns a transport that resolves the host each time it connects, and races TCP connections to
+   * all of its addresses in the order the resolver returned them.
+   */
+  public static ClientTransport resolving(String host, int port, Duration attemptDelay) {
+    return () ->
+        Mono.fromCallable(() -> InetAddress.getAllByName(host))
+            .subscribeOn(Schedulers.elastic())
+            .flatMap(
+                addresses -> {
+                  List<Supplier<ClientTransport>> transports = new ArrayList<>(addresses.length);
+                  for (InetAddress address : addresses) {
+                    InetSocketAddress socketAddress = new InetSocketAddress(address, port);
+                    transports.add(() -> TcpClientTransport.create(socketAddress));
+                  }
+                  return new RacingClientTransport(transports, attemptDelay).connect();
+                });
+  }
+
+  @Override
+  public Mono<DuplexConnection> connect() {
+    return Mono.create(sink -> new Race(sink).attempt(0));
+  }
+
+  private class Race {
+    private final MonoSink<DuplexConnection> sink;
+    private final Disposable.Composite attempts = Disposables.composite();
+    private final AtomicBoolean done = new AtomicBoolean();
+    private final AtomicInteger failed = new AtomicInteger();
+
+    private Race(MonoSink<DuplexConnection> sink) {
+      this.sink = sink;
+      sink.onDispose(attempts);
+    }
+
+    private void attempt(int index) {
+      if (index >= transports.size() || done.get()) {
+        return;
+      }
+
+      AtomicBoolean nextStarted = new AtomicBoolean();
+      Runnable next =
+          () -> {
+            if (nextStarted.compareAndSet(false, true)) {
+              attempt(index + 1);
+            }
+          };
+
+      if (index + 1 < transports.size()) {
+        attempts.add(Mono.delay(attemptDelay).subscribe(l -> next.run()));
+      }
+      attempts.add(
+          Mono.defer(() -> transports.get(index).get().connect())
+              .subscribe(
+                  this::connected,
+                  t -> {
+                    failed(t);
+                    next.run();
+                  }));
+    }
+
+    private void connected(DuplexConnection connection) {
+      if (done.compareAndSet(false, true)) {
+        sink.success(connection);
+      } else {
+        connection.close().subscribe();
+      }
+    }
+
+    private void failed(Throwable t) {
+      if (failed.incrementAndGet() == transports.size() && done.compareAndSet(false, true)) {
+        sink.error(t);
+      }
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package io.netifi.sdk.rs;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with decorrelated jitter between connection attempts. The first retry waits
+ * a random time of up to the base delay, so a dropped connection is retried almost right away
+ * but clients that lost the same broker do not all retry at once. Every later retry waits a random
+ * time between the base delay and three times the previous delay, capped at the maximum delay.
+ */
+public class ReconnectBackoff {
+  public static final Duration DEFAULT_BASE_DELAY = Duration.ofMillis(100);
+  public static final Duration DEFAULT_MAX_DELAY = Duration.ofSeconds(10);
+
+  private final long baseDelayMillis;
+  private final long maxDelayMillis;
+
+  public ReconnectBackoff() {
+    this(DEFAULT_BASE_DELAY, DEFAULT_MAX_DELAY);
+  }
+
+  public ReconnectBackoff(Duration baseDelay, Duration maxDelay) {
+    Objects.requireNonNull(baseDelay, "base delay is required");
+    Objects.requireNonNull(maxDelay, "max delay is required");
+    if (baseDelay.toMillis() < 1) {
+      throw new IllegalArgumentException("base delay must be at least 1ms");
+    }
+    if (maxDelay.compareTo(baseDelay) < 0) {
+      throw new IllegalArgumentException("max delay must be at least the base delay");
+    }
+    this.baseDelayMillis = baseDelay.toMillis();
+    this.maxDelayMillis = maxDelay.toMillis();
+  }
+
+  /**
+   * Returns how long to wait before the next attempt.
+   *
+   * @param previousDelayMillis the delay before the attempt that just failed, or 0 if the
+   *     connection was up, or never attempted
+   */
+  public long nextDelayMillis(long previousDelayMillis) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    if (previousDelayMillis <= 0) {
+      return random.nextLong(1, baseDelayMillis + 1);
+    }
+
+    long upper = Math.min(maxDelayMillis, previousDelayMillis * 3);
+    if (upper <= baseDelayMillis) {
+      return baseDelayMillis;
+    }
+    return random.nextLong(baseDelayMillis, upper + 1);
+  }
+}
@@ -1,7 +1,9 @@
 package io.netifi.sdk.rs;
 
 import io.netifi.sdk.Netifi;
+import io.netifi.sdk.auth.SessionSigner;
 import io.netifi.sdk.auth.SessionUtil;
+import io.netifi.sdk.metrics.NetifiMetrics;
 import io.rsocket.AbstractRSocket;
 import io.rsocket.Payload;
 import io.rsocket.RSocket;
@@ -20,6 +22,7 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.MonoProcessor;
 import reactor.core.publisher.ReplayProcessor;
+import reactor.core.publisher.SignalType;
 
 public class ReconnectingRSocket implements RSocket {
   private static final Logger logger = LoggerFactory.getLogger(Netifi.class);
@@ -28,7 +31,7 @@ public class ReconnectingRSocket implements RSocket {
 
   private final SessionUtil sessionUtil = SessionUtil.instance();
 
-  private final ReplayProcessor<Mono<RSocket>> source;
+  private final ReplayProcessor<Mono<Session>> source;
   private final MonoProcessor<Void> onClose;
   private final Supplier<Payload> setupPayloadSupplier;
   private final BooleanSupplier running;
@@ -38,16 +41,20 @@ public class ReconnectingRSocket implements RSocket {
   private final long ackTimeoutSeconds;
   private final int missedAcks;
   private final RSocket requestHandlingRSocket;
+  private final NetifiMetrics metrics;
+  private final ReconnectBackoff backoff;
+  private final PendingRequestQueue pendingRequests;
 
   private final long accessKey;
   private final byte[] accessTokenBytes;
 
-  private MonoProcessor<RSocket> currentSink;
+  private MonoProcessor<Session> currentSink;
 
-  private ReplayProcessor<AtomicLong> currentSessionCounter = ReplayProcessor.cacheLast();
-  private ReplayProcessor<byte[]> currentSessionToken = ReplayProcessor.cacheLast();
+  private volatile Session currentSession;
 
-  private double availability;
+  private final AvailabilityScore score = new AvailabilityScore();
+
+  private boolean connectedBefore;
 
   public ReconnectingRSocket(
       RSocket requestHandlingRSocket,
@@ -60,6 +67,44 @@ public class ReconnectingRSocket implements RSocket {
       int missedAcks,
       long accessKey,
       byte[] accessTokenBytes) {
+    this(
+        requestHandlingRSocket,
+        setupPayloadSupplier,
+        running,
+        clientTransportSupplier,
+        keepalive,
+        tickPeriodSeconds,
+        ackTimeoutSeconds,
+        missedAcks,
+        accessKey,
+        accessTokenBytes,
+        NetifiMetrics.NOOP,
+        new ReconnectBackoff(),
+        new PendingRequestQueue());
+  }
+
+  /**
+   * @param metrics records every connect, reconnect and how long each connection was up
+   * @param backoff how long to wait between connection attempts
+   * @param pendingRequests bounds the requests waiting for a connection while disconnected
+   */
+  public ReconnectingRSocket(
+      RSocket requestHandlingRSocket,
+      Supplier<Payload> setupPayloadSupplier,
+      BooleanSupplier running,
+      Supplier<ClientTransport> clientTransportSupplier,
+      boolean keepalive,
+      long tickPeriodSeconds,
+      long ackTimeoutSeconds,
+      int missedAcks,
+      long accessKey,
+      byte[] accessTokenBytes,
+      NetifiMetrics metrics,
+      ReconnectBackoff backoff,
+      PendingRequestQueue pendingRequests) {
+    this.metrics = metrics;
+    this.backoff = backoff;
+    this.pendingRequests = pendingRequests;
     this.requestHandlingRSocket = requestHandlingRSocket;
     this.onClose = MonoProcessor.create();
     this.source = ReplayProcessor.cacheLast();
@@ -75,22 +120,56 @@ public class ReconnectingRSocket implements RSocket {
 
     resetMono();
 
-    connect(1).subscribe();
+    connect(0).subscribe();
   }
 
   public SessionUtil getSessionUtil() {
     return sessionUtil;
   }
 
+  /**
+   * Returns the session for the current connection, or null while disconnected. Callers on the
+   * request path should use this and only fall back to {@link #awaitSession()} when it is null.
+   */
+  public Session getCurrentSession() {
+    return currentSession;
+  }
+
+  /**
+   * Emits the session for the current connection, waiting for the next one for as long as it takes
+   * while disconnected. Requests should use {@link #awaitSession()} instead.
+   */
+  public Mono<Session> getSession() {
+    Session session = currentSession;
+    return session != null ? Mono.just(session) : source.next().flatMap(Function.identity());
+  }
+
+  /**
+   * Emits the session for the current connection. While disconnected, the caller waits for the
+   * next one in the {@link PendingRequestQueue}, which limits how many requests wait and for how
+   * long.
+   */
+  public Mono<Session> awaitSession() {
+    Session session = currentSession;
+    return session != null
+        ? Mono.just(session)
+        : pendingRequests.await(source.next().flatMap(Function.identity()));
+  }
+
   public Mono<AtomicLong> getCurrentSessionCounter() {
-    return currentSessionCounter.next();
+    return getSession().map(Session::getCounter);
   }
 
   public Mono<byte[]> getCurrentSessionToken() {
-    return currentSessionToken.next();
+    return getSession().map(Session::getSessionToken);
+  }
+
+  public Mono<SessionSigner> getCurrentSessionSigner() {
+    return getSession().map(Session::getSigner);
   }
 
-  private Mono<RSocket> connect(int retry) {
+  /** @param delayMillis how long was waited before this attempt, 0 for a first attempt */
+  private Mono<RSocket> connect(long delayMillis) {
     if (running.getAsBoolean()) {
       try {
         RSocketFactory.ClientRSocketFactory connect = RSocketFactory.connect();
@@ -101,7 +180,8 @@ public class ReconnectingRSocket implements RSocket {
                   .keepAlive()
                   .keepAliveAckTimeout(Duration.ofSeconds(tickPeriodSeconds))
                   .keepAliveAckTimeout(Duration.ofSeconds(ackTimeoutSeconds))
-                  .keepAliveMissedAcks(missedAcks);
+                  .keepAliveMissedAcks(missedAcks)
+                  .addConnectionPlugin(new KeepaliveRoundTripInterceptor(score::roundTrip));
         }
 
         return connect
@@ -113,13 +193,17 @@ public class ReconnectingRSocket implements RSocket {
             .start()
             .doOnNext(
                 rSocket -> {
-                  availability = 1.0;
+                  score.connected();
+                  long connectedAt = System.nanoTime();
+                  metrics.recordConnect(connectedBefore);
+                  connectedBefore = true;
                   rSocket
                       .onClose()
                       .doFinally(
                           s -> {
-                            availability = 0.0;
-                            connect(1).subscribe();
+                            score.disconnected();
+                            metrics.recordDisconnect(System.nanoTime() - connectedAt);
+                            retryConnection(0).subscribe();
                           })
                       .subscribe();
                   setRSocket(rSocket);
@@ -127,54 +211,123 @@ public class ReconnectingRSocket implements RSocket {
             .onErrorResume(
                 t -> {
                   logger.error(t.getMessage(), t);
-                  return retryConnection(retry);
+                  return retryConnection(delayMillis);
                 });
 
       } catch (Throwable t) {
-        return retryConnection(retry);
+        return retryConnection(delayMillis);
       }
     } else {
       return Mono.empty();
     }
   }
 
-  private Mono<RSocket> retryConnection(int retry) {
-    return Mono.delay(Duration.ofSeconds(retry)).then(connect(retry < 10 ? retry + 1 : 10));
+  private Mono<RSocket> retryConnection(long previousDelayMillis) {
+    long delayMillis = backoff.nextDelayMillis(previousDelayMillis);
+    return Mono.delay(Duration.ofMillis(delayMillis))
+        .then(Mono.defer(() -> connect(delayMillis)));
   }
 
   @Override
   public Mono<Void> fireAndForget(Payload payload) {
+    Session session = currentSession;
+    if (session != null) {
+      return session.getRSocket().fireAndForget(payload);
+    }
+
     return getRSocket().flatMap(rSocket -> rSocket.fireAndForget(payload));
   }
 
   @Override
   public Mono<Payload> requestResponse(Payload payload) {
-    return getRSocket().flatMap(rSocket -> rSocket.requestResponse(payload));
+    // counted per subscription, so a request that is never subscribed is not left pending
+    return Mono.defer(
+        () -> {
+          long start = score.started();
+          Session session = currentSession;
+          Mono<Payload> response =
+              session != null
+                  ? session.getRSocket().requestResponse(payload)
+                  : getRSocket().flatMap(rSocket -> rSocket.requestResponse(payload));
+          return response.doFinally(s -> score.finished(start, s != SignalType.CANCEL));
+        });
   }
 
   @Override
   public Flux<Payload> requestStream(Payload payload) {
-    return getRSocket().flatMapMany(rSocket -> rSocket.requestStream(payload));
+    return Flux.defer(
+        () -> {
+          long start = score.started();
+          Session session = currentSession;
+          Flux<Payload> responses =
+              session != null
+                  ? session.getRSocket().requestStream(payload)
+                  : getRSocket().flatMapMany(rSocket -> rSocket.requestStream(payload));
+          return responses.doFinally(s -> score.finished(start, false));
+        });
   }
 
   @Override
   public Flux<Payload> requestChannel(Publisher<Payload> payloads) {
-    return getRSocket().flatMapMany(rSocket -> rSocket.requestChannel(payloads));
+    return Flux.defer(
+        () -> {
+          long start = score.started();
+          Session session = currentSession;
+          Flux<Payload> responses =
+              session != null
+                  ? session.getRSocket().requestChannel(payloads)
+                  : getRSocket().flatMapMany(rSocket -> rSocket.requestChannel(payloads));
+          return responses.doFinally(s -> score.finished(start, false));
+        });
   }
 
   @Override
   public Mono<Void> metadataPush(Payload payload) {
+    Session session = currentSession;
+    if (session != null) {
+      return session.getRSocket().metadataPush(payload);
+    }
+
     return getRSocket().flatMap(rSocket -> rSocket.metadataPush(payload));
   }
 
+  /**
+   * Scores the connection from 0 while it is down, to 1 for a connection with no latency, see
+   * {@link AvailabilityScore}.
+   */
   @Override
   public double availability() {
-    return availability;
+    return score.availability();
+  }
+
+  /**
+   * Counts a request sent straight to the session's RSocket towards {@link #availability()}, and
+   * returns its start time for {@link #requestFinished}. Call it when the request is subscribed,
+   * as {@code requestFinished} is called once per subscription.
+   */
+  long requestStarted() {
+    return score.started();
+  }
+
+  /** See {@link AvailabilityScore#finished(long, boolean)}. */
+  void requestFinished(long start, boolean responded) {
+    score.finished(start, responded);
+  }
+
+  /** Number of requests counted towards {@link #availability()} that have not finished. */
+  int getPending() {
+    return score.getPending();
   }
 
   @Override
   public Mono<Void> close() {
-    return Mono.fromRunnable(onClose::onComplete).doFinally(s -> source.onComplete()).then();
+    return Mono.fromRunnable(onClose::onComplete)
+        .doFinally(
+            s -> {
+              currentSession = null;
+              source.onComplete();
+            })
+        .then();
   }
 
   @Override
@@ -183,7 +336,7 @@ public class ReconnectingRSocket implements RSocket {
   }
 
   private void resetMono() {
-    MonoProcessor<RSocket> _m;
+    MonoProcessor<Session> _m;
     synchronized (this) {
       _m = MonoProcessor.create();
       currentSink = _m;
@@ -192,25 +345,38 @@ public class ReconnectingRSocket implements RSocket {
     source.onNext(_m);
   }
 
-  private Mono<RSocket> getRSocket() {
-    return source.next().flatMap(Function.identity());
+  /**
+   * Waits for the next connection in the {@link PendingRequestQueue}. The interaction methods only
+   * use this while reconnecting, and dispatch straight to the current session's RSocket otherwise.
+   */
+  Mono<RSocket> getRSocket() {
+    return pendingRequests
+        .await(source.next().flatMap(Function.identity()))
+        .map(Session::getRSocket);
   }
 
   private void setRSocket(RSocket rSocket) {
-    byte[] sessionToken;
+    Session session;
     synchronized (this) {
       long count = sessionUtil.getThirtySecondsStepsFromEpoch();
-      currentSessionCounter.onNext(new AtomicLong(count));
       ByteBuffer allocate = ByteBuffer.allocate(8);
       allocate.putLong(accessKey);
       allocate.flip();
-      sessionToken = sessionUtil.generateSessionToken(accessTokenBytes, allocate, count);
+      byte[] sessionToken = sessionUtil.generateSessionToken(accessTokenBytes, allocate, count);
+      session = new Session(rSocket, sessionToken, count);
     }
 
-    currentSessionToken.onNext(sessionToken);
-    currentSink.onNext(rSocket);
+    currentSession = session;
+    currentSink.onNext(session);
     currentSink.onComplete();
 
-    rSocket.onClose().doFinally(s -> resetMono()).subscribe();
+    rSocket
+        .onClose()
+        .doFinally(
+            s -> {
+              currentSession = null;
+              resetMono();
+            })
+        .subscribe();
   }
 }
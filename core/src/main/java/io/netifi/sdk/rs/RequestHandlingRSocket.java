@@ -1,79 +1,177 @@
 package io.netifi.sdk.rs;
 
 import io.netifi.proteus.ProteusService;
-import io.netifi.proteus.collections.BiInt2ObjectMap;
 import io.netifi.proteus.exception.ServiceNotFound;
 import io.netifi.proteus.frames.ProteusMetadata;
+import io.netifi.sdk.metrics.InteractionType;
+import io.netifi.sdk.metrics.NetifiMetrics;
+import io.netifi.sdk.util.CopyOnWriteLong2ObjectMap;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.rsocket.Payload;
 import io.rsocket.RSocket;
+import io.rsocket.exceptions.RejectedException;
 import io.rsocket.internal.SwitchTransform;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.MonoProcessor;
+import reactor.core.publisher.SignalType;
 import reactor.core.publisher.UnicastProcessor;
 
 public class RequestHandlingRSocket implements RSocket {
-  private final BiInt2ObjectMap<ProteusService> registeredServices;
+  private final CopyOnWriteLong2ObjectMap<Registration> registrations;
+  private final NetifiMetrics metrics;
+  private final boolean timed;
   private MonoProcessor<Void> onClose;
 
   public RequestHandlingRSocket(ProteusService... services) {
+    this(NetifiMetrics.NOOP, services);
+  }
+
+  /** @param metrics records the latency and errors of every request, per service */
+  public RequestHandlingRSocket(NetifiMetrics metrics, ProteusService... services) {
+    this.metrics = metrics;
+    this.timed = metrics != NetifiMetrics.NOOP;
     this.onClose = MonoProcessor.create();
-    this.registeredServices = new BiInt2ObjectMap<ProteusService>();
+    this.registrations = new CopyOnWriteLong2ObjectMap<>();
 
     for (ProteusService proteusService : services) {
-      int namespaceId = proteusService.getNamespaceId();
-      int serviceId = proteusService.getServiceId();
-      registeredServices.put(namespaceId, serviceId, proteusService);
+      addService(proteusService);
     }
   }
 
-  public synchronized void addService(ProteusService service) {
-    int namespaceId = service.getNamespaceId();
-    int serviceId = service.getServiceId();
-    registeredServices.put(namespaceId, serviceId, service);
+  public void addService(ProteusService service) {
+    addService(service, null, ExecutionPolicy.eventLoop());
+  }
+
+  /**
+   * Adds a service whose request-response and fire-and-forget requests are limited by {@code
+   * limiter}. Requests over the limit fail right away with a {@link RejectedException}, which
+   * RSocket sends as a REJECTED error, meaning the request was not handled and can be retried.
+   * Streams and channels are not limited, as how long they last says nothing about load.
+   */
+  public void addService(ProteusService service, ConcurrencyLimiter limiter) {
+    addService(service, limiter, ExecutionPolicy.eventLoop());
+  }
+
+  /** Adds a service whose handlers run as {@code policy} says. */
+  public void addService(ProteusService service, ExecutionPolicy policy) {
+    addService(service, null, policy);
   }
 
-  private synchronized ProteusService getService(int namespaceId, int serviceId) {
-    return registeredServices.get(namespaceId, serviceId);
+  /**
+   * Adds a service whose handlers run as {@code policy} says, with requests limited by {@code
+   * limiter}, if not null. The limiter admits requests before they wait for a thread, and their
+   * latency includes the wait.
+   */
+  public void addService(
+      ProteusService service, ConcurrencyLimiter limiter, ExecutionPolicy policy) {
+    Objects.requireNonNull(policy, "execution policy is required");
+    registrations.put(key(service), new Registration(service, limiter, policy));
+  }
+
+  /** Removes the service if it is the one registered for its namespace and service id. */
+  public boolean removeService(ProteusService service) {
+    long key = key(service);
+    Registration registration = registrations.get(key);
+    return registration != null
+        && registration.service == service
+        && registrations.remove(key, registration);
+  }
+
+  private static long key(ProteusService service) {
+    return CopyOnWriteLong2ObjectMap.key(service.getNamespaceId(), service.getServiceId());
+  }
+
+  private static ByteBuf metadata(Payload payload) {
+    if (payload instanceof ByteBufPayload) {
+      return ((ByteBufPayload) payload).getMetadataByteBuf();
+    }
+    return Unpooled.wrappedBuffer(payload.getMetadata());
+  }
+
+  /** True if a service is registered for the namespace and service in the payload's metadata. */
+  public boolean hasService(Payload payload) {
+    ByteBuf metadata = metadata(payload);
+    return getRegistration(
+            ProteusMetadata.namespaceId(metadata), ProteusMetadata.serviceId(metadata))
+        != null;
+  }
+
+  private Registration getRegistration(int namespaceId, int serviceId) {
+    return registrations.get(CopyOnWriteLong2ObjectMap.key(namespaceId, serviceId));
   }
 
   @Override
   public Mono<Void> fireAndForget(Payload payload) {
+    if (payload instanceof BatchPayload) {
+      return fireAndForgetBatch((BatchPayload) payload);
+    }
+
     try {
-      ByteBuf metadata = Unpooled.wrappedBuffer(payload.getMetadata());
+      ByteBuf metadata = metadata(payload);
       int namespaceId = ProteusMetadata.namespaceId(metadata);
       int serviceId = ProteusMetadata.serviceId(metadata);
 
-      ProteusService proteusService = getService(namespaceId, serviceId);
+      Registration registration = getRegistration(namespaceId, serviceId);
 
-      if (proteusService == null) {
+      if (registration == null) {
         return Mono.error(new ServiceNotFound(namespaceId, serviceId));
       }
 
-      return proteusService.fireAndForget(payload);
+      ProteusService proteusService = registration.service;
+      Mono<Void> result =
+          registration.isolated
+              ? registration.handle(() -> proteusService.fireAndForget(payload))
+              : proteusService.fireAndForget(payload);
+      return timed
+          ? timed(namespaceId, serviceId, InteractionType.FIRE_AND_FORGET, result)
+          : result;
 
     } catch (Throwable t) {
       return Mono.error(t);
     }
   }
 
+  /** Hands each request of the batch to its service. A failed request does not stop the rest. */
+  private Mono<Void> fireAndForgetBatch(BatchPayload batch) {
+    try {
+      List<Mono<Void>> results = new ArrayList<>(batch.count());
+      for (Payload payload : batch) {
+        results.add(fireAndForget(payload));
+      }
+      return Mono.whenDelayError(results);
+    } catch (Throwable t) {
+      return Mono.error(t);
+    }
+  }
+
   @Override
   public Mono<Payload> requestResponse(Payload payload) {
     try {
-      ByteBuf metadata = Unpooled.wrappedBuffer(payload.getMetadata());
+      ByteBuf metadata = metadata(payload);
       int namespaceId = ProteusMetadata.namespaceId(metadata);
       int serviceId = ProteusMetadata.serviceId(metadata);
 
-      ProteusService proteusService = getService(namespaceId, serviceId);
+      Registration registration = getRegistration(namespaceId, serviceId);
 
-      if (proteusService == null) {
+      if (registration == null) {
         return Mono.error(new ServiceNotFound(namespaceId, serviceId));
       }
 
-      return proteusService.requestResponse(payload);
+      ProteusService proteusService = registration.service;
+      Mono<Payload> result =
+          registration.isolated
+              ? registration.handle(() -> proteusService.requestResponse(payload))
+              : proteusService.requestResponse(payload);
+      return timed
+          ? timed(namespaceId, serviceId, InteractionType.REQUEST_RESPONSE, result)
+          : result;
 
     } catch (Throwable t) {
       return Mono.error(t);
@@ -83,17 +181,24 @@ public class RequestHandlingRSocket implements RSocket {
   @Override
   public Flux<Payload> requestStream(Payload payload) {
     try {
-      ByteBuf metadata = Unpooled.wrappedBuffer(payload.getMetadata());
+      ByteBuf metadata = metadata(payload);
       int namespaceId = ProteusMetadata.namespaceId(metadata);
       int serviceId = ProteusMetadata.serviceId(metadata);
 
-      ProteusService proteusService = getService(namespaceId, serviceId);
+      Registration registration = getRegistration(namespaceId, serviceId);
 
-      if (proteusService == null) {
+      if (registration == null) {
         return Flux.error(new ServiceNotFound(namespaceId, serviceId));
       }
 
-      return proteusService.requestStream(payload);
+      ProteusService proteusService = registration.service;
+      Flux<Payload> result =
+          registration.isolated
+              ? registration.handleStream(() -> proteusService.requestStream(payload))
+              : proteusService.requestStream(payload);
+      return timed
+          ? timed(namespaceId, serviceId, InteractionType.REQUEST_STREAM, result)
+          : result;
 
     } catch (Throwable t) {
       return Flux.error(t);
@@ -107,11 +212,23 @@ public class RequestHandlingRSocket implements RSocket {
           new SwitchTransform<>(
               payloads,
               (payload, flux) -> {
-                ByteBuf metadata = Unpooled.wrappedBuffer(payload.getMetadata());
+                ByteBuf metadata = metadata(payload);
                 int namespaceId = ProteusMetadata.namespaceId(metadata);
                 int serviceId = ProteusMetadata.serviceId(metadata);
-                ProteusService proteusService = getService(namespaceId, serviceId);
-                return proteusService.requestChannel(flux);
+                Registration registration = getRegistration(namespaceId, serviceId);
+
+                if (registration == null) {
+                  return Flux.error(new ServiceNotFound(namespaceId, serviceId));
+                }
+
+                ProteusService proteusService = registration.service;
+                Flux<Payload> result =
+                    registration.isolated
+                        ? registration.handleStream(() -> proteusService.requestChannel(flux))
+                        : proteusService.requestChannel(flux);
+                return timed
+                    ? timed(namespaceId, serviceId, InteractionType.REQUEST_CHANNEL, result)
+                    : result;
               });
 
       return switchTransform;
@@ -123,23 +240,63 @@ public class RequestHandlingRSocket implements RSocket {
   @Override
   public Mono<Void> metadataPush(Payload payload) {
     try {
-      ByteBuf metadata = Unpooled.wrappedBuffer(payload.getMetadata());
+      ByteBuf metadata = metadata(payload);
       int namespaceId = ProteusMetadata.namespaceId(metadata);
       int serviceId = ProteusMetadata.serviceId(metadata);
 
-      ProteusService proteusService = getService(namespaceId, serviceId);
+      Registration registration = getRegistration(namespaceId, serviceId);
 
-      if (proteusService == null) {
+      if (registration == null) {
         return Mono.error(new ServiceNotFound(namespaceId, serviceId));
       }
 
-      return proteusService.metadataPush(payload);
+      ProteusService proteusService = registration.service;
+      Mono<Void> result =
+          registration.isolated
+              ? registration.policy.execute(Mono.defer(() -> proteusService.metadataPush(payload)))
+              : proteusService.metadataPush(payload);
+      return timed
+          ? timed(namespaceId, serviceId, InteractionType.METADATA_PUSH, result)
+          : result;
 
     } catch (Throwable t) {
       return Mono.error(t);
     }
   }
 
+  /** Times each subscription to {@code interaction}, from when it is subscribed. */
+  private <T> Mono<T> timed(
+      int namespaceId, int serviceId, InteractionType type, Mono<T> interaction) {
+    return Mono.defer(
+        () -> {
+          long start = System.nanoTime();
+          return interaction.doFinally(
+              s ->
+                  metrics.recordHandler(
+                      namespaceId,
+                      serviceId,
+                      type,
+                      System.nanoTime() - start,
+                      s == SignalType.ON_ERROR));
+        });
+  }
+
+  private <T> Flux<T> timed(
+      int namespaceId, int serviceId, InteractionType type, Flux<T> interaction) {
+    return Flux.defer(
+        () -> {
+          long start = System.nanoTime();
+          return interaction.doFinally(
+              s ->
+                  metrics.recordHandler(
+                      namespaceId,
+                      serviceId,
+                      type,
+                      System.nanoTime() - start,
+                      s == SignalType.ON_ERROR));
+        });
+  }
+
   @Override
   public Mono<Void> onClose() {
     return onClose;
@@ -153,13 +310,7 @@ public class RequestHandlingRSocket implements RSocket {
           public void run() {
             onClose.onComplete();
 
-            registeredServices.forEach(
-                new BiInt2ObjectMap.EntryConsumer<ProteusService>() {
-                  @Override
-                  public void accept(ProteusService service) {
-                    service.close().subscribe();
-                  }
-                });
+            registrations.forEach(registration -> registration.service.close().subscribe());
           }
         });
   }
@@ -168,4 +319,59 @@ public class RequestHandlingRSocket implements RSocket {
   public double availability() {
     return 1.0;
   }
+
+  /**
+   * A service, with how its handlers are run and how many at a time, read with a single lookup so
+   * a request never sees the service of one registration with the limits of another.
+   */
+  private static final class Registration {
+    private final ProteusService service;
+    private final ConcurrencyLimiter limiter;
+    private final ExecutionPolicy policy;
+    // false for services run on the event loop without a limit, which are called directly
+    private final boolean isolated;
+
+    private Registration(
+        ProteusService service, ConcurrencyLimiter limiter, ExecutionPolicy policy) {
+      this.service = service;
+      this.limiter = limiter;
+      this.policy = policy;
+      this.isolated = limiter != null || policy != ExecutionPolicy.eventLoop();
+    }
+
+    private <T> Mono<T> handle(Supplier<Mono<T>> interaction) {
+      Mono<T> executed = policy.execute(Mono.defer(interaction));
+      return limiter != null ? limited(executed) : executed;
+    }
+
+    private <T> Flux<T> handleStream(Supplier<Flux<T>> interaction) {
+      return policy.execute(Flux.defer(interaction));
+    }
+
+    /**
+     * Handles the request if the limiter has room for it, and times it for the limiter. Only
+     * requests that complete are timed, as an error, often sent before any work was done, says
+     * nothing about how long the service takes.
+     */
+    private <T> Mono<T> limited(Mono<T> interaction) {
+      return Mono.defer(
+          () -> {
+            if (!limiter.tryAcquire()) {
+              return Mono.error(
+                  new RejectedException(
+                      "service is over its concurrency limit of " + limiter.getLimit()));
+            }
+
+            long start = System.nanoTime();
+            return interaction.doFinally(
+                s -> {
+                  if (s == SignalType.ON_COMPLETE) {
+                    limiter.release(System.nanoTime() - start);
+                  } else {
+                    limiter.release();
+                  }
+                });
+          });
+    }
+  }
 }
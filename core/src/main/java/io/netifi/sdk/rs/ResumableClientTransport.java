@@ -0,0 +1,184 @@
+package io.netifi.sdk.rs;
+
+import static io.netifi.sdk.rs.ResumableDuplexConnection.RESUME;
+import static io.netifi.sdk.rs.ResumableDuplexConnection.RESUME_OK;
+
+import io.netifi.sdk.Netifi;
+import io.rsocket.DuplexConnection;
+import io.rsocket.Frame;
+import io.rsocket.transport.ClientTransport;
+import java.nio.channels.ClosedChannelException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+/**
+ * Connects a {@link ResumableDuplexConnection} over another transport. When the transport
+ * connection drops, it connects again with the reconnect backoff, and resumes the session where it
+ * left off. Streams and requests in flight carry on as if nothing happened, unless the session
+ * could not be resumed before the resume timeout, or the server rejected it, in which case the
+ * connection closes.
+ *
+ * <p>The server must listen with a {@link ResumableServerTransport}.
+ */
+public class ResumableClientTransport implements ClientTransport {
+  private static final Logger logger = LoggerFactory.getLogger(Netifi.class);
+
+  public static final int DEFAULT_MAX_BUFFERED_BYTES = 4 * 1024 * 1024;
+  public static final Duration DEFAULT_RESUME_TIMEOUT = Duration.ofSeconds(10);
+
+  // the token is all a server checks before it resumes a session, so it must not be guessable
+  private static final SecureRandom random = new SecureRandom();
+
+  private final ClientTransport transport;
+  private final int maxBufferedBytes;
+  private final Duration resumeTimeout;
+  private final ReconnectBackoff backoff;
+
+  public ResumableClientTransport(ClientTransport transport) {
+    this(transport, DEFAULT_MAX_BUFFERED_BYTES, DEFAULT_RESUME_TIMEOUT, new ReconnectBackoff());
+  }
+
+  /**
+   * @param transport connects every transport connection, the first one and each resume
+   * @param maxBufferedBytes how many bytes of unacknowledged frames are kept to send again
+   * @param resumeTimeout how long to try to resume before the connection closes
+   * @param backoff how long to wait between resume attempts
+   */
+  public ResumableClientTransport(
+      ClientTransport transport,
+      int maxBufferedBytes,
+      Duration resumeTimeout,
+      ReconnectBackoff backoff) {
+    if (maxBufferedBytes < 1) {
+      throw new IllegalArgumentException("max buffered bytes must be at least 1");
+    }
+    Objects.requireNonNull(resumeTimeout, "resume timeout is required");
+    if (resumeTimeout.isNegative() || resumeTimeout.isZero()) {
+      throw new IllegalArgumentException("resume timeout must be positive");
+    }
+    this.transport = Objects.requireNonNull(transport, "transport is required");
+    this.maxBufferedBytes = maxBufferedBytes;
+    this.resumeTimeout = resumeTimeout;
+    this.backoff = Objects.requireNonNull(backoff, "backoff is required");
+  }
+
+  @Override
+  public Mono<DuplexConnection> connect() {
+    return Mono.defer(
+        () -> {
+          byte[] token = new byte[ResumableDuplexConnection.TOKEN_LENGTH];
+          random.nextBytes(token);
+          ResumableDuplexConnection connection =
+              new ResumableDuplexConnection(token, maxBufferedBytes, resumeTimeout);
+
+          return resume(connection)
+              .timeout(resumeTimeout)
+              .doOnError(t -> connection.close().subscribe())
+              .then(Mono.just(connection));
+        });
+  }
+
+  private Mono<Void> resume(ResumableDuplexConnection resumable) {
+    return transport
+        .connect()
+        .flatMap(
+            connection -> Mono.<Void>create(sink -> new Handshake(resumable, connection, sink)));
+  }
+
+  /** @param previousDelayMillis the delay before the attempt that just failed, 0 for the first */
+  private void reconnect(ResumableDuplexConnection resumable, long previousDelayMillis) {
+    if (resumable.isClosed()) {
+      return;
+    }
+
+    long delayMillis = backoff.nextDelayMillis(previousDelayMillis);
+    Mono.delay(Duration.ofMillis(delayMillis))
+        .then(resume(resumable))
+        .subscribe(
+            null,
+            t -> {
+              logger.debug("error resuming the session with the broker", t);
+              reconnect(resumable, delayMillis);
+            });
+  }
+
+  private class Handshake {
+    private final ResumableDuplexConnection resumable;
+    private final DuplexConnection connection;
+    private final MonoSink<Void> sink;
+    private final AtomicBoolean done = new AtomicBoolean();
+    private volatile boolean resumed;
+
+    private Handshake(
+        ResumableDuplexConnection resumable, DuplexConnection connection, MonoSink<Void> sink) {
+      this.resumable = resumable;
+      this.connection = connection;
+      this.sink = sink;
+
+      sink.onCancel(
+          () -> {
+            if (done.compareAndSet(false, true)) {
+              connection.close().subscribe();
+            }
+          });
+      connection
+          .receive()
+          .subscribe(this::received, this::closed, () -> closed(new ClosedChannelException()));
+      connection
+          .sendOne(
+              ResumableDuplexConnection.control(
+                  RESUME, resumable.getToken(), resumable.getReceivedPosition()))
+          .subscribe(null, this::closed);
+    }
+
+    private void received(Frame frame) {
+      if (resumed) {
+        resumable.received(connection, frame);
+        return;
+      }
+
+      if (!done.compareAndSet(false, true)) {
+        frame.release();
+        return;
+      }
+
+      boolean accepted =
+          ResumableDuplexConnection.isControl(frame)
+              && ResumableDuplexConnection.controlType(frame) == RESUME_OK
+              && resumable.attach(
+                  connection, ResumableDuplexConnection.controlPosition(frame), false);
+      frame.release();
+
+      if (accepted) {
+        resumed = true;
+        connection
+            .onClose()
+            .doFinally(
+                s -> {
+                  resumable.detach(connection);
+                  reconnect(resumable, 0);
+                })
+            .subscribe();
+        sink.success();
+      } else {
+        // the broker lost the session, or frames it is missing were dropped
+        resumable.close().subscribe();
+        connection.close().subscribe();
+        sink.error(new IllegalStateException("the broker rejected the session resume"));
+      }
+    }
+
+    private void closed(Throwable t) {
+      connection.close().subscribe();
+      if (done.compareAndSet(false, true)) {
+        sink.error(t);
+      }
+    }
+  }
+}
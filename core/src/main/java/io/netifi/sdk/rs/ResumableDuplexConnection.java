@@ -0,0 +1,329 @@
+package io.netifi.sdk.rs;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.rsocket.DuplexConnection;
+import io.rsocket.Frame;
+import io.rsocket.FrameType;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+import reactor.core.publisher.UnicastProcessor;
+
+/**
+ * A connection that outlives the transport connections under it, so the RSocket on top keeps its
+ * streams when a transport connection drops. Every frame sent is numbered and kept until the peer
+ * acknowledges it, and when the next transport connection is attached the frames the peer has not
+ * received are sent again. Both peers must resume: the client connects with a {@link
+ * ResumableClientTransport} and the server listens with a {@link ResumableServerTransport}.
+ *
+ * <p>The frames waiting for an acknowledgement are limited in bytes. When the limit is reached the
+ * oldest frames are dropped, and a resume that needs them is rejected, which closes the
+ * connection. The connection also closes when no transport connection is attached for longer than
+ * the resume timeout.
+ *
+ * <p>RSocket 0.9 has no RESUME frames, so the handshake and acknowledgements are sent as KEEPALIVE
+ * frames with a control payload. They are consumed here and never reach the RSocket.
+ */
+public class ResumableDuplexConnection implements DuplexConnection {
+  static final byte RESUME = 1;
+  static final byte RESUME_OK = 2;
+  static final byte RESUME_REJECTED = 3;
+  static final byte ACK = 4;
+
+  static final int TOKEN_LENGTH = 16;
+
+  private static final int MAGIC = 0x4e524553;
+  private static final int CONTROL_LENGTH = Integer.BYTES + 1 + TOKEN_LENGTH + Long.BYTES;
+  // frames received between acknowledgements
+  private static final int ACK_INTERVAL = 32;
+
+  private final byte[] token;
+  private final int maxBufferedBytes;
+  private final Duration resumeTimeout;
+
+  private final UnicastProcessor<Frame> inbound = UnicastProcessor.create();
+  private final FluxSink<Frame> receiving = inbound.sink();
+  private final FluxSink<Frame> sending;
+  private final MonoProcessor<Void> onClose = MonoProcessor.create();
+
+  private final ArrayDeque<byte[]> unacknowledged = new ArrayDeque<>();
+  private int bufferedBytes;
+  private long sentPosition;
+  private long receivedPosition;
+  private long acknowledgedPosition;
+
+  private DuplexConnection connection;
+  private UnicastProcessor<Frame> outbound;
+  private long generation;
+  private boolean closed;
+
+  /**
+   * @param token identifies the session to the peer
+   * @param maxBufferedBytes how many bytes of unacknowledged frames are kept to send again
+   * @param resumeTimeout how long the connection waits for a transport connection to be attached
+   */
+  ResumableDuplexConnection(byte[] token, int maxBufferedBytes, Duration resumeTimeout) {
+    if (token.length != TOKEN_LENGTH) {
+      throw new IllegalArgumentException("token must be " + TOKEN_LENGTH + " bytes");
+    }
+    this.token = token;
+    this.maxBufferedBytes = maxBufferedBytes;
+    this.resumeTimeout = Objects.requireNonNull(resumeTimeout, "resume timeout is required");
+
+    // frames from every sender, and acknowledgements, are numbered and written in one order
+    UnicastProcessor<Frame> sent = UnicastProcessor.create();
+    this.sending = sent.sink();
+    sent.subscribe(this::write);
+  }
+
+  byte[] getToken() {
+    return token;
+  }
+
+  synchronized long getReceivedPosition() {
+    return receivedPosition;
+  }
+
+  /** Number of bytes of unacknowledged frames kept to send again. */
+  public synchronized int getBufferedBytes() {
+    return bufferedBytes;
+  }
+
+  synchronized boolean isClosed() {
+    return closed;
+  }
+
+  /**
+   * Sends over {@code connection} from now on, starting with every frame after {@code
+   * peerPosition}, the number of frames the peer received.
+   *
+   * @param resumeOk whether to answer the peer's resume first, with the number of frames received
+   * @return false if the frames the peer is missing were dropped, or the connection is closed
+   */
+  boolean attach(DuplexConnection connection, long peerPosition, boolean resumeOk) {
+    UnicastProcessor<Frame> outbound = UnicastProcessor.create();
+    DuplexConnection previous;
+    UnicastProcessor<Frame> previousOutbound;
+    synchronized (this) {
+      if (closed || !acknowledge(peerPosition)) {
+        return false;
+      }
+
+      if (resumeOk) {
+        outbound.onNext(control(RESUME_OK, token, receivedPosition));
+      }
+      for (byte[] frame : unacknowledged) {
+        outbound.onNext(Frame.from(Unpooled.wrappedBuffer(frame)));
+      }
+
+      previous = this.connection;
+      previousOutbound = this.outbound;
+      this.connection = connection;
+      this.outbound = outbound;
+      acknowledgedPosition = receivedPosition;
+      generation++;
+    }
+
+    if (previous != null) {
+      previousOutbound.onComplete();
+      previous.close().subscribe();
+    }
+    connection.send(outbound).subscribe(null, t -> connection.close().subscribe());
+    return true;
+  }
+
+  /**
+   * Stops sending over {@code connection} if it is attached. Unless another connection is attached
+   * within the resume timeout, this connection closes.
+   */
+  void detach(DuplexConnection connection) {
+    UnicastProcessor<Frame> outbound;
+    long generation;
+    synchronized (this) {
+      if (closed || this.connection != connection) {
+        return;
+      }
+      outbound = this.outbound;
+      this.connection = null;
+      this.outbound = null;
+      generation = this.generation;
+    }
+
+    outbound.onComplete();
+    Mono.delay(resumeTimeout).subscribe(l -> expire(generation));
+  }
+
+  private void expire(long generation) {
+    synchronized (this) {
+      if (closed || connection != null || this.generation != generation) {
+        return;
+      }
+    }
+    close().subscribe();
+  }
+
+  /** Handles a frame that arrived on {@code connection}. */
+  void received(DuplexConnection connection, Frame frame) {
+    boolean sendAck = false;
+    long position = 0;
+    synchronized (this) {
+      if (closed || this.connection != connection) {
+        frame.release();
+        return;
+      }
+
+      if (isControl(frame)) {
+        if (controlType(frame) == ACK) {
+          acknowledge(controlPosition(frame));
+        }
+        frame.release();
+        return;
+      }
+
+      receivedPosition++;
+      if (receivedPosition - acknowledgedPosition >= ACK_INTERVAL) {
+        acknowledgedPosition = receivedPosition;
+        sendAck = true;
+        position = receivedPosition;
+      }
+    }
+
+    receiving.next(frame);
+    if (sendAck) {
+      sending.next(control(ACK, token, position));
+    }
+  }
+
+  /** Drops the frames up to {@code position}, and returns false if frames after it were dropped. */
+  private boolean acknowledge(long position) {
+    if (position > sentPosition) {
+      return false;
+    }
+    long first = sentPosition - unacknowledged.size() + 1;
+    for (; first <= position; first++) {
+      bufferedBytes -= unacknowledged.pollFirst().length;
+    }
+    return position + 1 >= first;
+  }
+
+  private void write(Frame frame) {
+    UnicastProcessor<Frame> outbound;
+    synchronized (this) {
+      if (closed) {
+        frame.release();
+        return;
+      }
+
+      if (!isControl(frame)) {
+        ByteBuf content = frame.content();
+        byte[] bytes = new byte[content.readableBytes()];
+        content.getBytes(content.readerIndex(), bytes);
+        unacknowledged.addLast(bytes);
+        bufferedBytes += bytes.length;
+        sentPosition++;
+        while (bufferedBytes > maxBufferedBytes) {
+          bufferedBytes -= unacknowledged.pollFirst().length;
+        }
+      }
+      outbound = this.outbound;
+    }
+
+    if (outbound != null) {
+      outbound.onNext(frame);
+    } else {
+      frame.release();
+    }
+  }
+
+  @Override
+  public Mono<Void> send(Publisher<Frame> frames) {
+    return Flux.from(frames).doOnNext(sending::next).then();
+  }
+
+  @Override
+  public Flux<Frame> receive() {
+    return inbound;
+  }
+
+  @Override
+  public double availability() {
+    DuplexConnection connection;
+    synchronized (this) {
+      connection = this.connection;
+    }
+    return connection != null ? connection.availability() : 0.0;
+  }
+
+  @Override
+  public Mono<Void> close() {
+    DuplexConnection connection;
+    UnicastProcessor<Frame> outbound;
+    synchronized (this) {
+      if (closed) {
+        return onClose;
+      }
+      closed = true;
+      connection = this.connection;
+      outbound = this.outbound;
+      this.connection = null;
+      this.outbound = null;
+      unacknowledged.clear();
+      bufferedBytes = 0;
+    }
+
+    if (connection != null) {
+      outbound.onComplete();
+      connection.close().subscribe();
+    }
+    receiving.complete();
+    onClose.onComplete();
+    return onClose;
+  }
+
+  @Override
+  public Mono<Void> onClose() {
+    return onClose;
+  }
+
+  static Frame control(byte type, byte[] token, long position) {
+    ByteBuf data = Unpooled.buffer(CONTROL_LENGTH);
+    data.writeInt(MAGIC);
+    data.writeByte(type);
+    data.writeBytes(token);
+    data.writeLong(position);
+    return Frame.Keepalive.from(data, false);
+  }
+
+  static boolean isControl(Frame frame) {
+    if (frame.getType() != FrameType.KEEPALIVE) {
+      return false;
+    }
+    ByteBuffer data = frame.getData();
+    return data.remaining() == CONTROL_LENGTH && data.getInt(data.position()) == MAGIC;
+  }
+
+  static byte controlType(Frame frame) {
+    ByteBuffer data = frame.getData();
+    return data.get(data.position() + Integer.BYTES);
+  }
+
+  static byte[] controlToken(Frame frame) {
+    ByteBuffer data = frame.getData().duplicate();
+    byte[] token = new byte[TOKEN_LENGTH];
+    data.position(data.position() + Integer.BYTES + 1);
+    data.get(token);
+    return token;
+  }
+
+  static long controlPosition(Frame frame) {
+    ByteBuffer data = frame.getData();
+    return data.getLong(data.position() + Integer.BYTES + 1 + TOKEN_LENGTH);
+  }
+}
@@ -0,0 +1,142 @@
+package io.netifi.sdk.rs;
+
+import static io.netifi.sdk.rs.ResumableDuplexConnection.RESUME;
+import static io.netifi.sdk.rs.ResumableDuplexConnection.RESUME_REJECTED;
+
+import io.netifi.sdk.Netifi;
+import io.rsocket.Closeable;
+import io.rsocket.DuplexConnection;
+import io.rsocket.Frame;
+import io.rsocket.transport.ServerTransport;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Accepts connections from a {@link ResumableClientTransport} over another transport. A client
+ * that connects for the first time starts a session, which is handed to the acceptor as a {@link
+ * ResumableDuplexConnection}, and a client that connects again resumes its session. A session is
+ * kept for the resume timeout after its transport connection drops.
+ *
+ * <p>Meant for brokers and for testing against the in-process router in the core test sources.
+ * Every client must resume, connections that do not start with a resume handshake are closed.
+ */
+public class ResumableServerTransport<T extends Closeable> implements ServerTransport<T> {
+  private static final Logger logger = LoggerFactory.getLogger(Netifi.class);
+
+  public static final Duration DEFAULT_RESUME_TIMEOUT = Duration.ofSeconds(30);
+
+  private final ConcurrentHashMap<ByteBuffer, ResumableDuplexConnection> sessions =
+      new ConcurrentHashMap<>();
+  private final ServerTransport<T> transport;
+  private final int maxBufferedBytes;
+  private final Duration resumeTimeout;
+
+  public ResumableServerTransport(ServerTransport<T> transport) {
+    this(transport, ResumableClientTransport.DEFAULT_MAX_BUFFERED_BYTES, DEFAULT_RESUME_TIMEOUT);
+  }
+
+  /**
+   * @param transport accepts every transport connection
+   * @param maxBufferedBytes how many bytes of unacknowledged frames each session keeps to send
+   *     again
+   * @param resumeTimeout how long a session is kept after its transport connection drops
+   */
+  public ResumableServerTransport(
+      ServerTransport<T> transport, int maxBufferedBytes, Duration resumeTimeout) {
+    if (maxBufferedBytes < 1) {
+      throw new IllegalArgumentException("max buffered bytes must be at least 1");
+    }
+    Objects.requireNonNull(resumeTimeout, "resume timeout is required");
+    if (resumeTimeout.isNegative() || resumeTimeout.isZero()) {
+      throw new IllegalArgumentException("resume timeout must be positive");
+    }
+    this.transport = Objects.requireNonNull(transport, "transport is required");
+    this.maxBufferedBytes = maxBufferedBytes;
+    this.resumeTimeout = resumeTimeout;
+  }
+
+  @Override
+  public Mono<T> start(ConnectionAcceptor acceptor) {
+    return transport.start(connection -> accept(connection, acceptor));
+  }
+
+  /** Number of sessions, attached or waiting to be resumed. */
+  public int sessions() {
+    return sessions.size();
+  }
+
+  private Publisher<Void> accept(DuplexConnection connection, ConnectionAcceptor acceptor) {
+    AtomicReference<ResumableDuplexConnection> session = new AtomicReference<>();
+    connection
+        .receive()
+        .subscribe(
+            frame -> {
+              ResumableDuplexConnection resumable = session.get();
+              if (resumable != null) {
+                resumable.received(connection, frame);
+              } else {
+                session.set(handshake(connection, frame, acceptor));
+              }
+            },
+            t -> connection.close().subscribe(),
+            () -> connection.close().subscribe());
+
+    return connection.onClose();
+  }
+
+  /** Returns the session {@code connection} is attached to, or null if it was closed. */
+  private ResumableDuplexConnection handshake(
+      DuplexConnection connection, Frame frame, ConnectionAcceptor acceptor) {
+    if (!ResumableDuplexConnection.isControl(frame)
+        || ResumableDuplexConnection.controlType(frame) != RESUME) {
+      frame.release();
+      logger.debug("closing a connection that did not resume a session");
+      connection.close().subscribe();
+      return null;
+    }
+
+    byte[] token = ResumableDuplexConnection.controlToken(frame);
+    long position = ResumableDuplexConnection.controlPosition(frame);
+    frame.release();
+
+    ByteBuffer key = ByteBuffer.wrap(token);
+    ResumableDuplexConnection resumable = sessions.get(key);
+    boolean started = false;
+    if (resumable == null && position == 0) {
+      resumable = new ResumableDuplexConnection(token, maxBufferedBytes, resumeTimeout);
+      ResumableDuplexConnection session = resumable;
+      if (sessions.putIfAbsent(key, session) == null) {
+        session.onClose().doFinally(s -> sessions.remove(key, session)).subscribe();
+        started = true;
+      } else {
+        resumable = sessions.get(key);
+      }
+    }
+
+    if (resumable == null || !resumable.attach(connection, position, true)) {
+      if (resumable != null) {
+        resumable.close().subscribe();
+      }
+      connection
+          .sendOne(ResumableDuplexConnection.control(RESUME_REJECTED, token, 0))
+          .then(Mono.defer(connection::close))
+          .subscribe();
+      return null;
+    }
+
+    ResumableDuplexConnection attached = resumable;
+    connection.onClose().doFinally(s -> attached.detach(connection)).subscribe();
+    if (started) {
+      Flux.from(acceptor.apply(attached)).subscribe(null, t -> attached.close().subscribe());
+    }
+    return attached;
+  }
+}
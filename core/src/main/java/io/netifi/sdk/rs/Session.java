@@ -0,0 +1,58 @@
+package io.netifi.sdk.rs;
+
+import io.netifi.sdk.auth.SessionSigner;
+import io.netifi.sdk.frames.RouteDictionaryEncoder;
+import io.rsocket.RSocket;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * State of one connection to the router: the connected {@link RSocket}, the session token
+ * negotiated for it, the counter used to sign requests sent on it, and the route dictionary of the
+ * connection. {@link ReconnectingRSocket} creates and publishes a new instance every time it
+ * connects, and never changes which socket or token an instance holds, so it can be shared between
+ * threads without locking. The counter and the route dictionary do change: the counter is
+ * incremented for every signed request, and the dictionary learns routes as they are sent. Both are
+ * thread safe.
+ */
+public final class Session {
+  private final RSocket rSocket;
+  private final byte[] sessionToken;
+  private final AtomicLong counter;
+  private final SessionSigner signer;
+  private final RouteDictionaryEncoder routeDictionary;
+
+  public Session(RSocket rSocket, byte[] sessionToken, long count) {
+    this.rSocket = rSocket;
+    this.sessionToken = sessionToken;
+    this.counter = new AtomicLong(count);
+    this.signer = new SessionSigner(sessionToken);
+    this.routeDictionary = new RouteDictionaryEncoder();
+  }
+
+  public RSocket getRSocket() {
+    return rSocket;
+  }
+
+  public byte[] getSessionToken() {
+    return sessionToken;
+  }
+
+  public AtomicLong getCounter() {
+    return counter;
+  }
+
+  public SessionSigner getSigner() {
+    return signer;
+  }
+
+  /** Route dictionary of this connection; it starts empty on every new connection. */
+  public RouteDictionaryEncoder getRouteDictionary() {
+    return routeDictionary;
+  }
+
+  /** Increments the session counter and signs the data with it. */
+  public int generateRequestToken(ByteBuffer data) {
+    return signer.generateRequestToken(data, counter.incrementAndGet());
+  }
+}
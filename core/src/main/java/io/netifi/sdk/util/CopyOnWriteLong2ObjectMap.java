@@ -0,0 +1,145 @@
+package io.netifi.sdk.util;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Map from primitive {@code long} keys to values for read mostly data. Reads are wait-free: they
+ * probe an immutable open addressing table through one volatile read. Writes are synchronized,
+ * build a new table and publish it, so they cost O(n) and should be rare.
+ *
+ * <p>Null values are not supported.
+ */
+public class CopyOnWriteLong2ObjectMap<V> {
+  private static final Table EMPTY = new Table(2);
+
+  private volatile Table table = EMPTY;
+
+  /** Combines two ints into one key, e.g. a namespace id and a service id. */
+  public static long key(int high, int low) {
+    return ((long) high << 32) | (low & 0xFFFF_FFFFL);
+  }
+
+  @SuppressWarnings("unchecked")
+  public V get(long key) {
+    return (V) table.get(key);
+  }
+
+  /** Returns the previous value for the key, or null if there was none. */
+  public synchronized V put(long key, V value) {
+    Objects.requireNonNull(value, "value is required");
+
+    Table current = table;
+    @SuppressWarnings("unchecked")
+    V previous = (V) current.get(key);
+
+    Table next = new Table(capacityFor(previous == null ? current.size + 1 : current.size));
+    current.copyTo(next, key);
+    next.insert(key, value);
+    table = next;
+
+    return previous;
+  }
+
+  /** Returns the removed value for the key, or null if there was none. */
+  public synchronized V remove(long key) {
+    Table current = table;
+    @SuppressWarnings("unchecked")
+    V previous = (V) current.get(key);
+
+    if (previous != null) {
+      Table next = current.size == 1 ? EMPTY : new Table(capacityFor(current.size - 1));
+      current.copyTo(next, key);
+      table = next;
+    }
+
+    return previous;
+  }
+
+  /** Removes the entry for the key only if it is mapped to the given value. */
+  public synchronized boolean remove(long key, V value) {
+    if (value == null || table.get(key) != value) {
+      return false;
+    }
+
+    remove(key);
+    return true;
+  }
+
+  public int size() {
+    return table.size;
+  }
+
+  public boolean isEmpty() {
+    return table.size == 0;
+  }
+
+  /** Visits the values of the snapshot current when the call starts. */
+  @SuppressWarnings("unchecked")
+  public void forEach(Consumer<? super V> consumer) {
+    Object[] values = table.values;
+    for (Object value : values) {
+      if (value != null) {
+        consumer.accept((V) value);
+      }
+    }
+  }
+
+  /** Smallest power of two that keeps the load factor at or below one half. */
+  private static int capacityFor(int size) {
+    int capacity = 2;
+    while (capacity < size * 2) {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+
+  private static int hash(long key) {
+    long h = key * 0x9E37_79B9_7F4A_7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+
+  private static final class Table {
+    final long[] keys;
+    final Object[] values;
+    final int mask;
+    int size;
+
+    Table(int capacity) {
+      this.keys = new long[capacity];
+      this.values = new Object[capacity];
+      this.mask = capacity - 1;
+    }
+
+    Object get(long key) {
+      int index = hash(key) & mask;
+      while (true) {
+        Object value = values[index];
+        if (value == null || keys[index] == key) {
+          return value;
+        }
+        index = (index + 1) & mask;
+      }
+    }
+
+    void insert(long key, Object value) {
+      int index = hash(key) & mask;
+      while (values[index] != null) {
+        index = (index + 1) & mask;
+      }
+      keys[index] = key;
+      values[index] = value;
+      size++;
+    }
+
+    /** Copies every entry except the one for {@code skipKey}. */
+    void copyTo(Table target, long skipKey) {
+      for (int i = 0; i < values.length; i++) {
+        Object value = values[i];
+        if (value != null && keys[i] != skipKey) {
+          target.insert(keys[i], value);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,13 @@
+package io.netifi.sdk.util;
+
+import java.util.function.LongSupplier;
+
+/** Generates the sequence ids stamped on outgoing frames. Implementations must be thread safe. */
+public interface IdGenerator extends LongSupplier {
+  long nextId();
+
+  @Override
+  default long getAsLong() {
+    return nextId();
+  }
+}
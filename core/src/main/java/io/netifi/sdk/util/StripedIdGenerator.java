@@ -0,0 +1,86 @@
+package io.netifi.sdk.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time based ids that stay unique at any rate. An id is laid out as
+ *
+ * <pre>
+ * | 0 | 41 bits: millis since 2017-01-01 | 6 bits: discriminator | 16 bits: sequence |
+ * </pre>
+ *
+ * <p>The millis and sequence together form one 57 bit slot number. Each thread reserves a block of
+ * {@value #BLOCK_SIZE} slots with a single CAS and hands out ids from it without touching shared
+ * state, and the clock is only read when a block is reserved. When more than 65,536 ids are
+ * requested in one millisecond, blocks are taken from the following milliseconds, so ids run ahead
+ * of the clock until the rate drops instead of wrapping. Ids are unique per generator; the
+ * discriminator, taken from the low bits of the id passed to the constructor, keeps generators in
+ * different processes apart.
+ */
+public class StripedIdGenerator implements IdGenerator {
+  /** 2017-01-01T00:00:00Z */
+  public static final long EPOCH = 1_483_228_800_000L;
+
+  static final int SEQUENCE_BITS = 16;
+  static final int DISCRIMINATOR_BITS = 6;
+  static final int BLOCK_SIZE = 256;
+
+  private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+  private static final int DISCRIMINATOR_MASK = (1 << DISCRIMINATOR_BITS) - 1;
+  private static final int TIME_SHIFT = SEQUENCE_BITS + DISCRIMINATOR_BITS;
+
+  private final long discriminator;
+  private final AtomicLong nextSlot = new AtomicLong();
+  private final ThreadLocal<Block> blocks =
+      new ThreadLocal<Block>() {
+        @Override
+        protected Block initialValue() {
+          return new Block();
+        }
+      };
+
+  public StripedIdGenerator(int id) {
+    this.discriminator = (long) (id & DISCRIMINATOR_MASK) << SEQUENCE_BITS;
+  }
+
+  @Override
+  public long nextId() {
+    Block block = blocks.get();
+    if (block.next == block.end) {
+      reserve(block);
+    }
+    return toId(block.next++);
+  }
+
+  private void reserve(Block block) {
+    long now = (System.currentTimeMillis() - EPOCH) << SEQUENCE_BITS;
+    long current;
+    long start;
+    do {
+      current = nextSlot.get();
+      start = Math.max(current, now);
+    } while (!nextSlot.compareAndSet(current, start + BLOCK_SIZE));
+
+    block.next = start;
+    block.end = start + BLOCK_SIZE;
+  }
+
+  private long toId(long slot) {
+    long millis = slot >>> SEQUENCE_BITS;
+    return (millis << TIME_SHIFT) | discriminator | (slot & SEQUENCE_MASK);
+  }
+
+  /** Milliseconds since the Unix epoch encoded in an id. */
+  public static long timestamp(long id) {
+    return (id >>> TIME_SHIFT) + EPOCH;
+  }
+
+  public static int discriminator(long id) {
+    return (int) (id >>> SEQUENCE_BITS) & DISCRIMINATOR_MASK;
+  }
+
+  private static final class Block {
+    long next;
+    long end;
+  }
+}
@@ -3,9 +3,13 @@ package io.netifi.sdk.util;
 import java.time.LocalTime;
 import java.time.ZoneOffset;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
-import java.util.function.LongSupplier;
 
-public class TimebasedIdGenerator implements LongSupplier {
+/**
+ * Ids made of the current time in milliseconds, a 16 bit counter shared by all threads and a hash
+ * of the destination. The counter wraps after 65,536 ids per millisecond; use {@link
+ * StripedIdGenerator} for higher rates.
+ */
+public class TimebasedIdGenerator implements IdGenerator {
   private static final AtomicIntegerFieldUpdater<TimebasedIdGenerator> COUNTER =
       AtomicIntegerFieldUpdater.newUpdater(TimebasedIdGenerator.class, "counter");
   private final int id;
@@ -20,14 +24,10 @@ public class TimebasedIdGenerator implements LongSupplier {
     counter = now.getHour();
   }
 
+  @Override
   public long nextId() {
     int count = COUNTER.getAndIncrement(this) & 65_535;
     long time = System.currentTimeMillis() << 32;
     return time | count | id;
   }
-
-  @Override
-  public long getAsLong() {
-    return nextId();
-  }
 }
@@ -0,0 +1,260 @@
+package io.netifi.sdk;
+
+import io.netifi.sdk.frames.DestinationSetupFlyweight;
+import io.netifi.sdk.frames.FrameType;
+import io.netifi.sdk.metrics.NetifiMetrics;
+import io.netifi.sdk.rs.ReconnectingRSocket;
+import io.netifi.sdk.testing.InProcessRouter;
+import io.netifi.sdk.util.TimebasedIdGenerator;
+import io.netty.buffer.Unpooled;
+import io.rsocket.AbstractRSocket;
+import io.rsocket.Closeable;
+import io.rsocket.DuplexConnection;
+import io.rsocket.RSocket;
+import io.rsocket.RSocketFactory;
+import io.rsocket.transport.ClientTransport;
+import io.rsocket.transport.local.LocalClientTransport;
+import io.rsocket.transport.local.LocalServerTransport;
+import io.rsocket.util.PayloadImpl;
+import java.nio.channels.ClosedChannelException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public class DefaultPresenceNotificationHandlerTest {
+  private static final Duration TIMEOUT = Duration.ofSeconds(5);
+  private static final TimebasedIdGenerator idGenerator = new TimebasedIdGenerator(1);
+
+  private final List<RSocket> members = new ArrayList<>();
+  private final List<DuplexConnection> connections = new CopyOnWriteArrayList<>();
+  private volatile boolean running;
+  private volatile boolean refuse;
+  private String name;
+  private byte[] accessToken;
+  private InProcessRouter router;
+  private Closeable server;
+  private ReconnectingRSocket reconnectingRSocket;
+  private DefaultPresenceNotificationHandler handler;
+
+  @Before
+  public void setup() {
+    name = "presence-test-" + ThreadLocalRandom.current().nextLong();
+    accessToken = new byte[20];
+    ThreadLocalRandom.current().nextBytes(accessToken);
+
+    router = new InProcessRouter();
+    server =
+        RSocketFactory.receive()
+            .acceptor(router)
+            .transport(LocalServerTransport.create(name))
+            .start()
+            .block();
+
+    // the watcher's connections can be dropped, or refused
+    ClientTransport watcherTransport =
+        () ->
+            refuse
+                ? Mono.error(new ClosedChannelException())
+                : LocalClientTransport.create(name).connect().doOnNext(connections::add);
+
+    running = true;
+    reconnectingRSocket =
+        new ReconnectingRSocket(
+            null,
+            () -> new PayloadImpl(new byte[0], setupMetadata("watcher", "watchers")),
+            () -> running,
+            () -> watcherTransport,
+            false,
+            0,
+            0,
+            0,
+            Long.MAX_VALUE,
+            accessToken);
+    handler =
+        new DefaultPresenceNotificationHandler(
+            reconnectingRSocket, () -> running, idGenerator, Long.MAX_VALUE, "watcher");
+  }
+
+  @After
+  public void tearDown() {
+    running = false;
+    for (RSocket member : members) {
+      member.close().block();
+    }
+    reconnectingRSocket.close().block();
+    server.close().block();
+  }
+
+  @Test
+  public void testGroupPresence() {
+    RSocket first = connect("member-0", "group");
+    connect("member-1", "group");
+    connect("other", "other-group");
+
+    Flux<Collection<String>> presence = handler.presence(Long.MAX_VALUE, "group");
+    Disposable subscription = presence.subscribe();
+    Assert.assertEquals(
+        new HashSet<>(Arrays.asList("member-0", "member-1")),
+        presence.filter(view -> view.size() == 2).blockFirst(TIMEOUT));
+
+    first.close().block();
+    Assert.assertEquals(
+        Collections.singleton("member-1"),
+        presence.filter(view -> !view.contains("member-0")).blockFirst(TIMEOUT));
+    subscription.dispose();
+  }
+
+  @Test
+  public void testDestinationPresence() {
+    connect("member-0", "group");
+    connect("member-1", "group");
+
+    Collection<String> view =
+        handler.presence(Long.MAX_VALUE, "group", "member-1").blockFirst(TIMEOUT);
+    Assert.assertEquals(Collections.singleton("member-1"), view);
+  }
+
+  @Test
+  public void testAbsentDestinationEmitsEmptyView() {
+    connect("member-0", "group");
+
+    Assert.assertEquals(
+        Collections.emptySet(),
+        handler.presence(Long.MAX_VALUE, "group", "absent").blockFirst(TIMEOUT));
+  }
+
+  @Test
+  public void testEmptyGroupEmitsEmptyView() {
+    Assert.assertEquals(
+        Collections.emptySet(), handler.presence(Long.MAX_VALUE, "group").blockFirst(TIMEOUT));
+  }
+
+  @Test
+  public void testMemberLeavingWhileReconnectingIsRemoved() {
+    RSocket member = connect("member-0", "group");
+
+    Flux<Collection<String>> presence = handler.presence(Long.MAX_VALUE, "group");
+    Disposable subscription = presence.subscribe();
+    Assert.assertEquals(Collections.singleton("member-0"), presence.blockFirst(TIMEOUT));
+
+    refuse = true;
+    connections.get(0).close().block();
+    member.close().block();
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (router.hasMember("group", "member-0")) {
+      Assert.assertTrue(System.nanoTime() < deadline);
+      Thread.yield();
+    }
+    refuse = false;
+
+    // the restarted stream finds the group empty, which replaces the view from before
+    Assert.assertEquals(
+        Collections.emptySet(),
+        presence.filter(Collection::isEmpty).blockFirst(Duration.ofSeconds(10)));
+    Assert.assertTrue(connections.size() > 1);
+    subscription.dispose();
+  }
+
+  @Test
+  public void testAvailable() {
+    connect("member-0", "group");
+
+    Assert.assertTrue(handler.available(Long.MAX_VALUE, "group", "member-0").block(TIMEOUT));
+    Assert.assertFalse(handler.available(Long.MAX_VALUE, "group", "missing").block(TIMEOUT));
+  }
+
+  @Test
+  public void testQueryFramesAreRecorded() {
+    AtomicInteger frames = new AtomicInteger();
+    NetifiMetrics metrics =
+        new NetifiMetrics() {
+          @Override
+          public void recordFrame(FrameType type, int bytes) {
+            Assert.assertEquals(FrameType.ROUTE, type);
+            frames.incrementAndGet();
+          }
+        };
+    DefaultPresenceNotificationHandler recording =
+        new DefaultPresenceNotificationHandler(
+            reconnectingRSocket, () -> running, idGenerator, Long.MAX_VALUE, "watcher", metrics);
+
+    Assert.assertFalse(recording.available(Long.MAX_VALUE, "group", "missing").block(TIMEOUT));
+    Assert.assertEquals(1, frames.get());
+  }
+
+  @Test
+  public void testSubscribersShareOneStream() {
+    connect("member-0", "group");
+
+    Flux<Collection<String>> presence = handler.presence(Long.MAX_VALUE, "group");
+    Assert.assertSame(presence, handler.presence(Long.MAX_VALUE, "group"));
+
+    Disposable first = presence.subscribe();
+    Disposable second = presence.subscribe();
+    Assert.assertEquals(Collections.singleton("member-0"), presence.blockFirst(TIMEOUT));
+    Assert.assertEquals(1, router.presenceQueries());
+
+    first.dispose();
+    second.dispose();
+  }
+
+  @Test
+  public void testViewIsDroppedWithItsLastSubscriber() {
+    connect("member-0", "group");
+
+    Flux<Collection<String>> presence = handler.presence(Long.MAX_VALUE, "group", "member-0");
+    Assert.assertSame(presence, handler.presence(Long.MAX_VALUE, "group", "member-0"));
+    Assert.assertEquals(Collections.singleton("member-0"), presence.blockFirst(TIMEOUT));
+
+    // blockFirst cancelled the only subscriber, so the next query starts a view of its own
+    Flux<Collection<String>> next = handler.presence(Long.MAX_VALUE, "group", "member-0");
+    Assert.assertNotSame(presence, next);
+    Assert.assertEquals(Collections.singleton("member-0"), next.blockFirst(TIMEOUT));
+  }
+
+  private RSocket connect(String destination, String group) {
+    RSocket member =
+        RSocketFactory.connect()
+            .setupPayload(new PayloadImpl(new byte[0], setupMetadata(destination, group)))
+            .acceptor(rSocket -> new AbstractRSocket() {})
+            .transport(LocalClientTransport.create(name))
+            .start()
+            .block();
+    members.add(member);
+
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!router.hasMember(group, destination)) {
+      Assert.assertTrue(System.nanoTime() < deadline);
+      Thread.yield();
+    }
+    return member;
+  }
+
+  private byte[] setupMetadata(String destination, String group) {
+    byte[] metadata = new byte[DestinationSetupFlyweight.computeLength(false, destination, group)];
+    DestinationSetupFlyweight.encode(
+        Unpooled.wrappedBuffer(metadata),
+        Unpooled.EMPTY_BUFFER,
+        Unpooled.wrappedBuffer(accessToken),
+        idGenerator.nextId(),
+        Long.MAX_VALUE,
+        destination,
+        group);
+    return metadata;
+  }
+}
@@ -0,0 +1,99 @@
+package io.netifi.sdk.metrics;
+
+import io.netifi.sdk.frames.FrameType;
+import java.lang.management.ManagementFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HdrHistogramNetifiMetricsTest {
+
+  @Test
+  public void testInteractions() {
+    HdrHistogramNetifiMetrics metrics = new HdrHistogramNetifiMetrics();
+    metrics.recordInteraction(InteractionType.REQUEST_RESPONSE, 1_000, false);
+    metrics.recordInteraction(InteractionType.REQUEST_RESPONSE, 3_000, true);
+    metrics.recordInteraction(InteractionType.REQUEST_STREAM, 5_000, false);
+
+    Assert.assertEquals(
+        2, metrics.getInteractionLatency(InteractionType.REQUEST_RESPONSE).getTotalCount());
+    Assert.assertEquals(
+        3_000,
+        metrics.getInteractionLatency(InteractionType.REQUEST_RESPONSE).getMaxValue(),
+        3_000 / 100);
+    Assert.assertEquals(1, metrics.getInteractionErrors(InteractionType.REQUEST_RESPONSE));
+    Assert.assertEquals(0, metrics.getInteractionErrors(InteractionType.REQUEST_STREAM));
+    Assert.assertEquals(
+        0, metrics.getInteractionLatency(InteractionType.FIRE_AND_FORGET).getTotalCount());
+  }
+
+  @Test
+  public void testHandlers() {
+    HdrHistogramNetifiMetrics metrics = new HdrHistogramNetifiMetrics();
+    metrics.recordHandler(1, 2, InteractionType.REQUEST_RESPONSE, 1_000, false);
+    metrics.recordHandler(1, 2, InteractionType.REQUEST_STREAM, 1_000, true);
+    metrics.recordHandler(1, 3, InteractionType.REQUEST_RESPONSE, 1_000, false);
+
+    Assert.assertEquals(2, metrics.getHandlerLatency(1, 2).getTotalCount());
+    Assert.assertEquals(1, metrics.getHandlerErrors(1, 2));
+    Assert.assertEquals(1, metrics.getHandlerLatency(1, 3).getTotalCount());
+    Assert.assertEquals(0, metrics.getHandlerErrors(1, 3));
+    Assert.assertEquals(0, metrics.getHandlerLatency(2, 1).getTotalCount());
+  }
+
+  @Test
+  public void testConnectionsAndFrames() {
+    HdrHistogramNetifiMetrics metrics = new HdrHistogramNetifiMetrics();
+    metrics.recordConnect(false);
+    metrics.recordDisconnect(1_000_000);
+    metrics.recordConnect(true);
+    metrics.recordFrame(FrameType.ROUTE, 100);
+    metrics.recordFrame(FrameType.ROUTE, 50);
+
+    Assert.assertEquals(2, metrics.getConnects());
+    Assert.assertEquals(1, metrics.getReconnects());
+    Assert.assertEquals(1, metrics.getOpenConnections());
+    Assert.assertEquals(1, metrics.getConnectionUptime().getTotalCount());
+    Assert.assertEquals(2, metrics.getFrameCount(FrameType.ROUTE));
+    Assert.assertEquals(150, metrics.getFrameBytes(FrameType.ROUTE));
+    Assert.assertEquals(0, metrics.getFrameCount(FrameType.FIRE_AND_FORGET_BATCH));
+  }
+
+  @Test
+  public void testLatencyIsClamped() {
+    HdrHistogramNetifiMetrics metrics = new HdrHistogramNetifiMetrics();
+    metrics.recordInteraction(InteractionType.REQUEST_RESPONSE, Long.MAX_VALUE, false);
+    metrics.recordInteraction(InteractionType.REQUEST_RESPONSE, -1, false);
+
+    Assert.assertEquals(
+        2, metrics.getInteractionLatency(InteractionType.REQUEST_RESPONSE).getTotalCount());
+  }
+
+  @Test
+  public void testRecordingDoesNotAllocate() {
+    java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+      return;
+    }
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+    long thread = Thread.currentThread().getId();
+
+    HdrHistogramNetifiMetrics metrics = new HdrHistogramNetifiMetrics();
+    // the first call for a handler adds it to the map
+    record(metrics, 1_000);
+
+    long before = threads.getThreadAllocatedBytes(thread);
+    record(metrics, 100_000);
+    long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+    // allow for the allocation made by reading the counter itself
+    Assert.assertTrue("allocated " + allocated + " bytes", allocated < 1024);
+  }
+
+  private static void record(HdrHistogramNetifiMetrics metrics, int count) {
+    for (int i = 0; i < count; i++) {
+      metrics.recordInteraction(InteractionType.REQUEST_RESPONSE, i, (i & 1) == 0);
+      metrics.recordHandler(1, 2, InteractionType.REQUEST_RESPONSE, i, (i & 1) == 0);
+      metrics.recordFrame(FrameType.ROUTE, i);
+    }
+  }
+}
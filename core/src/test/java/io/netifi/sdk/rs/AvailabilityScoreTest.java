@@ -0,0 +1,67 @@
+package io.netifi.sdk.rs;
+
+import java.time.Duration;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AvailabilityScoreTest {
+
+  @Test
+  public void testDisconnectedScoresZero() {
+    AvailabilityScore score = new AvailabilityScore();
+    Assert.assertEquals(0.0, score.availability(), 0);
+
+    score.connected();
+    Assert.assertEquals(1.0, score.availability(), 0);
+
+    score.disconnected();
+    Assert.assertEquals(0.0, score.availability(), 0);
+  }
+
+  @Test
+  public void testLatencyAndPendingLowerTheScore() throws Exception {
+    AvailabilityScore score = new AvailabilityScore(Duration.ofMillis(10), Duration.ofMillis(1));
+    score.connected();
+
+    long start = score.started();
+    Thread.sleep(20);
+    score.finished(start, true);
+    double slow = score.availability();
+    Assert.assertTrue("score " + slow, slow < 0.5);
+
+    score.started();
+    score.started();
+    Assert.assertEquals(2, score.getPending());
+    double loaded = score.availability();
+    Assert.assertTrue("score " + loaded, loaded < slow);
+
+    score.connected();
+    Assert.assertEquals(1.0, score.availability(), 0);
+  }
+
+  @Test
+  public void testUnansweredRequestsOnlyCountWhilePending() throws Exception {
+    AvailabilityScore score = new AvailabilityScore(Duration.ofMillis(10), Duration.ofMillis(1));
+    score.connected();
+
+    long start = score.started();
+    Thread.sleep(20);
+    score.finished(start, false);
+
+    Assert.assertEquals(0, score.getPending());
+    Assert.assertEquals(1.0, score.availability(), 0);
+  }
+
+  @Test
+  public void testRoundTripLowersTheScore() throws Exception {
+    AvailabilityScore score = new AvailabilityScore(Duration.ofMillis(10), Duration.ofMillis(1));
+    score.connected();
+    // the averages weigh a sample by the time since the previous one
+    Thread.sleep(5);
+
+    score.roundTrip(Duration.ofMinutes(10).toNanos());
+    double availability = score.availability();
+    Assert.assertTrue("score " + availability, availability < 0.5);
+    Assert.assertTrue(availability >= AvailabilityScore.MIN_SCORE);
+  }
+}
@@ -0,0 +1,255 @@
+package io.netifi.sdk.rs;
+
+import io.netifi.sdk.frames.DestinationSetupFlyweight;
+import io.netifi.sdk.frames.FrameType;
+import io.netifi.sdk.metrics.InteractionType;
+import io.netifi.sdk.metrics.NetifiMetrics;
+import io.netifi.sdk.testing.InProcessRouter;
+import io.netifi.sdk.util.TimebasedIdGenerator;
+import io.netty.buffer.Unpooled;
+import io.rsocket.AbstractRSocket;
+import io.rsocket.Closeable;
+import io.rsocket.Payload;
+import io.rsocket.RSocket;
+import io.rsocket.RSocketFactory;
+import io.rsocket.transport.local.LocalClientTransport;
+import io.rsocket.transport.local.LocalServerTransport;
+import io.rsocket.util.PayloadImpl;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+
+public class BroadcastNetifiSocketTest {
+  private static final TimebasedIdGenerator idGenerator = new TimebasedIdGenerator(1);
+
+  private final List<RSocket> members = new ArrayList<>();
+  private volatile boolean running;
+  private String name;
+  private byte[] accessToken;
+  private InProcessRouter router;
+  private Closeable server;
+  private ReconnectingRSocket reconnectingRSocket;
+
+  @Before
+  public void setup() {
+    name = "broadcast-netifi-socket-test-" + ThreadLocalRandom.current().nextLong();
+    accessToken = new byte[20];
+    ThreadLocalRandom.current().nextBytes(accessToken);
+
+    router = new InProcessRouter();
+    server =
+        RSocketFactory.receive()
+            .acceptor(router)
+            .transport(LocalServerTransport.create(name))
+            .start()
+            .block();
+
+    running = true;
+    reconnectingRSocket =
+        new ReconnectingRSocket(
+            null,
+            () -> new PayloadImpl(new byte[0], setupMetadata("sender", "senders")),
+            () -> running,
+            () -> LocalClientTransport.create(name),
+            false,
+            0,
+            0,
+            0,
+            Long.MAX_VALUE,
+            accessToken);
+    reconnectingRSocket.getSession().block();
+  }
+
+  @After
+  public void tearDown() {
+    running = false;
+    for (RSocket member : members) {
+      member.close().block();
+    }
+    reconnectingRSocket.close().block();
+    server.close().block();
+  }
+
+  @Test
+  public void testFireAndForgetReachesEveryMember() throws Exception {
+    CountDownLatch received = new CountDownLatch(3);
+    AtomicInteger others = new AtomicInteger();
+    byte[] metadata = new byte[16];
+    ThreadLocalRandom.current().nextBytes(metadata);
+
+    for (int i = 0; i < 3; i++) {
+      connect(
+          "member-" + i,
+          "group",
+          new AbstractRSocket() {
+            @Override
+            public Mono<Void> fireAndForget(Payload payload) {
+              Assert.assertEquals(ByteBuffer.wrap(metadata), payload.getMetadata());
+              Assert.assertEquals(ByteBuffer.wrap("hi".getBytes()), payload.getData());
+              received.countDown();
+              return Mono.empty();
+            }
+          });
+    }
+    connect(
+        "other",
+        "other-group",
+        new AbstractRSocket() {
+          @Override
+          public Mono<Void> fireAndForget(Payload payload) {
+            others.incrementAndGet();
+            return Mono.empty();
+          }
+        });
+    awaitMembers("group", 3);
+    awaitMembers("other-group", 1);
+
+    BroadcastNetifiSocket netifiSocket =
+        new BroadcastNetifiSocket(
+            reconnectingRSocket, Long.MAX_VALUE, Long.MAX_VALUE, "sender", "group", idGenerator);
+    netifiSocket.fireAndForget(new PayloadImpl("hi".getBytes(), metadata)).block();
+
+    Assert.assertTrue(received.await(5, TimeUnit.SECONDS));
+    Assert.assertEquals(0, others.get());
+  }
+
+  @Test
+  public void testFramesAndLatencyAreRecorded() throws Exception {
+    CountDownLatch received = new CountDownLatch(1);
+    connect(
+        "member",
+        "group",
+        new AbstractRSocket() {
+          @Override
+          public Mono<Void> fireAndForget(Payload payload) {
+            received.countDown();
+            return Mono.empty();
+          }
+        });
+    awaitMembers("group", 1);
+
+    AtomicInteger frames = new AtomicInteger();
+    AtomicInteger interactions = new AtomicInteger();
+    NetifiMetrics metrics =
+        new NetifiMetrics() {
+          @Override
+          public void recordInteraction(InteractionType type, long latencyNanos, boolean error) {
+            Assert.assertEquals(InteractionType.FIRE_AND_FORGET, type);
+            interactions.incrementAndGet();
+          }
+
+          @Override
+          public void recordFrame(FrameType type, int bytes) {
+            Assert.assertEquals(FrameType.ROUTE, type);
+            frames.incrementAndGet();
+          }
+        };
+    BroadcastNetifiSocket netifiSocket =
+        new BroadcastNetifiSocket(
+            reconnectingRSocket,
+            Long.MAX_VALUE,
+            Long.MAX_VALUE,
+            "sender",
+            "group",
+            idGenerator,
+            metrics);
+    netifiSocket.fireAndForget(new PayloadImpl("hi".getBytes(), new byte[16])).block();
+
+    Assert.assertTrue(received.await(5, TimeUnit.SECONDS));
+    Assert.assertEquals(1, frames.get());
+    // recorded once the request terminated, which may be just after block returned
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (interactions.get() < 1) {
+      Assert.assertTrue(System.nanoTime() < deadline);
+      Thread.yield();
+    }
+  }
+
+  @Test
+  public void testRequestResponseIsRejected() {
+    BroadcastNetifiSocket netifiSocket =
+        new BroadcastNetifiSocket(
+            reconnectingRSocket, Long.MAX_VALUE, Long.MAX_VALUE, "sender", "group", idGenerator);
+
+    try {
+      netifiSocket.requestResponse(new PayloadImpl("hi".getBytes(), new byte[16])).block();
+      Assert.fail("expected the request to be rejected");
+    } catch (IllegalStateException e) {
+      Assert.assertTrue(e.getMessage().contains("request-response"));
+    }
+  }
+
+  @Test
+  public void testRouterRoutesToNamedDestination() {
+    for (int i = 0; i < 3; i++) {
+      String destination = "member-" + i;
+      connect(
+          destination,
+          "group",
+          new AbstractRSocket() {
+            @Override
+            public Mono<Payload> requestResponse(Payload payload) {
+              return Mono.just(new PayloadImpl(destination));
+            }
+          });
+    }
+    awaitMembers("group", 3);
+
+    DefaultNetifiSocket netifiSocket =
+        new DefaultNetifiSocket(
+            reconnectingRSocket,
+            Long.MAX_VALUE,
+            Long.MAX_VALUE,
+            "sender",
+            "member-1",
+            "group",
+            accessToken,
+            false,
+            idGenerator);
+
+    Payload response =
+        netifiSocket.requestResponse(new PayloadImpl("hi".getBytes(), new byte[16])).block();
+    Assert.assertEquals(ByteBuffer.wrap("member-1".getBytes()), response.getData());
+  }
+
+  private void connect(String destination, String group, RSocket handler) {
+    RSocket member =
+        RSocketFactory.connect()
+            .setupPayload(new PayloadImpl(new byte[0], setupMetadata(destination, group)))
+            .acceptor(rSocket -> MetadataUnwrappingRSocket.wrap(handler))
+            .transport(LocalClientTransport.create(name))
+            .start()
+            .block();
+    members.add(member);
+  }
+
+  private void awaitMembers(String group, int count) {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (router.members(group) < count) {
+      Assert.assertTrue(System.nanoTime() < deadline);
+      Thread.yield();
+    }
+  }
+
+  private byte[] setupMetadata(String destination, String group) {
+    byte[] metadata = new byte[DestinationSetupFlyweight.computeLength(false, destination, group)];
+    DestinationSetupFlyweight.encode(
+        Unpooled.wrappedBuffer(metadata),
+        Unpooled.EMPTY_BUFFER,
+        Unpooled.wrappedBuffer(accessToken),
+        idGenerator.nextId(),
+        Long.MAX_VALUE,
+        destination,
+        group);
+    return metadata;
+  }
+}
@@ -0,0 +1,218 @@
+package io.netifi.sdk.rs;
+
+import io.netifi.testing.protobuf.SimpleRequest;
+import io.netifi.testing.protobuf.SimpleResponse;
+import io.netifi.testing.protobuf.SimpleServiceClient;
+import io.netifi.testing.protobuf.SimpleServiceServer;
+import io.rsocket.exceptions.RejectedException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+public class ConcurrencyLimiterTest {
+  private static final int WORKERS = 4;
+  private static final long SERVICE_NANOS = 1_000_000;
+  private static final int REQUESTS = 200_000;
+
+  @Test
+  public void testRejectsOverTheLimit() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(2, 1, 10);
+    Assert.assertTrue(limiter.tryAcquire());
+    Assert.assertTrue(limiter.tryAcquire());
+    Assert.assertFalse(limiter.tryAcquire());
+    Assert.assertEquals(2, limiter.getInFlight());
+
+    limiter.release();
+    Assert.assertTrue(limiter.tryAcquire());
+  }
+
+  @Test
+  public void testLimitGrowsWhileLatencyIsFlat() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(10, 1, 100);
+    for (int i = 0; i < 100; i++) {
+      while (limiter.tryAcquire()) {}
+      limiter.release(SERVICE_NANOS);
+    }
+    Assert.assertEquals(100, limiter.getLimit());
+  }
+
+  @Test
+  public void testLimitDoesNotGrowWhenLightlyLoaded() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(10, 1, 100);
+    for (int i = 0; i < 100; i++) {
+      Assert.assertTrue(limiter.tryAcquire());
+      limiter.release(SERVICE_NANOS);
+    }
+    Assert.assertEquals(10, limiter.getLimit());
+  }
+
+  @Test
+  public void testLimitShrinksWhenLatencyRises() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(100, 1, 100);
+    Assert.assertTrue(limiter.tryAcquire());
+    limiter.release(SERVICE_NANOS);
+    for (int i = 0; i < 100; i++) {
+      Assert.assertTrue(limiter.tryAcquire());
+      limiter.release(10 * SERVICE_NANOS);
+    }
+    Assert.assertTrue("limit " + limiter.getLimit(), limiter.getLimit() < 20);
+  }
+
+  @Test
+  public void testOutlierIsForgotten() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(10, 1, 100);
+    Assert.assertTrue(limiter.tryAcquire());
+    limiter.release(SERVICE_NANOS / 100);
+    for (int i = 0; i < 3 * ConcurrencyLimiter.WINDOW_SAMPLES; i++) {
+      while (limiter.tryAcquire()) {}
+      limiter.release(SERVICE_NANOS);
+    }
+    Assert.assertEquals(100, limiter.getLimit());
+  }
+
+  @Test
+  public void testFastErrorDoesNotCollapseTheLimit() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(20, 1, 100);
+    RequestHandlingRSocket handler = new RequestHandlingRSocket();
+    handler.addService(
+        new SimpleServiceServer(
+            new LocalRoutingNetifiSocketTest.EchoService() {
+              @Override
+              public Mono<SimpleResponse> unaryRpc(SimpleRequest message) {
+                if (message.getRequestMessage().equals("fail")) {
+                  return Mono.error(new IllegalArgumentException("bad request"));
+                }
+                return Mono.delay(Duration.ofMillis(10)).then(super.unaryRpc(message));
+              }
+            }),
+        limiter);
+    SimpleServiceClient client = new SimpleServiceClient(handler);
+
+    try {
+      client.unaryRpc(SimpleRequest.newBuilder().setRequestMessage("fail").build()).block();
+      Assert.fail("expected the request to fail");
+    } catch (RuntimeException expected) {
+    }
+
+    // timed, the error would be the service without load, and every request after it queueing
+    SimpleRequest request = SimpleRequest.newBuilder().setRequestMessage("hi").build();
+    for (int i = 0; i < 30; i++) {
+      Assert.assertEquals("hi", client.unaryRpc(request).block().getResponseMessage());
+    }
+    Assert.assertEquals(0, limiter.getInFlight());
+    Assert.assertTrue("limit " + limiter.getLimit(), limiter.getLimit() >= 10);
+  }
+
+  @Test
+  public void testServiceRejectsRequestsOverTheLimit() {
+    MonoProcessor<SimpleResponse> response = MonoProcessor.create();
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, 1);
+    RequestHandlingRSocket handler = new RequestHandlingRSocket();
+    handler.addService(
+        new SimpleServiceServer(
+            new LocalRoutingNetifiSocketTest.EchoService() {
+              @Override
+              public Mono<SimpleResponse> unaryRpc(SimpleRequest message) {
+                return response;
+              }
+            }),
+        limiter);
+    SimpleServiceClient client = new SimpleServiceClient(handler);
+    SimpleRequest request = SimpleRequest.newBuilder().setRequestMessage("hi").build();
+
+    MonoProcessor<SimpleResponse> first = client.unaryRpc(request).toProcessor();
+    try {
+      client.unaryRpc(request).block();
+      Assert.fail("expected the request to be rejected");
+    } catch (RuntimeException e) {
+      Assert.assertTrue(
+          e instanceof RejectedException || e.getCause() instanceof RejectedException);
+    }
+
+    response.onNext(SimpleResponse.newBuilder().setResponseMessage("hi").build());
+    Assert.assertEquals("hi", first.block().getResponseMessage());
+    Assert.assertEquals(0, limiter.getInFlight());
+    Assert.assertEquals("hi", client.unaryRpc(request).block().getResponseMessage());
+  }
+
+  /**
+   * Load test: sends a simulated service twice as many requests as it can handle, in simulated
+   * time so the result does not depend on the machine. Without a limit requests queue up and
+   * latency keeps growing. With one, excess requests are rejected and the p99 latency of the
+   * handled requests stays flat, while the service stays busy.
+   */
+  @Test
+  public void testP99IsStableUnderDoubleLoad() {
+    long[] unlimited = simulate(null);
+    long[] limited = simulate(new ConcurrencyLimiter());
+
+    long unlimitedP99 = p99(unlimited, REQUESTS / 2, REQUESTS);
+    Assert.assertTrue("p99 " + unlimitedP99, unlimitedP99 > 1000 * SERVICE_NANOS);
+
+    long firstP99 = p99(limited, REQUESTS / 10, REQUESTS / 2);
+    long secondP99 = p99(limited, REQUESTS / 2, REQUESTS);
+    Assert.assertTrue("p99 " + secondP99, secondP99 < 10 * SERVICE_NANOS);
+    Assert.assertTrue("p99 " + firstP99 + " then " + secondP99, secondP99 < firstP99 * 3 / 2);
+
+    long handled = Arrays.stream(limited).filter(latency -> latency >= 0).count();
+    Assert.assertTrue("handled " + handled, handled > REQUESTS * 45L / 100);
+  }
+
+  /**
+   * Sends requests every {@code SERVICE_NANOS / (2 * WORKERS)} to {@code WORKERS} workers taking
+   * between half and one and a half {@code SERVICE_NANOS} each, first come first served.
+   *
+   * @return the latency of each request, or -1 if it was rejected
+   */
+  private static long[] simulate(ConcurrencyLimiter limiter) {
+    Random random = new Random(1);
+    long interval = SERVICE_NANOS / (2 * WORKERS);
+    long[] freeAt = new long[WORKERS];
+    // end and latency of each request being handled
+    PriorityQueue<long[]> handling = new PriorityQueue<>(Comparator.comparingLong(r -> r[0]));
+    long[] latencies = new long[REQUESTS];
+
+    for (int i = 0; i < REQUESTS; i++) {
+      long now = i * interval;
+      while (!handling.isEmpty() && handling.peek()[0] <= now) {
+        long latency = handling.poll()[1];
+        if (limiter != null) {
+          limiter.release(latency);
+        }
+      }
+
+      if (limiter != null && !limiter.tryAcquire()) {
+        latencies[i] = -1;
+        continue;
+      }
+
+      int worker = 0;
+      for (int w = 1; w < WORKERS; w++) {
+        if (freeAt[w] < freeAt[worker]) {
+          worker = w;
+        }
+      }
+      long end =
+          Math.max(now, freeAt[worker])
+              + SERVICE_NANOS / 2
+              + (long) (random.nextDouble() * SERVICE_NANOS);
+      freeAt[worker] = end;
+      latencies[i] = end - now;
+      handling.add(new long[] {end, end - now});
+    }
+
+    return latencies;
+  }
+
+  private static long p99(long[] latencies, int from, int to) {
+    long[] handled =
+        Arrays.stream(latencies, from, to).filter(latency -> latency >= 0).sorted().toArray();
+    return handled[(int) (handled.length * 0.99)];
+  }
+}
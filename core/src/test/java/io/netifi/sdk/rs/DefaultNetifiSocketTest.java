@@ -1,14 +1,24 @@
 package io.netifi.sdk.rs;
 
+import io.netifi.sdk.auth.SessionSigner;
+import io.netifi.sdk.frames.FireAndForgetBatchFlyweight;
+import io.netifi.sdk.frames.RouteDestinationDecoder;
 import io.netifi.sdk.frames.RouteDestinationFlyweight;
+import io.netifi.sdk.frames.RouteDictionaryDecoder;
+import io.netifi.sdk.frames.RoutingDecoder;
 import io.netifi.sdk.frames.RoutingFlyweight;
 import io.netifi.sdk.util.TimebasedIdGenerator;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import io.rsocket.AbstractRSocket;
 import io.rsocket.Payload;
 import io.rsocket.util.PayloadImpl;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
-import java.util.concurrent.atomic.AtomicLong;
 import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -27,8 +37,7 @@ public class DefaultNetifiSocketTest {
     MonoProcessor<Void> onClose = MonoProcessor.create();
     ReconnectingRSocket mock = Mockito.mock(ReconnectingRSocket.class);
     Mockito.when(mock.onClose()).thenReturn(onClose);
-    Mockito.when(mock.getCurrentSessionCounter()).thenReturn(Mono.just(new AtomicLong()));
-    Mockito.when(mock.getCurrentSessionToken()).thenReturn(Mono.just(token));
+    Mockito.when(mock.getCurrentSession()).thenReturn(new Session(mock, token, 0));
 
     Mockito.when(mock.requestResponse(Mockito.any(Payload.class)))
         .then(
@@ -63,6 +72,130 @@ public class DefaultNetifiSocketTest {
         .block();
   }
 
+  @Test
+  public void testRequestResponseWaitsForSession() {
+    byte[] token = new byte[20];
+    ThreadLocalRandom.current().nextBytes(token);
+    MonoProcessor<Void> onClose = MonoProcessor.create();
+    ReconnectingRSocket mock = Mockito.mock(ReconnectingRSocket.class);
+    Mockito.when(mock.onClose()).thenReturn(onClose);
+    Mockito.when(mock.getCurrentSession()).thenReturn(null);
+    MonoProcessor<Session> session = MonoProcessor.create();
+    Mockito.when(mock.awaitSession()).thenReturn(session);
+
+    Mockito.when(mock.requestResponse(Mockito.any(Payload.class)))
+        .thenReturn(Mono.just(new PayloadImpl("here's the payload")));
+
+    DefaultNetifiSocket netifiSocket =
+        new DefaultNetifiSocket(
+            mock,
+            Long.MAX_VALUE,
+            Long.MAX_VALUE,
+            "fromDest",
+            "toDest",
+            "toGroup",
+            token,
+            false,
+            idGenerator);
+
+    MonoProcessor<Payload> response =
+        netifiSocket.requestResponse(new PayloadImpl("hi".getBytes(), new byte[16])).toProcessor();
+    Assert.assertFalse(response.isTerminated());
+    Mockito.verify(mock, Mockito.never()).requestResponse(Mockito.any(Payload.class));
+
+    session.onNext(new Session(mock, token, 0));
+    Assert.assertNotNull(response.block());
+  }
+
+  @Test
+  public void testPendingRequestsArePairedPerSubscription() {
+    byte[] token = new byte[20];
+    ThreadLocalRandom.current().nextBytes(token);
+    MonoProcessor<Void> onClose = MonoProcessor.create();
+    AvailabilityScore score = new AvailabilityScore();
+    ReconnectingRSocket mock = Mockito.mock(ReconnectingRSocket.class);
+    Mockito.when(mock.onClose()).thenReturn(onClose);
+    Mockito.when(mock.getCurrentSession()).thenReturn(new Session(mock, token, 0));
+    Mockito.when(mock.requestStarted()).then(invocation -> score.started());
+    Mockito.doAnswer(
+            invocation -> {
+              Object[] arguments = invocation.getArguments();
+              score.finished((Long) arguments[0], (Boolean) arguments[1]);
+              return null;
+            })
+        .when(mock)
+        .requestFinished(Mockito.anyLong(), Mockito.anyBoolean());
+    MonoProcessor<Payload> answer = MonoProcessor.create();
+    Mockito.when(mock.requestResponse(Mockito.any(Payload.class))).thenReturn(answer);
+
+    DefaultNetifiSocket netifiSocket =
+        new DefaultNetifiSocket(
+            mock,
+            Long.MAX_VALUE,
+            Long.MAX_VALUE,
+            "fromDest",
+            "toDest",
+            "toGroup",
+            token,
+            false,
+            idGenerator);
+
+    // a request that is dropped before it is subscribed is never pending
+    netifiSocket.requestResponse(new PayloadImpl("hi".getBytes(), new byte[16]));
+    Assert.assertEquals(0, score.getPending());
+
+    // each subscription is a request of its own
+    Mono<Payload> response =
+        netifiSocket.requestResponse(new PayloadImpl("hi".getBytes(), new byte[16]));
+    MonoProcessor<Payload> first = response.toProcessor();
+    MonoProcessor<Payload> second = response.toProcessor();
+    Assert.assertEquals(2, score.getPending());
+
+    answer.onNext(new PayloadImpl("here's the payload"));
+    Assert.assertNotNull(first.block());
+    Assert.assertNotNull(second.block());
+    Assert.assertEquals(0, score.getPending());
+  }
+
+  @Test
+  public void testIdempotentRequestIsRetriedAfterConnectionLoss() {
+    byte[] token = new byte[20];
+    ThreadLocalRandom.current().nextBytes(token);
+    MonoProcessor<Void> onClose = MonoProcessor.create();
+    ReconnectingRSocket mock = Mockito.mock(ReconnectingRSocket.class);
+    Mockito.when(mock.onClose()).thenReturn(onClose);
+    Mockito.when(mock.getCurrentSession()).thenReturn(new Session(mock, token, 0));
+    Mockito.when(mock.requestResponse(Mockito.any(Payload.class)))
+        .thenReturn(Mono.error(new ClosedChannelException()))
+        .thenReturn(Mono.just(new PayloadImpl("here's the payload")));
+
+    DefaultNetifiSocket netifiSocket =
+        new DefaultNetifiSocket(
+            mock,
+            Long.MAX_VALUE,
+            Long.MAX_VALUE,
+            "fromDest",
+            "toDest",
+            "toGroup",
+            token,
+            false,
+            idGenerator);
+
+    Payload payload = new PayloadImpl("hi".getBytes(), new byte[16]);
+    Assert.assertNotNull(netifiSocket.requestResponse(IdempotentPayload.of(payload)).block());
+    Mockito.verify(mock, Mockito.times(2)).requestResponse(Mockito.any(Payload.class));
+
+    Mockito.when(mock.requestResponse(Mockito.any(Payload.class)))
+        .thenReturn(Mono.error(new ClosedChannelException()));
+    try {
+      netifiSocket.requestResponse(payload).block();
+      Assert.fail("expected the request to fail");
+    } catch (RuntimeException e) {
+      Assert.assertTrue(e.getCause() instanceof ClosedChannelException);
+    }
+    Mockito.verify(mock, Mockito.times(3)).requestResponse(Mockito.any(Payload.class));
+  }
+
   @Test
   public void testFireForget() {
     byte[] token = new byte[20];
@@ -70,8 +203,7 @@ public class DefaultNetifiSocketTest {
     MonoProcessor<Void> onClose = MonoProcessor.create();
     ReconnectingRSocket mock = Mockito.mock(ReconnectingRSocket.class);
     Mockito.when(mock.onClose()).thenReturn(onClose);
-    Mockito.when(mock.getCurrentSessionCounter()).thenReturn(Mono.just(new AtomicLong()));
-    Mockito.when(mock.getCurrentSessionToken()).thenReturn(Mono.just(token));
+    Mockito.when(mock.getCurrentSession()).thenReturn(new Session(mock, token, 0));
 
     Mockito.when(mock.fireAndForget(Mockito.any(Payload.class)))
         .then(
@@ -113,8 +245,7 @@ public class DefaultNetifiSocketTest {
     MonoProcessor<Void> onClose = MonoProcessor.create();
     ReconnectingRSocket mock = Mockito.mock(ReconnectingRSocket.class);
     Mockito.when(mock.onClose()).thenReturn(onClose);
-    Mockito.when(mock.getCurrentSessionCounter()).thenReturn(Mono.just(new AtomicLong()));
-    Mockito.when(mock.getCurrentSessionToken()).thenReturn(Mono.just(token));
+    Mockito.when(mock.getCurrentSession()).thenReturn(new Session(mock, token, 0));
 
     Mockito.when(mock.requestStream(Mockito.any(Payload.class)))
         .then(
@@ -156,8 +287,7 @@ public class DefaultNetifiSocketTest {
     MonoProcessor<Void> onClose = MonoProcessor.create();
     ReconnectingRSocket mock = Mockito.mock(ReconnectingRSocket.class);
     Mockito.when(mock.onClose()).thenReturn(onClose);
-    Mockito.when(mock.getCurrentSessionCounter()).thenReturn(Mono.just(new AtomicLong()));
-    Mockito.when(mock.getCurrentSessionToken()).thenReturn(Mono.just(token));
+    Mockito.when(mock.getCurrentSession()).thenReturn(new Session(mock, token, 0));
 
     Mockito.when(mock.requestChannel(Mockito.any(Publisher.class)))
         .then(
@@ -197,4 +327,180 @@ public class DefaultNetifiSocketTest {
         .doOnError(Throwable::printStackTrace)
         .blockLast();
   }
+
+  @Test
+  public void testRequestChannelSignsInOrder() {
+    byte[] token = new byte[20];
+    ThreadLocalRandom.current().nextBytes(token);
+    MonoProcessor<Void> onClose = MonoProcessor.create();
+    ReconnectingRSocket mock = Mockito.mock(ReconnectingRSocket.class);
+    Mockito.when(mock.onClose()).thenReturn(onClose);
+    Mockito.when(mock.getCurrentSession()).thenReturn(new Session(mock, token, 0));
+
+    List<Integer> tokens = new ArrayList<>();
+    Mockito.when(mock.requestChannel(Mockito.any(Publisher.class)))
+        .then(
+            invocation -> {
+              Publisher<Payload> payloads = (Publisher) invocation.getArguments()[0];
+
+              return Flux.from(payloads)
+                  .doOnNext(
+                      payload -> {
+                        ByteBuf metadata = Unpooled.wrappedBuffer(payload.getMetadata());
+                        tokens.add(RoutingFlyweight.token(metadata));
+                      });
+            });
+
+    DefaultNetifiSocket netifiSocket =
+        new DefaultNetifiSocket(
+            mock,
+            Long.MAX_VALUE,
+            Long.MAX_VALUE,
+            "fromDest",
+            "toDest",
+            "toGroup",
+            token,
+            false,
+            idGenerator);
+
+    int count = 1000;
+    Flux<Payload> payloads =
+        Flux.range(0, count).map(i -> new PayloadImpl(String.valueOf(i).getBytes(), new byte[8]));
+    netifiSocket.requestChannel(payloads).blockLast();
+
+    SessionSigner signer = new SessionSigner(token);
+    Assert.assertEquals(count, tokens.size());
+    for (int i = 0; i < count; i++) {
+      ByteBuffer data = ByteBuffer.wrap(String.valueOf(i).getBytes());
+      Assert.assertEquals(signer.generateRequestToken(data, i + 1), (int) tokens.get(i));
+    }
+  }
+
+  @Test
+  public void testRequestResponseWithRouteDictionary() {
+    byte[] token = new byte[20];
+    ThreadLocalRandom.current().nextBytes(token);
+    MonoProcessor<Void> onClose = MonoProcessor.create();
+    ReconnectingRSocket mock = Mockito.mock(ReconnectingRSocket.class);
+    Mockito.when(mock.onClose()).thenReturn(onClose);
+    Mockito.when(mock.getCurrentSession()).thenReturn(new Session(mock, token, 0));
+
+    RoutingDecoder decoder = new RoutingDecoder(new RouteDictionaryDecoder());
+    List<Integer> lengths = new ArrayList<>();
+    Mockito.when(mock.requestResponse(Mockito.any(Payload.class)))
+        .then(
+            invocation -> {
+              Payload payload = (Payload) invocation.getArguments()[0];
+
+              ByteBuf metadata = Unpooled.wrappedBuffer(payload.getMetadata());
+              lengths.add(metadata.readableBytes());
+              decoder.wrap(metadata);
+              Assert.assertEquals("fromDest", decoder.destination());
+              Assert.assertEquals(Unpooled.wrappedBuffer(new byte[16]), decoder.wrappedMetadata());
+
+              RouteDestinationDecoder route =
+                  new RouteDestinationDecoder()
+                      .wrap(decoder.routeByteBuf(), decoder.routeOffset(), decoder.routeLength());
+              Assert.assertEquals("toDest", route.destination());
+              return Mono.just(new PayloadImpl("here's the payload"));
+            });
+
+    DefaultNetifiSocket netifiSocket =
+        new DefaultNetifiSocket(
+            mock,
+            Long.MAX_VALUE,
+            Long.MAX_VALUE,
+            "fromDest",
+            "toDest",
+            "toGroup",
+            token,
+            false,
+            idGenerator,
+            true,
+            null);
+
+    for (int i = 0; i < 3; i++) {
+      netifiSocket.requestResponse(new PayloadImpl("hi".getBytes(), new byte[16])).block();
+    }
+
+    // the first request carries literals, the ones after the response only ids
+    Assert.assertEquals(3, lengths.size());
+    Assert.assertTrue(lengths.get(1) < lengths.get(0));
+    Assert.assertEquals(lengths.get(1), lengths.get(2));
+  }
+
+  @Test
+  public void testFireAndForgetBatching() {
+    byte[] token = new byte[20];
+    ThreadLocalRandom.current().nextBytes(token);
+    MonoProcessor<Void> onClose = MonoProcessor.create();
+    ReconnectingRSocket mock = Mockito.mock(ReconnectingRSocket.class);
+    Mockito.when(mock.onClose()).thenReturn(onClose);
+    Mockito.when(mock.getCurrentSession()).thenReturn(new Session(mock, token, 0));
+
+    List<Payload> sent = new ArrayList<>();
+    Mockito.when(mock.fireAndForget(Mockito.any(Payload.class)))
+        .then(
+            invocation -> {
+              sent.add((Payload) invocation.getArguments()[0]);
+              return Mono.empty();
+            });
+
+    DefaultNetifiSocket netifiSocket =
+        new DefaultNetifiSocket(
+            mock,
+            Long.MAX_VALUE,
+            Long.MAX_VALUE,
+            "fromDest",
+            "toDest",
+            "toGroup",
+            token,
+            false,
+            idGenerator,
+            false,
+            new FireAndForgetBatching(1024, 3, Duration.ofMillis(50)));
+
+    for (int i = 0; i < 3; i++) {
+      netifiSocket
+          .fireAndForget(new PayloadImpl(("data-" + i).getBytes(), ("meta-" + i).getBytes()))
+          .subscribe();
+    }
+
+    // the third request fills the batch
+    Assert.assertEquals(1, sent.size());
+    Payload batch = sent.get(0);
+    ByteBuf metadata = Unpooled.wrappedBuffer(batch.getMetadata());
+    Assert.assertEquals(3, FireAndForgetBatchFlyweight.count(metadata));
+    Assert.assertEquals(
+        new SessionSigner(token).generateRequestToken(batch.getData(), 1),
+        FireAndForgetBatchFlyweight.token(metadata));
+
+    // the router passes the batch on unchanged, and the receiver splits it again
+    List<Payload> received = new ArrayList<>();
+    MetadataUnwrappingRSocket.wrap(
+            new AbstractRSocket() {
+              @Override
+              public Mono<Void> fireAndForget(Payload payload) {
+                for (Payload request : (BatchPayload) payload) {
+                  received.add(request);
+                }
+                return Mono.empty();
+              }
+            })
+        .fireAndForget(batch)
+        .block();
+
+    Assert.assertEquals(3, received.size());
+    for (int i = 0; i < 3; i++) {
+      Assert.assertEquals(
+          ByteBuffer.wrap(("meta-" + i).getBytes()), received.get(i).getMetadata());
+      Assert.assertEquals(ByteBuffer.wrap(("data-" + i).getBytes()), received.get(i).getData());
+    }
+
+    // a batch that does not fill up is sent after the delay
+    netifiSocket.fireAndForget(new PayloadImpl("late".getBytes(), new byte[0])).block();
+    Assert.assertEquals(2, sent.size());
+    Assert.assertEquals(
+        1, FireAndForgetBatchFlyweight.count(Unpooled.wrappedBuffer(sent.get(1).getMetadata())));
+  }
 }
@@ -0,0 +1,112 @@
+package io.netifi.sdk.rs;
+
+import io.netifi.sdk.RouteNotFoundException;
+import io.rsocket.Payload;
+import io.rsocket.util.PayloadImpl;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+public class DestinationAvailabilityCacheTest {
+
+  @Test
+  public void testUnknownDestinationIsLookedUp() {
+    AtomicInteger lookups = new AtomicInteger();
+    DestinationAvailabilityCache cache =
+        new DestinationAvailabilityCache(
+            Duration.ofMinutes(1),
+            (group, destination) -> {
+              lookups.incrementAndGet();
+              return Mono.just(false);
+            });
+
+    DestinationAvailabilityCache.Availability availability = cache.get("group", "destination");
+    Assert.assertSame(availability, cache.get("group", "destination"));
+
+    Assert.assertFalse(availability.isKnownAbsent());
+    Assert.assertEquals(1, lookups.get());
+    Assert.assertTrue(availability.isKnownAbsent());
+    Assert.assertEquals(1, lookups.get());
+  }
+
+  @Test
+  public void testOneLookupAtATime() {
+    AtomicInteger lookups = new AtomicInteger();
+    MonoProcessor<Boolean> result = MonoProcessor.create();
+    DestinationAvailabilityCache cache =
+        new DestinationAvailabilityCache(
+            Duration.ofMinutes(1),
+            (group, destination) -> {
+              lookups.incrementAndGet();
+              return result;
+            });
+
+    DestinationAvailabilityCache.Availability availability = cache.get("group", "destination");
+    for (int i = 0; i < 10; i++) {
+      Assert.assertFalse(availability.isKnownAbsent());
+    }
+    Assert.assertEquals(1, lookups.get());
+
+    result.onNext(true);
+    Assert.assertFalse(availability.isKnownAbsent());
+    Assert.assertEquals(1, lookups.get());
+  }
+
+  @Test
+  public void testExpiredEntryIsUnknown() throws Exception {
+    AtomicBoolean available = new AtomicBoolean(false);
+    AtomicInteger lookups = new AtomicInteger();
+    DestinationAvailabilityCache cache =
+        new DestinationAvailabilityCache(
+            Duration.ofMillis(200),
+            (group, destination) -> {
+              lookups.incrementAndGet();
+              return Mono.just(available.get());
+            });
+
+    DestinationAvailabilityCache.Availability availability = cache.get("group", "destination");
+    availability.isKnownAbsent();
+    Assert.assertTrue(availability.isKnownAbsent());
+
+    available.set(true);
+    Thread.sleep(300);
+
+    Assert.assertFalse(availability.isKnownAbsent());
+    Assert.assertEquals(2, lookups.get());
+    Assert.assertFalse(availability.isKnownAbsent());
+  }
+
+  @Test
+  public void testKnownAbsentDestinationFailsFast() {
+    DestinationAvailabilityCache cache =
+        new DestinationAvailabilityCache(
+            Duration.ofMinutes(1), (group, destination) -> Mono.just(false));
+    DestinationAvailabilityCache.Availability availability = cache.get("group", "destination");
+    availability.update(false);
+
+    NetifiSocket source = Mockito.mock(NetifiSocket.class);
+    Mockito.when(source.availability()).thenReturn(1.0);
+    AvailabilityCheckingNetifiSocket netifiSocket =
+        new AvailabilityCheckingNetifiSocket(source, availability);
+
+    Payload payload = new PayloadImpl("hi");
+    try {
+      netifiSocket.requestResponse(payload).block();
+      Assert.fail("expected the request to fail");
+    } catch (RuntimeException e) {
+      Assert.assertTrue(e.getCause() instanceof RouteNotFoundException);
+    }
+    Assert.assertEquals(0.0, netifiSocket.availability(), 0);
+    Mockito.verify(source, Mockito.never()).requestResponse(Mockito.any(Payload.class));
+
+    availability.update(true);
+    Mockito.when(source.requestResponse(payload)).thenReturn(Mono.just(payload));
+    Assert.assertSame(payload, netifiSocket.requestResponse(payload).block());
+    Assert.assertEquals(1.0, netifiSocket.availability(), 0);
+  }
+}
@@ -0,0 +1,206 @@
+package io.netifi.sdk.rs;
+
+import io.netifi.testing.protobuf.SimpleRequest;
+import io.netifi.testing.protobuf.SimpleResponse;
+import io.netifi.testing.protobuf.SimpleServiceClient;
+import io.netifi.testing.protobuf.SimpleServiceServer;
+import io.rsocket.exceptions.RejectedException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Assert;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+public class ExecutionPolicyTest {
+  private static final SimpleRequest REQUEST =
+      SimpleRequest.newBuilder().setRequestMessage("hi").build();
+
+  @Test
+  public void testBoundedPoolRunsHandlersOnItsThreads() {
+    ExecutionPolicy policy = ExecutionPolicy.boundedPool("test", 1, 0);
+    try {
+      AtomicReference<String> thread = new AtomicReference<>();
+      RequestHandlingRSocket handler = new RequestHandlingRSocket();
+      handler.addService(
+          new SimpleServiceServer(
+              new LocalRoutingNetifiSocketTest.EchoService() {
+                @Override
+                public Mono<SimpleResponse> unaryRpc(SimpleRequest message) {
+                  thread.set(Thread.currentThread().getName());
+                  return super.unaryRpc(message);
+                }
+              }),
+          policy);
+
+      SimpleServiceClient client = new SimpleServiceClient(handler);
+      Assert.assertEquals("hi", client.unaryRpc(REQUEST).block().getResponseMessage());
+      Assert.assertTrue(thread.get(), thread.get().startsWith("netifi-test-"));
+    } finally {
+      policy.dispose();
+    }
+  }
+
+  @Test
+  public void testBoundedPoolRejectsWhenFull() throws Exception {
+    ExecutionPolicy policy = ExecutionPolicy.boundedPool("test", 1, 1);
+    CountDownLatch release = new CountDownLatch(1);
+    try {
+      RequestHandlingRSocket handler = new RequestHandlingRSocket();
+      handler.addService(
+          new SimpleServiceServer(
+              new LocalRoutingNetifiSocketTest.EchoService() {
+                @Override
+                public Mono<SimpleResponse> unaryRpc(SimpleRequest message) {
+                  try {
+                    release.await();
+                  } catch (InterruptedException e) {
+                    return Mono.error(e);
+                  }
+                  return super.unaryRpc(message);
+                }
+              }),
+          policy);
+      SimpleServiceClient client = new SimpleServiceClient(handler);
+
+      MonoProcessor<SimpleResponse> running = client.unaryRpc(REQUEST).toProcessor();
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (policy.getActive() < 1) {
+        Assert.assertTrue(System.nanoTime() < deadline);
+        Thread.yield();
+      }
+      MonoProcessor<SimpleResponse> queued = client.unaryRpc(REQUEST).toProcessor();
+      Assert.assertEquals(1, policy.getQueued());
+
+      try {
+        client.unaryRpc(REQUEST).block();
+        Assert.fail("expected the request to be rejected");
+      } catch (RuntimeException e) {
+        Assert.assertTrue(
+            e instanceof RejectedException || e.getCause() instanceof RejectedException);
+      }
+      Assert.assertEquals(1, policy.getRejected());
+
+      release.countDown();
+      Assert.assertEquals("hi", running.block(Duration.ofSeconds(5)).getResponseMessage());
+      Assert.assertEquals("hi", queued.block(Duration.ofSeconds(5)).getResponseMessage());
+    } finally {
+      release.countDown();
+      policy.dispose();
+    }
+  }
+
+  @Test
+  public void testAddingAServiceAgainReplacesItsPolicy() {
+    ExecutionPolicy policy = ExecutionPolicy.boundedPool("test", 1, 0);
+    try {
+      AtomicReference<String> thread = new AtomicReference<>();
+      LocalRoutingNetifiSocketTest.EchoService echo =
+          new LocalRoutingNetifiSocketTest.EchoService() {
+            @Override
+            public Mono<SimpleResponse> unaryRpc(SimpleRequest message) {
+              thread.set(Thread.currentThread().getName());
+              return super.unaryRpc(message);
+            }
+          };
+      SimpleServiceServer pooled = new SimpleServiceServer(echo);
+      SimpleServiceServer direct = new SimpleServiceServer(echo);
+      RequestHandlingRSocket handler = new RequestHandlingRSocket();
+      handler.addService(pooled, policy);
+      handler.addService(direct);
+
+      SimpleServiceClient client = new SimpleServiceClient(handler);
+      Assert.assertEquals("hi", client.unaryRpc(REQUEST).block().getResponseMessage());
+      Assert.assertEquals(Thread.currentThread().getName(), thread.get());
+
+      // only the service registered now can be removed
+      Assert.assertFalse(handler.removeService(pooled));
+      Assert.assertTrue(handler.removeService(direct));
+      try {
+        client.unaryRpc(REQUEST).block();
+        Assert.fail("expected the service to be removed");
+      } catch (RuntimeException expected) {
+      }
+    } finally {
+      policy.dispose();
+    }
+  }
+
+  @Test
+  public void testAsynchronousRequestsHoldTheirPlace() {
+    int threads = 1;
+    int maxQueued = 2;
+    ExecutionPolicy policy = ExecutionPolicy.boundedPool("test", threads, maxQueued);
+    MonoProcessor<SimpleResponse> never = MonoProcessor.create();
+    try {
+      RequestHandlingRSocket handler = new RequestHandlingRSocket();
+      handler.addService(
+          new SimpleServiceServer(
+              new LocalRoutingNetifiSocketTest.EchoService() {
+                @Override
+                public Mono<SimpleResponse> unaryRpc(SimpleRequest message) {
+                  return never;
+                }
+              }),
+          policy);
+      SimpleServiceClient client = new SimpleServiceClient(handler);
+
+      // each handler returns right away, but none of them is answered
+      List<MonoProcessor<SimpleResponse>> pending = new ArrayList<>();
+      for (int i = 0; i < threads + maxQueued; i++) {
+        pending.add(client.unaryRpc(REQUEST).toProcessor());
+      }
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (policy.getActive() < threads + maxQueued) {
+        Assert.assertTrue(System.nanoTime() < deadline);
+        Thread.yield();
+      }
+      Assert.assertEquals(0, policy.getQueued());
+
+      try {
+        client.unaryRpc(REQUEST).block();
+        Assert.fail("expected the request to be rejected");
+      } catch (RuntimeException e) {
+        Assert.assertTrue(
+            e instanceof RejectedException || e.getCause() instanceof RejectedException);
+      }
+      Assert.assertEquals(1, policy.getRejected());
+
+      // cancelled requests give their place back
+      for (MonoProcessor<SimpleResponse> request : pending) {
+        request.cancel();
+      }
+      Assert.assertEquals(0, policy.getActive());
+      Assert.assertEquals(threads + maxQueued, policy.getCompleted());
+    } finally {
+      policy.dispose();
+    }
+  }
+
+  @Test
+  public void testVirtualThreadsNeedJdk21() {
+    if (!ExecutionPolicy.virtualThreadsAvailable()) {
+      try {
+        ExecutionPolicy.virtualThreads("test", 10);
+        Assert.fail("expected virtual threads to be unsupported");
+      } catch (UnsupportedOperationException expected) {
+      }
+      return;
+    }
+
+    ExecutionPolicy policy = ExecutionPolicy.virtualThreads("test", 10);
+    try {
+      RequestHandlingRSocket handler = new RequestHandlingRSocket();
+      handler.addService(
+          new SimpleServiceServer(new LocalRoutingNetifiSocketTest.EchoService()), policy);
+      SimpleServiceClient client = new SimpleServiceClient(handler);
+      Assert.assertEquals("hi", client.unaryRpc(REQUEST).block().getResponseMessage());
+    } finally {
+      policy.dispose();
+    }
+  }
+}
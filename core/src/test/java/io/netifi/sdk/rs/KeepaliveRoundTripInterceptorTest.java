@@ -0,0 +1,63 @@
+package io.netifi.sdk.rs;
+
+import io.netty.buffer.Unpooled;
+import io.rsocket.DuplexConnection;
+import io.rsocket.Frame;
+import io.rsocket.plugins.DuplexConnectionInterceptor;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import reactor.core.publisher.DirectProcessor;
+import reactor.core.publisher.Mono;
+
+public class KeepaliveRoundTripInterceptorTest {
+  private final List<Long> roundTrips = new CopyOnWriteArrayList<>();
+  private DirectProcessor<Frame> inbound;
+  private DuplexConnection connection;
+
+  @Before
+  public void setup() {
+    inbound = DirectProcessor.create();
+    DuplexConnection source = Mockito.mock(DuplexConnection.class);
+    Mockito.when(source.receive()).thenReturn(inbound);
+    Mockito.when(source.sendOne(Matchers.any(Frame.class))).thenReturn(Mono.empty());
+
+    connection =
+        new KeepaliveRoundTripInterceptor(roundTrips::add)
+            .apply(DuplexConnectionInterceptor.Type.SOURCE, source);
+    connection.receive().subscribe();
+  }
+
+  @Test
+  public void testRecordsOneRoundTripPerAnsweredKeepalive() throws Exception {
+    connection.sendOne(keepalive(true)).block();
+    Thread.sleep(1);
+    inbound.onNext(keepalive(false));
+
+    Assert.assertEquals(1, roundTrips.size());
+    Assert.assertTrue(roundTrips.get(0) > 0);
+
+    // a second answer to the same keepalive is not another round trip
+    inbound.onNext(keepalive(false));
+    Assert.assertEquals(1, roundTrips.size());
+  }
+
+  @Test
+  public void testIgnoresKeepaliveWithoutOutstandingRequest() {
+    inbound.onNext(keepalive(false));
+    Assert.assertTrue(roundTrips.isEmpty());
+
+    // the peer's own keepalive, which asks for an answer, is not an answer either
+    connection.sendOne(keepalive(true)).block();
+    inbound.onNext(keepalive(true));
+    Assert.assertTrue(roundTrips.isEmpty());
+  }
+
+  private static Frame keepalive(boolean respond) {
+    return Frame.Keepalive.from(Unpooled.EMPTY_BUFFER, respond);
+  }
+}
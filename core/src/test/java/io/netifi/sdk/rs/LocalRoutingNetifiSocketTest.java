@@ -0,0 +1,111 @@
+package io.netifi.sdk.rs;
+
+import io.netifi.proteus.exception.ServiceNotFound;
+import io.netifi.testing.protobuf.SimpleRequest;
+import io.netifi.testing.protobuf.SimpleResponse;
+import io.netifi.testing.protobuf.SimpleService;
+import io.netifi.testing.protobuf.SimpleServiceClient;
+import io.netifi.testing.protobuf.SimpleServiceServer;
+import io.rsocket.Payload;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public class LocalRoutingNetifiSocketTest {
+  private static final SimpleRequest REQUEST =
+      SimpleRequest.newBuilder().setRequestMessage("hi").build();
+
+  @Test
+  public void testRegisteredServiceIsCalledInProcess() {
+    NetifiSocket remote = Mockito.mock(NetifiSocket.class);
+    LocalRoutingNetifiSocket socket =
+        new LocalRoutingNetifiSocket(
+            new RequestHandlingRSocket(new SimpleServiceServer(new EchoService())),
+            remote,
+            LocalRoutingPolicy.PREFER_LOCAL,
+            null);
+
+    SimpleServiceClient client = new SimpleServiceClient(socket);
+    Assert.assertEquals("hi", client.unaryRpc(REQUEST).block().getResponseMessage());
+    Flux<SimpleRequest> requests = Flux.just(REQUEST, REQUEST, REQUEST);
+    Assert.assertEquals(Long.valueOf(3), client.bidiStreamingRpc(requests).count().block());
+
+    Mockito.verify(remote, Mockito.never()).requestResponse(Mockito.any(Payload.class));
+    Mockito.verify(remote, Mockito.never()).requestChannel(Mockito.any());
+  }
+
+  @Test
+  public void testUnregisteredServiceGoesToBroker() {
+    NetifiSocket remote = Mockito.mock(NetifiSocket.class);
+    Mockito.when(remote.requestResponse(Mockito.any(Payload.class)))
+        .thenReturn(Mono.error(new IllegalStateException("sent to the broker")));
+    LocalRoutingNetifiSocket socket =
+        new LocalRoutingNetifiSocket(
+            new RequestHandlingRSocket(), remote, LocalRoutingPolicy.PREFER_LOCAL, null);
+
+    try {
+      new SimpleServiceClient(socket).unaryRpc(REQUEST).block();
+      Assert.fail("expected the request to fail");
+    } catch (IllegalStateException e) {
+      Assert.assertEquals("sent to the broker", e.getMessage());
+    }
+    Mockito.verify(remote).requestResponse(Mockito.any(Payload.class));
+  }
+
+  @Test
+  public void testLocalOnlyFailsForUnregisteredService() {
+    NetifiSocket remote = Mockito.mock(NetifiSocket.class);
+    LocalRoutingNetifiSocket socket =
+        new LocalRoutingNetifiSocket(
+            new RequestHandlingRSocket(), remote, LocalRoutingPolicy.LOCAL_ONLY, null);
+
+    try {
+      new SimpleServiceClient(socket).unaryRpc(REQUEST).block();
+      Assert.fail("expected the request to fail");
+    } catch (RuntimeException e) {
+      Assert.assertTrue(e instanceof ServiceNotFound || e.getCause() instanceof ServiceNotFound);
+    }
+    Mockito.verify(remote, Mockito.never()).requestResponse(Mockito.any(Payload.class));
+  }
+
+  static class EchoService implements SimpleService {
+    @Override
+    public Mono<SimpleResponse> unaryRpc(SimpleRequest message) {
+      return Mono.just(
+          SimpleResponse.newBuilder().setResponseMessage(message.getRequestMessage()).build());
+    }
+
+    @Override
+    public Mono<SimpleResponse> clientStreamingRpc(Publisher<SimpleRequest> messages) {
+      return Flux.from(messages).last().flatMap(this::unaryRpc);
+    }
+
+    @Override
+    public Flux<SimpleResponse> serverStreamingRpc(SimpleRequest message) {
+      return unaryRpc(message).flux();
+    }
+
+    @Override
+    public Flux<SimpleResponse> bidiStreamingRpc(Publisher<SimpleRequest> messages) {
+      return Flux.from(messages).flatMap(this::unaryRpc);
+    }
+
+    @Override
+    public double availability() {
+      return 1.0;
+    }
+
+    @Override
+    public Mono<Void> close() {
+      return Mono.empty();
+    }
+
+    @Override
+    public Mono<Void> onClose() {
+      return Mono.empty();
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package io.netifi.sdk.rs;
+
+import io.netifi.sdk.frames.RouteDestinationFlyweight;
+import io.netifi.sdk.frames.RouteType;
+import io.netifi.sdk.frames.RoutingHeaderTemplate;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.rsocket.Payload;
+import io.rsocket.util.PayloadImpl;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MetadataUnwrappingRSocketTest {
+  @Test
+  public void testUnwrapsMetadataOnce() {
+    byte[] metadata = new byte[64];
+    ThreadLocalRandom.current().nextBytes(metadata);
+
+    MetadataUnwrappingRSocket.UnwrappingPayload payload =
+        new MetadataUnwrappingRSocket.UnwrappingPayload(routed("hi".getBytes(), metadata));
+
+    ByteBuf metadataByteBuf = payload.getMetadataByteBuf();
+    Assert.assertTrue(Unpooled.wrappedBuffer(metadata).equals(metadataByteBuf));
+
+    ByteBuffer first = payload.getMetadata();
+    Assert.assertEquals(ByteBuffer.wrap(metadata), first);
+
+    // consuming one view does not affect the next one
+    first.position(first.limit());
+    Assert.assertEquals(ByteBuffer.wrap(metadata), payload.getMetadata());
+    Assert.assertEquals(ByteBuffer.wrap("hi".getBytes()), payload.getData());
+  }
+
+  @Test
+  public void testEachMetadataByteBufHasItsOwnIndexes() {
+    byte[] metadata = new byte[64];
+    ThreadLocalRandom.current().nextBytes(metadata);
+
+    MetadataUnwrappingRSocket.UnwrappingPayload payload =
+        new MetadataUnwrappingRSocket.UnwrappingPayload(routed("hi".getBytes(), metadata));
+
+    ByteBuf first = payload.getMetadataByteBuf();
+    first.readBytes(new byte[16]);
+    Assert.assertEquals(16, first.readerIndex());
+
+    ByteBuf second = payload.getMetadataByteBuf();
+    Assert.assertEquals(0, second.readerIndex());
+    Assert.assertEquals(metadata.length, second.readableBytes());
+    Assert.assertTrue(Unpooled.wrappedBuffer(metadata).equals(second));
+  }
+
+  private static Payload routed(byte[] data, byte[] metadata) {
+    int routeLength =
+        RouteDestinationFlyweight.computeLength(RouteType.STREAM_ID_ROUTE, "toDest", "toGroup");
+    ByteBuf route = Unpooled.wrappedBuffer(new byte[routeLength]);
+    RouteDestinationFlyweight.encodeRouteByDestination(
+        route, RouteType.STREAM_ID_ROUTE, Long.MAX_VALUE, "toDest", "toGroup");
+
+    RoutingHeaderTemplate template =
+        new RoutingHeaderTemplate(true, Long.MAX_VALUE, "fromDest", route);
+    ByteBuf wrappedMetadata = Unpooled.wrappedBuffer(metadata);
+    byte[] frame = new byte[template.computeLength(wrappedMetadata)];
+    template.encode(Unpooled.wrappedBuffer(frame), 1234, 1, wrappedMetadata);
+
+    return new PayloadImpl(data, frame);
+  }
+}
@@ -0,0 +1,89 @@
+package io.netifi.sdk.rs;
+
+import io.rsocket.exceptions.RejectedException;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import org.junit.Assert;
+import org.junit.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+public class PendingRequestQueueTest {
+
+  @Test
+  public void testWaitersCompleteWithTheSession() {
+    PendingRequestQueue queue =
+        new PendingRequestQueue(10, Duration.ofMinutes(1), PendingRequestOverflow.FAIL_FAST);
+    MonoProcessor<String> next = MonoProcessor.create();
+
+    MonoProcessor<String> first = queue.await(next).toProcessor();
+    MonoProcessor<String> second = queue.await(next).toProcessor();
+    Assert.assertEquals(2, queue.size());
+
+    next.onNext("session");
+    Assert.assertEquals("session", first.block());
+    Assert.assertEquals("session", second.block());
+    Assert.assertEquals(0, queue.size());
+  }
+
+  @Test
+  public void testFailFastRejectsNewRequests() {
+    PendingRequestQueue queue =
+        new PendingRequestQueue(2, Duration.ofMinutes(1), PendingRequestOverflow.FAIL_FAST);
+    MonoProcessor<String> next = MonoProcessor.create();
+
+    MonoProcessor<String> first = queue.await(next).toProcessor();
+    queue.await(next).toProcessor();
+    MonoProcessor<String> third = queue.await(next).toProcessor();
+    Assert.assertTrue(third.getError() instanceof RejectedException);
+    Assert.assertFalse(first.isTerminated());
+
+    first.cancel();
+    Assert.assertEquals(1, queue.size());
+    MonoProcessor<String> fourth = queue.await(next).toProcessor();
+    Assert.assertFalse(fourth.isTerminated());
+  }
+
+  @Test
+  public void testDropOldestRejectsTheOldestRequest() {
+    PendingRequestQueue queue =
+        new PendingRequestQueue(2, Duration.ofMinutes(1), PendingRequestOverflow.DROP_OLDEST);
+    MonoProcessor<String> next = MonoProcessor.create();
+
+    MonoProcessor<String> first = queue.await(next).toProcessor();
+    MonoProcessor<String> second = queue.await(next).toProcessor();
+    MonoProcessor<String> third = queue.await(next).toProcessor();
+    Assert.assertTrue(first.getError() instanceof RejectedException);
+    Assert.assertEquals(2, queue.size());
+
+    next.onNext("session");
+    Assert.assertEquals("session", second.block());
+    Assert.assertEquals("session", third.block());
+  }
+
+  @Test
+  public void testStaleRequestsTimeOut() {
+    PendingRequestQueue queue =
+        new PendingRequestQueue(10, Duration.ofMillis(50), PendingRequestOverflow.FAIL_FAST);
+
+    try {
+      queue.await(Mono.never()).block(Duration.ofSeconds(5));
+      Assert.fail("expected the request to time out");
+    } catch (RuntimeException e) {
+      Assert.assertTrue(e.getCause() instanceof TimeoutException);
+    }
+    Assert.assertEquals(0, queue.size());
+  }
+
+  @Test
+  public void testCancelledRequestsLeaveTheQueue() {
+    PendingRequestQueue queue =
+        new PendingRequestQueue(10, Duration.ofMinutes(1), PendingRequestOverflow.FAIL_FAST);
+
+    Disposable waiter = queue.await(Mono.never()).subscribe();
+    Assert.assertEquals(1, queue.size());
+    waiter.dispose();
+    Assert.assertEquals(0, queue.size());
+  }
+}
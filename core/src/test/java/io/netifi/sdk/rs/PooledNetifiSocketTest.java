@@ -0,0 +1,261 @@
+package io.netifi.sdk.rs;
+
+import io.netifi.sdk.Netifi;
+import io.netifi.sdk.testing.InProcessRouter;
+import io.netifi.testing.protobuf.SimpleRequest;
+import io.netifi.testing.protobuf.SimpleResponse;
+import io.netifi.testing.protobuf.SimpleServiceClient;
+import io.netifi.testing.protobuf.SimpleServiceServer;
+import io.rsocket.Closeable;
+import io.rsocket.DuplexConnection;
+import io.rsocket.Frame;
+import io.rsocket.FrameType;
+import io.rsocket.Payload;
+import io.rsocket.RSocketFactory;
+import io.rsocket.transport.ClientTransport;
+import io.rsocket.transport.local.LocalClientTransport;
+import io.rsocket.transport.local.LocalServerTransport;
+import io.rsocket.util.PayloadImpl;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+public class PooledNetifiSocketTest {
+  private static final long accessKey = 3855261330795754807L;
+  private static final String accessToken = "n9R9042eE1KaLtE56rbWjBIGymo=";
+  private static final SimpleRequest REQUEST =
+      SimpleRequest.newBuilder().setRequestMessage("hi").build();
+  private static final int CONCURRENCY = 16;
+
+  // the pool's connections, in the order they were opened, and the broker each one went to
+  private final List<CountingConnection> connections = new CopyOnWriteArrayList<>();
+  private final List<String> brokers = new CopyOnWriteArrayList<>();
+  private final List<Closeable> servers = new ArrayList<>();
+  private String name;
+  private InProcessRouter router;
+  private SimpleServiceClient client;
+
+  @Before
+  public void setup() {
+    name = "pooled-netifi-socket-test-" + ThreadLocalRandom.current().nextLong();
+
+    // two brokers in front of the same router
+    router = new InProcessRouter();
+    for (String broker : new String[] {"a", "b"}) {
+      servers.add(
+          RSocketFactory.receive()
+              .acceptor(router)
+              .transport(LocalServerTransport.create(name + "-" + broker))
+              .start()
+              .block());
+    }
+
+    Netifi server =
+        Netifi.builder()
+            .group("server")
+            .destination("server")
+            .accountId(Long.MAX_VALUE)
+            .accessKey(accessKey)
+            .accessToken(accessToken)
+            .addBroker(() -> LocalClientTransport.create(name + "-a"))
+            .build();
+    server.addService(
+        new SimpleServiceServer(
+            new LocalRoutingNetifiSocketTest.EchoService() {
+              @Override
+              public Mono<SimpleResponse> unaryRpc(SimpleRequest message) {
+                return Mono.delay(Duration.ofMillis(1)).then(super.unaryRpc(message));
+              }
+            }));
+
+    Netifi netifi =
+        Netifi.builder()
+            .group("client")
+            .destination("client")
+            .accountId(Long.MAX_VALUE)
+            .accessKey(accessKey)
+            .accessToken(accessToken)
+            .addBroker(counting("a"))
+            .addBroker(counting("b"))
+            .connectionCount(2)
+            .build();
+    client = new SimpleServiceClient(netifi.connect("server").block());
+
+    await(() -> router.members("server") == 1 && connections.size() == 2);
+  }
+
+  @After
+  public void tearDown() {
+    for (Closeable server : servers) {
+      server.close().block();
+    }
+  }
+
+  @Test
+  public void testConnectionsAreSpreadOverBrokers() {
+    Assert.assertTrue(brokers.toString(), brokers.contains("a"));
+    Assert.assertTrue(brokers.toString(), brokers.contains("b"));
+  }
+
+  @Test
+  public void testRequestsAreSpreadOverConnections() {
+    sendUntilUsed(connections.get(0));
+    sendUntilUsed(connections.get(1));
+  }
+
+  @Test
+  public void testDroppedConnectionIsSkippedAndRejoins() {
+    sendUntilUsed(connections.get(0));
+    sendUntilUsed(connections.get(1));
+
+    AtomicInteger done = new AtomicInteger();
+    MonoProcessor<Long> failed =
+        Flux.range(0, 1000)
+            .flatMap(
+                i ->
+                    client
+                        .unaryRpc(REQUEST)
+                        .map(response -> false)
+                        .onErrorReturn(true)
+                        .doOnNext(f -> done.incrementAndGet()),
+                CONCURRENCY)
+            .filter(f -> f)
+            .count()
+            .toProcessor();
+
+    await(() -> done.get() >= 200);
+    connections.get(0).close().block();
+
+    // only requests in flight on the dropped connection may fail, the rest go to the other one
+    long failures = failed.block(Duration.ofSeconds(30));
+    Assert.assertTrue("failures " + failures, failures <= CONCURRENCY);
+
+    await(() -> connections.size() > 2);
+    sendUntilUsed(connections.get(connections.size() - 1));
+  }
+
+  @Test
+  public void testOneSocketIsBuiltPerConnection() {
+    List<ReconnectingRSocket> reconnectingRSockets = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      ReconnectingRSocket reconnectingRSocket = Mockito.mock(ReconnectingRSocket.class);
+      Mockito.when(reconnectingRSocket.getSession())
+          .thenReturn(Mono.just(new Session(reconnectingRSocket, new byte[20], 0)));
+      Mockito.when(reconnectingRSocket.onClose()).thenReturn(MonoProcessor.create());
+      reconnectingRSockets.add(reconnectingRSocket);
+    }
+
+    AtomicInteger built = new AtomicInteger();
+    PooledNetifiSocket pooled =
+        new PooledNetifiSocket(
+            reconnectingRSockets,
+            reconnectingRSocket -> {
+              built.incrementAndGet();
+              NetifiSocket socket = Mockito.mock(NetifiSocket.class);
+              Mockito.when(socket.availability()).thenReturn(1.0);
+              Mockito.when(socket.onClose()).thenReturn(MonoProcessor.create());
+              Mockito.when(socket.close()).thenReturn(Mono.empty());
+              Mockito.when(socket.requestResponse(Mockito.any(Payload.class)))
+                  .then(invocation -> Mono.just(new PayloadImpl("hi")));
+              return socket;
+            });
+
+    for (int i = 0; i < 100; i++) {
+      Assert.assertNotNull(pooled.requestResponse(new PayloadImpl("hi")).block());
+    }
+    Assert.assertEquals(2, built.get());
+    pooled.close().block();
+  }
+
+  /** Sends requests until {@code connection} carried one of them. */
+  private void sendUntilUsed(CountingConnection connection) {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+    while (connection.requests.get() == 0) {
+      Assert.assertTrue(
+          "requests were not sent on " + connections.indexOf(connection),
+          System.nanoTime() < deadline);
+      Flux.range(0, 100)
+          .flatMap(i -> client.unaryRpc(REQUEST), CONCURRENCY)
+          .blockLast(Duration.ofSeconds(30));
+    }
+  }
+
+  private static void await(BooleanSupplier condition) {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (!condition.getAsBoolean()) {
+      Assert.assertTrue(System.nanoTime() < deadline);
+      Thread.yield();
+    }
+  }
+
+  private Supplier<ClientTransport> counting(String broker) {
+    return () ->
+        () ->
+            LocalClientTransport.create(name + "-" + broker)
+                .connect()
+                .<DuplexConnection>map(
+                    connection -> {
+                      CountingConnection counting = new CountingConnection(connection);
+                      brokers.add(broker);
+                      connections.add(counting);
+                      return counting;
+                    });
+  }
+
+  /** Counts the request-response frames sent on a connection. */
+  private static final class CountingConnection implements DuplexConnection {
+    private final DuplexConnection delegate;
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private CountingConnection(DuplexConnection delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public Mono<Void> send(Publisher<Frame> frames) {
+      return delegate.send(
+          Flux.from(frames)
+              .doOnNext(
+                  frame -> {
+                    if (frame.getType() == FrameType.REQUEST_RESPONSE) {
+                      requests.incrementAndGet();
+                    }
+                  }));
+    }
+
+    @Override
+    public Flux<Frame> receive() {
+      return delegate.receive();
+    }
+
+    @Override
+    public double availability() {
+      return delegate.availability();
+    }
+
+    @Override
+    public Mono<Void> close() {
+      return delegate.close();
+    }
+
+    @Override
+    public Mono<Void> onClose() {
+      return delegate.onClose();
+    }
+  }
+}
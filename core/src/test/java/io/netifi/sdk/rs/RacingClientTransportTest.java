@@ -0,0 +1,85 @@
+package io.netifi.sdk.rs;
+
+import io.rsocket.DuplexConnection;
+import io.rsocket.transport.ClientTransport;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Mono;
+
+public class RacingClientTransportTest {
+  private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+  @Test
+  public void testFirstConnectionWins() {
+    DuplexConnection slow = connection();
+    DuplexConnection fast = connection();
+    RacingClientTransport transport =
+        new RacingClientTransport(
+            Arrays.asList(
+                transport(Mono.delay(Duration.ofMillis(200)).map(l -> slow)),
+                transport(Mono.just(fast))),
+            Duration.ofMillis(10));
+
+    Assert.assertSame(fast, transport.connect().block(TIMEOUT));
+  }
+
+  @Test
+  public void testFailedAttemptStartsTheNextRightAway() {
+    DuplexConnection connection = connection();
+    RacingClientTransport transport =
+        new RacingClientTransport(
+            Arrays.asList(
+                transport(Mono.error(new IllegalStateException("refused"))),
+                transport(Mono.just(connection))),
+            Duration.ofMinutes(1));
+
+    Assert.assertSame(connection, transport.connect().block(TIMEOUT));
+  }
+
+  @Test
+  public void testLaterAttemptsAreNotStartedOnceConnected() {
+    AtomicInteger attempts = new AtomicInteger();
+    Supplier<ClientTransport> counting =
+        () -> {
+          attempts.incrementAndGet();
+          return () -> Mono.just(connection());
+        };
+    RacingClientTransport transport =
+        new RacingClientTransport(Arrays.asList(counting, counting), Duration.ofMillis(100));
+
+    Assert.assertNotNull(transport.connect().block(TIMEOUT));
+    Assert.assertEquals(1, attempts.get());
+  }
+
+  @Test
+  public void testFailsWhenEveryAttemptFails() {
+    RacingClientTransport transport =
+        new RacingClientTransport(
+            Arrays.asList(
+                transport(Mono.error(new IllegalStateException("refused"))),
+                transport(Mono.error(new IllegalStateException("refused")))),
+            Duration.ofMillis(10));
+
+    try {
+      transport.connect().block(TIMEOUT);
+      Assert.fail("expected the connect to fail");
+    } catch (IllegalStateException e) {
+      Assert.assertEquals("refused", e.getMessage());
+    }
+  }
+
+  private static Supplier<ClientTransport> transport(Mono<DuplexConnection> connection) {
+    return () -> () -> connection;
+  }
+
+  private static DuplexConnection connection() {
+    DuplexConnection connection = Mockito.mock(DuplexConnection.class);
+    Mockito.when(connection.close()).thenReturn(Mono.empty());
+    return connection;
+  }
+}
@@ -0,0 +1,48 @@
+package io.netifi.sdk.rs;
+
+import java.time.Duration;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ReconnectBackoffTest {
+
+  @Test
+  public void testFirstRetryIsFast() {
+    ReconnectBackoff backoff = new ReconnectBackoff(Duration.ofMillis(100), Duration.ofSeconds(10));
+    for (int i = 0; i < 1000; i++) {
+      long delay = backoff.nextDelayMillis(0);
+      Assert.assertTrue("delay " + delay, delay >= 1 && delay <= 100);
+    }
+  }
+
+  @Test
+  public void testDelaysGrowUpToTheMax() {
+    ReconnectBackoff backoff = new ReconnectBackoff(Duration.ofMillis(100), Duration.ofSeconds(10));
+    long delay = backoff.nextDelayMillis(0);
+    long max = 0;
+    for (int i = 0; i < 1000; i++) {
+      long next = backoff.nextDelayMillis(delay);
+      Assert.assertTrue("delay " + next, next >= 100 && next <= Math.min(10_000, delay * 3));
+      max = Math.max(max, next);
+      delay = next;
+    }
+    Assert.assertTrue("max delay " + max, max > 1_000);
+  }
+
+  @Test
+  public void testDelaysAreJittered() {
+    ReconnectBackoff backoff = new ReconnectBackoff(Duration.ofMillis(100), Duration.ofSeconds(10));
+    long first = backoff.nextDelayMillis(1_000);
+    for (int i = 0; i < 100; i++) {
+      if (backoff.nextDelayMillis(1_000) != first) {
+        return;
+      }
+    }
+    Assert.fail("expected the delays to differ");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMaxBelowBaseIsRejected() {
+    new ReconnectBackoff(Duration.ofSeconds(1), Duration.ofMillis(100));
+  }
+}
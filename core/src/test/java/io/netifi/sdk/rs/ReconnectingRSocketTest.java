@@ -0,0 +1,96 @@
+package io.netifi.sdk.rs;
+
+import io.rsocket.AbstractRSocket;
+import io.rsocket.Closeable;
+import io.rsocket.Payload;
+import io.rsocket.RSocketFactory;
+import io.rsocket.transport.local.LocalClientTransport;
+import io.rsocket.transport.local.LocalServerTransport;
+import io.rsocket.util.PayloadImpl;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+public class ReconnectingRSocketTest {
+  // answers every request once completed
+  private final MonoProcessor<Void> answer = MonoProcessor.create();
+  private volatile boolean running;
+  private Closeable server;
+  private ReconnectingRSocket reconnectingRSocket;
+
+  @Before
+  public void setup() {
+    String name = "reconnecting-rsocket-test-" + ThreadLocalRandom.current().nextLong();
+    server =
+        RSocketFactory.receive()
+            .acceptor(
+                (setup, sendingSocket) ->
+                    Mono.just(
+                        new AbstractRSocket() {
+                          @Override
+                          public Mono<Payload> requestResponse(Payload payload) {
+                            return answer.then(
+                                Mono.fromCallable(() -> new PayloadImpl("here's the payload")));
+                          }
+                        }))
+            .transport(LocalServerTransport.create(name))
+            .start()
+            .block();
+
+    byte[] accessToken = new byte[20];
+    ThreadLocalRandom.current().nextBytes(accessToken);
+    running = true;
+    reconnectingRSocket =
+        new ReconnectingRSocket(
+            null,
+            () -> new PayloadImpl(new byte[0], new byte[0]),
+            () -> running,
+            () -> LocalClientTransport.create(name),
+            false,
+            0,
+            0,
+            0,
+            Long.MAX_VALUE,
+            accessToken);
+    reconnectingRSocket.getSession().block();
+  }
+
+  @After
+  public void tearDown() {
+    running = false;
+    reconnectingRSocket.close().block();
+    server.close().block();
+  }
+
+  @Test
+  public void testRequestThatIsNeverSubscribedIsNotPending() {
+    reconnectingRSocket.requestResponse(new PayloadImpl("hi"));
+    reconnectingRSocket.requestStream(new PayloadImpl("hi"));
+    Assert.assertEquals(0, reconnectingRSocket.getPending());
+  }
+
+  @Test
+  public void testEachSubscriptionIsPendingUntilItFinishes() {
+    Mono<Payload> response = reconnectingRSocket.requestResponse(new PayloadImpl("hi"));
+    MonoProcessor<Payload> first = response.toProcessor();
+    MonoProcessor<Payload> second = response.toProcessor();
+    Assert.assertEquals(2, reconnectingRSocket.getPending());
+
+    answer.onComplete();
+    Assert.assertNotNull(first.block());
+    Assert.assertNotNull(second.block());
+
+    // a request finishes after its response is delivered, maybe on another thread
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (reconnectingRSocket.getPending() != 0) {
+      Assert.assertTrue(System.nanoTime() < deadline);
+      Thread.yield();
+    }
+    Assert.assertEquals(0, reconnectingRSocket.getPending());
+  }
+}
@@ -0,0 +1,52 @@
+package io.netifi.sdk.rs;
+
+import io.netifi.sdk.metrics.HdrHistogramNetifiMetrics;
+import io.netifi.testing.protobuf.SimpleRequest;
+import io.netifi.testing.protobuf.SimpleServiceClient;
+import io.netifi.testing.protobuf.SimpleServiceServer;
+import io.rsocket.AbstractRSocket;
+import io.rsocket.Payload;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.HdrHistogram.Histogram;
+import org.junit.Assert;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+
+public class RequestHandlingRSocketTest {
+
+  @Test
+  public void testHandlersAreTimedFromSubscription() throws Exception {
+    HdrHistogramNetifiMetrics metrics = new HdrHistogramNetifiMetrics();
+    SimpleServiceServer service =
+        new SimpleServiceServer(new LocalRoutingNetifiSocketTest.EchoService());
+    RequestHandlingRSocket handler = new RequestHandlingRSocket(metrics, service);
+
+    Mono<Payload> response = handler.requestResponse(request());
+    Thread.sleep(100);
+    Assert.assertNotNull(response.block());
+    Assert.assertNotNull(response.block());
+
+    Histogram latency = metrics.getHandlerLatency(service.getNamespaceId(), service.getServiceId());
+    Assert.assertEquals(2, latency.getTotalCount());
+    Assert.assertTrue(
+        "latency " + latency.getMaxValue(),
+        latency.getMaxValue() < TimeUnit.MILLISECONDS.toNanos(100));
+  }
+
+  /** A request-response payload for the simple service, as its client would send it. */
+  private static Payload request() {
+    AtomicReference<Payload> request = new AtomicReference<>();
+    SimpleServiceClient client =
+        new SimpleServiceClient(
+            new AbstractRSocket() {
+              @Override
+              public Mono<Payload> requestResponse(Payload payload) {
+                request.set(payload);
+                return Mono.empty();
+              }
+            });
+    client.unaryRpc(SimpleRequest.newBuilder().setRequestMessage("hi").build()).block();
+    return request.get();
+  }
+}
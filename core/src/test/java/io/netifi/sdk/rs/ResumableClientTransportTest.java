@@ -0,0 +1,338 @@
+package io.netifi.sdk.rs;
+
+import io.netifi.sdk.frames.DestinationSetupFlyweight;
+import io.netifi.sdk.testing.InProcessRouter;
+import io.netifi.sdk.util.TimebasedIdGenerator;
+import io.netty.buffer.Unpooled;
+import io.rsocket.AbstractRSocket;
+import io.rsocket.Closeable;
+import io.rsocket.DuplexConnection;
+import io.rsocket.Frame;
+import io.rsocket.Payload;
+import io.rsocket.RSocket;
+import io.rsocket.RSocketFactory;
+import io.rsocket.transport.ClientTransport;
+import io.rsocket.transport.local.LocalClientTransport;
+import io.rsocket.transport.local.LocalServerTransport;
+import io.rsocket.util.PayloadImpl;
+import java.nio.channels.ClosedChannelException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+public class ResumableClientTransportTest {
+  private static final TimebasedIdGenerator idGenerator = new TimebasedIdGenerator(1);
+  private static final Duration RESUME_TIMEOUT = Duration.ofMillis(500);
+
+  private final List<RSocket> members = new ArrayList<>();
+  private final List<DuplexConnection> connections = new CopyOnWriteArrayList<>();
+  private volatile boolean running;
+  private volatile boolean refuse;
+  private String name;
+  private byte[] accessToken;
+  private InProcessRouter router;
+  private Closeable server;
+  private ReconnectingRSocket reconnectingRSocket;
+
+  @Before
+  public void setup() {
+    name = "resumable-client-transport-test-" + ThreadLocalRandom.current().nextLong();
+    accessToken = new byte[20];
+    ThreadLocalRandom.current().nextBytes(accessToken);
+
+    router = new InProcessRouter();
+    server =
+        RSocketFactory.receive()
+            .acceptor(router)
+            .transport(
+                new ResumableServerTransport<>(
+                    LocalServerTransport.create(name), 1024 * 1024, RESUME_TIMEOUT))
+            .start()
+            .block();
+
+    // a broker stand-in whose connections can be dropped, or refused
+    ClientTransport dropping =
+        () ->
+            refuse
+                ? Mono.error(new ClosedChannelException())
+                : LocalClientTransport.create(name).connect().doOnNext(connections::add);
+
+    running = true;
+    reconnectingRSocket =
+        new ReconnectingRSocket(
+            null,
+            () -> new PayloadImpl(new byte[0], setupMetadata("sender", "senders")),
+            () -> running,
+            () ->
+                new ResumableClientTransport(
+                    dropping,
+                    1024 * 1024,
+                    RESUME_TIMEOUT,
+                    new ReconnectBackoff(Duration.ofMillis(1), Duration.ofMillis(10))),
+            false,
+            0,
+            0,
+            0,
+            Long.MAX_VALUE,
+            accessToken);
+    reconnectingRSocket.getSession().block();
+  }
+
+  @After
+  public void tearDown() {
+    running = false;
+    for (RSocket member : members) {
+      member.close().block();
+    }
+    reconnectingRSocket.close().block();
+    server.close().block();
+  }
+
+  @Test
+  public void testStreamIsResumedAfterConnectionDrops() throws Exception {
+    connect(
+        "member",
+        "group",
+        new AbstractRSocket() {
+          @Override
+          public Flux<Payload> requestStream(Payload payload) {
+            return Flux.range(0, 100)
+                .delayElements(Duration.ofMillis(5))
+                .map(i -> new PayloadImpl(String.valueOf(i)));
+          }
+        });
+    awaitMembers("group", 1);
+
+    Session session = reconnectingRSocket.getCurrentSession();
+    CountDownLatch started = new CountDownLatch(10);
+    MonoProcessor<List<Integer>> values =
+        netifiSocket()
+            .requestStream(new PayloadImpl("hi".getBytes(), new byte[16]))
+            .map(payload -> StandardCharsets.UTF_8.decode(payload.getData()).toString())
+            .map(Integer::parseInt)
+            .doOnNext(i -> started.countDown())
+            .collectList()
+            .toProcessor();
+
+    Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+    connections.get(0).close().block();
+
+    List<Integer> expected = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      expected.add(i);
+    }
+    Assert.assertEquals(expected, values.block(Duration.ofSeconds(10)));
+    Assert.assertTrue(connections.size() > 1);
+    Assert.assertSame(session, reconnectingRSocket.getCurrentSession());
+  }
+
+  @Test
+  public void testStreamFailsWhenSessionCannotBeResumed() throws Exception {
+    connect(
+        "member",
+        "group",
+        new AbstractRSocket() {
+          @Override
+          public Flux<Payload> requestStream(Payload payload) {
+            return Flux.never();
+          }
+        });
+    awaitMembers("group", 1);
+
+    CountDownLatch failed = new CountDownLatch(1);
+    netifiSocket()
+        .requestStream(new PayloadImpl("hi".getBytes(), new byte[16]))
+        .subscribe(null, t -> failed.countDown());
+
+    refuse = true;
+    connections.get(0).close().block();
+
+    Assert.assertFalse(failed.await(RESUME_TIMEOUT.toMillis() / 2, TimeUnit.MILLISECONDS));
+    Assert.assertTrue(failed.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testResumeIsRejectedWhenUnacknowledgedFramesWereDropped() throws Exception {
+    connect(
+        "member",
+        "group",
+        new AbstractRSocket() {
+          @Override
+          public Mono<Void> fireAndForget(Payload payload) {
+            return Mono.empty();
+          }
+        });
+    awaitMembers("group", 1);
+
+    // a sender that keeps at most 1kb of frames, over connections that can stop delivering
+    List<PartitionableConnection> partitionable = new CopyOnWriteArrayList<>();
+    List<ResumableDuplexConnection> resumables = new CopyOnWriteArrayList<>();
+    ResumableClientTransport transport =
+        new ResumableClientTransport(
+            () ->
+                LocalClientTransport.create(name)
+                    .connect()
+                    .<DuplexConnection>map(
+                        connection -> {
+                          PartitionableConnection p = new PartitionableConnection(connection);
+                          partitionable.add(p);
+                          return p;
+                        }),
+            1024,
+            RESUME_TIMEOUT,
+            new ReconnectBackoff(Duration.ofMillis(1), Duration.ofMillis(10)));
+    ReconnectingRSocket sender =
+        new ReconnectingRSocket(
+            null,
+            () -> new PayloadImpl(new byte[0], setupMetadata("small-sender", "senders")),
+            () -> running,
+            () ->
+                () ->
+                    transport
+                        .connect()
+                        .doOnNext(c -> resumables.add((ResumableDuplexConnection) c)),
+            false,
+            0,
+            0,
+            0,
+            Long.MAX_VALUE,
+            accessToken);
+    try {
+      Session session = sender.getSession().block();
+      DefaultNetifiSocket netifiSocket =
+          new DefaultNetifiSocket(
+              sender,
+              Long.MAX_VALUE,
+              Long.MAX_VALUE,
+              "small-sender",
+              "member",
+              "group",
+              accessToken,
+              false,
+              idGenerator);
+
+      // the broker never receives these, so they are never acknowledged and the oldest are dropped
+      partitionable.get(0).partitioned = true;
+      for (int i = 0; i < 30; i++) {
+        netifiSocket.fireAndForget(new PayloadImpl(new byte[100], new byte[16])).block();
+      }
+      ResumableDuplexConnection resumable = resumables.get(0);
+      Assert.assertTrue(resumable.getBufferedBytes() > 0);
+      Assert.assertTrue(resumable.getBufferedBytes() <= 1024);
+
+      // the broker resumes from the first frame it missed, which the sender no longer has
+      partitionable.get(0).close().block();
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (!resumable.isClosed() || sender.getCurrentSession() == session) {
+        Assert.assertTrue(System.nanoTime() < deadline);
+        Thread.sleep(1);
+      }
+      Assert.assertTrue(partitionable.size() > 1);
+      Assert.assertTrue(resumables.size() > 1);
+    } finally {
+      sender.close().block();
+    }
+  }
+
+  private DefaultNetifiSocket netifiSocket() {
+    return new DefaultNetifiSocket(
+        reconnectingRSocket,
+        Long.MAX_VALUE,
+        Long.MAX_VALUE,
+        "sender",
+        "member",
+        "group",
+        accessToken,
+        false,
+        idGenerator);
+  }
+
+  private void connect(String destination, String group, RSocket handler) {
+    RSocket member =
+        RSocketFactory.connect()
+            .setupPayload(new PayloadImpl(new byte[0], setupMetadata(destination, group)))
+            .acceptor(rSocket -> MetadataUnwrappingRSocket.wrap(handler))
+            .transport(new ResumableClientTransport(LocalClientTransport.create(name)))
+            .start()
+            .block();
+    members.add(member);
+  }
+
+  private void awaitMembers(String group, int count) {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (router.members(group) < count) {
+      Assert.assertTrue(System.nanoTime() < deadline);
+      Thread.yield();
+    }
+  }
+
+  private byte[] setupMetadata(String destination, String group) {
+    byte[] metadata = new byte[DestinationSetupFlyweight.computeLength(false, destination, group)];
+    DestinationSetupFlyweight.encode(
+        Unpooled.wrappedBuffer(metadata),
+        Unpooled.EMPTY_BUFFER,
+        Unpooled.wrappedBuffer(accessToken),
+        idGenerator.nextId(),
+        Long.MAX_VALUE,
+        destination,
+        group);
+    return metadata;
+  }
+
+  /** A connection that silently drops the frames it sends while partitioned. */
+  private static final class PartitionableConnection implements DuplexConnection {
+    private final DuplexConnection delegate;
+    private volatile boolean partitioned;
+
+    private PartitionableConnection(DuplexConnection delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public Mono<Void> send(Publisher<Frame> frames) {
+      return delegate.send(
+          Flux.from(frames)
+              .filter(
+                  frame -> {
+                    if (partitioned) {
+                      frame.release();
+                      return false;
+                    }
+                    return true;
+                  }));
+    }
+
+    @Override
+    public Flux<Frame> receive() {
+      return delegate.receive();
+    }
+
+    @Override
+    public double availability() {
+      return delegate.availability();
+    }
+
+    @Override
+    public Mono<Void> close() {
+      return delegate.close();
+    }
+
+    @Override
+    public Mono<Void> onClose() {
+      return delegate.onClose();
+    }
+  }
+}
@@ -0,0 +1,341 @@
+package io.netifi.sdk.testing;
+
+import io.netifi.sdk.frames.DestinationAvailResult;
+import io.netifi.sdk.frames.DestinationSetupFlyweight;
+import io.netifi.sdk.frames.FireAndForgetBatchFlyweight;
+import io.netifi.sdk.frames.FrameHeaderFlyweight;
+import io.netifi.sdk.frames.FrameType;
+import io.netifi.sdk.frames.RouteDestinationDecoder;
+import io.netifi.sdk.frames.RouteDictionaryDecoder;
+import io.netifi.sdk.frames.RouteType;
+import io.netifi.sdk.frames.RoutingDecoder;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.rsocket.AbstractRSocket;
+import io.rsocket.ConnectionSetupPayload;
+import io.rsocket.Payload;
+import io.rsocket.RSocket;
+import io.rsocket.SocketAcceptor;
+import io.rsocket.util.PayloadImpl;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+
+/**
+ * In-process stand-in for the router, so routing and fan-out can be tested and benchmarked without
+ * a broker. Start it on any server transport, for example
+ *
+ * <pre>{@code
+ * RSocketFactory.receive()
+ *     .acceptor(new InProcessRouter())
+ *     .transport(LocalServerTransport.create("router"))
+ *     .start()
+ *     .block();
+ * }</pre>
+ *
+ * and add it as a broker with {@code addBroker(() -> LocalClientTransport.create("router"))}. It
+ * is test code and is not part of the core jar; the benchmarks use it from the core test classes.
+ *
+ * <p>Destinations register with the DESTINATION_SETUP frame in their setup metadata. ROUTE and
+ * FIRE_AND_FORGET_BATCH frames are forwarded unchanged: a STREAM_ID_ROUTE to the named destination,
+ * a STREAM_GROUP_ROUTE round robin to one member of the group, or to every member when the frame
+ * has the {@code BROADCAST} flag. Requests to a destination that is not connected fail with an
+ * {@link IllegalStateException}.
+ *
+ * <p>A request-stream with a PRESENCE_GROUP_QUERY or PRESENCE_ID_QUERY route is answered with a
+ * DESTINATION_AVAIL_RESULT frame, as the metadata of each payload, for every matching destination
+ * that is connected, followed by one for every destination that joins or leaves later. A
+ * PRESENCE_ID_QUERY for a destination that is not connected starts with a not found result, and a
+ * PRESENCE_GROUP_QUERY for a group without members with a not found result for an empty
+ * destination.
+ *
+ * <p>Tokens are not verified and request-channel is not supported.
+ */
+public class InProcessRouter implements SocketAcceptor {
+  private static final Member[] NO_MEMBERS = new Member[0];
+
+  private final ConcurrentHashMap<String, CopyOnWriteArrayList<Member>> groups =
+      new ConcurrentHashMap<>();
+  private final List<PresenceQuery> presenceQueries = new ArrayList<>();
+  private final AtomicInteger next = new AtomicInteger();
+
+  @Override
+  public Mono<RSocket> accept(ConnectionSetupPayload setup, RSocket sendingSocket) {
+    try {
+      ByteBuf metadata = Unpooled.wrappedBuffer(setup.getMetadata());
+      if (metadata.capacity() < FrameHeaderFlyweight.computeFrameHeaderLength()
+          || FrameHeaderFlyweight.frameType(metadata) != FrameType.DESTINATION_SETUP) {
+        throw new IllegalStateException("expected a DESTINATION_SETUP frame in the setup");
+      }
+
+      String group = DestinationSetupFlyweight.group(metadata);
+      Member member = new Member(DestinationSetupFlyweight.destination(metadata), sendingSocket);
+      join(group, member);
+      sendingSocket.onClose().doFinally(s -> leave(group, member)).subscribe();
+
+      return Mono.just(new Connection());
+    } catch (Throwable t) {
+      return Mono.error(t);
+    }
+  }
+
+  /** Number of destinations currently connected in {@code group}. */
+  public int members(String group) {
+    CopyOnWriteArrayList<Member> members = groups.get(group);
+    return members != null ? members.size() : 0;
+  }
+
+  /** True if {@code destination} is currently connected in {@code group}. */
+  public boolean hasMember(String group, String destination) {
+    CopyOnWriteArrayList<Member> members = groups.get(group);
+    if (members != null) {
+      for (Member member : members) {
+        if (member.destination.equals(destination)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /** Number of presence queries currently streaming. */
+  public synchronized int presenceQueries() {
+    return presenceQueries.size();
+  }
+
+  private synchronized void join(String group, Member member) {
+    groups.computeIfAbsent(group, g -> new CopyOnWriteArrayList<>()).add(member);
+    notifyPresence(group, member.destination, true);
+  }
+
+  private synchronized void leave(String group, Member member) {
+    if (groups.get(group).remove(member)) {
+      notifyPresence(group, member.destination, false);
+    }
+  }
+
+  private void notifyPresence(String group, String destination, boolean found) {
+    for (PresenceQuery query : presenceQueries) {
+      if (query.matches(group, destination)) {
+        query.sink.next(availResult(destination, found));
+      }
+    }
+  }
+
+  private Flux<Payload> presence(String group, String destination) {
+    return Flux.create(
+        sink -> {
+          PresenceQuery query = new PresenceQuery(group, destination, sink);
+          // registered and filled under the same lock as join and leave, so no change is missed
+          // or reported out of order
+          synchronized (this) {
+            presenceQueries.add(query);
+            boolean found = false;
+            CopyOnWriteArrayList<Member> members = groups.get(group);
+            if (members != null) {
+              for (Member member : members) {
+                if (query.matches(group, member.destination)) {
+                  sink.next(availResult(member.destination, true));
+                  found = true;
+                }
+              }
+            }
+            // a query always starts with the current state, even when nothing is connected
+            if (!found) {
+              sink.next(availResult(destination != null ? destination : "", false));
+            }
+          }
+          sink.onDispose(
+              () -> {
+                synchronized (this) {
+                  presenceQueries.remove(query);
+                }
+              });
+        });
+  }
+
+  private static Payload availResult(String destination, boolean found) {
+    byte[] metadata = new byte[DestinationAvailResult.computeLength(destination)];
+    DestinationAvailResult.encode(Unpooled.wrappedBuffer(metadata), destination, found, 0);
+    return new PayloadImpl(new byte[0], metadata);
+  }
+
+  private Member[] select(Route route) {
+    CopyOnWriteArrayList<Member> list = groups.get(route.group);
+    Member[] members = list != null ? list.toArray(NO_MEMBERS) : NO_MEMBERS;
+
+    switch (route.routeType) {
+      case STREAM_ID_ROUTE:
+        for (Member member : members) {
+          if (member.destination.equals(route.destination)) {
+            return new Member[] {member};
+          }
+        }
+        throw new IllegalStateException(
+            "destination " + route.destination + " in group " + route.group + " is not connected");
+      case STREAM_GROUP_ROUTE:
+        if (members.length == 0) {
+          throw new IllegalStateException("no destinations connected in group " + route.group);
+        }
+        if (route.broadcast) {
+          return members;
+        }
+        return new Member[] {members[Math.floorMod(next.getAndIncrement(), members.length)]};
+      default:
+        throw new IllegalStateException("route type " + route.routeType + " can not be routed");
+    }
+  }
+
+  private static byte[] toArray(ByteBuffer byteBuffer) {
+    byte[] bytes = new byte[byteBuffer.remaining()];
+    byteBuffer.duplicate().get(bytes);
+    return bytes;
+  }
+
+  private static final class Member {
+    final String destination;
+    final RSocket rSocket;
+
+    Member(String destination, RSocket rSocket) {
+      this.destination = destination;
+      this.rSocket = rSocket;
+    }
+  }
+
+  private static final class PresenceQuery {
+    final String group;
+    final String destination;
+    final FluxSink<Payload> sink;
+
+    PresenceQuery(String group, String destination, FluxSink<Payload> sink) {
+      this.group = group;
+      this.destination = destination;
+      this.sink = sink;
+    }
+
+    boolean matches(String group, String destination) {
+      return this.group.equals(group)
+          && (this.destination == null || this.destination.equals(destination));
+    }
+  }
+
+  /** The routing fields of a request, decoded before the request is forwarded. */
+  private static final class Route {
+    final RouteType routeType;
+    final String group;
+    final String destination;
+    final boolean broadcast;
+
+    Route(RouteType routeType, String group, String destination, boolean broadcast) {
+      this.routeType = routeType;
+      this.group = group;
+      this.destination = destination;
+      this.broadcast = broadcast;
+    }
+  }
+
+  /**
+   * Routes the requests of one connection. Frames are decoded one at a time, in the order they
+   * arrive, so route dictionary entries are learned before they are referred to.
+   */
+  private final class Connection extends AbstractRSocket {
+    private final RoutingDecoder routing = new RoutingDecoder(new RouteDictionaryDecoder());
+    private final RouteDestinationDecoder routeDecoder = new RouteDestinationDecoder();
+
+    private synchronized Route decode(Payload payload) {
+      ByteBuf metadata = Unpooled.wrappedBuffer(payload.getMetadata());
+      if (FireAndForgetBatchFlyweight.isBatch(metadata)) {
+        routeDecoder.wrap(FireAndForgetBatchFlyweight.route(metadata));
+      } else {
+        routing.wrap(metadata);
+        routeDecoder.wrap(routing.routeByteBuf(), routing.routeOffset(), routing.routeLength());
+      }
+
+      return new Route(
+          routeDecoder.routeType(),
+          routeDecoder.group(),
+          routeDecoder.hasDestination() ? routeDecoder.destination() : null,
+          FrameHeaderFlyweight.broadcast(metadata));
+    }
+
+    private Member target(Route route) {
+      if (route.broadcast) {
+        throw new IllegalStateException("only fire-and-forget and metadata push can be broadcast");
+      }
+      return select(route)[0];
+    }
+
+    @Override
+    public Mono<Void> fireAndForget(Payload payload) {
+      try {
+        Member[] targets = select(decode(payload));
+        // the payload may be released once this returns, so it is copied for the members
+        byte[] data = toArray(payload.getData());
+        byte[] metadata = toArray(payload.getMetadata());
+        return Flux.fromArray(targets)
+            .flatMap(member -> member.rSocket.fireAndForget(new PayloadImpl(data, metadata)))
+            .then();
+      } catch (Throwable t) {
+        return Mono.error(t);
+      }
+    }
+
+    @Override
+    public Mono<Void> metadataPush(Payload payload) {
+      try {
+        Member[] targets = select(decode(payload));
+        byte[] data = toArray(payload.getData());
+        byte[] metadata = toArray(payload.getMetadata());
+        return Flux.fromArray(targets)
+            .flatMap(member -> member.rSocket.metadataPush(new PayloadImpl(data, metadata)))
+            .then();
+      } catch (Throwable t) {
+        return Mono.error(t);
+      }
+    }
+
+    @Override
+    public Mono<Payload> requestResponse(Payload payload) {
+      try {
+        Member target = target(decode(payload));
+        return target.rSocket.requestResponse(
+            new PayloadImpl(toArray(payload.getData()), toArray(payload.getMetadata())));
+      } catch (Throwable t) {
+        return Mono.error(t);
+      }
+    }
+
+    @Override
+    public Flux<Payload> requestStream(Payload payload) {
+      try {
+        Route route = decode(payload);
+        switch (route.routeType) {
+          case PRESENCE_GROUP_QUERY:
+            return presence(route.group, null);
+          case PRESENCE_ID_QUERY:
+            return presence(route.group, route.destination);
+          default:
+            return target(route)
+                .rSocket
+                .requestStream(
+                    new PayloadImpl(toArray(payload.getData()), toArray(payload.getMetadata())));
+        }
+      } catch (Throwable t) {
+        return Flux.error(t);
+      }
+    }
+
+    @Override
+    public Flux<Payload> requestChannel(Publisher<Payload> payloads) {
+      return Flux.error(
+          new UnsupportedOperationException("request-channel is not supported by the stand-in"));
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package io.netifi.sdk.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CopyOnWriteLong2ObjectMapTest {
+  @Test
+  public void testPutGetRemove() {
+    CopyOnWriteLong2ObjectMap<String> map = new CopyOnWriteLong2ObjectMap<>();
+    Assert.assertTrue(map.isEmpty());
+    Assert.assertNull(map.get(0));
+
+    Assert.assertNull(map.put(0, "zero"));
+    Assert.assertNull(map.put(CopyOnWriteLong2ObjectMap.key(1, 2), "one-two"));
+    Assert.assertNull(map.put(CopyOnWriteLong2ObjectMap.key(2, 1), "two-one"));
+    Assert.assertEquals("zero", map.put(0, "zero again"));
+    Assert.assertEquals(3, map.size());
+
+    Assert.assertEquals("zero again", map.get(0));
+    Assert.assertEquals("one-two", map.get(CopyOnWriteLong2ObjectMap.key(1, 2)));
+    Assert.assertEquals("two-one", map.get(CopyOnWriteLong2ObjectMap.key(2, 1)));
+    Assert.assertNull(map.get(CopyOnWriteLong2ObjectMap.key(1, 1)));
+
+    Assert.assertEquals("one-two", map.remove(CopyOnWriteLong2ObjectMap.key(1, 2)));
+    Assert.assertNull(map.remove(CopyOnWriteLong2ObjectMap.key(1, 2)));
+    Assert.assertNull(map.get(CopyOnWriteLong2ObjectMap.key(1, 2)));
+    Assert.assertEquals(2, map.size());
+
+    Assert.assertFalse(map.remove(0, "zero"));
+    Assert.assertTrue(map.remove(0, "zero again"));
+    map.remove(CopyOnWriteLong2ObjectMap.key(2, 1));
+    Assert.assertTrue(map.isEmpty());
+  }
+
+  @Test
+  public void testKeepsIntsApart() {
+    Assert.assertFalse(
+        CopyOnWriteLong2ObjectMap.key(1, -1) == CopyOnWriteLong2ObjectMap.key(0, -1));
+    Assert.assertEquals(0xFFFF_FFFFL, CopyOnWriteLong2ObjectMap.key(0, -1));
+    Assert.assertEquals(-1L, CopyOnWriteLong2ObjectMap.key(-1, -1));
+  }
+
+  @Test
+  public void testMatchesHashMap() {
+    CopyOnWriteLong2ObjectMap<Long> map = new CopyOnWriteLong2ObjectMap<>();
+    Map<Long, Long> expected = new HashMap<>();
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+
+    for (int i = 0; i < 10_000; i++) {
+      long key = random.nextInt(256);
+      if (random.nextBoolean()) {
+        Assert.assertEquals(expected.put(key, (long) i), map.put(key, (long) i));
+      } else {
+        Assert.assertEquals(expected.remove(key), map.remove(key));
+      }
+      Assert.assertEquals(expected.size(), map.size());
+    }
+
+    for (long key = 0; key < 256; key++) {
+      Assert.assertEquals(expected.get(key), map.get(key));
+    }
+
+    AtomicInteger visited = new AtomicInteger();
+    map.forEach(value -> visited.incrementAndGet());
+    Assert.assertEquals(expected.size(), visited.get());
+  }
+}
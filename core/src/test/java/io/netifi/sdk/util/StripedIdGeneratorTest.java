@@ -0,0 +1,69 @@
+package io.netifi.sdk.util;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StripedIdGeneratorTest {
+  @Test
+  public void testLayout() {
+    long before = System.currentTimeMillis();
+    StripedIdGenerator generator = new StripedIdGenerator(0b1010_1011);
+    long id = generator.nextId();
+    long after = System.currentTimeMillis();
+
+    Assert.assertTrue(id > 0);
+    Assert.assertEquals(0b10_1011, StripedIdGenerator.discriminator(id));
+    Assert.assertTrue(StripedIdGenerator.timestamp(id) >= before);
+    Assert.assertTrue(StripedIdGenerator.timestamp(id) <= after);
+  }
+
+  @Test
+  public void testIncreasingPerThread() {
+    StripedIdGenerator generator = new StripedIdGenerator(1);
+    long previous = generator.nextId();
+    for (int i = 0; i < 1_000_000; i++) {
+      long id = generator.nextId();
+      Assert.assertTrue(id > previous);
+      previous = id;
+    }
+  }
+
+  @Test
+  public void testUniqueAcrossThreads() throws Exception {
+    int threads = 8;
+    int idsPerThread = 250_000;
+    StripedIdGenerator generator = new StripedIdGenerator(-1);
+    long[] ids = new long[threads * idsPerThread];
+    CountDownLatch start = new CountDownLatch(1);
+    Thread[] workers = new Thread[threads];
+
+    for (int t = 0; t < threads; t++) {
+      int offset = t * idsPerThread;
+      workers[t] =
+          new Thread(
+              () -> {
+                try {
+                  start.await();
+                } catch (InterruptedException e) {
+                  throw new IllegalStateException(e);
+                }
+                for (int i = 0; i < idsPerThread; i++) {
+                  ids[offset + i] = generator.nextId();
+                }
+              });
+      workers[t].start();
+    }
+
+    start.countDown();
+    for (Thread worker : workers) {
+      worker.join();
+    }
+
+    Arrays.sort(ids);
+    for (int i = 1; i < ids.length; i++) {
+      Assert.assertTrue(ids[i - 1] != ids[i]);
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package io.netifi.sdk.frames;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * A bounded cache that maps US-ASCII bytes to canonical Strings, so decoding a name that was seen
+ * before returns the same String instead of allocating a new one. The cache is direct mapped: each
+ * name hashes to one slot, and a name that hashes to an occupied slot replaces the String there. It
+ * never grows beyond its capacity, and a miss costs one String allocation like a plain decode.
+ *
+ * <p>Instances are thread safe without locking: slots hold immutable Strings, so a racing reader
+ * sees either the old or the new String and checks its content before returning it.
+ */
+public class AsciiInterner {
+  private static final int DEFAULT_CAPACITY = 1024;
+
+  private final String[] entries;
+  private final int mask;
+
+  public AsciiInterner() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /** @param capacity number of slots, rounded up to a power of two */
+  public AsciiInterner(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be positive: " + capacity);
+    }
+    int size = Integer.highestOneBit(capacity);
+    if (size < capacity) {
+      size <<= 1;
+    }
+    this.entries = new String[size];
+    this.mask = size - 1;
+  }
+
+  public String intern(ByteBuf byteBuf, int offset, int length) {
+    if (length == 0) {
+      return "";
+    }
+
+    int hash = AsciiSequence.hash(byteBuf, offset, length);
+    int slot = (hash ^ (hash >>> 16)) & mask;
+
+    String cached = entries[slot];
+    if (cached != null
+        && cached.hashCode() == hash
+        && cached.length() == length
+        && matches(cached, byteBuf, offset)) {
+      return cached;
+    }
+
+    byte[] bytes = new byte[length];
+    byteBuf.getBytes(offset, bytes);
+    String value = AsciiSequence.newString(bytes);
+    entries[slot] = value;
+    return value;
+  }
+
+  public String intern(AsciiSequence sequence) {
+    return intern(sequence.byteBuf(), sequence.offset(), sequence.length());
+  }
+
+  private static boolean matches(String value, ByteBuf byteBuf, int offset) {
+    for (int i = 0; i < value.length(); i++) {
+      if ((byteBuf.getByte(offset + i) & 0xff) != value.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,103 @@
+package io.netifi.sdk.frames;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * A reusable {@link CharSequence} view over US-ASCII bytes in a {@link ByteBuf}. Wrapping a field
+ * does not allocate or copy, so a decoder can compare or hash destination and group names without
+ * creating Strings. {@link #hashCode()} matches {@link String#hashCode()} for the same characters.
+ *
+ * <p>A view is only valid while the underlying buffer is unchanged, and it changes when it is
+ * re-wrapped, so it must not be kept as a map key; call {@link #toString()} to keep the value.
+ * Instances are not thread safe.
+ */
+public class AsciiSequence implements CharSequence {
+  private ByteBuf byteBuf;
+  private int offset;
+  private int length;
+
+  public AsciiSequence wrap(ByteBuf byteBuf, int offset, int length) {
+    this.byteBuf = byteBuf;
+    this.offset = offset;
+    this.length = length;
+    return this;
+  }
+
+  public ByteBuf byteBuf() {
+    return byteBuf;
+  }
+
+  public int offset() {
+    return offset;
+  }
+
+  @Override
+  public int length() {
+    return length;
+  }
+
+  @Override
+  public char charAt(int index) {
+    if (index < 0 || index >= length) {
+      throw new IndexOutOfBoundsException("index: " + index + ", length: " + length);
+    }
+    return (char) (byteBuf.getByte(offset + index) & 0xff);
+  }
+
+  @Override
+  public CharSequence subSequence(int start, int end) {
+    if (start < 0 || end > length || start > end) {
+      throw new IndexOutOfBoundsException(
+          "start: " + start + ", end: " + end + ", length: " + length);
+    }
+    return new AsciiSequence().wrap(byteBuf, offset + start, end - start);
+  }
+
+  /** Returns true if this view holds the same characters as {@code other}. */
+  public boolean contentEquals(CharSequence other) {
+    if (other == null || other.length() != length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if ((byteBuf.getByte(offset + i) & 0xff) != other.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof AsciiSequence && contentEquals((AsciiSequence) o);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash(byteBuf, offset, length);
+  }
+
+  @Override
+  public String toString() {
+    if (length == 0) {
+      return "";
+    }
+    byte[] bytes = new byte[length];
+    byteBuf.getBytes(offset, bytes);
+    return newString(bytes);
+  }
+
+  /** {@link String#hashCode()} of the ASCII string stored in the given bytes. */
+  static int hash(ByteBuf byteBuf, int offset, int length) {
+    int h = 0;
+    for (int i = 0; i < length; i++) {
+      h = 31 * h + (byteBuf.getByte(offset + i) & 0xff);
+    }
+    return h;
+  }
+
+  @SuppressWarnings("deprecation")
+  static String newString(byte[] bytes) {
+    // the deprecated constructor copies ASCII bytes without going through a charset decoder
+    return new String(bytes, 0);
+  }
+}
@@ -48,6 +48,20 @@ public class DestinationAvailResult {
     return (String) byteBuf.getCharSequence(offset, length, StandardCharsets.US_ASCII);
   }
 
+  /** Wraps the destination in {@code view} instead of allocating a String. */
+  public static AsciiSequence destination(ByteBuf byteBuf, AsciiSequence view) {
+    int offset = FrameHeaderFlyweight.computeFrameHeaderLength() + FOUND_SIZE;
+    int length = BitUtil.toUnsignedInt(byteBuf.getByte(offset));
+    return view.wrap(byteBuf, offset + DESTINATION_LENGTH_SIZE, length);
+  }
+
+  /** Returns the destination from {@code interner}, only allocating the first time it is seen. */
+  public static String destination(ByteBuf byteBuf, AsciiInterner interner) {
+    int offset = FrameHeaderFlyweight.computeFrameHeaderLength() + FOUND_SIZE;
+    int length = BitUtil.toUnsignedInt(byteBuf.getByte(offset));
+    return interner.intern(byteBuf, offset + DESTINATION_LENGTH_SIZE, length);
+  }
+
   public static boolean found(ByteBuf byteBuf) {
     int offset = FrameHeaderFlyweight.computeFrameHeaderLength();
     return byteBuf.getByte(offset) == 1;
@@ -35,6 +35,31 @@ public class DestinationSetupFlyweight {
       long accessKey,
       String destination,
       String group) {
+    return encode(
+        byteBuf,
+        publicKey,
+        accessToken,
+        seqId,
+        accessKey,
+        destination,
+        group,
+        FrameHeaderFlyweight.MINOR_VERSION);
+  }
+
+  /**
+   * Encodes the frame with the given minor version, which tells the router which optional protocol
+   * features the destination supports, e.g. {@link
+   * FrameHeaderFlyweight#ROUTE_DICTIONARY_MINOR_VERSION}.
+   */
+  public static int encode(
+      ByteBuf byteBuf,
+      ByteBuf publicKey,
+      ByteBuf accessToken,
+      long seqId,
+      long accessKey,
+      String destination,
+      String group,
+      int minorVersion) {
 
     int destinationLength = destination.length();
     int groupLength = group.length();
@@ -68,6 +93,8 @@ public class DestinationSetupFlyweight {
             byteBuf,
             FrameType.DESTINATION_SETUP,
             encrypted ? FrameHeaderFlyweight.ENCRYPTED : 0,
+            FrameHeaderFlyweight.MAJOR_VERSION,
+            minorVersion,
             seqId);
 
     if (encrypted) {
@@ -123,19 +150,50 @@ public class DestinationSetupFlyweight {
     return (String) byteBuf.getCharSequence(offset, length, StandardCharsets.US_ASCII);
   }
 
+  /** Wraps the destination in {@code view} instead of allocating a String. */
+  public static AsciiSequence destination(ByteBuf byteBuf, AsciiSequence view) {
+    int offset = calculatePublicKeyOffset(byteBuf) + ACCESS_TOKEN_SIZE + ACCESS_KEY_SIZE;
+    int length = BitUtil.toUnsignedInt(byteBuf.getByte(offset));
+    return view.wrap(byteBuf, offset + DESTINATION_LENGTH_SIZE, length);
+  }
+
+  /** Returns the destination from {@code interner}, only allocating the first time it is seen. */
+  public static String destination(ByteBuf byteBuf, AsciiInterner interner) {
+    int offset = calculatePublicKeyOffset(byteBuf) + ACCESS_TOKEN_SIZE + ACCESS_KEY_SIZE;
+    int length = BitUtil.toUnsignedInt(byteBuf.getByte(offset));
+    return interner.intern(byteBuf, offset + DESTINATION_LENGTH_SIZE, length);
+  }
+
   private static int calculatePublicKeyOffset(ByteBuf byteBuf) {
     boolean encrypted = FrameHeaderFlyweight.encrypted(byteBuf);
     return (encrypted ? PUBLIC_KEY_SIZE : 0) + FrameHeaderFlyweight.computeFrameHeaderLength();
   }
 
   public static String group(ByteBuf byteBuf) {
-    int offset = calculatePublicKeyOffset(byteBuf) + ACCESS_TOKEN_SIZE + ACCESS_KEY_SIZE;
-    int destinationLength = BitUtil.toUnsignedInt(byteBuf.getByte(offset));
-    offset += DESTINATION_LENGTH_SIZE + destinationLength;
-
+    int offset = groupOffset(byteBuf);
     int length = BitUtil.toUnsignedInt(byteBuf.getByte(offset));
     offset += GROUP_LENGTH_SIZE;
 
     return (String) byteBuf.getCharSequence(offset, length, StandardCharsets.US_ASCII);
   }
+
+  /** Wraps the group in {@code view} instead of allocating a String. */
+  public static AsciiSequence group(ByteBuf byteBuf, AsciiSequence view) {
+    int offset = groupOffset(byteBuf);
+    int length = BitUtil.toUnsignedInt(byteBuf.getByte(offset));
+    return view.wrap(byteBuf, offset + GROUP_LENGTH_SIZE, length);
+  }
+
+  /** Returns the group from {@code interner}, only allocating the first time it is seen. */
+  public static String group(ByteBuf byteBuf, AsciiInterner interner) {
+    int offset = groupOffset(byteBuf);
+    int length = BitUtil.toUnsignedInt(byteBuf.getByte(offset));
+    return interner.intern(byteBuf, offset + GROUP_LENGTH_SIZE, length);
+  }
+
+  private static int groupOffset(ByteBuf byteBuf) {
+    int offset = calculatePublicKeyOffset(byteBuf) + ACCESS_TOKEN_SIZE + ACCESS_KEY_SIZE;
+    int destinationLength = BitUtil.toUnsignedInt(byteBuf.getByte(offset));
+    return offset + DESTINATION_LENGTH_SIZE + destinationLength;
+  }
 }
@@ -0,0 +1,179 @@
+package io.netifi.sdk.frames;
+
+import io.netty.buffer.ByteBuf;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Batch of fire-and-forget requests to one route, sent as a single RSocket fire-and-forget. The
+ * frame is the RSocket metadata and carries the same routing fields as a ROUTE frame followed by
+ * the number of requests. The requests themselves are the RSocket data, each encoded with {@link
+ * #encodeEntry} as
+ *
+ * <pre>
+ * | metadata length (int) | metadata | data length (int) | data |
+ * </pre>
+ *
+ * so the token signs the whole batch at once.
+ */
+public class FireAndForgetBatchFlyweight {
+  private static final int TOKEN_SIZE = BitUtil.SIZE_OF_INT;
+  private static final int ACCESS_KEY_SIZE = BitUtil.SIZE_OF_LONG;
+  private static final int DESTINATION_LENGTH_SIZE = BitUtil.SIZE_OF_BYTE;
+  private static final int ROUTE_LENGTH_SIZE = BitUtil.SIZE_OF_INT;
+  private static final int COUNT_SIZE = BitUtil.SIZE_OF_INT;
+  private static final int ENTRY_LENGTH_SIZE = BitUtil.SIZE_OF_INT;
+
+  private FireAndForgetBatchFlyweight() {}
+
+  public static int computeLength(boolean token, String fromDestination, ByteBuf route) {
+    return FrameHeaderFlyweight.computeFrameHeaderLength()
+        + (token ? TOKEN_SIZE : 0)
+        + ACCESS_KEY_SIZE
+        + DESTINATION_LENGTH_SIZE
+        + fromDestination.length()
+        + ROUTE_LENGTH_SIZE
+        + route.capacity()
+        + COUNT_SIZE;
+  }
+
+  public static int encode(
+      ByteBuf byteBuf,
+      boolean hasToken,
+      int token,
+      long fromAccessKey,
+      String fromDestination,
+      long seqId,
+      ByteBuf route,
+      int count) {
+    Objects.requireNonNull(route, "routes must not be null");
+
+    byte[] destinationBytes = fromDestination.getBytes(StandardCharsets.US_ASCII);
+    int destinationLength = destinationBytes.length;
+    if (destinationLength > 255) {
+      throw new IllegalArgumentException("destination is longer then 255 characters");
+    }
+
+    if (count < 1) {
+      throw new IllegalArgumentException("a batch must hold at least one request");
+    }
+
+    int flags = FrameHeaderFlyweight.encodeFlags(true, true, false, false, hasToken);
+    int offset =
+        FrameHeaderFlyweight.encodeFrameHeader(
+            byteBuf, FrameType.FIRE_AND_FORGET_BATCH, flags, seqId);
+
+    if (hasToken) {
+      byteBuf.setInt(offset, token);
+      offset += TOKEN_SIZE;
+    }
+
+    byteBuf.setLong(offset, fromAccessKey);
+    offset += ACCESS_KEY_SIZE;
+
+    byteBuf.setByte(offset, destinationLength);
+    offset += DESTINATION_LENGTH_SIZE;
+
+    byteBuf.setBytes(offset, destinationBytes);
+    offset += destinationLength;
+
+    int routeLength = route.capacity();
+    byteBuf.setInt(offset, routeLength);
+    offset += ROUTE_LENGTH_SIZE;
+
+    byteBuf.setBytes(offset, route, 0, routeLength);
+    offset += routeLength;
+
+    byteBuf.setInt(offset, count);
+    offset += COUNT_SIZE;
+
+    return offset;
+  }
+
+  public static boolean isBatch(ByteBuf byteBuf) {
+    return byteBuf.capacity() >= FrameHeaderFlyweight.computeFrameHeaderLength()
+        && FrameHeaderFlyweight.frameType(byteBuf) == FrameType.FIRE_AND_FORGET_BATCH;
+  }
+
+  public static int token(ByteBuf byteBuf) {
+    if (!FrameHeaderFlyweight.token(byteBuf)) {
+      throw new IllegalStateException("no token flag set");
+    }
+    return byteBuf.getInt(FrameHeaderFlyweight.computeFrameHeaderLength());
+  }
+
+  public static long accessKey(ByteBuf byteBuf) {
+    return byteBuf.getLong(accessKeyOffset(byteBuf));
+  }
+
+  public static String destination(ByteBuf byteBuf) {
+    int offset = accessKeyOffset(byteBuf) + ACCESS_KEY_SIZE;
+    int length = BitUtil.toUnsignedInt(byteBuf.getByte(offset));
+    offset += DESTINATION_LENGTH_SIZE;
+    return (String) byteBuf.getCharSequence(offset, length, StandardCharsets.US_ASCII);
+  }
+
+  public static ByteBuf route(ByteBuf byteBuf) {
+    int offset = routeLengthOffset(byteBuf);
+    int length = byteBuf.getInt(offset);
+    return byteBuf.slice(offset + ROUTE_LENGTH_SIZE, length);
+  }
+
+  public static int count(ByteBuf byteBuf) {
+    int offset = routeLengthOffset(byteBuf);
+    offset += ROUTE_LENGTH_SIZE + byteBuf.getInt(offset);
+    return byteBuf.getInt(offset);
+  }
+
+  private static int accessKeyOffset(ByteBuf byteBuf) {
+    return FrameHeaderFlyweight.computeFrameHeaderLength()
+        + (FrameHeaderFlyweight.token(byteBuf) ? TOKEN_SIZE : 0);
+  }
+
+  private static int routeLengthOffset(ByteBuf byteBuf) {
+    int offset = accessKeyOffset(byteBuf) + ACCESS_KEY_SIZE;
+    int destinationLength = BitUtil.toUnsignedInt(byteBuf.getByte(offset));
+    return offset + DESTINATION_LENGTH_SIZE + destinationLength;
+  }
+
+  public static int computeEntryLength(int metadataLength, int dataLength) {
+    return ENTRY_LENGTH_SIZE + metadataLength + ENTRY_LENGTH_SIZE + dataLength;
+  }
+
+  /**
+   * Writes one request of the batch at {@code offset} without moving the reader indexes of {@code
+   * metadata} and {@code data}, and returns the offset of the next request.
+   */
+  public static int encodeEntry(ByteBuf byteBuf, int offset, ByteBuf metadata, ByteBuf data) {
+    int metadataLength = metadata.readableBytes();
+    byteBuf.setInt(offset, metadataLength);
+    offset += ENTRY_LENGTH_SIZE;
+    byteBuf.setBytes(offset, metadata, metadata.readerIndex(), metadataLength);
+    offset += metadataLength;
+
+    int dataLength = data.readableBytes();
+    byteBuf.setInt(offset, dataLength);
+    offset += ENTRY_LENGTH_SIZE;
+    byteBuf.setBytes(offset, data, data.readerIndex(), dataLength);
+    offset += dataLength;
+
+    return offset;
+  }
+
+  public static ByteBuf entryMetadata(ByteBuf byteBuf, int offset) {
+    int length = byteBuf.getInt(offset);
+    return byteBuf.slice(offset + ENTRY_LENGTH_SIZE, length);
+  }
+
+  public static ByteBuf entryData(ByteBuf byteBuf, int offset) {
+    offset += ENTRY_LENGTH_SIZE + byteBuf.getInt(offset);
+    int length = byteBuf.getInt(offset);
+    return byteBuf.slice(offset + ENTRY_LENGTH_SIZE, length);
+  }
+
+  /** Returns the offset of the request following the one at {@code offset}. */
+  public static int nextEntry(ByteBuf byteBuf, int offset) {
+    offset += ENTRY_LENGTH_SIZE + byteBuf.getInt(offset);
+    return offset + ENTRY_LENGTH_SIZE + byteBuf.getInt(offset);
+  }
+}
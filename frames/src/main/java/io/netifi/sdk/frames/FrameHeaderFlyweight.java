@@ -7,6 +7,12 @@ public class FrameHeaderFlyweight {
   // Protocol Version
   public static final int MAJOR_VERSION = 0;
   public static final int MINOR_VERSION = 1;
+  /**
+   * Minor version of ROUTE frames whose origin and route are encoded against a per connection
+   * {@link RouteDictionaryEncoder}. A destination advertises that it can send them by setting this
+   * minor version on its DESTINATION_SETUP frame.
+   */
+  public static final int ROUTE_DICTIONARY_MINOR_VERSION = 2;
   // Flag Fields masks
   static final int USER_DATA_PRESENT = 0b1000_0000;
   static final int METADATA_PRESENT = 0b0100_0000;
@@ -70,10 +76,25 @@ public class FrameHeaderFlyweight {
 
   public static int encodeFlags(
       boolean userData, boolean metadata, boolean encrypted, boolean apiCall, boolean token) {
+    return encodeFlags(userData, metadata, encrypted, false, apiCall, token);
+  }
+
+  /**
+   * @param broadcast asks the router to deliver a ROUTE frame to every member of the group in its
+   *     route instead of just one
+   */
+  public static int encodeFlags(
+      boolean userData,
+      boolean metadata,
+      boolean encrypted,
+      boolean broadcast,
+      boolean apiCall,
+      boolean token) {
     int flags =
         (userData ? USER_DATA_PRESENT : 0)
             | (metadata ? METADATA_PRESENT : 0)
             | (encrypted ? ENCRYPTED : 0)
+            | (broadcast ? BROADCAST : 0)
             | (apiCall ? API_CALL : 0)
             | (token ? TOKEN : 0);
 
@@ -13,6 +13,7 @@ public enum FrameType {
   DESTINATION_AVAIL_RESULT(0x08),
   AUTH_REQUEST(0x09),
   AUTH_RESPONSE(0x0A),
+  FIRE_AND_FORGET_BATCH(0x0B),
   EXTENSION_FRAME(0x7F);
 
   private static class Flags {
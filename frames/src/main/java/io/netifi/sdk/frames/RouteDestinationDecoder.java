@@ -0,0 +1,135 @@
+package io.netifi.sdk.frames;
+
+import io.netty.buffer.ByteBuf;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reusable single pass decoder for the route carried in a ROUTE frame, see {@link
+ * RouteDestinationFlyweight}. The route can be decoded in place with {@code
+ * wrap(routing.routeByteBuf(), routing.routeOffset(), routing.routeLength())}, which avoids the
+ * slice {@link RoutingDecoder#route()} allocates.
+ *
+ * <p>A decoder is only valid while the wrapped buffer is unchanged. Instances are not thread safe.
+ */
+public class RouteDestinationDecoder {
+  private static final int ROUTE_TYPE_SIZE = BitUtil.SIZE_OF_BYTE;
+  private static final int ACCOUNT_ID_SIZE = BitUtil.SIZE_OF_LONG;
+  private static final int DESTINATION_LENGTH_SIZE = BitUtil.SIZE_OF_BYTE;
+  private static final int GROUP_LENGTH_SIZE = BitUtil.SIZE_OF_BYTE;
+  private static final int TYPE_MASK = 0b0111_1111;
+
+  private ByteBuf byteBuf;
+  private RouteType routeType;
+  private long accountId;
+  private int destinationOffset;
+  private int destinationLength;
+  private int groupOffset;
+  private int groupLength;
+
+  /** Parses the route between the reader and writer index of {@code byteBuf}. */
+  public RouteDestinationDecoder wrap(ByteBuf byteBuf) {
+    return wrap(byteBuf, byteBuf.readerIndex(), byteBuf.readableBytes());
+  }
+
+  /**
+   * Parses the {@code length} bytes of route starting at {@code offset}.
+   *
+   * @throws IllegalStateException if the bytes do not hold a complete, known route
+   */
+  public RouteDestinationDecoder wrap(ByteBuf byteBuf, int offset, int length) {
+    int limit = offset + length;
+    checkBounds(offset + ROUTE_TYPE_SIZE + ACCOUNT_ID_SIZE, limit);
+
+    int id = byteBuf.getByte(offset) & TYPE_MASK;
+    RouteType routeType = id < RouteType.values().length ? RouteType.from(id) : null;
+    if (routeType == null || routeType == RouteType.UNDEFINED) {
+      throw new IllegalStateException("undefined route type " + id);
+    }
+    offset += ROUTE_TYPE_SIZE;
+
+    long accountId = byteBuf.getLong(offset);
+    offset += ACCOUNT_ID_SIZE;
+
+    int destinationOffset = -1;
+    int destinationLength = 0;
+    if (routeType.hasDestination()) {
+      checkBounds(offset + DESTINATION_LENGTH_SIZE, limit);
+      destinationLength = BitUtil.toUnsignedInt(byteBuf.getByte(offset));
+      offset += DESTINATION_LENGTH_SIZE;
+      destinationOffset = offset;
+      offset += destinationLength;
+    }
+
+    checkBounds(offset + GROUP_LENGTH_SIZE, limit);
+    int groupLength = BitUtil.toUnsignedInt(byteBuf.getByte(offset));
+    offset += GROUP_LENGTH_SIZE;
+    int groupOffset = offset;
+    checkBounds(offset + groupLength, limit);
+
+    this.byteBuf = byteBuf;
+    this.routeType = routeType;
+    this.accountId = accountId;
+    this.destinationOffset = destinationOffset;
+    this.destinationLength = destinationLength;
+    this.groupOffset = groupOffset;
+    this.groupLength = groupLength;
+
+    return this;
+  }
+
+  private static void checkBounds(int offset, int limit) {
+    if (offset > limit) {
+      throw new IllegalStateException("truncated route");
+    }
+  }
+
+  public RouteType routeType() {
+    return routeType;
+  }
+
+  public long accountId() {
+    return accountId;
+  }
+
+  public boolean hasDestination() {
+    return destinationOffset >= 0;
+  }
+
+  public String destination() {
+    checkDestination();
+    return (String)
+        byteBuf.getCharSequence(destinationOffset, destinationLength, StandardCharsets.US_ASCII);
+  }
+
+  /** Wraps the destination in {@code view} instead of allocating a String. */
+  public AsciiSequence destination(AsciiSequence view) {
+    checkDestination();
+    return view.wrap(byteBuf, destinationOffset, destinationLength);
+  }
+
+  /** Returns the destination from {@code interner}, only allocating the first time it is seen. */
+  public String destination(AsciiInterner interner) {
+    checkDestination();
+    return interner.intern(byteBuf, destinationOffset, destinationLength);
+  }
+
+  private void checkDestination() {
+    if (!hasDestination()) {
+      throw new IllegalStateException(routeType + " has no destination");
+    }
+  }
+
+  public String group() {
+    return (String) byteBuf.getCharSequence(groupOffset, groupLength, StandardCharsets.US_ASCII);
+  }
+
+  /** Wraps the group in {@code view} instead of allocating a String. */
+  public AsciiSequence group(AsciiSequence view) {
+    return view.wrap(byteBuf, groupOffset, groupLength);
+  }
+
+  /** Returns the group from {@code interner}, only allocating the first time it is seen. */
+  public String group(AsciiInterner interner) {
+    return interner.intern(byteBuf, groupOffset, groupLength);
+  }
+}
@@ -27,12 +27,48 @@ public class RouteDestinationFlyweight {
     return (String) byteBuf.getCharSequence(offset, length, StandardCharsets.US_ASCII);
   }
 
+  /** Wraps the destination in {@code view} instead of allocating a String. */
+  public static AsciiSequence destination(ByteBuf byteBuf, AsciiSequence view) {
+    int offset = ROUTE_TYPE_SIZE + ACCOUNT_ID_SIZE;
+    int length = BitUtil.toUnsignedInt(byteBuf.getByte(offset));
+    return view.wrap(byteBuf, offset + DESTINATION_LENGTH_SIZE, length);
+  }
+
+  /** Returns the destination from {@code interner}, only allocating the first time it is seen. */
+  public static String destination(ByteBuf byteBuf, AsciiInterner interner) {
+    int offset = ROUTE_TYPE_SIZE + ACCOUNT_ID_SIZE;
+    int length = BitUtil.toUnsignedInt(byteBuf.getByte(offset));
+    return interner.intern(byteBuf, offset + DESTINATION_LENGTH_SIZE, length);
+  }
+
   public static RouteType routeType(ByteBuf byteBuf) {
     int id = byteBuf.getByte(0) & REMOVE_FLAG;
     return RouteType.from(id);
   }
 
   public static String group(ByteBuf byteBuf) {
+    int offset = groupOffset(byteBuf);
+    int length = BitUtil.toUnsignedInt(byteBuf.getByte(offset));
+    offset += GROUP_LENGTH_SIZE;
+
+    return (String) byteBuf.getCharSequence(offset, length, StandardCharsets.US_ASCII);
+  }
+
+  /** Wraps the group in {@code view} instead of allocating a String. */
+  public static AsciiSequence group(ByteBuf byteBuf, AsciiSequence view) {
+    int offset = groupOffset(byteBuf);
+    int length = BitUtil.toUnsignedInt(byteBuf.getByte(offset));
+    return view.wrap(byteBuf, offset + GROUP_LENGTH_SIZE, length);
+  }
+
+  /** Returns the group from {@code interner}, only allocating the first time it is seen. */
+  public static String group(ByteBuf byteBuf, AsciiInterner interner) {
+    int offset = groupOffset(byteBuf);
+    int length = BitUtil.toUnsignedInt(byteBuf.getByte(offset));
+    return interner.intern(byteBuf, offset + GROUP_LENGTH_SIZE, length);
+  }
+
+  private static int groupOffset(ByteBuf byteBuf) {
     int offset = ROUTE_TYPE_SIZE + ACCOUNT_ID_SIZE;
 
     if (routeType(byteBuf).hasDestination()) {
@@ -40,10 +76,7 @@ public class RouteDestinationFlyweight {
       offset += DESTINATION_LENGTH_SIZE + destinationLength;
     }
 
-    int length = BitUtil.toUnsignedInt(byteBuf.getByte(offset));
-    offset += GROUP_LENGTH_SIZE;
-
-    return (String) byteBuf.getCharSequence(offset, length, StandardCharsets.US_ASCII);
+    return offset;
   }
 
   public static int computeLength(RouteType routeType, String group) {
@@ -0,0 +1,60 @@
+package io.netifi.sdk.frames;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.util.Arrays;
+
+/**
+ * Receiving side of the route dictionary of one connection, see {@link RouteDictionaryEncoder}.
+ * Pass it to {@link RoutingDecoder#RoutingDecoder(RouteDictionaryDecoder)} to decode ROUTE frames
+ * with minor version {@link FrameHeaderFlyweight#ROUTE_DICTIONARY_MINOR_VERSION}; literals with an
+ * id are stored as the frames are decoded.
+ *
+ * <p>Instances are not thread safe; frames of one connection must be decoded one at a time.
+ */
+public class RouteDictionaryDecoder {
+  private static final ByteBuf[] EMPTY = new ByteBuf[0];
+
+  private ByteBuf[] entries = EMPTY;
+  private int size;
+
+  /** Stores a copy of {@code length} bytes at {@code offset} under {@code id}. */
+  void put(int id, ByteBuf byteBuf, int offset, int length) {
+    if (id <= 0 || id > RouteDictionaryEncoder.MAX_ID) {
+      throw new IllegalStateException("invalid route dictionary id " + id);
+    }
+
+    if (id >= entries.length) {
+      int capacity = Math.max(16, entries.length);
+      while (capacity <= id) {
+        capacity <<= 1;
+      }
+      entries = Arrays.copyOf(entries, capacity);
+    }
+
+    if (entries[id] == null) {
+      size++;
+    }
+
+    byte[] value = new byte[length];
+    byteBuf.getBytes(offset, value);
+    entries[id] = Unpooled.wrappedBuffer(value);
+  }
+
+  /**
+   * Returns the value stored under {@code id}.
+   *
+   * @throws IllegalStateException if no frame stored a value under the id
+   */
+  public ByteBuf get(int id) {
+    ByteBuf value = id > 0 && id < entries.length ? entries[id] : null;
+    if (value == null) {
+      throw new IllegalStateException("unknown route dictionary id " + id);
+    }
+    return value;
+  }
+
+  public int size() {
+    return size;
+  }
+}
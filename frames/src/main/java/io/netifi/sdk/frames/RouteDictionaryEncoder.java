@@ -0,0 +1,89 @@
+package io.netifi.sdk.frames;
+
+import io.netty.buffer.ByteBuf;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sending side of the route dictionary of one connection, in the spirit of HPACK. The first use of
+ * an origin or route assigns it an id and sends it as a literal that the receiver stores; once the
+ * value is {@link #acknowledge(byte[]) acknowledged}, frames only carry its 2 byte id.
+ *
+ * <p>Frames on different streams may be written to the connection in a different order than they
+ * were encoded, so a reference is only safe once the receiver is known to have processed a frame
+ * carrying the literal. Until then every frame repeats the literal with its id. Callers
+ * acknowledge a value when a response arrives for a request that carried it. After {@value
+ * #MAX_ID} values the dictionary is full and new values are sent as literals without an id.
+ *
+ * <p>A dictionary must not be shared between connections. Instances are thread safe.
+ */
+public class RouteDictionaryEncoder {
+  public static final int MAX_ID = RouteDictionaryEntry.ID_MASK;
+  private static final int MAX_VALUE_LENGTH = 0xFFFF;
+
+  private final ConcurrentMap<ByteBuffer, RouteDictionaryEntry> entries =
+      new ConcurrentHashMap<ByteBuffer, RouteDictionaryEntry>();
+  private final AtomicInteger lastId = new AtomicInteger();
+
+  /** Returns the entry to encode for an origin destination. */
+  public RouteDictionaryEntry origin(String origin) {
+    byte[] bytes = origin.getBytes(StandardCharsets.US_ASCII);
+    if (bytes.length > 255) {
+      throw new IllegalArgumentException("destination is longer then 255 characters");
+    }
+    return entry(bytes);
+  }
+
+  /** Returns the entry to encode for a route encoded with {@link RouteDestinationFlyweight}. */
+  public RouteDictionaryEntry route(ByteBuf route) {
+    byte[] bytes = new byte[route.capacity()];
+    route.getBytes(0, bytes);
+    return entry(bytes);
+  }
+
+  /** Returns the entry to encode for {@code value}, assigning it an id on first use. */
+  public RouteDictionaryEntry entry(byte[] value) {
+    if (value.length > MAX_VALUE_LENGTH) {
+      throw new IllegalArgumentException("value is longer then " + MAX_VALUE_LENGTH + " bytes");
+    }
+
+    ByteBuffer key = ByteBuffer.wrap(value);
+    RouteDictionaryEntry entry = entries.get(key);
+    if (entry != null) {
+      return entry;
+    }
+
+    if (lastId.get() >= MAX_ID) {
+      return RouteDictionaryEntry.notIndexed(value);
+    }
+
+    int id = lastId.incrementAndGet();
+    if (id > MAX_ID) {
+      return RouteDictionaryEntry.notIndexed(value);
+    }
+
+    // a racing thread may have added the value first, in which case this id is left unused
+    RouteDictionaryEntry insert = RouteDictionaryEntry.insert(id, value.clone());
+    RouteDictionaryEntry previous = entries.putIfAbsent(ByteBuffer.wrap(insert.value()), insert);
+    return previous != null ? previous : insert;
+  }
+
+  /**
+   * Marks {@code value} as known to the receiver, so later frames refer to it by id. Only call this
+   * after the receiver has processed a frame that carried the value.
+   */
+  public void acknowledge(byte[] value) {
+    ByteBuffer key = ByteBuffer.wrap(value);
+    RouteDictionaryEntry entry = entries.get(key);
+    if (entry != null && entry.isLiteral()) {
+      entries.replace(key, entry, entry.toReference());
+    }
+  }
+
+  public int size() {
+    return entries.size();
+  }
+}
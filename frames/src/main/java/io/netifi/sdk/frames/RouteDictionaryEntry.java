@@ -0,0 +1,81 @@
+package io.netifi.sdk.frames;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * One origin or route field of a ROUTE frame encoded against a route dictionary. On the wire an
+ * entry starts with an unsigned 16 bit header: the high bit marks a literal, and the low 15 bits
+ * hold the dictionary id, where 0 means not indexed. A literal is followed by an unsigned 16 bit
+ * length and the value.
+ *
+ * <ul>
+ *   <li>literal with an id: the receiver stores the value under the id, then uses it
+ *   <li>literal without an id: the value is used once and not stored
+ *   <li>id without a literal: a reference to a value stored by an earlier frame
+ * </ul>
+ *
+ * <p>Entries are immutable, so the length computed for a frame always matches what is encoded.
+ */
+public final class RouteDictionaryEntry {
+  static final int HEADER_SIZE = BitUtil.SIZE_OF_SHORT;
+  static final int LENGTH_SIZE = BitUtil.SIZE_OF_SHORT;
+  static final int LITERAL = 0x8000;
+  static final int ID_MASK = 0x7FFF;
+
+  private final int id;
+  private final byte[] value;
+  private final boolean literal;
+
+  private RouteDictionaryEntry(int id, byte[] value, boolean literal) {
+    this.id = id;
+    this.value = value;
+    this.literal = literal;
+  }
+
+  static RouteDictionaryEntry insert(int id, byte[] value) {
+    return new RouteDictionaryEntry(id, value, true);
+  }
+
+  static RouteDictionaryEntry notIndexed(byte[] value) {
+    return new RouteDictionaryEntry(0, value, true);
+  }
+
+  RouteDictionaryEntry toReference() {
+    return new RouteDictionaryEntry(id, value, false);
+  }
+
+  public int id() {
+    return id;
+  }
+
+  public boolean isLiteral() {
+    return literal;
+  }
+
+  public boolean isIndexed() {
+    return id != 0;
+  }
+
+  byte[] value() {
+    return value;
+  }
+
+  public int computeLength() {
+    return HEADER_SIZE + (literal ? LENGTH_SIZE + value.length : 0);
+  }
+
+  public int encode(ByteBuf byteBuf, int offset) {
+    byteBuf.setShort(offset, (literal ? LITERAL : 0) | id);
+    offset += HEADER_SIZE;
+
+    if (literal) {
+      byteBuf.setShort(offset, value.length);
+      offset += LENGTH_SIZE;
+
+      byteBuf.setBytes(offset, value);
+      offset += value.length;
+    }
+
+    return offset;
+  }
+}
@@ -0,0 +1,295 @@
+package io.netifi.sdk.frames;
+
+import io.netty.buffer.ByteBuf;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reusable single pass decoder for ROUTE frames. {@link #wrap(ByteBuf)} reads the header flags and
+ * every length prefix once, checks them against {@link ByteBuf#readableBytes()} and records the
+ * field offsets, so the getters are O(1) and never re-parse the frame prefix the way the static
+ * accessors on {@link RoutingFlyweight} do.
+ *
+ * <p>Frames with minor version {@link FrameHeaderFlyweight#ROUTE_DICTIONARY_MINOR_VERSION} can
+ * only be decoded by a decoder created with the connection's {@link RouteDictionaryDecoder}, and
+ * must then be wrapped in the order they arrived. The origin and route may live in the dictionary
+ * rather than the frame, so use {@link #routeByteBuf()} with the route offset and length.
+ *
+ * <p>The frame starts at the buffer's reader index. A decoder is only valid while the wrapped
+ * buffer is unchanged. Instances are not thread safe; keep one per thread or per connection.
+ */
+public class RoutingDecoder {
+  private static final int ACCESS_KEY_SIZE = BitUtil.SIZE_OF_LONG;
+  private static final int ROUTE_LENGTH_SIZE = BitUtil.SIZE_OF_INT;
+  private static final int DESTINATION_LENGTH_SIZE = BitUtil.SIZE_OF_BYTE;
+  private static final int WRAPPED_METADATA_LENGTH_SIZE = BitUtil.SIZE_OF_INT;
+  private static final int TOKEN_SIZE = BitUtil.SIZE_OF_INT;
+
+  private final RouteDictionaryDecoder dictionary;
+
+  private ByteBuf byteBuf;
+  private int flags;
+  private int minorVersion;
+  private long seqId;
+  private int token;
+  private long accessKey;
+  private ByteBuf destinationByteBuf;
+  private int destinationOffset;
+  private int destinationLength;
+  private ByteBuf routeByteBuf;
+  private int routeOffset;
+  private int routeLength;
+  private int wrappedMetadataOffset;
+  private int wrappedMetadataLength;
+
+  // location of the value of the last entry read by decodeEntry, and the id to store it under
+  private ByteBuf entryByteBuf;
+  private int entryOffset;
+  private int entryLength;
+  private int entryId;
+
+  /** Creates a decoder for frames that do not use a route dictionary. */
+  public RoutingDecoder() {
+    this(null);
+  }
+
+  public RoutingDecoder(RouteDictionaryDecoder dictionary) {
+    this.dictionary = dictionary;
+  }
+
+  /**
+   * Parses the ROUTE frame in {@code byteBuf}. The frame is checked in full before the decoder, or
+   * its route dictionary, is updated, so a decoder that fails to wrap a frame still describes the
+   * previous one.
+   *
+   * @throws IllegalStateException if the buffer does not hold a complete ROUTE frame, or it refers
+   *     to a route dictionary entry this decoder does not know
+   */
+  public RoutingDecoder wrap(ByteBuf byteBuf) {
+    int start = byteBuf.readerIndex();
+    int limit = start + byteBuf.readableBytes();
+    int offset = start + FrameHeaderFlyweight.computeFrameHeaderLength();
+    checkBounds(offset, limit);
+
+    int header = byteBuf.getInt(start);
+    int frameType = header >>> 24 & 0x7F;
+    if (frameType != FrameType.ROUTE.getEncodedType()) {
+      throw new IllegalStateException("expected a ROUTE frame but found type " + frameType);
+    }
+
+    int flags = header >>> 16 & 0xFF;
+    long seqId = byteBuf.getLong(start + BitUtil.SIZE_OF_INT);
+
+    int token = 0;
+    if ((flags & FrameHeaderFlyweight.TOKEN) != 0) {
+      checkBounds(offset + TOKEN_SIZE, limit);
+      token = byteBuf.getInt(offset);
+      offset += TOKEN_SIZE;
+    }
+
+    checkBounds(offset + ACCESS_KEY_SIZE, limit);
+    long accessKey = byteBuf.getLong(offset);
+    offset += ACCESS_KEY_SIZE;
+
+    ByteBuf destinationByteBuf;
+    int destinationOffset;
+    int destinationLength;
+    int destinationId = 0;
+    ByteBuf routeByteBuf;
+    int routeOffset;
+    int routeLength;
+    int routeId = 0;
+    if ((header & 0xFF) == FrameHeaderFlyweight.ROUTE_DICTIONARY_MINOR_VERSION) {
+      if (dictionary == null) {
+        throw new IllegalStateException("ROUTE frame uses a route dictionary");
+      }
+      offset = decodeEntry(byteBuf, offset, limit);
+      destinationByteBuf = entryByteBuf;
+      destinationOffset = entryOffset;
+      destinationLength = entryLength;
+      destinationId = entryId;
+
+      offset = decodeEntry(byteBuf, offset, limit);
+      routeByteBuf = entryByteBuf;
+      routeOffset = entryOffset;
+      routeLength = entryLength;
+      routeId = entryId;
+      this.entryByteBuf = null;
+    } else {
+      checkBounds(offset + DESTINATION_LENGTH_SIZE, limit);
+      destinationLength = BitUtil.toUnsignedInt(byteBuf.getByte(offset));
+      offset += DESTINATION_LENGTH_SIZE;
+      destinationByteBuf = byteBuf;
+      destinationOffset = offset;
+      offset = checkLength(offset, destinationLength, limit);
+
+      checkBounds(offset + ROUTE_LENGTH_SIZE, limit);
+      routeLength = byteBuf.getInt(offset);
+      offset += ROUTE_LENGTH_SIZE;
+      routeByteBuf = byteBuf;
+      routeOffset = offset;
+      offset = checkLength(offset, routeLength, limit);
+    }
+
+    int wrappedMetadataOffset = -1;
+    int wrappedMetadataLength = 0;
+    if ((flags & FrameHeaderFlyweight.METADATA_PRESENT) != 0) {
+      checkBounds(offset + WRAPPED_METADATA_LENGTH_SIZE, limit);
+      wrappedMetadataLength = byteBuf.getInt(offset);
+      offset += WRAPPED_METADATA_LENGTH_SIZE;
+      wrappedMetadataOffset = offset;
+      checkLength(offset, wrappedMetadataLength, limit);
+    }
+
+    // the frame is valid, only now store its literals and describe it
+    if (destinationId != 0) {
+      dictionary.put(destinationId, destinationByteBuf, destinationOffset, destinationLength);
+    }
+    if (routeId != 0) {
+      dictionary.put(routeId, routeByteBuf, routeOffset, routeLength);
+    }
+
+    this.byteBuf = byteBuf;
+    this.flags = flags;
+    this.minorVersion = header & 0xFF;
+    this.seqId = seqId;
+    this.token = token;
+    this.accessKey = accessKey;
+    this.destinationByteBuf = destinationByteBuf;
+    this.destinationOffset = destinationOffset;
+    this.destinationLength = destinationLength;
+    this.routeByteBuf = routeByteBuf;
+    this.routeOffset = routeOffset;
+    this.routeLength = routeLength;
+    this.wrappedMetadataOffset = wrappedMetadataOffset;
+    this.wrappedMetadataLength = wrappedMetadataLength;
+
+    return this;
+  }
+
+  /**
+   * Decodes one route dictionary entry, and leaves the location of its value, and for a literal
+   * that carries an id the id to store it under, in the entry fields.
+   */
+  private int decodeEntry(ByteBuf byteBuf, int offset, int limit) {
+    checkBounds(offset + RouteDictionaryEntry.HEADER_SIZE, limit);
+    int header = byteBuf.getUnsignedShort(offset);
+    offset += RouteDictionaryEntry.HEADER_SIZE;
+    int id = header & RouteDictionaryEntry.ID_MASK;
+
+    if ((header & RouteDictionaryEntry.LITERAL) != 0) {
+      checkBounds(offset + RouteDictionaryEntry.LENGTH_SIZE, limit);
+      int length = byteBuf.getUnsignedShort(offset);
+      offset += RouteDictionaryEntry.LENGTH_SIZE;
+      checkLength(offset, length, limit);
+
+      entryByteBuf = byteBuf;
+      entryOffset = offset;
+      entryLength = length;
+      entryId = id;
+      return offset + length;
+    }
+
+    ByteBuf value = dictionary.get(id);
+    entryByteBuf = value;
+    entryOffset = 0;
+    entryLength = value.capacity();
+    entryId = 0;
+    return offset;
+  }
+
+  private static void checkBounds(int offset, int limit) {
+    if (offset > limit) {
+      throw new IllegalStateException("truncated ROUTE frame");
+    }
+  }
+
+  private static int checkLength(int offset, int length, int limit) {
+    if (length < 0 || length > limit - offset) {
+      throw new IllegalStateException("invalid field length " + length + " in ROUTE frame");
+    }
+    return offset + length;
+  }
+
+  public ByteBuf byteBuf() {
+    return byteBuf;
+  }
+
+  public int flags() {
+    return flags;
+  }
+
+  public int minorVersion() {
+    return minorVersion;
+  }
+
+  public long seqId() {
+    return seqId;
+  }
+
+  public boolean hasToken() {
+    return (flags & FrameHeaderFlyweight.TOKEN) != 0;
+  }
+
+  public int token() {
+    if (!hasToken()) {
+      throw new IllegalStateException("no token flag set");
+    }
+    return token;
+  }
+
+  public long accessKey() {
+    return accessKey;
+  }
+
+  public String destination() {
+    return (String)
+        destinationByteBuf.getCharSequence(
+            destinationOffset, destinationLength, StandardCharsets.US_ASCII);
+  }
+
+  /** Wraps the destination in {@code view} instead of allocating a String. */
+  public AsciiSequence destination(AsciiSequence view) {
+    return view.wrap(destinationByteBuf, destinationOffset, destinationLength);
+  }
+
+  /** Returns the destination from {@code interner}, only allocating the first time it is seen. */
+  public String destination(AsciiInterner interner) {
+    return interner.intern(destinationByteBuf, destinationOffset, destinationLength);
+  }
+
+  /** Buffer holding the route: the frame itself, or a route dictionary entry. */
+  public ByteBuf routeByteBuf() {
+    return routeByteBuf;
+  }
+
+  public int routeOffset() {
+    return routeOffset;
+  }
+
+  public int routeLength() {
+    return routeLength;
+  }
+
+  public ByteBuf route() {
+    return routeByteBuf.slice(routeOffset, routeLength);
+  }
+
+  public boolean hasWrappedMetadata() {
+    return wrappedMetadataOffset >= 0;
+  }
+
+  public int wrappedMetadataOffset() {
+    return wrappedMetadataOffset;
+  }
+
+  public int wrappedMetadataLength() {
+    return wrappedMetadataLength;
+  }
+
+  public ByteBuf wrappedMetadata() {
+    if (!hasWrappedMetadata()) {
+      throw new IllegalStateException("request has no meta data");
+    }
+    return byteBuf.slice(wrappedMetadataOffset, wrappedMetadataLength);
+  }
+}
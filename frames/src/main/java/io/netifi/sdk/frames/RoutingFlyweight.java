@@ -50,6 +50,25 @@ public class RoutingFlyweight {
     return length;
   }
 
+  /**
+   * Length of a ROUTE frame with minor version {@link
+   * FrameHeaderFlyweight#ROUTE_DICTIONARY_MINOR_VERSION}, see {@link #encode(ByteBuf, boolean, int,
+   * long, RouteDictionaryEntry, long, RouteDictionaryEntry, ByteBuf)}.
+   */
+  public static int computeLength(
+      boolean token,
+      RouteDictionaryEntry fromDestination,
+      RouteDictionaryEntry route,
+      ByteBuf wrappedMetadata) {
+    return FrameHeaderFlyweight.computeFrameHeaderLength()
+        + (token ? TOKEN_SIZE : 0)
+        + ACCESS_KEY_SIZE
+        + fromDestination.computeLength()
+        + route.computeLength()
+        + WRAPPED_METADATA_LENGTH_SIZE
+        + wrappedMetadata.capacity();
+  }
+
   public static int encode(
       ByteBuf byteBuf,
       boolean hasToken,
@@ -134,20 +153,80 @@ public class RoutingFlyweight {
     byteBuf.setInt(offset, routeLength);
     offset += ROUTE_LENGTH_SIZE;
 
-    byteBuf.setBytes(offset, route);
+    byteBuf.setBytes(offset, route, 0, routeLength);
     offset += routeLength;
 
     if (hasMetadata) {
       byteBuf.setInt(offset, wrappedMetadataLength);
       offset += WRAPPED_METADATA_LENGTH_SIZE;
 
-      byteBuf.setBytes(offset, wrappedMetadata);
+      byteBuf.setBytes(offset, wrappedMetadata, 0, wrappedMetadataLength);
       offset += wrappedMetadataLength;
     }
 
     return offset;
   }
 
+  /**
+   * Encodes a ROUTE frame with minor version {@link
+   * FrameHeaderFlyweight#ROUTE_DICTIONARY_MINOR_VERSION}, where the origin destination and the
+   * route are dictionary entries instead of length prefixed values. The rest of the frame is
+   * unchanged.
+   */
+  public static int encode(
+      ByteBuf byteBuf,
+      boolean hasToken,
+      int token,
+      long fromAccessKey,
+      RouteDictionaryEntry fromDestination,
+      long seqId,
+      RouteDictionaryEntry route,
+      ByteBuf wrappedMetadata) {
+    int flags = FrameHeaderFlyweight.encodeFlags(true, true, false, false, hasToken);
+
+    int offset =
+        FrameHeaderFlyweight.encodeFrameHeader(
+            byteBuf,
+            FrameType.ROUTE,
+            flags,
+            FrameHeaderFlyweight.MAJOR_VERSION,
+            FrameHeaderFlyweight.ROUTE_DICTIONARY_MINOR_VERSION,
+            seqId);
+
+    if (hasToken) {
+      byteBuf.setInt(offset, token);
+      offset += TOKEN_SIZE;
+    }
+
+    byteBuf.setLong(offset, fromAccessKey);
+    offset += ACCESS_KEY_SIZE;
+
+    offset = fromDestination.encode(byteBuf, offset);
+    offset = route.encode(byteBuf, offset);
+
+    int wrappedMetadataLength = wrappedMetadata.capacity();
+    byteBuf.setInt(offset, wrappedMetadataLength);
+    offset += WRAPPED_METADATA_LENGTH_SIZE;
+
+    byteBuf.setBytes(offset, wrappedMetadata, 0, wrappedMetadataLength);
+    offset += wrappedMetadataLength;
+
+    return offset;
+  }
+
+  /** True if the frame's origin and route are encoded against a route dictionary. */
+  public static boolean usesRouteDictionary(ByteBuf byteBuf) {
+    return FrameHeaderFlyweight.minorVersion(byteBuf)
+        == FrameHeaderFlyweight.ROUTE_DICTIONARY_MINOR_VERSION;
+  }
+
+  private static void checkNoRouteDictionary(ByteBuf byteBuf) {
+    if (usesRouteDictionary(byteBuf)) {
+      throw new IllegalStateException(
+          "frame uses a route dictionary, decode it with a RoutingDecoder");
+    }
+  }
+
   public static int token(ByteBuf byteBuf) {
     if (FrameHeaderFlyweight.token(byteBuf)) {
       int offset = FrameHeaderFlyweight.computeFrameHeaderLength();
@@ -166,20 +245,35 @@ public class RoutingFlyweight {
   }
 
   public static String destination(ByteBuf byteBuf) {
-    int offset =
-        FrameHeaderFlyweight.computeFrameHeaderLength()
-            + (FrameHeaderFlyweight.token(byteBuf) ? TOKEN_SIZE : 0)
-            + ACCESS_KEY_SIZE;
+    int offset = destinationOffset(byteBuf);
     int length = BitUtil.toUnsignedInt(byteBuf.getByte(offset));
     offset += DESTINATION_LENGTH_SIZE;
     return (String) byteBuf.getCharSequence(offset, length, StandardCharsets.US_ASCII);
   }
 
+  /** Wraps the destination in {@code view} instead of allocating a String. */
+  public static AsciiSequence destination(ByteBuf byteBuf, AsciiSequence view) {
+    int offset = destinationOffset(byteBuf);
+    int length = BitUtil.toUnsignedInt(byteBuf.getByte(offset));
+    return view.wrap(byteBuf, offset + DESTINATION_LENGTH_SIZE, length);
+  }
+
+  /** Returns the destination from {@code interner}, only allocating the first time it is seen. */
+  public static String destination(ByteBuf byteBuf, AsciiInterner interner) {
+    int offset = destinationOffset(byteBuf);
+    int length = BitUtil.toUnsignedInt(byteBuf.getByte(offset));
+    return interner.intern(byteBuf, offset + DESTINATION_LENGTH_SIZE, length);
+  }
+
+  private static int destinationOffset(ByteBuf byteBuf) {
+    checkNoRouteDictionary(byteBuf);
+    return FrameHeaderFlyweight.computeFrameHeaderLength()
+        + (FrameHeaderFlyweight.token(byteBuf) ? TOKEN_SIZE : 0)
+        + ACCESS_KEY_SIZE;
+  }
+
   public static ByteBuf route(ByteBuf byteBuf) {
-    int offset =
-        FrameHeaderFlyweight.computeFrameHeaderLength()
-            + (FrameHeaderFlyweight.token(byteBuf) ? TOKEN_SIZE : 0)
-            + ACCESS_KEY_SIZE;
+    int offset = destinationOffset(byteBuf);
     int destinationLength = BitUtil.toUnsignedInt(byteBuf.getByte(offset));
     offset += DESTINATION_LENGTH_SIZE + destinationLength;
 
@@ -198,15 +292,32 @@ public class RoutingFlyweight {
         FrameHeaderFlyweight.computeFrameHeaderLength()
             + (FrameHeaderFlyweight.token(byteBuf) ? TOKEN_SIZE : 0)
             + ACCESS_KEY_SIZE;
-    int destinationLength = BitUtil.toUnsignedInt(byteBuf.getByte(offset));
-    offset += DESTINATION_LENGTH_SIZE + destinationLength;
 
-    int routeLength = byteBuf.getInt(offset);
-    offset += ROUTE_LENGTH_SIZE + routeLength;
+    if (usesRouteDictionary(byteBuf)) {
+      offset = skipDictionaryEntry(byteBuf, offset);
+      offset = skipDictionaryEntry(byteBuf, offset);
+    } else {
+      int destinationLength = BitUtil.toUnsignedInt(byteBuf.getByte(offset));
+      offset += DESTINATION_LENGTH_SIZE + destinationLength;
+
+      int routeLength = byteBuf.getInt(offset);
+      offset += ROUTE_LENGTH_SIZE + routeLength;
+    }
 
     int length = byteBuf.getInt(offset);
     offset += WRAPPED_METADATA_LENGTH_SIZE;
 
     return byteBuf.slice(offset, length);
   }
+
+  private static int skipDictionaryEntry(ByteBuf byteBuf, int offset) {
+    int header = byteBuf.getUnsignedShort(offset);
+    offset += RouteDictionaryEntry.HEADER_SIZE;
+
+    if ((header & RouteDictionaryEntry.LITERAL) != 0) {
+      offset += RouteDictionaryEntry.LENGTH_SIZE + byteBuf.getUnsignedShort(offset);
+    }
+
+    return offset;
+  }
 }
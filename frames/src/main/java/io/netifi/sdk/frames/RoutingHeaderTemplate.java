@@ -0,0 +1,150 @@
+package io.netifi.sdk.frames;
+
+import io.netty.buffer.ByteBuf;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Pre-encoded {@link FrameType#ROUTE} header for a fixed access key, origin destination and route.
+ * The invariant part of the frame is encoded once when the template is created, so encoding a
+ * request only writes the frame header, the token, and the wrapped metadata. Apart from the
+ * {@code BROADCAST} flag, the bytes produced are identical to {@link RoutingFlyweight#encode}.
+ */
+public class RoutingHeaderTemplate {
+  private static final int TOKEN_SIZE = BitUtil.SIZE_OF_INT;
+  private static final int ACCESS_KEY_SIZE = BitUtil.SIZE_OF_LONG;
+  private static final int ROUTE_LENGTH_SIZE = BitUtil.SIZE_OF_INT;
+  private static final int DESTINATION_LENGTH_SIZE = BitUtil.SIZE_OF_BYTE;
+  private static final int WRAPPED_METADATA_LENGTH_SIZE = BitUtil.SIZE_OF_INT;
+
+  private final boolean hasToken;
+  private final int headerWithMetadata;
+  private final int headerWithoutMetadata;
+  private final byte[] invariant;
+  private final int prefixLength;
+
+  public RoutingHeaderTemplate(
+      boolean hasToken, long fromAccessKey, String fromDestination, ByteBuf route) {
+    this(hasToken, false, fromAccessKey, fromDestination, route);
+  }
+
+  /**
+   * @param broadcast sets the {@code BROADCAST} flag on every frame, so the router delivers it to
+   *     all members of the route's group
+   */
+  public RoutingHeaderTemplate(
+      boolean hasToken,
+      boolean broadcast,
+      long fromAccessKey,
+      String fromDestination,
+      ByteBuf route) {
+    Objects.requireNonNull(fromDestination, "fromDestination must not be null");
+    Objects.requireNonNull(route, "routes must not be null");
+
+    byte[] destinationBytes = fromDestination.getBytes(StandardCharsets.US_ASCII);
+    int destinationLength = destinationBytes.length;
+    if (destinationLength > 255) {
+      throw new IllegalArgumentException("destination is longer then 255 characters");
+    }
+
+    int routeLength = route.capacity();
+
+    this.hasToken = hasToken;
+    this.headerWithMetadata = header(hasToken, broadcast, true);
+    this.headerWithoutMetadata = header(hasToken, broadcast, false);
+    this.invariant =
+        new byte
+            [ACCESS_KEY_SIZE
+                + DESTINATION_LENGTH_SIZE
+                + destinationLength
+                + ROUTE_LENGTH_SIZE
+                + routeLength];
+
+    int offset = 0;
+    putLong(invariant, offset, fromAccessKey);
+    offset += ACCESS_KEY_SIZE;
+
+    invariant[offset] = (byte) destinationLength;
+    offset += DESTINATION_LENGTH_SIZE;
+
+    System.arraycopy(destinationBytes, 0, invariant, offset, destinationLength);
+    offset += destinationLength;
+
+    putInt(invariant, offset, routeLength);
+    offset += ROUTE_LENGTH_SIZE;
+
+    // absolute read so the caller's route reader index is left untouched
+    route.getBytes(0, invariant, offset, routeLength);
+
+    this.prefixLength =
+        FrameHeaderFlyweight.computeFrameHeaderLength()
+            + (hasToken ? TOKEN_SIZE : 0)
+            + invariant.length;
+  }
+
+  private static int header(boolean hasToken, boolean broadcast, boolean hasMetadata) {
+    int flags =
+        FrameHeaderFlyweight.encodeFlags(true, hasMetadata, false, broadcast, false, hasToken);
+    return (FrameType.ROUTE.getEncodedType() << 24)
+        | (flags << 16)
+        | (FrameHeaderFlyweight.MAJOR_VERSION << 8)
+        | FrameHeaderFlyweight.MINOR_VERSION;
+  }
+
+  private static void putLong(byte[] bytes, int offset, long value) {
+    putInt(bytes, offset, (int) (value >>> 32));
+    putInt(bytes, offset + BitUtil.SIZE_OF_INT, (int) value);
+  }
+
+  private static void putInt(byte[] bytes, int offset, int value) {
+    bytes[offset] = (byte) (value >>> 24);
+    bytes[offset + 1] = (byte) (value >>> 16);
+    bytes[offset + 2] = (byte) (value >>> 8);
+    bytes[offset + 3] = (byte) value;
+  }
+
+  public boolean hasToken() {
+    return hasToken;
+  }
+
+  public int computeLength() {
+    return prefixLength;
+  }
+
+  public int computeLength(ByteBuf wrappedMetadata) {
+    return prefixLength + WRAPPED_METADATA_LENGTH_SIZE + wrappedMetadata.capacity();
+  }
+
+  public int encode(ByteBuf byteBuf, int token, long seqId) {
+    return encodePrefix(byteBuf, headerWithoutMetadata, token, seqId);
+  }
+
+  public int encode(ByteBuf byteBuf, int token, long seqId, ByteBuf wrappedMetadata) {
+    int offset = encodePrefix(byteBuf, headerWithMetadata, token, seqId);
+
+    int wrappedMetadataLength = wrappedMetadata.capacity();
+    byteBuf.setInt(offset, wrappedMetadataLength);
+    offset += WRAPPED_METADATA_LENGTH_SIZE;
+
+    byteBuf.setBytes(offset, wrappedMetadata, 0, wrappedMetadataLength);
+    offset += wrappedMetadataLength;
+
+    return offset;
+  }
+
+  private int encodePrefix(ByteBuf byteBuf, int header, int token, long seqId) {
+    byteBuf.setInt(0, header);
+    byteBuf.setLong(BitUtil.SIZE_OF_INT, seqId);
+    int offset = FrameHeaderFlyweight.computeFrameHeaderLength();
+
+    if (hasToken) {
+      byteBuf.setInt(offset, token);
+      offset += TOKEN_SIZE;
+    }
+
+    byteBuf.setBytes(offset, invariant);
+    offset += invariant.length;
+
+    return offset;
+  }
+}
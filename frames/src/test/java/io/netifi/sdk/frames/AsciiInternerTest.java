@@ -0,0 +1,41 @@
+package io.netifi.sdk.frames;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.nio.charset.StandardCharsets;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AsciiInternerTest {
+  @Test
+  public void testReturnsCachedString() {
+    AsciiInterner interner = new AsciiInterner(16);
+    ByteBuf first = Unpooled.wrappedBuffer("com.netifi.group".getBytes(StandardCharsets.US_ASCII));
+    ByteBuf second =
+        Unpooled.wrappedBuffer("xcom.netifi.group".getBytes(StandardCharsets.US_ASCII));
+
+    String interned = interner.intern(first, 0, 16);
+    Assert.assertEquals("com.netifi.group", interned);
+    Assert.assertSame(interned, interner.intern(second, 1, 16));
+    Assert.assertSame(interned, interner.intern(new AsciiSequence().wrap(second, 1, 16)));
+  }
+
+  @Test
+  public void testCollisionsReplaceSlot() {
+    // a single slot forces every name into the same slot
+    AsciiInterner interner = new AsciiInterner(1);
+    ByteBuf byteBuf = Unpooled.wrappedBuffer("groupAgroupB".getBytes(StandardCharsets.US_ASCII));
+
+    String a = interner.intern(byteBuf, 0, 6);
+    String b = interner.intern(byteBuf, 6, 6);
+    Assert.assertEquals("groupA", a);
+    Assert.assertEquals("groupB", b);
+    Assert.assertSame(b, interner.intern(byteBuf, 6, 6));
+    Assert.assertEquals("groupA", interner.intern(byteBuf, 0, 6));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidCapacity() {
+    new AsciiInterner(0);
+  }
+}
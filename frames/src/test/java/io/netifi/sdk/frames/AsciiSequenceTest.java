@@ -0,0 +1,53 @@
+package io.netifi.sdk.frames;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.nio.charset.StandardCharsets;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AsciiSequenceTest {
+  @Test
+  public void testWrap() {
+    ByteBuf byteBuf =
+        Unpooled.wrappedBuffer("xxcom.netifi.groupxx".getBytes(StandardCharsets.US_ASCII));
+    AsciiSequence view = new AsciiSequence().wrap(byteBuf, 2, 16);
+
+    Assert.assertEquals(16, view.length());
+    Assert.assertEquals('c', view.charAt(0));
+    Assert.assertEquals('p', view.charAt(15));
+    Assert.assertEquals("com.netifi.group", view.toString());
+    Assert.assertEquals("com.netifi.group".hashCode(), view.hashCode());
+    Assert.assertEquals("netifi", view.subSequence(4, 10).toString());
+    Assert.assertTrue(view.contentEquals("com.netifi.group"));
+    Assert.assertFalse(view.contentEquals("com.netifi.grouq"));
+    Assert.assertFalse(view.contentEquals("com.netifi"));
+  }
+
+  @Test
+  public void testEquals() {
+    ByteBuf first = Unpooled.wrappedBuffer("group".getBytes(StandardCharsets.US_ASCII));
+    ByteBuf second = Unpooled.wrappedBuffer("a group".getBytes(StandardCharsets.US_ASCII));
+
+    AsciiSequence a = new AsciiSequence().wrap(first, 0, 5);
+    AsciiSequence b = new AsciiSequence().wrap(second, 2, 5);
+    Assert.assertEquals(a, b);
+    Assert.assertEquals(a.hashCode(), b.hashCode());
+
+    b.wrap(second, 0, 5);
+    Assert.assertFalse(a.equals(b));
+  }
+
+  @Test
+  public void testEmpty() {
+    AsciiSequence view = new AsciiSequence().wrap(Unpooled.EMPTY_BUFFER, 0, 0);
+    Assert.assertEquals("", view.toString());
+    Assert.assertEquals(0, view.hashCode());
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testCharAtOutOfBounds() {
+    ByteBuf byteBuf = Unpooled.wrappedBuffer("group".getBytes(StandardCharsets.US_ASCII));
+    new AsciiSequence().wrap(byteBuf, 0, 3).charAt(3);
+  }
+}
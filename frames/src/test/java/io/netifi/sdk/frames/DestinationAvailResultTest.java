@@ -33,4 +33,19 @@ public class DestinationAvailResultTest {
     Assert.assertEquals(found, DestinationAvailResult.found(byteBuf));
     Assert.assertEquals(destination, DestinationAvailResult.destination(byteBuf));
   }
+
+  @Test
+  public void testDestinationViews() {
+    String destination = "dest.test.2";
+    ByteBuf byteBuf = Unpooled.buffer(DestinationAvailResult.computeLength(destination));
+    DestinationAvailResult.encode(byteBuf, destination, true, 0);
+
+    AsciiSequence view = new AsciiSequence();
+    Assert.assertTrue(DestinationAvailResult.destination(byteBuf, view).contentEquals(destination));
+
+    AsciiInterner interner = new AsciiInterner();
+    Assert.assertSame(
+        DestinationAvailResult.destination(byteBuf, interner),
+        DestinationAvailResult.destination(byteBuf, interner));
+  }
 }
@@ -104,4 +104,50 @@ public class DestinationSetupFlyweightTest {
     Assert.assertEquals(destination, DestinationSetupFlyweight.destination(byteBuf));
     Assert.assertEquals(group, DestinationSetupFlyweight.group(byteBuf));
   }
+
+  @Test
+  public void testDestinationAndGroupViews() {
+    String destination = "dest";
+    String group = "group";
+    int length = DestinationSetupFlyweight.computeLength(false, destination, group);
+    ByteBuf byteBuf = Unpooled.buffer(length);
+    DestinationSetupFlyweight.encode(
+        byteBuf,
+        Unpooled.EMPTY_BUFFER,
+        Unpooled.wrappedBuffer(new byte[20]),
+        0,
+        1,
+        destination,
+        group);
+
+    AsciiSequence view = new AsciiSequence();
+    Assert.assertTrue(
+        DestinationSetupFlyweight.destination(byteBuf, view).contentEquals(destination));
+    Assert.assertTrue(DestinationSetupFlyweight.group(byteBuf, view).contentEquals(group));
+
+    AsciiInterner interner = new AsciiInterner();
+    Assert.assertEquals(destination, DestinationSetupFlyweight.destination(byteBuf, interner));
+    Assert.assertEquals(group, DestinationSetupFlyweight.group(byteBuf, interner));
+  }
+
+  @Test
+  public void testEncodeMinorVersion() {
+    ByteBuf byteBuf = Unpooled.buffer(DestinationSetupFlyweight.computeLength(false, "d", "g"));
+    DestinationSetupFlyweight.encode(
+        byteBuf,
+        Unpooled.EMPTY_BUFFER,
+        Unpooled.wrappedBuffer(new byte[20]),
+        0,
+        1,
+        "d",
+        "g",
+        FrameHeaderFlyweight.ROUTE_DICTIONARY_MINOR_VERSION);
+
+    Assert.assertEquals(
+        FrameHeaderFlyweight.ROUTE_DICTIONARY_MINOR_VERSION,
+        FrameHeaderFlyweight.minorVersion(byteBuf));
+    Assert.assertEquals(
+        FrameHeaderFlyweight.MAJOR_VERSION, FrameHeaderFlyweight.majorVersion(byteBuf));
+    Assert.assertEquals("g", DestinationSetupFlyweight.group(byteBuf));
+  }
 }
@@ -0,0 +1,75 @@
+package io.netifi.sdk.frames;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.nio.charset.StandardCharsets;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FireAndForgetBatchFlyweightTest {
+  @Test
+  public void testEncode() {
+    ByteBuf route =
+        Unpooled.buffer(
+            RouteDestinationFlyweight.computeLength(RouteType.STREAM_ID_ROUTE, "toDest", "group"));
+    RouteDestinationFlyweight.encodeRouteByDestination(
+        route, RouteType.STREAM_ID_ROUTE, 7, "toDest", "group");
+
+    int length = FireAndForgetBatchFlyweight.computeLength(true, "dest", route);
+    ByteBuf byteBuf = Unpooled.buffer(length);
+    int encodeLength =
+        FireAndForgetBatchFlyweight.encode(byteBuf, true, 1234, 42, "dest", 5, route, 3);
+
+    Assert.assertEquals(length, encodeLength);
+    Assert.assertEquals(0, route.readerIndex());
+    Assert.assertTrue(FireAndForgetBatchFlyweight.isBatch(byteBuf));
+    Assert.assertEquals(1234, FireAndForgetBatchFlyweight.token(byteBuf));
+    Assert.assertEquals(42, FireAndForgetBatchFlyweight.accessKey(byteBuf));
+    Assert.assertEquals("dest", FireAndForgetBatchFlyweight.destination(byteBuf));
+    ByteBuf decodedRoute = FireAndForgetBatchFlyweight.route(byteBuf);
+    Assert.assertEquals("toDest", RouteDestinationFlyweight.destination(decodedRoute));
+    Assert.assertEquals(3, FireAndForgetBatchFlyweight.count(byteBuf));
+  }
+
+  @Test
+  public void testEntries() {
+    String[] metadata = {"m1", "", "metadata-3"};
+    String[] data = {"data-1", "d2", ""};
+
+    int length = 0;
+    for (int i = 0; i < metadata.length; i++) {
+      length +=
+          FireAndForgetBatchFlyweight.computeEntryLength(
+              metadata[i].length(), data[i].length());
+    }
+
+    ByteBuf byteBuf = Unpooled.buffer(length);
+    int offset = 0;
+    for (int i = 0; i < metadata.length; i++) {
+      offset =
+          FireAndForgetBatchFlyweight.encodeEntry(
+              byteBuf, offset, ascii(metadata[i]), ascii(data[i]));
+    }
+    Assert.assertEquals(length, offset);
+
+    offset = 0;
+    for (int i = 0; i < metadata.length; i++) {
+      Assert.assertEquals(
+          ascii(metadata[i]), FireAndForgetBatchFlyweight.entryMetadata(byteBuf, offset));
+      Assert.assertEquals(ascii(data[i]), FireAndForgetBatchFlyweight.entryData(byteBuf, offset));
+      offset = FireAndForgetBatchFlyweight.nextEntry(byteBuf, offset);
+    }
+    Assert.assertEquals(length, offset);
+  }
+
+  @Test
+  public void testRouteIsNotBatch() {
+    ByteBuf byteBuf = Unpooled.buffer(FrameHeaderFlyweight.computeFrameHeaderLength());
+    FrameHeaderFlyweight.encodeFrameHeader(byteBuf, FrameType.ROUTE, 0, 1);
+    Assert.assertFalse(FireAndForgetBatchFlyweight.isBatch(byteBuf));
+  }
+
+  private static ByteBuf ascii(String value) {
+    return Unpooled.wrappedBuffer(value.getBytes(StandardCharsets.US_ASCII));
+  }
+}
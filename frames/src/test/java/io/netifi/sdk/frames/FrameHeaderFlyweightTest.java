@@ -48,4 +48,18 @@ public class FrameHeaderFlyweightTest {
     Assert.assertFalse(FrameHeaderFlyweight.apiCall(buf));
     Assert.assertFalse(FrameHeaderFlyweight.token(buf));
   }
+
+  @Test
+  public void testEncodeBroadcastFlag() {
+    ByteBuf buf = Unpooled.buffer(FrameHeaderFlyweight.computeFrameHeaderLength());
+    int flags = FrameHeaderFlyweight.encodeFlags(true, true, false, true, false, true);
+    FrameHeaderFlyweight.encodeFrameHeader(buf, FrameType.ROUTE, flags, 1);
+
+    Assert.assertTrue(FrameHeaderFlyweight.broadcast(buf));
+    Assert.assertTrue(FrameHeaderFlyweight.token(buf));
+    Assert.assertFalse(FrameHeaderFlyweight.apiCall(buf));
+    Assert.assertEquals(
+        FrameHeaderFlyweight.encodeFlags(true, true, false, false, true),
+        flags & ~FrameHeaderFlyweight.BROADCAST);
+  }
 }
@@ -73,4 +73,26 @@ public class RouteDestinationFlyweightTest {
     CharSequence group1 = RouteDestinationFlyweight.group(byteBuf);
     Assert.assertEquals(group, group1);
   }
+
+  @Test
+  public void testDestinationAndGroupViews() {
+    String destination = "dest";
+    String group = "group";
+    int length =
+        RouteDestinationFlyweight.computeLength(RouteType.STREAM_ID_ROUTE, destination, group);
+    ByteBuf byteBuf = Unpooled.buffer(length);
+    RouteDestinationFlyweight.encodeRouteByDestination(
+        byteBuf, RouteType.STREAM_ID_ROUTE, 1, destination, group);
+
+    AsciiSequence view = new AsciiSequence();
+    Assert.assertTrue(
+        RouteDestinationFlyweight.destination(byteBuf, view).contentEquals(destination));
+    Assert.assertTrue(RouteDestinationFlyweight.group(byteBuf, view).contentEquals(group));
+
+    AsciiInterner interner = new AsciiInterner();
+    Assert.assertEquals(destination, RouteDestinationFlyweight.destination(byteBuf, interner));
+    Assert.assertSame(
+        RouteDestinationFlyweight.group(byteBuf, interner),
+        RouteDestinationFlyweight.group(byteBuf, interner));
+  }
 }
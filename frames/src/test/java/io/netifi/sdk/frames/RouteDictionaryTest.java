@@ -0,0 +1,128 @@
+package io.netifi.sdk.frames;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RouteDictionaryTest {
+  private static ByteBuf route() {
+    ByteBuf route =
+        Unpooled.buffer(
+            RouteDestinationFlyweight.computeLength(RouteType.STREAM_ID_ROUTE, "toDest", "group"));
+    return route.writerIndex(
+        RouteDestinationFlyweight.encodeRouteByDestination(
+            route, RouteType.STREAM_ID_ROUTE, 7, "toDest", "group"));
+  }
+
+  private static ByteBuf encode(
+      RouteDictionaryEntry origin, RouteDictionaryEntry route, ByteBuf metadata) {
+    ByteBuf byteBuf =
+        Unpooled.buffer(RoutingFlyweight.computeLength(true, origin, route, metadata));
+    int length = RoutingFlyweight.encode(byteBuf, true, 1234, 42, origin, 5, route, metadata);
+    Assert.assertEquals(byteBuf.capacity(), length);
+    return byteBuf.writerIndex(length);
+  }
+
+  @Test
+  public void testLiteralsUntilAcknowledged() {
+    byte[] metadata = new byte[20];
+    ThreadLocalRandom.current().nextBytes(metadata);
+    ByteBuf route = route();
+
+    RouteDictionaryEncoder encoder = new RouteDictionaryEncoder();
+    RouteDictionaryDecoder dictionary = new RouteDictionaryDecoder();
+    RoutingDecoder decoder = new RoutingDecoder(dictionary);
+
+    RouteDictionaryEntry origin = encoder.origin("dest");
+    RouteDictionaryEntry routeEntry = encoder.route(route);
+    Assert.assertTrue(origin.isLiteral());
+    Assert.assertTrue(origin.isIndexed());
+    Assert.assertTrue(origin.id() != routeEntry.id());
+    Assert.assertSame(origin, encoder.origin("dest"));
+
+    ByteBuf first = encode(origin, routeEntry, Unpooled.wrappedBuffer(metadata));
+    Assert.assertTrue(RoutingFlyweight.usesRouteDictionary(first));
+    decoder.wrap(first);
+    Assert.assertEquals(2, dictionary.size());
+    Assert.assertEquals("dest", decoder.destination());
+    Assert.assertEquals(route, decoder.route());
+    Assert.assertEquals(Unpooled.wrappedBuffer(metadata), decoder.wrappedMetadata());
+    Assert.assertEquals(Unpooled.wrappedBuffer(metadata), RoutingFlyweight.wrappedMetadata(first));
+
+    encoder.acknowledge("dest".getBytes());
+    byte[] routeBytes = new byte[route.capacity()];
+    route.getBytes(0, routeBytes);
+    encoder.acknowledge(routeBytes);
+
+    origin = encoder.origin("dest");
+    routeEntry = encoder.route(route);
+    Assert.assertFalse(origin.isLiteral());
+    Assert.assertFalse(routeEntry.isLiteral());
+
+    ByteBuf second = encode(origin, routeEntry, Unpooled.wrappedBuffer(metadata));
+    Assert.assertTrue(second.capacity() < first.capacity());
+    Assert.assertTrue(
+        second.capacity() < RoutingFlyweight.computeLength(true, "dest", route, second));
+
+    decoder.wrap(second);
+    Assert.assertEquals(1234, decoder.token());
+    Assert.assertEquals(42, decoder.accessKey());
+    Assert.assertEquals("dest", decoder.destination());
+    Assert.assertEquals(route, decoder.route());
+    Assert.assertEquals(Unpooled.wrappedBuffer(metadata), decoder.wrappedMetadata());
+    Assert.assertEquals(Unpooled.wrappedBuffer(metadata), RoutingFlyweight.wrappedMetadata(second));
+
+    RouteDestinationDecoder routeDecoder =
+        new RouteDestinationDecoder()
+            .wrap(decoder.routeByteBuf(), decoder.routeOffset(), decoder.routeLength());
+    Assert.assertEquals("toDest", routeDecoder.destination());
+    Assert.assertEquals("group", routeDecoder.group());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testUnknownReference() {
+    RouteDictionaryEncoder encoder = new RouteDictionaryEncoder();
+    encoder.origin("dest");
+    encoder.acknowledge("dest".getBytes());
+
+    ByteBuf frame =
+        encode(encoder.origin("dest"), encoder.route(route()), Unpooled.wrappedBuffer(new byte[1]));
+    new RoutingDecoder(new RouteDictionaryDecoder()).wrap(frame);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testRequiresDictionary() {
+    RouteDictionaryEncoder encoder = new RouteDictionaryEncoder();
+    ByteBuf frame =
+        encode(encoder.origin("dest"), encoder.route(route()), Unpooled.wrappedBuffer(new byte[1]));
+    new RoutingDecoder().wrap(frame);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testStaticDestinationRejectsDictionary() {
+    RouteDictionaryEncoder encoder = new RouteDictionaryEncoder();
+    ByteBuf frame =
+        encode(encoder.origin("dest"), encoder.route(route()), Unpooled.wrappedBuffer(new byte[1]));
+    RoutingFlyweight.destination(frame);
+  }
+
+  @Test
+  public void testFullDictionarySendsLiterals() {
+    RouteDictionaryEncoder encoder = new RouteDictionaryEncoder();
+    for (int i = 0; i < RouteDictionaryEncoder.MAX_ID; i++) {
+      Assert.assertTrue(encoder.origin("dest-" + i).isIndexed());
+    }
+
+    RouteDictionaryEntry entry = encoder.origin("one-too-many");
+    Assert.assertTrue(entry.isLiteral());
+    Assert.assertFalse(entry.isIndexed());
+
+    RouteDictionaryDecoder dictionary = new RouteDictionaryDecoder();
+    RoutingDecoder decoder = new RoutingDecoder(dictionary);
+    decoder.wrap(encode(entry, encoder.route(route()), Unpooled.wrappedBuffer(new byte[1])));
+    Assert.assertEquals("one-too-many", decoder.destination());
+    Assert.assertEquals(0, dictionary.size());
+  }
+}
@@ -0,0 +1,194 @@
+package io.netifi.sdk.frames;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RoutingDecoderTest {
+  private static ByteBuf route(String destination, String group) {
+    int length =
+        RouteDestinationFlyweight.computeLength(RouteType.STREAM_ID_ROUTE, destination, group);
+    ByteBuf route = Unpooled.buffer(length);
+    int encodeLength =
+        RouteDestinationFlyweight.encodeRouteByDestination(
+            route, RouteType.STREAM_ID_ROUTE, 7, destination, group);
+    return route.writerIndex(encodeLength);
+  }
+
+  @Test
+  public void testDecodeWithTokenAndMetadata() {
+    byte[] metadata = new byte[128];
+    ThreadLocalRandom.current().nextBytes(metadata);
+    ByteBuf route = route("toDest", "group");
+
+    int length =
+        RoutingFlyweight.computeLength(true, "dest", route, Unpooled.wrappedBuffer(metadata));
+    ByteBuf byteBuf = Unpooled.buffer(length);
+    int encodeLength =
+        RoutingFlyweight.encode(
+            byteBuf,
+            true,
+            1234,
+            42,
+            "dest",
+            5,
+            route.duplicate(),
+            Unpooled.wrappedBuffer(metadata));
+    byteBuf.writerIndex(encodeLength);
+
+    RoutingDecoder decoder = new RoutingDecoder().wrap(byteBuf);
+    Assert.assertEquals(5, decoder.seqId());
+    Assert.assertTrue(decoder.hasToken());
+    Assert.assertEquals(1234, decoder.token());
+    Assert.assertEquals(42, decoder.accessKey());
+    Assert.assertEquals("dest", decoder.destination());
+    Assert.assertTrue(decoder.destination(new AsciiSequence()).contentEquals("dest"));
+    Assert.assertEquals("dest", decoder.destination(new AsciiInterner()));
+    Assert.assertEquals(RoutingFlyweight.route(byteBuf), decoder.route());
+    Assert.assertTrue(decoder.hasWrappedMetadata());
+    Assert.assertEquals(Unpooled.wrappedBuffer(metadata), decoder.wrappedMetadata());
+
+    RouteDestinationDecoder routeDecoder =
+        new RouteDestinationDecoder()
+            .wrap(decoder.routeByteBuf(), decoder.routeOffset(), decoder.routeLength());
+    Assert.assertEquals(RouteType.STREAM_ID_ROUTE, routeDecoder.routeType());
+    Assert.assertEquals(7, routeDecoder.accountId());
+    Assert.assertEquals("toDest", routeDecoder.destination());
+    Assert.assertEquals("group", routeDecoder.group());
+  }
+
+  @Test
+  public void testDecodeWithoutTokenOrMetadata() {
+    ByteBuf route = route("toDest", "group");
+    ByteBuf byteBuf = Unpooled.buffer(RoutingFlyweight.computeLength(false, "dest", route));
+    byteBuf.writerIndex(RoutingFlyweight.encode(byteBuf, false, 0, 42, "dest", 5, route));
+
+    RoutingDecoder decoder = new RoutingDecoder().wrap(byteBuf);
+    Assert.assertFalse(decoder.hasToken());
+    Assert.assertFalse(decoder.hasWrappedMetadata());
+    Assert.assertEquals(42, decoder.accessKey());
+    Assert.assertEquals("dest", decoder.destination());
+    Assert.assertEquals(route.capacity(), decoder.routeLength());
+  }
+
+  @Test
+  public void testReuse() {
+    ByteBuf first = Unpooled.buffer(64);
+    first.writerIndex(RoutingFlyweight.encode(first, false, 0, 1, "first", 1, route("a", "b")));
+    ByteBuf second = Unpooled.buffer(64);
+    second.writerIndex(RoutingFlyweight.encode(second, false, 0, 2, "second", 2, route("c", "d")));
+
+    RoutingDecoder decoder = new RoutingDecoder();
+    Assert.assertEquals("first", decoder.wrap(first).destination());
+    Assert.assertEquals("second", decoder.wrap(second).destination());
+    Assert.assertEquals(2, decoder.accessKey());
+  }
+
+  @Test
+  public void testFailedWrapKeepsThePreviousFrame() {
+    byte[] metadata = new byte[16];
+    ThreadLocalRandom.current().nextBytes(metadata);
+    ByteBuf first = Unpooled.buffer(128);
+    first.writerIndex(
+        RoutingFlyweight.encode(
+            first, true, 1, 1, "first", 1, route("a", "b"), Unpooled.wrappedBuffer(metadata)));
+
+    // a frame that is only cut short in its metadata
+    ByteBuf second = Unpooled.buffer(128);
+    int length =
+        RoutingFlyweight.encode(
+            second, true, 2, 2, "second", 2, route("c", "d"), Unpooled.wrappedBuffer(metadata));
+    second.writerIndex(length - 1);
+
+    RoutingDecoder decoder = new RoutingDecoder().wrap(first);
+    try {
+      decoder.wrap(second);
+      Assert.fail("expected the truncated frame to be rejected");
+    } catch (IllegalStateException expected) {
+    }
+
+    Assert.assertEquals(1, decoder.token());
+    Assert.assertEquals(1, decoder.accessKey());
+    Assert.assertEquals("first", decoder.destination());
+    Assert.assertEquals(RoutingFlyweight.route(first), decoder.route());
+    Assert.assertEquals(Unpooled.wrappedBuffer(metadata), decoder.wrappedMetadata());
+  }
+
+  @Test
+  public void testFailedWrapStoresNoDictionaryEntries() {
+    RouteDictionaryEncoder encoder = new RouteDictionaryEncoder();
+    ByteBuf byteBuf = Unpooled.buffer(128);
+    int length =
+        RoutingFlyweight.encode(
+            byteBuf,
+            true,
+            1,
+            1,
+            encoder.origin("dest"),
+            1,
+            encoder.route(route("toDest", "group")),
+            Unpooled.wrappedBuffer(new byte[16]));
+    byteBuf.writerIndex(length - 1);
+
+    RouteDictionaryDecoder dictionary = new RouteDictionaryDecoder();
+    try {
+      new RoutingDecoder(dictionary).wrap(byteBuf);
+      Assert.fail("expected the truncated frame to be rejected");
+    } catch (IllegalStateException expected) {
+    }
+    Assert.assertEquals(0, dictionary.size());
+
+    byteBuf.writerIndex(length);
+    Assert.assertEquals("dest", new RoutingDecoder(dictionary).wrap(byteBuf).destination());
+    Assert.assertEquals(2, dictionary.size());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testTruncatedFrame() {
+    ByteBuf route = route("toDest", "group");
+    ByteBuf byteBuf = Unpooled.buffer(RoutingFlyweight.computeLength(false, "dest", route));
+    int encodeLength = RoutingFlyweight.encode(byteBuf, false, 0, 42, "dest", 5, route);
+    byteBuf.writerIndex(encodeLength - 1);
+
+    new RoutingDecoder().wrap(byteBuf);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testWrongFrameType() {
+    ByteBuf byteBuf = Unpooled.buffer(FrameHeaderFlyweight.computeFrameHeaderLength());
+    byteBuf.writerIndex(
+        FrameHeaderFlyweight.encodeFrameHeader(byteBuf, FrameType.DESTINATION_SETUP, 0, 1));
+
+    new RoutingDecoder().wrap(byteBuf);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testNoMetadata() {
+    ByteBuf route = route("toDest", "group");
+    ByteBuf byteBuf = Unpooled.buffer(RoutingFlyweight.computeLength(false, "dest", route));
+    byteBuf.writerIndex(RoutingFlyweight.encode(byteBuf, false, 0, 42, "dest", 5, route));
+
+    new RoutingDecoder().wrap(byteBuf).wrappedMetadata();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testTruncatedRoute() {
+    ByteBuf route = route("toDest", "group");
+    new RouteDestinationDecoder().wrap(route, 0, route.readableBytes() - 1);
+  }
+
+  @Test
+  public void testRouteByGroup() {
+    ByteBuf route = Unpooled.buffer(64);
+    route.writerIndex(
+        RouteDestinationFlyweight.encodeRouteByGroup(
+            route, RouteType.STREAM_GROUP_ROUTE, 3, "group"));
+
+    RouteDestinationDecoder decoder = new RouteDestinationDecoder().wrap(route);
+    Assert.assertEquals(RouteType.STREAM_GROUP_ROUTE, decoder.routeType());
+    Assert.assertFalse(decoder.hasDestination());
+    Assert.assertEquals("group", decoder.group());
+  }
+}
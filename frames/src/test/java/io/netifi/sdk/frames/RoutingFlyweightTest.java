@@ -85,6 +85,37 @@ public class RoutingFlyweightTest {
     }
   }
 
+  @Test
+  public void testEncodeTwiceWithTheSameBuffers() {
+    byte[] metadata = new byte[64];
+    ThreadLocalRandom.current().nextBytes(metadata);
+    ByteBuf wrappedMetadata = Unpooled.wrappedBuffer(metadata);
+
+    ByteBuf route =
+        Unpooled.wrappedBuffer(
+            new byte
+                [RouteDestinationFlyweight.computeLength(
+                    RouteType.STREAM_ID_ROUTE, "toDest", "group")]);
+    RouteDestinationFlyweight.encodeRouteByDestination(
+        route, RouteType.STREAM_ID_ROUTE, 1, "toDest", "group");
+
+    int length = RoutingFlyweight.computeLength(true, "dest", route, wrappedMetadata);
+    ByteBuf first = Unpooled.buffer(length);
+    ByteBuf second = Unpooled.buffer(length);
+    RoutingFlyweight.encode(first, true, 1234, 1, "dest", 1, route, wrappedMetadata);
+    RoutingFlyweight.encode(second, true, 1234, 1, "dest", 1, route, wrappedMetadata);
+
+    Assert.assertEquals(0, route.readerIndex());
+    Assert.assertEquals(0, wrappedMetadata.readerIndex());
+    Assert.assertEquals(route, RoutingFlyweight.route(second));
+    Assert.assertEquals(wrappedMetadata, RoutingFlyweight.wrappedMetadata(second));
+    byte[] firstBytes = new byte[length];
+    byte[] secondBytes = new byte[length];
+    first.getBytes(0, firstBytes);
+    second.getBytes(0, secondBytes);
+    Assert.assertArrayEquals(firstBytes, secondBytes);
+  }
+
   @Test
   public void testEncodeWithMetadataAndToken() {
     String fromDestination = "dest";
@@ -145,4 +176,26 @@ public class RoutingFlyweightTest {
       Assert.assertEquals("byte at index " + i + " not equal ", b1, b2);
     }
   }
+
+  @Test
+  public void testDestinationViews() {
+    String fromDestination = "fromDest";
+    int routeLength =
+        RouteDestinationFlyweight.computeLength(RouteType.STREAM_ID_ROUTE, "toDest", "group");
+    ByteBuf route = Unpooled.buffer(routeLength);
+    RouteDestinationFlyweight.encodeRouteByDestination(
+        route, RouteType.STREAM_ID_ROUTE, 1, "toDest", "group");
+
+    ByteBuf byteBuf = Unpooled.buffer(RoutingFlyweight.computeLength(true, fromDestination, route));
+    RoutingFlyweight.encode(byteBuf, true, 1234, 1, fromDestination, 1, route);
+
+    AsciiSequence view = new AsciiSequence();
+    Assert.assertSame(view, RoutingFlyweight.destination(byteBuf, view));
+    Assert.assertTrue(view.contentEquals(fromDestination));
+
+    AsciiInterner interner = new AsciiInterner();
+    String interned = RoutingFlyweight.destination(byteBuf, interner);
+    Assert.assertEquals(fromDestination, interned);
+    Assert.assertSame(interned, RoutingFlyweight.destination(byteBuf, interner));
+  }
 }
@@ -0,0 +1,125 @@
+package io.netifi.sdk.frames;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** */
+public class RoutingHeaderTemplateTest {
+
+  @Test
+  public void testEncodeMatchesRoutingFlyweight() {
+    String fromDestination = "dest";
+    ByteBuf route = route("toDest", "group");
+    byte[] metadata = new byte[1024];
+    ThreadLocalRandom.current().nextBytes(metadata);
+    ByteBuf wrappedMetadata = Unpooled.wrappedBuffer(metadata);
+
+    RoutingHeaderTemplate template = new RoutingHeaderTemplate(true, 1, fromDestination, route);
+
+    int length = template.computeLength(wrappedMetadata);
+    Assert.assertEquals(
+        RoutingFlyweight.computeLength(true, fromDestination, route, wrappedMetadata), length);
+
+    byte[] expected = new byte[length];
+    RoutingFlyweight.encode(
+        Unpooled.wrappedBuffer(expected),
+        true,
+        1234,
+        1,
+        fromDestination,
+        42,
+        route.slice(),
+        wrappedMetadata.slice());
+
+    byte[] actual = new byte[length];
+    int encodedLength = template.encode(Unpooled.wrappedBuffer(actual), 1234, 42, wrappedMetadata);
+
+    Assert.assertEquals(length, encodedLength);
+    Assert.assertArrayEquals(expected, actual);
+  }
+
+  @Test
+  public void testEncodeNoMetadataNoToken() {
+    String fromDestination = "dest";
+    ByteBuf route = route("toDest", "group");
+
+    RoutingHeaderTemplate template = new RoutingHeaderTemplate(false, 7, fromDestination, route);
+
+    int length = template.computeLength();
+    Assert.assertEquals(RoutingFlyweight.computeLength(false, fromDestination, route), length);
+
+    ByteBuf byteBuf = Unpooled.wrappedBuffer(new byte[length]);
+    int encodedLength = template.encode(byteBuf, 0, 42);
+
+    Assert.assertEquals(length, encodedLength);
+    Assert.assertFalse(FrameHeaderFlyweight.token(byteBuf));
+    Assert.assertFalse(FrameHeaderFlyweight.hasMetadata(byteBuf));
+    Assert.assertEquals(FrameType.ROUTE, FrameHeaderFlyweight.frameType(byteBuf));
+    Assert.assertEquals(42, FrameHeaderFlyweight.seqId(byteBuf));
+    Assert.assertEquals(7, RoutingFlyweight.accessKey(byteBuf));
+    Assert.assertEquals(fromDestination, RoutingFlyweight.destination(byteBuf));
+  }
+
+  @Test
+  public void testReusedAcrossRequests() {
+    ByteBuf route = route("toDest", "group");
+    RoutingHeaderTemplate template = new RoutingHeaderTemplate(true, 1, "dest", route);
+
+    for (int i = 0; i < 3; i++) {
+      byte[] metadata = new byte[16 + i];
+      ThreadLocalRandom.current().nextBytes(metadata);
+      ByteBuf wrappedMetadata = Unpooled.wrappedBuffer(metadata);
+
+      ByteBuf byteBuf = Unpooled.wrappedBuffer(new byte[template.computeLength(wrappedMetadata)]);
+      template.encode(byteBuf, i, i, wrappedMetadata);
+
+      Assert.assertEquals(i, RoutingFlyweight.token(byteBuf));
+      Assert.assertEquals(i, FrameHeaderFlyweight.seqId(byteBuf));
+
+      ByteBuf routeFromByteBuf = RoutingFlyweight.route(byteBuf);
+      Assert.assertEquals("toDest", RouteDestinationFlyweight.destination(routeFromByteBuf));
+      Assert.assertEquals("group", RouteDestinationFlyweight.group(routeFromByteBuf));
+
+      byte[] metadataFromByteBuf = new byte[metadata.length];
+      RoutingFlyweight.wrappedMetadata(byteBuf).getBytes(0, metadataFromByteBuf);
+      Assert.assertArrayEquals(metadata, metadataFromByteBuf);
+    }
+
+    Assert.assertEquals(0, route.readerIndex());
+  }
+
+  @Test
+  public void testBroadcast() {
+    int length = RouteDestinationFlyweight.computeLength(RouteType.STREAM_GROUP_ROUTE, "group");
+    ByteBuf route = Unpooled.wrappedBuffer(new byte[length]);
+    RouteDestinationFlyweight.encodeRouteByGroup(
+        route, RouteType.STREAM_GROUP_ROUTE, Long.MAX_VALUE, "group");
+    ByteBuf wrappedMetadata = Unpooled.wrappedBuffer(new byte[16]);
+
+    RoutingHeaderTemplate template = new RoutingHeaderTemplate(true, true, 1, "dest", route);
+    ByteBuf byteBuf = Unpooled.wrappedBuffer(new byte[template.computeLength(wrappedMetadata)]);
+    template.encode(byteBuf, 1234, 42, wrappedMetadata);
+
+    Assert.assertTrue(FrameHeaderFlyweight.broadcast(byteBuf));
+    Assert.assertTrue(FrameHeaderFlyweight.token(byteBuf));
+    Assert.assertTrue(FrameHeaderFlyweight.hasMetadata(byteBuf));
+    Assert.assertEquals(1234, RoutingFlyweight.token(byteBuf));
+    Assert.assertEquals("group", RouteDestinationFlyweight.group(RoutingFlyweight.route(byteBuf)));
+
+    template = new RoutingHeaderTemplate(true, 1, "dest", route);
+    template.encode(byteBuf, 1234, 42, wrappedMetadata);
+    Assert.assertFalse(FrameHeaderFlyweight.broadcast(byteBuf));
+  }
+
+  private static ByteBuf route(String toDestination, String group) {
+    int length =
+        RouteDestinationFlyweight.computeLength(RouteType.STREAM_ID_ROUTE, toDestination, group);
+    ByteBuf route = Unpooled.wrappedBuffer(new byte[length]);
+    RouteDestinationFlyweight.encodeRouteByDestination(
+        route, RouteType.STREAM_ID_ROUTE, Long.MAX_VALUE, toDestination, group);
+    return route;
+  }
+}